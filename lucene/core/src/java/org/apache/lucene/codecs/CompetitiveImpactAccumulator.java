@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.lucene.index.Impact;
+
+/**
+ * This class accumulates the (freq, norm) pairs that may produce competitive scores.
+ * @lucene.internal
+ */
+public final class CompetitiveImpactAccumulator {
+
+  // We speed up accumulation for common norm values by first computing
+  // the max freq for all norms in -128..127
+  private final int[] maxFreqs;
+  private boolean dirty;
+  // Max freqs for norms that are not in the -128..127 range, sorted by norm
+  // using unsigned comparison
+  private final TreeMap<Long, Integer> otherMaxFreqs;
+
+  /** Sole constructor. */
+  public CompetitiveImpactAccumulator() {
+    maxFreqs = new int[256];
+    otherMaxFreqs = new TreeMap<>(Long::compareUnsigned);
+  }
+
+  /** Reset to the same state it was in after creation. */
+  public void clear() {
+    if (dirty) {
+      Arrays.fill(maxFreqs, 0);
+      dirty = false;
+    }
+    otherMaxFreqs.clear();
+  }
+
+  /** Accumulate a (freq,norm) pair, updating this structure if there is no
+   *  equivalent or more competitive entry already. */
+  public void add(int freq, long norm) {
+    if (norm >= Byte.MIN_VALUE && norm <= Byte.MAX_VALUE) {
+      int index = Byte.toUnsignedInt((byte) norm);
+      if (freq > maxFreqs[index]) {
+        maxFreqs[index] = freq;
+        dirty = true;
+      }
+    } else {
+      otherMaxFreqs.merge(norm, freq, Math::max);
+    }
+  }
+
+  /** Merge {@code acc} into this. */
+  public void addAll(CompetitiveImpactAccumulator acc) {
+    if (acc.dirty) {
+      for (int i = 0; i < maxFreqs.length; ++i) {
+        if (acc.maxFreqs[i] > maxFreqs[i]) {
+          maxFreqs[i] = acc.maxFreqs[i];
+          dirty = true;
+        }
+      }
+    }
+    for (Map.Entry<Long, Integer> entry : acc.otherMaxFreqs.entrySet()) {
+      otherMaxFreqs.merge(entry.getKey(), entry.getValue(), Math::max);
+    }
+  }
+
+  /** Get the set of competitive freq and norm pairs, ordered by increasing
+   *  freq and decreasing norm, using unsigned comparison for norms. */
+  public List<Impact> getCompetitiveFreqNormPairs() {
+    // Iterate over norms by decreasing norm (unsigned), and only retain pairs
+    // whose freq is greater than the freq of all pairs that have a greater
+    // norm. In unsigned order, -128..-1 are the greatest norms, followed by
+    // non-byte norms, followed by 0..127.
+    List<Impact> impacts = new ArrayList<>();
+    int maxFreqForGreaterNorms = 0;
+    for (int norm = -1; norm >= Byte.MIN_VALUE; --norm) {
+      maxFreqForGreaterNorms = maybeAdd(impacts, maxFreqs[Byte.toUnsignedInt((byte) norm)], norm, maxFreqForGreaterNorms);
+    }
+    for (Map.Entry<Long, Integer> entry : otherMaxFreqs.descendingMap().entrySet()) {
+      maxFreqForGreaterNorms = maybeAdd(impacts, entry.getValue(), entry.getKey(), maxFreqForGreaterNorms);
+    }
+    for (int norm = Byte.MAX_VALUE; norm >= 0; --norm) {
+      maxFreqForGreaterNorms = maybeAdd(impacts, maxFreqs[norm], norm, maxFreqForGreaterNorms);
+    }
+    return impacts;
+  }
+
+  private static int maybeAdd(List<Impact> impacts, int freq, long norm, int maxFreqForGreaterNorms) {
+    if (freq > maxFreqForGreaterNorms) {
+      impacts.add(new Impact(freq, norm));
+      return freq;
+    }
+    return maxFreqForGreaterNorms;
+  }
+
+  @Override
+  public String toString() {
+    return getCompetitiveFreqNormPairs().toString();
+  }
+}
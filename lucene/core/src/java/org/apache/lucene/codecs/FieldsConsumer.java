@@ -77,13 +77,31 @@ public abstract class FieldsConsumer implements Closeable {
    *  </ul>
    */
   public abstract void write(Fields fields) throws IOException;
-  
+
+  /** Same as {@link #write(Fields)}, but also gives access to the norms
+   *  of the segment being written so that implementations can record
+   *  impacts. {@code norms} is null if the segment has no norms. The
+   *  default implementation ignores norms and calls {@link #write(Fields)}.
+   *  @lucene.experimental */
+  public void write(Fields fields, NormsProducer norms) throws IOException {
+    write(fields);
+  }
+
   /** Merges in the fields from the readers in 
-   *  <code>mergeState</code>. The default implementation skips
-   *  and maps around deleted documents, and calls {@link #write(Fields)}.
-   *  Implementations can override this method for more sophisticated
-   *  merging (bulk-byte copying, etc). */
+   *  <code>mergeState</code>. The default implementation calls
+   *  {@link #merge(MergeState, NormsProducer)} without norms. */
   public void merge(MergeState mergeState) throws IOException {
+    merge(mergeState, null);
+  }
+
+  /** Merges in the fields from the readers in 
+   *  <code>mergeState</code>, with access to the already merged
+   *  norms. The default implementation skips
+   *  and maps around deleted documents, and calls {@link #write(Fields, NormsProducer)}.
+   *  Implementations can override this method for more sophisticated
+   *  merging (bulk-byte copying, etc).
+   *  @lucene.experimental */
+  public void merge(MergeState mergeState, NormsProducer norms) throws IOException {
     final List<Fields> fields = new ArrayList<>();
     final List<ReaderSlice> slices = new ArrayList<>();
 
@@ -102,7 +120,7 @@ public abstract class FieldsConsumer implements Closeable {
     Fields mergedFields = new MappedMultiFields(mergeState, 
                                                 new MultiFields(fields.toArray(Fields.EMPTY_ARRAY),
                                                                 slices.toArray(ReaderSlice.EMPTY_ARRAY)));
-    write(mergedFields);
+    write(mergedFields, norms);
   }
 
   // NOTE: strange but necessary so javadocs linting is happy:
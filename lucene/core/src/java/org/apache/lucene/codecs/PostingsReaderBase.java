@@ -20,9 +20,11 @@ package org.apache.lucene.codecs;
 import java.io.Closeable;
 import java.io.IOException;
 
+import org.apache.lucene.index.ImpactsEnum;
 import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.SlowImpactsEnum;
 import org.apache.lucene.store.DataInput;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.util.Accountable;
@@ -65,6 +67,18 @@ public abstract class PostingsReaderBase implements Closeable, Accountable {
   /** Must fully consume state, since after this call that
    *  TermState may be reused. */
   public abstract PostingsEnum postings(FieldInfo fieldInfo, BlockTermState state, PostingsEnum reuse, int flags) throws IOException;
+
+  /**
+   * Return a {@link ImpactsEnum} for the given term state.
+   * The default implementation wraps {@link #postings} into a
+   * {@link SlowImpactsEnum}. Must fully consume state, since after this call
+   * that TermState may be reused.
+   * @see #postings(FieldInfo, BlockTermState, PostingsEnum, int)
+   * @lucene.experimental
+   */
+  public ImpactsEnum impacts(FieldInfo fieldInfo, BlockTermState state, int flags) throws IOException {
+    return new SlowImpactsEnum(postings(fieldInfo, state, null, flags));
+  }
   
   /** 
    * Checks consistency of this reader.
@@ -62,6 +62,15 @@ public abstract class PostingsWriterBase implements Closeable {
    *  terms dict will skip the term. */
   public abstract BlockTermState writeTerm(BytesRef term, TermsEnum termsEnum, FixedBitSet docsSeen) throws IOException;
 
+  /** Same as {@link #writeTerm(BytesRef, TermsEnum, FixedBitSet)}, but also
+   *  gives access to the norms of the segment being written, which may be
+   *  used to record impacts. {@code norms} may be null if norms are not
+   *  available. The default implementation ignores norms.
+   *  @lucene.experimental */
+  public BlockTermState writeTerm(BytesRef term, TermsEnum termsEnum, FixedBitSet docsSeen, NormsProducer norms) throws IOException {
+    return writeTerm(term, termsEnum, docsSeen);
+  }
+
   /**
    * Encode metadata as long[] and byte[]. {@code absolute} controls whether 
    * current term is delta encoded according to latest term. 
@@ -22,6 +22,7 @@ import java.io.IOException;
 import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
@@ -76,6 +77,14 @@ public abstract class PushPostingsWriterBase extends PostingsWriterBase {
    *  document. */
   public abstract void startTerm() throws IOException;
 
+  /** Start a new term, with access to the norms of the current field, or
+   *  null if norms are not available. The default implementation ignores
+   *  norms and calls {@link #startTerm()}.
+   *  @lucene.experimental */
+  public void startTerm(NumericDocValues norms) throws IOException {
+    startTerm();
+  }
+
   /** Finishes the current term.  The provided {@link
    *  BlockTermState} contains the term's summary statistics, 
    *  and will holds metadata from PBF when returned */
@@ -118,7 +127,18 @@ public abstract class PushPostingsWriterBase extends PostingsWriterBase {
 
   @Override
   public final BlockTermState writeTerm(BytesRef term, TermsEnum termsEnum, FixedBitSet docsSeen) throws IOException {
-    startTerm();
+    return writeTerm(term, termsEnum, docsSeen, null);
+  }
+
+  @Override
+  public final BlockTermState writeTerm(BytesRef term, TermsEnum termsEnum, FixedBitSet docsSeen, NormsProducer norms) throws IOException {
+    NumericDocValues normValues;
+    if (norms == null || fieldInfo.hasNorms() == false) {
+      normValues = null;
+    } else {
+      normValues = norms.getNorms(fieldInfo);
+    }
+    startTerm(normValues);
     postingsEnum = termsEnum.postings(postingsEnum, enumFlags);
     assert postingsEnum != null;
 
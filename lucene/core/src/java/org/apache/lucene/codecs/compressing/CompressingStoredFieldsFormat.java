@@ -44,6 +44,28 @@ import org.apache.lucene.store.IOContext;
  */
 public class CompressingStoredFieldsFormat extends StoredFieldsFormat {
 
+  private static volatile StoredFieldsBlockCache defaultBlockCache = null;
+
+  /**
+   * Expert: set the cache of decompressed blocks of documents that readers
+   * of segments that are opened afterwards use, or null to not cache
+   * decompressed blocks, which is the default. This cache is shared by all
+   * {@link CompressingStoredFieldsFormat}s, including the stored fields
+   * formats of the default codecs.
+   */
+  public static void setDefaultBlockCache(StoredFieldsBlockCache blockCache) {
+    defaultBlockCache = blockCache;
+  }
+
+  /**
+   * Expert: get the cache of decompressed blocks of documents that newly
+   * opened readers use, or null if blocks are not cached.
+   * @see #setDefaultBlockCache
+   */
+  public static StoredFieldsBlockCache getDefaultBlockCache() {
+    return defaultBlockCache;
+  }
+
   private final String formatName;
   private final String segmentSuffix;
   private final CompressionMode compressionMode;
@@ -119,7 +141,7 @@ public class CompressingStoredFieldsFormat extends StoredFieldsFormat {
   public StoredFieldsReader fieldsReader(Directory directory, SegmentInfo si,
       FieldInfos fn, IOContext context) throws IOException {
     return new CompressingStoredFieldsReader(directory, si, segmentSuffix, fn, 
-        context, formatName, compressionMode);
+        context, formatName, compressionMode, defaultBlockCache);
   }
 
   @Override
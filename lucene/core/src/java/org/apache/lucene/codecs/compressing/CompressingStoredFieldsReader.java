@@ -90,6 +90,8 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
   private final BlockState state;
   private final long numChunks; // number of compressed blocks written
   private final long numDirtyChunks; // number of incomplete compressed blocks written
+  private final StoredFieldsBlockCache blockCache; // may be null
+  private final Object blockCacheKey; // the reader that was opened on the segment
   private boolean closed;
 
   // used by clone
@@ -107,14 +109,27 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
     this.numChunks = reader.numChunks;
     this.numDirtyChunks = reader.numDirtyChunks;
     this.merging = merging;
+    this.blockCache = reader.blockCache;
+    this.blockCacheKey = reader.blockCacheKey;
     this.state = new BlockState();
     this.closed = false;
   }
 
-  /** Sole constructor. */
+  /** Create a reader that does not cache decompressed blocks. */
   public CompressingStoredFieldsReader(Directory d, SegmentInfo si, String segmentSuffix, FieldInfos fn,
       IOContext context, String formatName, CompressionMode compressionMode) throws IOException {
+    this(d, si, segmentSuffix, fn, context, formatName, compressionMode, null);
+  }
+
+  /**
+   * Create a reader that caches decompressed blocks of documents into the
+   * given <code>blockCache</code>, which may be null to disable caching.
+   */
+  public CompressingStoredFieldsReader(Directory d, SegmentInfo si, String segmentSuffix, FieldInfos fn,
+      IOContext context, String formatName, CompressionMode compressionMode, StoredFieldsBlockCache blockCache) throws IOException {
     this.compressionMode = compressionMode;
+    this.blockCache = blockCache;
+    this.blockCacheKey = this;
     final String segment = si.name;
     boolean success = false;
     fieldInfos = fn;
@@ -158,7 +173,17 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
 
       chunkSize = fieldsStream.readVInt();
       packedIntsVersion = fieldsStream.readVInt();
-      decompressor = compressionMode.newDecompressor();
+      if (compressionMode instanceof DictionaryCompressionMode) {
+        final int dictLength = fieldsStream.readVInt();
+        if (dictLength < 0 || dictLength > maxPointer - fieldsStream.getFilePointer()) {
+          throw new CorruptIndexException("invalid dictionary length: " + dictLength, fieldsStream);
+        }
+        final byte[] dictionary = new byte[dictLength];
+        fieldsStream.readBytes(dictionary, 0, dictLength);
+        decompressor = ((DictionaryCompressionMode) compressionMode).newDecompressor(dictionary);
+      } else {
+        decompressor = compressionMode.newDecompressor();
+      }
       this.merging = false;
       this.state = new BlockState();
       
@@ -179,6 +204,9 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
       // such as file truncation.
       CodecUtil.retrieveChecksum(fieldsStream);
 
+      if (blockCache != null) {
+        blockCache.addCoreCacheKey(blockCacheKey);
+      }
       success = true;
     } finally {
       if (!success) {
@@ -203,6 +231,10 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
   public void close() throws IOException {
     if (!closed) {
       IOUtils.close(fieldsStream);
+      if (blockCache != null && blockCacheKey == this) {
+        // clones and merge instances share the blocks of the original reader
+        blockCache.clearCoreCacheKey(blockCacheKey);
+      }
       closed = true;
     }
   }
@@ -380,6 +412,9 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
     private final BytesRef spare = new BytesRef();
     private final BytesRef bytes = new BytesRef();
 
+    // the decompressed block when using the block cache
+    private byte[] block;
+
     boolean contains(int docID) {
       return docID >= docBase && docID < docBase + chunkDocs;
     }
@@ -406,6 +441,7 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
     }
 
     private void doReset(int docID) throws IOException {
+      block = null;
       docBase = fieldsStream.readVInt();
       final int token = fieldsStream.readVInt();
       chunkDocs = token >>> 1;
@@ -555,6 +591,8 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
           }
 
         };
+      } else if (blockCache != null) {
+        documentInput = new ByteArrayDataInput(decompressedBlock(), offset, length);
       } else {
         fieldsStream.seek(startPointer);
         decompressor.decompress(fieldsStream, totalLength, offset, length, bytes);
@@ -565,6 +603,27 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
       return new SerializedDocument(documentInput, length, numStoredFields);
     }
 
+    /**
+     * Get the whole decompressed content of the current block, from the
+     * block cache if possible.
+     */
+    private byte[] decompressedBlock() throws IOException {
+      if (block == null) {
+        block = blockCache.get(blockCacheKey, startPointer);
+        if (block == null) {
+          final int totalLength = offsets[chunkDocs];
+          fieldsStream.seek(startPointer);
+          decompressor.decompress(fieldsStream, totalLength, 0, totalLength, bytes);
+          if (bytes.length != totalLength) {
+            throw new CorruptIndexException("Corrupted: expected chunk size = " + totalLength + ", got " + bytes.length, fieldsStream);
+          }
+          block = Arrays.copyOfRange(bytes.bytes, bytes.offset, bytes.offset + bytes.length);
+          blockCache.put(blockCacheKey, startPointer, block);
+        }
+      }
+      return block;
+    }
+
   }
 
   SerializedDocument document(int docID) throws IOException {
@@ -671,6 +730,6 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
 
   @Override
   public String toString() {
-    return getClass().getSimpleName() + "(mode=" + compressionMode + ",chunksize=" + chunkSize + ")";
+    return getClass().getSimpleName() + "(mode=" + compressionMode + ",chunksize=" + chunkSize + (blockCache == null ? "" : ",blockCache") + ")";
   }
 }
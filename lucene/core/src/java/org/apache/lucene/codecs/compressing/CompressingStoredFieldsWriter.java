@@ -83,6 +83,7 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
 
   private Compressor compressor;
   private final CompressionMode compressionMode;
+  private boolean needsDictionary; // whether the dictionary still needs to be trained and written
   private final int chunkSize;
   private final int maxDocsPerChunk;
 
@@ -102,6 +103,7 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
     this.segment = si.name;
     this.compressionMode = compressionMode;
     this.compressor = compressionMode.newCompressor();
+    this.needsDictionary = compressionMode instanceof DictionaryCompressionMode;
     this.chunkSize = chunkSize;
     this.maxDocsPerChunk = maxDocsPerChunk;
     this.docBase = 0;
@@ -222,6 +224,9 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
   }
 
   private void flush() throws IOException {
+    if (needsDictionary) {
+      writeDictionary();
+    }
     indexWriter.writeIndex(numBufferedDocs, fieldsStream.getFilePointer());
 
     // transform end offsets into lengths
@@ -250,6 +255,21 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
     numChunks++;
   }
   
+  /**
+   * Train the dictionary of the segment on the buffered documents and write
+   * it right before the first chunk.
+   */
+  private void writeDictionary() throws IOException {
+    assert numChunks == 0;
+    final DictionaryCompressionMode dictionaryCompressionMode = (DictionaryCompressionMode) compressionMode;
+    final byte[] dictionary = dictionaryCompressionMode.trainDictionary(bufferedDocs.getBytes(), 0, bufferedDocs.getPosition());
+    fieldsStream.writeVInt(dictionary.length);
+    fieldsStream.writeBytes(dictionary, dictionary.length);
+    compressor.close();
+    compressor = dictionaryCompressionMode.newCompressor(dictionary);
+    needsDictionary = false;
+  }
+
   @Override
   public void writeField(FieldInfo info, IndexableField field)
       throws IOException {
@@ -468,6 +488,10 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
     } else {
       assert bufferedDocs.getPosition() == 0;
     }
+    if (needsDictionary) {
+      // empty segment, readers still expect a dictionary
+      writeDictionary();
+    }
     if (docBase != numDocs) {
       throw new RuntimeException("Wrote " + docBase + " docs, finish called with numDocs=" + numDocs);
     }
@@ -564,6 +588,7 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
           ++docCount;
         }
       } else if (matchingFieldsReader.getCompressionMode() == compressionMode && 
+                 compressionMode instanceof DictionaryCompressionMode == false && // dictionaries are per segment
                  matchingFieldsReader.getChunkSize() == chunkSize && 
                  matchingFieldsReader.getPackedIntsVersion() == PackedInts.VERSION_CURRENT &&
                  liveDocs == null &&
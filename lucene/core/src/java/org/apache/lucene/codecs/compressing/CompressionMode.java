@@ -18,6 +18,7 @@ package org.apache.lucene.codecs.compressing;
 
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.Inflater;
@@ -113,6 +114,36 @@ public abstract class CompressionMode {
 
   };
 
+  /**
+   * A {@link DictionaryCompressionMode} that is similar to {@link #FAST} but
+   * compresses every chunk against a dictionary of at most 8KB that is
+   * sampled from the first chunk of each segment. This mode is best used with
+   * small chunks, whose compression ratio would otherwise be poor.
+   */
+  public static final DictionaryCompressionMode FAST_WITH_DICTIONARY = new DictionaryCompressionMode() {
+
+    @Override
+    public byte[] trainDictionary(byte[] bytes, int off, int len) {
+      return sampleDictionary(bytes, off, len, 8 * 1024, 16);
+    }
+
+    @Override
+    public Compressor newCompressor(byte[] dictionary) {
+      return new LZ4WithDictionaryCompressor(dictionary);
+    }
+
+    @Override
+    public Decompressor newDecompressor(byte[] dictionary) {
+      return dictionary.length == 0 ? LZ4_DECOMPRESSOR : new LZ4WithDictionaryDecompressor(dictionary);
+    }
+
+    @Override
+    public String toString() {
+      return "FAST_WITH_DICTIONARY";
+    }
+
+  };
+
   /** Sole constructor. */
   protected CompressionMode() {}
 
@@ -150,6 +181,87 @@ public abstract class CompressionMode {
 
   };
 
+  /**
+   * Build a dictionary by concatenating <code>numSamples</code> slices of
+   * <code>bytes[off:off+len]</code> that are evenly spread, or return a copy
+   * of the whole data if it is not larger than <code>maxLength</code>.
+   */
+  static byte[] sampleDictionary(byte[] bytes, int off, int len, int maxLength, int numSamples) {
+    if (len <= maxLength) {
+      return Arrays.copyOfRange(bytes, off, off + len);
+    }
+    final int sampleLength = maxLength / numSamples;
+    final byte[] dictionary = new byte[sampleLength * numSamples];
+    for (int i = 0; i < numSamples; ++i) {
+      final int sampleStart = off + (int) ((long) (len - sampleLength) * i / (numSamples - 1));
+      System.arraycopy(bytes, sampleStart, dictionary, i * sampleLength, sampleLength);
+    }
+    return dictionary;
+  }
+
+  private static final class LZ4WithDictionaryDecompressor extends Decompressor {
+
+    private final byte[] dictionary;
+
+    LZ4WithDictionaryDecompressor(byte[] dictionary) {
+      this.dictionary = dictionary;
+    }
+
+    @Override
+    public void decompress(DataInput in, int originalLength, int offset, int length, BytesRef bytes) throws IOException {
+      assert offset + length <= originalLength;
+      final int dictLength = dictionary.length;
+      // add 7 padding bytes, this is not necessary but can help decompression run faster
+      if (bytes.bytes.length < dictLength + originalLength + 7) {
+        bytes.bytes = new byte[ArrayUtil.oversize(dictLength + originalLength + 7, 1)];
+      }
+      // the dictionary must precede decompressed data so that it can be referenced
+      System.arraycopy(dictionary, 0, bytes.bytes, 0, dictLength);
+      final int decompressedLength = LZ4.decompress(in, dictLength + offset + length, bytes.bytes, dictLength) - dictLength;
+      if (decompressedLength > originalLength) {
+        throw new CorruptIndexException("Corrupted: lengths mismatch: " + decompressedLength + " > " + originalLength, in);
+      }
+      bytes.offset = dictLength + offset;
+      bytes.length = length;
+    }
+
+    @Override
+    public Decompressor clone() {
+      return this;
+    }
+
+  }
+
+  private static final class LZ4WithDictionaryCompressor extends Compressor {
+
+    private final LZ4.HashTable ht;
+    private final int dictLength;
+    private byte[] buffer;
+
+    LZ4WithDictionaryCompressor(byte[] dictionary) {
+      ht = new LZ4.HashTable();
+      dictLength = dictionary.length;
+      buffer = dictionary.clone();
+    }
+
+    @Override
+    public void compress(byte[] bytes, int off, int len, DataOutput out)
+        throws IOException {
+      if (dictLength == 0) {
+        LZ4.compress(bytes, off, len, out, ht);
+      } else {
+        buffer = ArrayUtil.grow(buffer, dictLength + len);
+        System.arraycopy(bytes, off, buffer, dictLength, len);
+        LZ4.compressWithDictionary(buffer, 0, dictLength, len, out, ht);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      // no-op
+    }
+  }
+
   private static final class LZ4FastCompressor extends Compressor {
 
     private final LZ4.HashTable ht;
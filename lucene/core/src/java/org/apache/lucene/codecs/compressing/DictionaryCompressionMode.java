@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.compressing;
+
+
+/**
+ * A {@link CompressionMode} that compresses data against a shared dictionary.
+ * <p>
+ * {@link CompressingStoredFieldsWriter} trains a dictionary on the first
+ * chunk of documents of every segment that it writes, including merged
+ * segments, and then compresses all chunks of the segment against this
+ * dictionary. Since the content that is common to many documents, such as
+ * field values that often repeat, only needs to be stored once per segment,
+ * this allows to use small chunks, which are faster to decompress when
+ * loading a single document, without hurting the compression ratio too much.
+ * <p>
+ * Compressors and decompressors that are created without a dictionary, for
+ * instance by {@link CompressingTermVectorsWriter}, compress data on their
+ * own.
+ * @lucene.experimental
+ */
+public abstract class DictionaryCompressionMode extends CompressionMode {
+
+  /** Sole constructor. */
+  protected DictionaryCompressionMode() {}
+
+  /**
+   * Train a dictionary on a sample of the data to compress. The returned
+   * array may be empty but not null.
+   */
+  public abstract byte[] trainDictionary(byte[] bytes, int off, int len);
+
+  /**
+   * Create a new {@link Compressor} that compresses data against the given
+   * dictionary.
+   */
+  public abstract Compressor newCompressor(byte[] dictionary);
+
+  /**
+   * Create a new {@link Decompressor} for data that has been compressed
+   * against the given dictionary.
+   */
+  public abstract Decompressor newDecompressor(byte[] dictionary);
+
+  @Override
+  public Compressor newCompressor() {
+    return newCompressor(new byte[0]);
+  }
+
+  @Override
+  public Decompressor newDecompressor() {
+    return newDecompressor(new byte[0]);
+  }
+
+}
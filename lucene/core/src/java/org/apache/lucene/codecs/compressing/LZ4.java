@@ -204,20 +204,45 @@ final class LZ4 {
    * but can safely be reused.
    */
   public static void compress(byte[] bytes, int off, int len, DataOutput out, HashTable ht) throws IOException {
+    compressWithDictionary(bytes, off, 0, len, out, ht);
+  }
+
+  /**
+   * Compress <code>bytes[dictOff+dictLen:dictOff+dictLen+len]</code> into
+   * <code>out</code> using at most 16KB of memory.
+   * <code>bytes[dictOff:dictOff+dictLen]</code> will be used as a dictionary
+   * that compressed data may reference, so it must be prepended to the
+   * destination buffer before calling
+   * {@link #decompress(DataInput, int, byte[], int)}. Since references can't
+   * be longer than 64KB, bytes that are more than 64KB away from the
+   * dictionary can't reference it. <code>ht</code> shouldn't be shared across
+   * threads but can safely be reused.
+   */
+  public static void compressWithDictionary(byte[] bytes, int dictOff, int dictLen, int len, DataOutput out, HashTable ht) throws IOException {
 
-    final int base = off;
+    final int base = dictOff;
+    int off = dictOff + dictLen;
     final int end = off + len;
 
-    int anchor = off++;
+    int anchor = off;
+    if (dictLen == 0) {
+      // nothing to reference yet
+      ++off;
+    }
 
     if (len > LAST_LITERALS + MIN_MATCH) {
 
       final int limit = end - LAST_LITERALS;
       final int matchLimit = limit - MIN_MATCH;
-      ht.reset(len);
+      ht.reset(dictLen + len);
       final int hashLog = ht.hashLog;
       final PackedInts.Mutable hashTable = ht.hashTable;
 
+      // index the dictionary
+      for (int i = dictOff; i < anchor; ++i) {
+        hashTable.set(hash(readInt(bytes, i), hashLog), i - base);
+      }
+
       main:
       while (off <= limit) {
         // find a match
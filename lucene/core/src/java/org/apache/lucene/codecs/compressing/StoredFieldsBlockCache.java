@@ -0,0 +1,326 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.compressing;
+
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * A size-bounded cache of decompressed blocks of stored documents that can be
+ * shared by the {@link CompressingStoredFieldsReader}s of many segments.
+ * <p>
+ * Blocks are keyed by the segment that they belong to and by their start
+ * pointer in the stored fields file. Since the reader of a segment is shared
+ * across reopens as long as the segment is live, cached blocks survive
+ * near-real-time reopens and are only removed when the segment is closed or
+ * when they are evicted. Large documents that span several chunks are never
+ * cached.
+ * <p>
+ * This class is thread-safe. Entries are spread across partitions that are
+ * locked independently and that each evict their least-recently used entries
+ * in order to remain under their share of the maximum RAM usage. The keys of
+ * the cached blocks are also tracked per segment so that closing a segment
+ * only needs to visit its own blocks.
+ *
+ * @see CompressingStoredFieldsFormat#setDefaultBlockCache
+ * @lucene.experimental
+ */
+public final class StoredFieldsBlockCache implements Accountable {
+
+  static final long RAM_BYTES_PER_ENTRY =
+      RamUsageEstimator.shallowSizeOfInstance(BlockKey.class)
+      + 4 * RamUsageEstimator.NUM_BYTES_OBJECT_REF // key + value, hash tables are oversized
+      + 2 * RamUsageEstimator.NUM_BYTES_OBJECT_REF // previous & next references
+      + 4 * RamUsageEstimator.NUM_BYTES_OBJECT_REF; // entry in the keys of the segment
+
+  private final long maxRamBytesUsed;
+  private final Partition[] partitions;
+  private final Map<Object, CoreBlocks> cores = new ConcurrentHashMap<>();
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+
+  /**
+   * Create a new cache that uses at most <code>maxRamBytesUsed</code> bytes
+   * of memory.
+   */
+  public StoredFieldsBlockCache(long maxRamBytesUsed) {
+    this(maxRamBytesUsed, Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2)));
+  }
+
+  /**
+   * Expert: create a new cache that uses at most <code>maxRamBytesUsed</code>
+   * bytes of memory, spread across <code>numPartitions</code> partitions.
+   * Each partition can only hold blocks that are smaller than
+   * <code>maxRamBytesUsed / numPartitions</code>.
+   */
+  public StoredFieldsBlockCache(long maxRamBytesUsed, int numPartitions) {
+    if (maxRamBytesUsed < 0) {
+      throw new IllegalArgumentException("maxRamBytesUsed must be >= 0, got " + maxRamBytesUsed);
+    }
+    if (numPartitions < 1 || Integer.bitCount(numPartitions) != 1) {
+      throw new IllegalArgumentException("numPartitions must be a power of two, got " + numPartitions);
+    }
+    this.maxRamBytesUsed = maxRamBytesUsed;
+    partitions = new Partition[numPartitions];
+    for (int i = 0; i < numPartitions; ++i) {
+      partitions[i] = new Partition(maxRamBytesUsed / numPartitions);
+    }
+  }
+
+  private Partition partition(BlockKey key) {
+    final int h = key.hashCode();
+    return partitions[(h ^ (h >>> 16)) & (partitions.length - 1)];
+  }
+
+  /**
+   * Start accepting blocks for the given segment. Blocks of segments that
+   * have not been added, or that have been cleared with
+   * {@link #clearCoreCacheKey}, are not cached.
+   */
+  void addCoreCacheKey(Object coreKey) {
+    cores.putIfAbsent(coreKey, new CoreBlocks());
+  }
+
+  /**
+   * Return the decompressed block of the given segment that starts at
+   * <code>startPointer</code>, or null if it is not cached.
+   */
+  byte[] get(Object coreKey, long startPointer) {
+    final CoreBlocks core = cores.get(coreKey);
+    byte[] block = null;
+    if (core != null) {
+      final BlockKey key = new BlockKey(core, startPointer);
+      block = partition(key).get(key);
+    }
+    if (block == null) {
+      missCount.increment();
+    } else {
+      hitCount.increment();
+    }
+    return block;
+  }
+
+  /**
+   * Cache the decompressed block of the given segment that starts at
+   * <code>startPointer</code>. This is a no-op if the segment has been
+   * cleared, so that blocks that are decompressed by clones of a closed
+   * reader do not keep it alive.
+   */
+  void put(Object coreKey, long startPointer, byte[] block) {
+    final CoreBlocks core = cores.get(coreKey);
+    if (core == null) {
+      return;
+    }
+    final BlockKey key = new BlockKey(core, startPointer);
+    // lock the segment so that its blocks may not be added concurrently with clearCoreCacheKey
+    synchronized (core) {
+      if (core.closed == false) {
+        partition(key).put(key, block);
+      }
+    }
+  }
+
+  /** Remove all cached blocks of the given segment and stop caching new ones. */
+  void clearCoreCacheKey(Object coreKey) {
+    final CoreBlocks core = cores.remove(coreKey);
+    if (core == null) {
+      return;
+    }
+    synchronized (core) {
+      core.closed = true;
+      for (BlockKey key : core.keys) {
+        partition(key).remove(key);
+      }
+    }
+  }
+
+  /** Remove all cached blocks. */
+  public void clear() {
+    for (Partition partition : partitions) {
+      partition.clear();
+    }
+  }
+
+  /** Return the maximum amount of memory that this cache may use. */
+  public long getMaxRamBytesUsed() {
+    return maxRamBytesUsed;
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    long ramBytesUsed = 0;
+    for (Partition partition : partitions) {
+      ramBytesUsed += partition.ramBytesUsed;
+    }
+    return ramBytesUsed;
+  }
+
+  /** Return the number of blocks that are currently cached. */
+  public long getCacheSize() {
+    long cacheSize = 0;
+    for (Partition partition : partitions) {
+      cacheSize += partition.size;
+    }
+    return cacheSize;
+  }
+
+  /**
+   * Return the number of times that a block was found in the cache.
+   * @see #getMissCount()
+   */
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /**
+   * Return the number of times that a block had to be decompressed because
+   * it was not in the cache.
+   * @see #getHitCount()
+   */
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  /**
+   * Return the fraction of lookups that were hits, or 0 if the cache was
+   * never looked up.
+   */
+  public double getHitRatio() {
+    final long hits = getHitCount();
+    final long lookups = hits + getMissCount();
+    return lookups == 0 ? 0 : (double) hits / lookups;
+  }
+
+  /**
+   * Return the number of blocks that have been evicted in order to remain
+   * under the maximum RAM usage. Blocks that are removed because their segment
+   * has been closed are not counted.
+   */
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(maxRamBytesUsed=" + maxRamBytesUsed + ", ramBytesUsed=" + ramBytesUsed()
+        + ", size=" + getCacheSize() + ", hitCount=" + getHitCount() + ", missCount=" + getMissCount()
+        + ", evictionCount=" + getEvictionCount() + ")";
+  }
+
+  private static long ramBytesUsed(byte[] block) {
+    return RAM_BYTES_PER_ENTRY + RamUsageEstimator.sizeOf(block);
+  }
+
+  /** The keys of the cached blocks of a segment. */
+  private static final class CoreBlocks {
+    // only modified under the lock of the partition of the key
+    final Set<BlockKey> keys = ConcurrentHashMap.newKeySet();
+    // only accessed under the lock of this instance
+    boolean closed;
+  }
+
+  private static final class BlockKey {
+    final CoreBlocks core;
+    final long startPointer;
+
+    BlockKey(CoreBlocks core, long startPointer) {
+      this.core = core;
+      this.startPointer = startPointer;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == null || obj.getClass() != BlockKey.class) {
+        return false;
+      }
+      final BlockKey that = (BlockKey) obj;
+      return core == that.core && startPointer == that.startPointer;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(core) + Long.hashCode(startPointer);
+    }
+  }
+
+  /** An independently locked LRU cache that holds a fraction of the entries. */
+  private final class Partition {
+    private final long maxRamBytesUsed;
+    private final Map<BlockKey, byte[]> blocks = new LinkedHashMap<>(16, 0.75f, true);
+    // volatile so that stats may be read without locking
+    private volatile long ramBytesUsed;
+    private volatile int size;
+
+    Partition(long maxRamBytesUsed) {
+      this.maxRamBytesUsed = maxRamBytesUsed;
+    }
+
+    synchronized byte[] get(BlockKey key) {
+      return blocks.get(key);
+    }
+
+    synchronized void put(BlockKey key, byte[] block) {
+      final long blockRamBytesUsed = StoredFieldsBlockCache.ramBytesUsed(block);
+      if (blockRamBytesUsed > maxRamBytesUsed) {
+        return; // would evict everything else
+      }
+      final byte[] previous = blocks.put(key, block);
+      long ramBytesUsed = this.ramBytesUsed + blockRamBytesUsed;
+      if (previous != null) {
+        ramBytesUsed -= StoredFieldsBlockCache.ramBytesUsed(previous);
+      } else {
+        key.core.keys.add(key);
+      }
+      for (Iterator<Map.Entry<BlockKey, byte[]>> it = blocks.entrySet().iterator(); ramBytesUsed > maxRamBytesUsed; ) {
+        final Map.Entry<BlockKey, byte[]> eldest = it.next();
+        it.remove();
+        eldest.getKey().core.keys.remove(eldest.getKey());
+        ramBytesUsed -= StoredFieldsBlockCache.ramBytesUsed(eldest.getValue());
+        evictionCount.increment();
+      }
+      this.ramBytesUsed = ramBytesUsed;
+      size = blocks.size();
+    }
+
+    synchronized void remove(BlockKey key) {
+      final byte[] block = blocks.remove(key);
+      if (block != null) {
+        key.core.keys.remove(key);
+        ramBytesUsed -= StoredFieldsBlockCache.ramBytesUsed(block);
+        size = blocks.size();
+      }
+    }
+
+    synchronized void clear() {
+      for (BlockKey key : blocks.keySet()) {
+        key.core.keys.remove(key);
+      }
+      blocks.clear();
+      ramBytesUsed = 0;
+      size = 0;
+    }
+  }
+}
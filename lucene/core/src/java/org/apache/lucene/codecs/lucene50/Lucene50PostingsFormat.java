@@ -196,11 +196,14 @@ import org.apache.lucene.util.packed.PackedInts;
  *       <sup>NumSkipLevels-1</sup>, SkipLevel&gt;, SkipDatum?</li>
  *   <li>SkipLevel --&gt; &lt;SkipDatum&gt; <sup>TrimmedDocFreq/(PackedBlockSize^(Level + 1))</sup></li>
  *   <li>SkipDatum --&gt; DocSkip, DocFPSkip, &lt;PosFPSkip, PosBlockOffset, PayLength?, 
- *                        PayFPSkip?&gt;?, SkipChildLevelPointer?</li>
+ *                        PayFPSkip?&gt;?, ImpactLength?, &lt;CompetitiveFreqDelta, CompetitiveNormDelta&gt;?,
+ *                        SkipChildLevelPointer?</li>
  *   <li>PackedDocDeltaBlock, PackedFreqBlock --&gt; {@link PackedInts PackedInts}</li>
- *   <li>DocDelta, Freq, DocSkip, DocFPSkip, PosFPSkip, PosBlockOffset, PayByteUpto, PayFPSkip 
+ *   <li>DocDelta, Freq, DocSkip, DocFPSkip, PosFPSkip, PosBlockOffset, PayByteUpto, PayFPSkip,
+ *       ImpactLength, CompetitiveFreqDelta
  *       --&gt; 
  *   {@link DataOutput#writeVInt VInt}</li>
+ *   <li>CompetitiveNormDelta --&gt; {@link DataOutput#writeZLong ZLong}</li>
  *   <li>SkipChildLevelPointer --&gt; {@link DataOutput#writeVLong VLong}</li>
  *   <li>Footer --&gt; {@link CodecUtil#writeFooter CodecFooter}</li>
  * </ul>
@@ -259,6 +262,12 @@ import org.apache.lucene.util.packed.PackedInts;
  *       current term's TermFreqs, and stored as a difference sequence.</li>
  *   <li>PayByteUpto indicates the start offset of the current payload. It is equivalent to
  *       the sum of the payload lengths in the current block up to PosBlockOffset</li>
+ *   <li>ImpactLength is the total length of CompetitiveFreqDelta and CompetitiveNormDelta
+ *       pairs. CompetitiveFreqDelta and CompetitiveNormDelta are used to safely skip score
+ *       calculation for uncompetitive documents; See
+ *       {@link org.apache.lucene.codecs.CompetitiveImpactAccumulator} for more details.
+ *       They are only recorded when frequencies are indexed, and describe the (freq, norm)
+ *       pairs of all documents that are covered by the skip entry.</li>
  * </ul>
  * </dd>
  * </dl>
@@ -384,7 +393,8 @@ public final class Lucene50PostingsFormat extends PostingsFormat {
 
   // Increment version to change it
   final static int VERSION_START = 0;
-  final static int VERSION_CURRENT = VERSION_START;
+  final static int VERSION_IMPACT_SKIP_DATA = 1;
+  final static int VERSION_CURRENT = VERSION_IMPACT_SKIP_DATA;
 
   private final int minTermBlockSize;
   private final int maxTermBlockSize;
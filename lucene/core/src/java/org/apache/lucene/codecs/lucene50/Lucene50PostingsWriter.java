@@ -31,12 +31,14 @@ import java.io.IOException;
 
 import org.apache.lucene.codecs.BlockTermState;
 import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.CompetitiveImpactAccumulator;
 import org.apache.lucene.codecs.PushPostingsWriterBase;
 import org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.IntBlockTermState;
 import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.IndexFileNames;
 import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.SegmentWriteState;
 import org.apache.lucene.store.DataOutput;
 import org.apache.lucene.store.IndexOutput;
@@ -96,6 +98,9 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
 
   private final ForUtil forUtil;
   private final Lucene50SkipWriter skipWriter;
+
+  private NumericDocValues norms;
+  private final CompetitiveImpactAccumulator competitiveFreqNormAccumulator = new CompetitiveImpactAccumulator();
   
   /** Creates a postings writer */
   public Lucene50PostingsWriter(SegmentWriteState state) throws IOException {
@@ -183,7 +188,7 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
   @Override
   public int setField(FieldInfo fieldInfo) {
     super.setField(fieldInfo);
-    skipWriter.setField(writePositions, writeOffsets, writePayloads);
+    skipWriter.setField(writeFreqs, writePositions, writeOffsets, writePayloads);
     lastState = emptyState;
     if (writePositions) {
       if (writePayloads || writeOffsets) {
@@ -208,6 +213,14 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
     lastDocID = 0;
     lastBlockDocID = -1;
     skipWriter.resetSkip();
+    norms = null;
+    competitiveFreqNormAccumulator.clear();
+  }
+
+  @Override
+  public void startTerm(NumericDocValues norms) {
+    startTerm();
+    this.norms = norms;
   }
 
   @Override
@@ -216,7 +229,9 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
     // Should write skip data as well as postings list for
     // current block.
     if (lastBlockDocID != -1 && docBufferUpto == 0) {
-      skipWriter.bufferSkip(lastBlockDocID, docCount, lastBlockPosFP, lastBlockPayFP, lastBlockPosBufferUpto, lastBlockPayloadByteUpto);
+      skipWriter.bufferSkip(lastBlockDocID, competitiveFreqNormAccumulator, docCount,
+          lastBlockPosFP, lastBlockPayFP, lastBlockPosBufferUpto, lastBlockPayloadByteUpto);
+      competitiveFreqNormAccumulator.clear();
     }
 
     final int docDelta = docID - lastDocID;
@@ -233,6 +248,19 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
     docBufferUpto++;
     docCount++;
 
+    if (writeFreqs) {
+      long norm;
+      if (norms == null) {
+        // unknown norm: use the most competitive value
+        norm = -1L;
+      } else if (norms.advanceExact(docID)) {
+        norm = norms.longValue();
+      } else {
+        norm = 0L;
+      }
+      competitiveFreqNormAccumulator.add(termDocFreq, norm);
+    }
+
     if (docBufferUpto == BLOCK_SIZE) {
       forUtil.writeBlock(docDeltaBuffer, encoded, docOut);
       if (writeFreqs) {
@@ -52,21 +52,27 @@ import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.BLOCK_SIZ
  * Therefore, we'll trim df before passing it to the interface. see trim(int)
  *
  */
-final class Lucene50SkipReader extends MultiLevelSkipListReader {
+class Lucene50SkipReader extends MultiLevelSkipListReader {
+  private final int version;
   private long docPointer[];
   private long posPointer[];
   private long payPointer[];
   private int posBufferUpto[];
   private int payloadByteUpto[];
 
+  private final boolean hasFreq;
+
   private long lastPosPointer;
   private long lastPayPointer;
   private int lastPayloadByteUpto;
   private long lastDocPointer;
   private int lastPosBufferUpto;
 
-  public Lucene50SkipReader(IndexInput skipStream, int maxSkipLevels, boolean hasPos, boolean hasOffsets, boolean hasPayloads) {
+  public Lucene50SkipReader(int version,
+      IndexInput skipStream, int maxSkipLevels, boolean hasFreq, boolean hasPos, boolean hasOffsets, boolean hasPayloads) {
     super(skipStream, maxSkipLevels, BLOCK_SIZE, 8);
+    this.version = version;
+    this.hasFreq = hasFreq;
     docPointer = new long[maxSkipLevels];
     if (hasPos) {
       posPointer = new long[maxSkipLevels];
@@ -192,6 +198,16 @@ final class Lucene50SkipReader extends MultiLevelSkipListReader {
         payPointer[level] += skipStream.readVLong();
       }
     }
+    if (hasFreq && version >= Lucene50PostingsFormat.VERSION_IMPACT_SKIP_DATA) {
+      readImpacts(level, skipStream);
+    }
     return delta;
   }
+
+  /** Read the competitive (freq, norm) pairs of the current skip entry on
+   *  the given level. The default implementation skips over them. */
+  protected void readImpacts(int level, IndexInput skipStream) throws IOException {
+    int length = skipStream.readVInt();
+    skipStream.seek(skipStream.getFilePointer() + length);
+  }
 }
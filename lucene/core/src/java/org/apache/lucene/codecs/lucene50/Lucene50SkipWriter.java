@@ -19,9 +19,14 @@ package org.apache.lucene.codecs.lucene50;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
 
-import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.codecs.CompetitiveImpactAccumulator;
 import org.apache.lucene.codecs.MultiLevelSkipListWriter;
+import org.apache.lucene.index.Impact;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RAMOutputStream;
 
 /**
  * Write skip lists with multiple levels, and support skip within block ints.
@@ -41,6 +46,7 @@ import org.apache.lucene.codecs.MultiLevelSkipListWriter;
  * 2. its related file points(position, payload), 
  * 3. related numbers or uptos(position, payload).
  * 4. start offset.
+ * 5. competitive (freq, norm) pairs of the documents covered by the skip point, if freqs are indexed.
  *
  */
 final class Lucene50SkipWriter extends MultiLevelSkipListWriter {
@@ -60,10 +66,14 @@ final class Lucene50SkipWriter extends MultiLevelSkipListWriter {
   private long curPayPointer;
   private int curPosBufferUpto;
   private int curPayloadByteUpto;
+  private boolean fieldHasFreqs;
   private boolean fieldHasPositions;
   private boolean fieldHasOffsets;
   private boolean fieldHasPayloads;
 
+  private final CompetitiveImpactAccumulator[] curCompetitiveFreqNorms;
+  private final RAMOutputStream freqNormOut = new RAMOutputStream();
+
   public Lucene50SkipWriter(int maxSkipLevels, int blockSize, int docCount, IndexOutput docOut, IndexOutput posOut, IndexOutput payOut) {
     super(blockSize, 8, maxSkipLevels, docCount);
     this.docOut = docOut;
@@ -79,9 +89,14 @@ final class Lucene50SkipWriter extends MultiLevelSkipListWriter {
       }
       lastPayloadByteUpto = new int[maxSkipLevels];
     }
+    curCompetitiveFreqNorms = new CompetitiveImpactAccumulator[maxSkipLevels];
+    for (int i = 0; i < maxSkipLevels; ++i) {
+      curCompetitiveFreqNorms[i] = new CompetitiveImpactAccumulator();
+    }
   }
 
-  public void setField(boolean fieldHasPositions, boolean fieldHasOffsets, boolean fieldHasPayloads) {
+  public void setField(boolean fieldHasFreqs, boolean fieldHasPositions, boolean fieldHasOffsets, boolean fieldHasPayloads) {
+    this.fieldHasFreqs = fieldHasFreqs;
     this.fieldHasPositions = fieldHasPositions;
     this.fieldHasOffsets = fieldHasOffsets;
     this.fieldHasPayloads = fieldHasPayloads;
@@ -122,6 +137,11 @@ final class Lucene50SkipWriter extends MultiLevelSkipListWriter {
           Arrays.fill(lastSkipPayPointer, lastPayFP);
         }
       }
+      if (fieldHasFreqs) {
+        for (CompetitiveImpactAccumulator acc : curCompetitiveFreqNorms) {
+          acc.clear();
+        }
+      }
       initialized = true;
     }
   }
@@ -129,7 +149,8 @@ final class Lucene50SkipWriter extends MultiLevelSkipListWriter {
   /**
    * Sets the values for the current skip data. 
    */
-  public void bufferSkip(int doc, int numDocs, long posFP, long payFP, int posBufferUpto, int payloadByteUpto) throws IOException {
+  public void bufferSkip(int doc, CompetitiveImpactAccumulator competitiveFreqNorms,
+      int numDocs, long posFP, long payFP, int posBufferUpto, int payloadByteUpto) throws IOException {
     initSkip();
     this.curDoc = doc;
     this.curDocPointer = docOut.getFilePointer();
@@ -137,6 +158,9 @@ final class Lucene50SkipWriter extends MultiLevelSkipListWriter {
     this.curPayPointer = payFP;
     this.curPosBufferUpto = posBufferUpto;
     this.curPayloadByteUpto = payloadByteUpto;
+    if (fieldHasFreqs) {
+      this.curCompetitiveFreqNorms[0].addAll(competitiveFreqNorms);
+    }
     bufferSkip(numDocs);
   }
   
@@ -165,5 +189,32 @@ final class Lucene50SkipWriter extends MultiLevelSkipListWriter {
         lastSkipPayPointer[level] = curPayPointer;
       }
     }
+
+    if (fieldHasFreqs) {
+      CompetitiveImpactAccumulator competitiveFreqNorms = curCompetitiveFreqNorms[level];
+      // the skip entry of the next level covers the documents of this level
+      if (level + 1 < numberOfSkipLevels) {
+        curCompetitiveFreqNorms[level + 1].addAll(competitiveFreqNorms);
+      }
+      writeImpacts(competitiveFreqNorms, freqNormOut);
+      skipBuffer.writeVInt(Math.toIntExact(freqNormOut.getFilePointer()));
+      freqNormOut.writeTo(skipBuffer);
+      freqNormOut.reset();
+      competitiveFreqNorms.clear();
+    }
+  }
+
+  static void writeImpacts(CompetitiveImpactAccumulator acc, DataOutput out) throws IOException {
+    List<Impact> impacts = acc.getCompetitiveFreqNormPairs();
+    assert impacts.isEmpty() == false;
+    int previousFreq = 0;
+    long previousNorm = 0;
+    for (Impact impact : impacts) {
+      assert impact.freq > previousFreq : impacts;
+      out.writeVInt(impact.freq - previousFreq - 1);
+      out.writeZLong(impact.norm - previousNorm);
+      previousFreq = impact.freq;
+      previousNorm = impact.norm;
+    }
   }
 }
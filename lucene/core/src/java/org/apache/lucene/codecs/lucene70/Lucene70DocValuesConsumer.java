@@ -20,6 +20,8 @@ package org.apache.lucene.codecs.lucene70;
 import static org.apache.lucene.codecs.lucene70.Lucene70DocValuesFormat.DIRECT_MONOTONIC_BLOCK_SHIFT;
 import static org.apache.lucene.codecs.lucene70.Lucene70DocValuesFormat.NUMERIC_BLOCK_SHIFT;
 import static org.apache.lucene.codecs.lucene70.Lucene70DocValuesFormat.NUMERIC_BLOCK_SIZE;
+import static org.apache.lucene.codecs.lucene70.Lucene70DocValuesFormat.SKIP_INDEX_BLOCK_SHIFT;
+import static org.apache.lucene.codecs.lucene70.Lucene70DocValuesFormat.SKIP_INDEX_BLOCK_SIZE;
 
 import java.io.Closeable; // javadocs
 import java.io.IOException;
@@ -157,9 +159,19 @@ final class Lucene70DocValuesConsumer extends DocValuesConsumer implements Close
     MinMaxTracker blockMinMax = new MinMaxTracker();
     long gcd = 0;
     Set<Long> uniqueValues = new HashSet<>();
+    final int numSkipBlocks = (maxDoc + SKIP_INDEX_BLOCK_SIZE - 1) >>> SKIP_INDEX_BLOCK_SHIFT;
+    final long[] skipMinValues = new long[numSkipBlocks];
+    final long[] skipMaxValues = new long[numSkipBlocks];
+    Arrays.fill(skipMinValues, Long.MAX_VALUE);
+    Arrays.fill(skipMaxValues, Long.MIN_VALUE);
+    final int[] skipDocCounts = new int[numSkipBlocks];
     for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+      final int skipBlock = doc >>> SKIP_INDEX_BLOCK_SHIFT;
+      skipDocCounts[skipBlock]++;
       for (int i = 0, count = values.docValueCount(); i < count; ++i) {
         long v = values.nextValue();
+        skipMinValues[skipBlock] = Math.min(skipMinValues[skipBlock], v);
+        skipMaxValues[skipBlock] = Math.max(skipMaxValues[skipBlock], v);
 
         if (gcd != 1) {
           if (v < Long.MIN_VALUE / 2 || v > Long.MAX_VALUE / 2) {
@@ -264,9 +276,28 @@ final class Lucene70DocValuesConsumer extends DocValuesConsumer implements Close
     }
     meta.writeLong(data.getFilePointer() - startOffset);
 
+    if (numDocsWithValue == 0) {
+      meta.writeLong(-1);
+      meta.writeLong(0L);
+    } else {
+      writeSkipIndex(skipMinValues, skipMaxValues, skipDocCounts);
+    }
+
     return new long[] {numDocsWithValue, numValues};
   }
 
+  /** Write the min/max values and the number of documents that have a value of every block of doc IDs. */
+  private void writeSkipIndex(long[] minValues, long[] maxValues, int[] docCounts) throws IOException {
+    long offset = data.getFilePointer();
+    meta.writeLong(offset);
+    for (int i = 0; i < docCounts.length; ++i) {
+      data.writeLong(minValues[i]);
+      data.writeLong(maxValues[i]);
+      data.writeInt(docCounts[i]);
+    }
+    meta.writeLong(data.getFilePointer() - offset);
+  }
+
   private void writeValuesSingleBlock(SortedNumericDocValues values, long numValues, int numBitsPerValue,
       long min, long gcd, Map<Long, Integer> encode) throws IOException {
     DirectWriter writer = DirectWriter.getInstance(data, numValues, numBitsPerValue);
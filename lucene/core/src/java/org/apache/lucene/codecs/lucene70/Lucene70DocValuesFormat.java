@@ -108,6 +108,12 @@ import org.apache.lucene.util.packed.DirectWriter;
  *        strategies above.
  * </ul>
  * <p>
+ * {@link DocValuesType#NUMERIC NUMERIC} and {@link DocValuesType#SORTED_NUMERIC SORTED_NUMERIC} fields
+ * also record a skip index: for every block of 4096 doc IDs, the minimum and maximum values of the
+ * block are written along with the number of documents of the block that have a value. This allows
+ * queries to skip blocks whose values are all out of range, or to match blocks whose values are all in
+ * range without decoding values, see {@link org.apache.lucene.index.DocValuesSkipper}.
+ * <p>
  * Files:
  * <ol>
  *   <li><tt>.dvd</tt>: DocValues data</li>
@@ -137,7 +143,8 @@ public final class Lucene70DocValuesFormat extends DocValuesFormat {
   static final String META_CODEC = "Lucene70DocValuesMetadata";
   static final String META_EXTENSION = "dvm";
   static final int VERSION_START = 0;
-  static final int VERSION_CURRENT = VERSION_START;
+  static final int VERSION_SKIP_INDEX = 1;
+  static final int VERSION_CURRENT = VERSION_SKIP_INDEX;
 
   // indicates docvalues type
   static final byte NUMERIC = 0;
@@ -151,6 +158,10 @@ public final class Lucene70DocValuesFormat extends DocValuesFormat {
   static final int NUMERIC_BLOCK_SHIFT = 14;
   static final int NUMERIC_BLOCK_SIZE = 1 << NUMERIC_BLOCK_SHIFT;
 
+  static final int SKIP_INDEX_BLOCK_SHIFT = 12;
+  static final int SKIP_INDEX_BLOCK_SIZE = 1 << SKIP_INDEX_BLOCK_SHIFT;
+  static final int SKIP_INDEX_ENTRY_BYTES = 2 * Long.BYTES + Integer.BYTES;
+
   static final int TERMS_DICT_BLOCK_SHIFT = 4;
   static final int TERMS_DICT_BLOCK_SIZE = 1 << TERMS_DICT_BLOCK_SHIFT;
   static final int TERMS_DICT_BLOCK_MASK = TERMS_DICT_BLOCK_SIZE - 1;
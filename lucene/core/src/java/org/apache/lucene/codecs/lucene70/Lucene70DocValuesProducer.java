@@ -18,6 +18,7 @@ package org.apache.lucene.codecs.lucene70;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -26,6 +27,8 @@ import org.apache.lucene.codecs.DocValuesProducer;
 import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesSkipper;
+import org.apache.lucene.index.DocValuesType;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.IndexFileNames;
@@ -37,9 +40,11 @@ import org.apache.lucene.index.SortedNumericDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.index.TermsEnum.SeekStatus;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.store.ChecksumIndexInput;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.RandomAccessInput;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.LongValues;
@@ -75,7 +80,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
                                         Lucene70DocValuesFormat.VERSION_CURRENT,
                                         state.segmentInfo.getId(),
                                         state.segmentSuffix);
-        readFields(in, state.fieldInfos);
+        readFields(in, state.fieldInfos, version);
       } catch (Throwable exception) {
         priorE = exception;
       } finally {
@@ -110,7 +115,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
     }
   }
 
-  private void readFields(ChecksumIndexInput meta, FieldInfos infos) throws IOException {
+  private void readFields(ChecksumIndexInput meta, FieldInfos infos, int version) throws IOException {
     for (int fieldNumber = meta.readInt(); fieldNumber != -1; fieldNumber = meta.readInt()) {
       FieldInfo info = infos.fieldInfo(fieldNumber);
       if (info == null) {
@@ -118,7 +123,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
       }
       byte type = meta.readByte();
       if (type == Lucene70DocValuesFormat.NUMERIC) {
-        numerics.put(info.name, readNumeric(meta));
+        numerics.put(info.name, readNumeric(meta, version));
       } else if (type == Lucene70DocValuesFormat.BINARY) {
         binaries.put(info.name, readBinary(meta));
       } else if (type == Lucene70DocValuesFormat.SORTED) {
@@ -126,20 +131,20 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
       } else if (type == Lucene70DocValuesFormat.SORTED_SET) {
         sortedSets.put(info.name, readSortedSet(meta));
       } else if (type == Lucene70DocValuesFormat.SORTED_NUMERIC) {
-        sortedNumerics.put(info.name, readSortedNumeric(meta));
+        sortedNumerics.put(info.name, readSortedNumeric(meta, version));
       } else {
         throw new CorruptIndexException("invalid type: " + type, meta);
       }
     }
   }
 
-  private NumericEntry readNumeric(ChecksumIndexInput meta) throws IOException {
+  private NumericEntry readNumeric(ChecksumIndexInput meta, int version) throws IOException {
     NumericEntry entry = new NumericEntry();
-    readNumeric(meta, entry);
+    readNumeric(meta, entry, version);
     return entry;
   }
 
-  private void readNumeric(ChecksumIndexInput meta, NumericEntry entry) throws IOException {
+  private void readNumeric(ChecksumIndexInput meta, NumericEntry entry, int version) throws IOException {
     entry.docsWithFieldOffset = meta.readLong();
     entry.docsWithFieldLength = meta.readLong();
     entry.numValues = meta.readLong();
@@ -164,6 +169,12 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
     entry.gcd = meta.readLong();
     entry.valuesOffset = meta.readLong();
     entry.valuesLength = meta.readLong();
+    if (version >= Lucene70DocValuesFormat.VERSION_SKIP_INDEX) {
+      entry.skipIndexOffset = meta.readLong();
+      entry.skipIndexLength = meta.readLong();
+    } else {
+      entry.skipIndexOffset = -1;
+    }
   }
 
   private BinaryEntry readBinary(ChecksumIndexInput meta) throws IOException {
@@ -244,9 +255,9 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
     entry.termsIndexAddressesLength = meta.readLong();
   }
 
-  private SortedNumericEntry readSortedNumeric(ChecksumIndexInput meta) throws IOException {
+  private SortedNumericEntry readSortedNumeric(ChecksumIndexInput meta, int version) throws IOException {
     SortedNumericEntry entry = new SortedNumericEntry();
-    readNumeric(meta, entry);
+    readNumeric(meta, entry, version);
     entry.numDocsWithField = meta.readInt();
     if (entry.numDocsWithField != entry.numValues) {
       entry.addressesOffset = meta.readLong();
@@ -274,6 +285,8 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
     long gcd;
     long valuesOffset;
     long valuesLength;
+    long skipIndexOffset;
+    long skipIndexLength;
   }
 
   private static class BinaryEntry {
@@ -346,13 +359,16 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
     return getNumeric(entry);
   }
 
-  private static abstract class DenseNumericDocValues extends NumericDocValues {
+  private abstract class DenseNumericDocValues extends NumericDocValues {
 
     final int maxDoc;
+    final NumericEntry entry;
+    LongValues bulkValues; // values by doc ID, for bulk decoding, created lazily
     int doc = -1;
 
-    DenseNumericDocValues(int maxDoc) {
+    DenseNumericDocValues(int maxDoc, NumericEntry entry) {
       this.maxDoc = maxDoc;
+      this.entry = entry;
     }
 
     @Override
@@ -379,6 +395,18 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
       return true;
     }
 
+    @Override
+    public void longValues(int size, int[] docs, long[] values, long missingValue) throws IOException {
+      if (size > 0) {
+        // all docs have a value
+        if (bulkValues == null) {
+          bulkValues = getNumericValues(entry);
+        }
+        bulkValues.get(size, docs, values);
+        doc = docs[size - 1];
+      }
+    }
+
     @Override
     public long cost() {
       return maxDoc;
@@ -386,12 +414,36 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
 
   }
 
-  private static abstract class SparseNumericDocValues extends NumericDocValues {
+  private abstract class SparseNumericDocValues extends NumericDocValues {
 
     final IndexedDISI disi;
+    final NumericEntry entry;
+    LongValues bulkValues; // values by index in the disi, for bulk decoding, created lazily
+    int[] indexes = new int[0];
+    int[] positions = new int[0];
 
-    SparseNumericDocValues(IndexedDISI disi) {
+    SparseNumericDocValues(IndexedDISI disi, NumericEntry entry) {
       this.disi = disi;
+      this.entry = entry;
+    }
+
+    @Override
+    public void longValues(int size, int[] docs, long[] values, long missingValue) throws IOException {
+      indexes = ArrayUtil.grow(indexes, size);
+      positions = ArrayUtil.grow(positions, size);
+      final int count = Lucene70DocValuesProducer.advanceExact(disi, size, docs, indexes, positions);
+      if (bulkValues == null) {
+        bulkValues = getNumericValues(entry);
+      }
+      bulkValues.get(count, indexes, values);
+      // move values to their final position, backwards since positions[j] >= j
+      for (int i = size - 1, j = count - 1; i >= 0; --i) {
+        if (j >= 0 && positions[j] == i) {
+          values[i] = values[j--];
+        } else {
+          values[i] = missingValue;
+        }
+      }
     }
 
     @Override
@@ -420,6 +472,24 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
     }
   }
 
+  /**
+   * Advance <code>disi</code> to each of the given docs and record the index
+   * of the value of the docs that have one into <code>indexes</code>, and
+   * their position in <code>docs</code> into <code>positions</code>. Return
+   * the number of docs that have a value.
+   */
+  private static int advanceExact(IndexedDISI disi, int size, int[] docs, int[] indexes, int[] positions) throws IOException {
+    int count = 0;
+    for (int i = 0; i < size; ++i) {
+      if (disi.advanceExact(docs[i])) {
+        indexes[count] = disi.index();
+        positions[count] = i;
+        ++count;
+      }
+    }
+    return count;
+  }
+
   private NumericDocValues getNumeric(NumericEntry entry) throws IOException {
     if (entry.docsWithFieldOffset == -2) {
       // empty
@@ -427,7 +497,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
     } else if (entry.docsWithFieldOffset == -1) {
       // dense
       if (entry.bitsPerValue == 0) {
-        return new DenseNumericDocValues(maxDoc) {
+        return new DenseNumericDocValues(maxDoc, entry) {
           @Override
           public long longValue() throws IOException {
             return entry.minValue;
@@ -440,7 +510,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
           final int shift = entry.blockShift;
           final long mul = entry.gcd;
           final int mask = (1 << shift) - 1;
-          return new DenseNumericDocValues(maxDoc) {
+          return new DenseNumericDocValues(maxDoc, entry) {
             int block = -1;
             long delta;
             long offset;
@@ -475,7 +545,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
           final LongValues values = DirectReader.getInstance(slice, entry.bitsPerValue);
           if (entry.table != null) {
             final long[] table = entry.table;
-            return new DenseNumericDocValues(maxDoc) {
+            return new DenseNumericDocValues(maxDoc, entry) {
               @Override
               public long longValue() throws IOException {
                 return table[(int) values.get(doc)];
@@ -484,7 +554,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
           } else {
             final long mul = entry.gcd;
             final long delta = entry.minValue;
-            return new DenseNumericDocValues(maxDoc) {
+            return new DenseNumericDocValues(maxDoc, entry) {
               @Override
               public long longValue() throws IOException {
                 return mul * values.get(doc) + delta;
@@ -497,7 +567,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
       // sparse
       final IndexedDISI disi = new IndexedDISI(data, entry.docsWithFieldOffset, entry.docsWithFieldLength, entry.numValues);
       if (entry.bitsPerValue == 0) {
-        return new SparseNumericDocValues(disi) {
+        return new SparseNumericDocValues(disi, entry) {
           @Override
           public long longValue() throws IOException {
             return entry.minValue;
@@ -510,7 +580,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
           final int shift = entry.blockShift;
           final long mul = entry.gcd;
           final int mask = (1 << shift) - 1;
-          return new SparseNumericDocValues(disi) {
+          return new SparseNumericDocValues(disi, entry) {
             int block = -1;
             long delta;
             long offset;
@@ -546,7 +616,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
           final LongValues values = DirectReader.getInstance(slice, entry.bitsPerValue);
           if (entry.table != null) {
             final long[] table = entry.table;
-            return new SparseNumericDocValues(disi) {
+            return new SparseNumericDocValues(disi, entry) {
               @Override
               public long longValue() throws IOException {
                 return table[(int) values.get(disi.index())];
@@ -555,7 +625,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
           } else {
             final long mul = entry.gcd;
             final long delta = entry.minValue;
-            return new SparseNumericDocValues(disi) {
+            return new SparseNumericDocValues(disi, entry) {
               @Override
               public long longValue() throws IOException {
                 return mul * values.get(disi.index()) + delta;
@@ -574,6 +644,11 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
         public long get(long index) {
           return entry.minValue;
         }
+
+        @Override
+        public void get(int size, int[] indexes, long[] values) {
+          Arrays.fill(values, 0, size, entry.minValue);
+        }
       };
     } else {
       final RandomAccessInput slice = data.randomAccessSlice(entry.valuesOffset, entry.valuesLength);
@@ -864,6 +939,21 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
         public int ordValue() {
           return (int) ords.get(doc);
         }
+
+        long[] values = new long[0];
+
+        @Override
+        public void ordValues(int size, int[] docs, int[] docOrds) {
+          if (size > 0) {
+            // all docs have a value
+            values = ArrayUtil.grow(values, size);
+            ords.get(size, docs, values);
+            for (int i = 0; i < size; ++i) {
+              docOrds[i] = (int) values[i];
+            }
+            doc = docs[size - 1];
+          }
+        }
       };
     } else {
       // sparse
@@ -899,6 +989,23 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
         public int ordValue() {
           return (int) ords.get(disi.index());
         }
+
+        int[] indexes = new int[0];
+        int[] positions = new int[0];
+        long[] values = new long[0];
+
+        @Override
+        public void ordValues(int size, int[] docs, int[] docOrds) throws IOException {
+          indexes = ArrayUtil.grow(indexes, size);
+          positions = ArrayUtil.grow(positions, size);
+          final int count = Lucene70DocValuesProducer.advanceExact(disi, size, docs, indexes, positions);
+          values = ArrayUtil.grow(values, count);
+          ords.get(count, indexes, values);
+          Arrays.fill(docOrds, 0, size, -1);
+          for (int i = 0; i < count; ++i) {
+            docOrds[positions[i]] = (int) values[i];
+          }
+        }
       };
     }
   }
@@ -1163,6 +1270,74 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
     }
   }
 
+  @Override
+  public DocValuesSkipper getSkipper(FieldInfo field) throws IOException {
+    final NumericEntry entry;
+    if (field.getDocValuesType() == DocValuesType.SORTED_NUMERIC) {
+      entry = sortedNumerics.get(field.name);
+    } else {
+      entry = numerics.get(field.name);
+    }
+    if (entry == null || entry.skipIndexOffset == -1) {
+      return null;
+    }
+    final RandomAccessInput skipIndex = data.randomAccessSlice(entry.skipIndexOffset, entry.skipIndexLength);
+    final int numBlocks = Math.toIntExact(entry.skipIndexLength / Lucene70DocValuesFormat.SKIP_INDEX_ENTRY_BYTES);
+    return new DocValuesSkipper() {
+
+      int minDocID = -1, maxDocID = -1;
+      long minValue, maxValue;
+      int docCount;
+
+      @Override
+      public void advance(int target) throws IOException {
+        assert target > maxDocID;
+        final int firstBlock = target >= maxDoc ? numBlocks : target >>> Lucene70DocValuesFormat.SKIP_INDEX_BLOCK_SHIFT;
+        for (int block = firstBlock; block < numBlocks; ++block) {
+          final long offset = (long) block * Lucene70DocValuesFormat.SKIP_INDEX_ENTRY_BYTES;
+          final int count = skipIndex.readInt(offset + 2 * Long.BYTES);
+          if (count > 0) {
+            minDocID = block << Lucene70DocValuesFormat.SKIP_INDEX_BLOCK_SHIFT;
+            maxDocID = (int) Math.min(maxDoc, (long) minDocID + Lucene70DocValuesFormat.SKIP_INDEX_BLOCK_SIZE) - 1;
+            minValue = skipIndex.readLong(offset);
+            maxValue = skipIndex.readLong(offset + Long.BYTES);
+            docCount = count;
+            return;
+          }
+        }
+        minDocID = maxDocID = DocIdSetIterator.NO_MORE_DOCS;
+        minValue = Long.MAX_VALUE;
+        maxValue = Long.MIN_VALUE;
+        docCount = 0;
+      }
+
+      @Override
+      public int minDocID() {
+        return minDocID;
+      }
+
+      @Override
+      public int maxDocID() {
+        return maxDocID;
+      }
+
+      @Override
+      public long minValue() {
+        return minValue;
+      }
+
+      @Override
+      public long maxValue() {
+        return maxValue;
+      }
+
+      @Override
+      public int docCount() {
+        return docCount;
+      }
+    };
+  }
+
   @Override
   public SortedNumericDocValues getSortedNumeric(FieldInfo field) throws IOException {
     SortedNumericEntry entry = sortedNumerics.get(field.name);
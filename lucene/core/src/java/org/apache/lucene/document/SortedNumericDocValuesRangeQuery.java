@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.util.Objects;
 
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesSkipper;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
@@ -27,6 +28,7 @@ import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.SortedNumericDocValues;
 import org.apache.lucene.search.ConstantScoreScorer;
 import org.apache.lucene.search.ConstantScoreWeight;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.FieldValueQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
@@ -136,9 +138,76 @@ abstract class SortedNumericDocValuesRangeQuery extends Query {
             }
           };
         }
+        final DocValuesSkipper skipper = context.reader().getDocValuesSkipper(field);
+        if (skipper != null) {
+          return new ConstantScoreScorer(this, score(), withSkipper(iterator, skipper));
+        }
         return new ConstantScoreScorer(this, score(), iterator);
       }
     };
   }
 
+  /**
+   * Wrap the given iterator so that blocks of documents whose values are all
+   * out of range are skipped, and documents of blocks whose values are all in
+   * range are matched without reading their values.
+   */
+  private TwoPhaseIterator withSkipper(TwoPhaseIterator in, DocValuesSkipper skipper) {
+    final DocIdSetIterator values = in.approximation();
+    final DocIdSetIterator approximation = new DocIdSetIterator() {
+
+      @Override
+      public int docID() {
+        return values.docID();
+      }
+
+      @Override
+      public int nextDoc() throws IOException {
+        return advance(values.docID() + 1);
+      }
+
+      @Override
+      public int advance(int target) throws IOException {
+        while (true) {
+          if (target > skipper.maxDocID()) {
+            skipper.advance(target);
+          }
+          if (skipper.minDocID() == NO_MORE_DOCS) {
+            return values.docID() == NO_MORE_DOCS ? NO_MORE_DOCS : values.advance(NO_MORE_DOCS);
+          }
+          if (skipper.minValue() > upperValue || skipper.maxValue() < lowerValue) {
+            // no value of this block is in range
+            target = skipper.maxDocID() + 1;
+            continue;
+          }
+          final int doc = values.docID() >= target ? values.docID() : values.advance(target);
+          if (doc <= skipper.maxDocID()) {
+            return doc;
+          }
+          // the next document that has a value is in a later block
+          target = doc;
+        }
+      }
+
+      @Override
+      public long cost() {
+        return values.cost();
+      }
+    };
+    return new TwoPhaseIterator(approximation) {
+      @Override
+      public boolean matches() throws IOException {
+        if (skipper.minValue() >= lowerValue && skipper.maxValue() <= upperValue) {
+          return true; // all values of this block are in range
+        }
+        return in.matches();
+      }
+
+      @Override
+      public float matchCost() {
+        return in.matchCost();
+      }
+    };
+  }
+
 }
@@ -17,6 +17,7 @@
 package org.apache.lucene.index;
 
 
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.PrintStream;
@@ -24,6 +25,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Deque;
 import java.util.HashMap;
@@ -31,8 +33,15 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
 
 import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.codecs.DocValuesProducer;
 import org.apache.lucene.codecs.NormsProducer;
 import org.apache.lucene.codecs.PointsReader;
@@ -62,8 +71,10 @@ import org.apache.lucene.util.CommandLineUtil;
 import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.LongBitSet;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.StringHelper;
 import org.apache.lucene.util.SuppressForbidden;
+import org.apache.lucene.util.ThreadInterruptedException;
 import org.apache.lucene.util.Version;
 import org.apache.lucene.util.automaton.Automata;
 import org.apache.lucene.util.automaton.CompiledAutomaton;
@@ -88,6 +99,9 @@ public final class CheckIndex implements Closeable {
   private Lock writeLock;
   private volatile boolean closed;
 
+  /** Size of the buffer used to read files when only verifying checksums. */
+  private static final int CHECKSUM_BUFFER_SIZE = 1 << 20;
+
   /**
    * Returned from {@link #checkIndex()} detailing the health and status of the index.
    *
@@ -465,6 +479,8 @@ public final class CheckIndex implements Closeable {
   
   /** 
    * If true, only validate physical integrity for all files. 
+   * Segments are not opened: the checksum of every file is
+   * verified against its codec footer using large sequential reads.
    * Note that the returned nested status objects (e.g. storedFieldStatus) will be null.  */
   public void setChecksumsOnly(boolean v) {
     checksumsOnly = v;
@@ -472,6 +488,24 @@ public final class CheckIndex implements Closeable {
   
   private boolean checksumsOnly;
 
+  private int threadCount = 1;
+
+  /** Set the number of threads that {@link #checkIndex(List)}
+   *  uses to check segments and their parts concurrently.
+   *  The default, 1, checks everything sequentially in the
+   *  calling thread. */
+  public void setThreadCount(int count) {
+    if (count < 1) {
+      throw new IllegalArgumentException("threadCount must be at least 1, got: " + count);
+    }
+    threadCount = count;
+  }
+
+  /** See {@link #setThreadCount}. */
+  public int getThreadCount() {
+    return threadCount;
+  }
+
   /** Set infoStream where messages should go.  If null, no
    *  messages are printed.  If verbose is true then more
    *  details are printed. */
@@ -510,8 +544,41 @@ public final class CheckIndex implements Closeable {
    *
    *  <p>As this method checks every byte in the specified
    *  segments, on a large index it can take quite a long
-   *  time to run. */
+   *  time to run.
+   *
+   *  <p>If the {@link #setThreadCount thread count} is greater
+   *  than 1, segments and their parts are checked concurrently. */
   public Status checkIndex(List<String> onlySegments) throws IOException {
+    if (threadCount <= 1) {
+      return checkIndex(onlySegments, null);
+    }
+    final ExecutorService executor = Executors.newFixedThreadPool(threadCount, new NamedThreadFactory("async-check-index"));
+    try {
+      return checkIndex(onlySegments, executor);
+    } finally {
+      executor.shutdownNow();
+      try {
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+        throw new ThreadInterruptedException(e);
+      }
+    }
+  }
+
+  /** Expert: returns a {@link Status} instance detailing
+   *  the state of the index, using the given executor to
+   *  check segments, and independent parts of each segment
+   *  (postings, stored fields, doc values, points, ...),
+   *  concurrently. Messages of each segment are buffered
+   *  and printed in order as soon as all of its checks
+   *  completed.
+   *
+   *  @param onlySegments list of specific segment names to
+   *  check, or null to check all segments
+   *  @param executor the executor to run checks with, or
+   *  null to check everything sequentially in the calling
+   *  thread */
+  public Status checkIndex(List<String> onlySegments, ExecutorService executor) throws IOException {
     ensureOpen();
     long startNS = System.nanoTime();
     NumberFormat nf = NumberFormat.getInstance(Locale.ROOT);
@@ -631,203 +698,400 @@ public final class CheckIndex implements Closeable {
     result.newSegments.clear();
     result.maxSegmentName = -1;
 
-    for(int i=0;i<numSegments;i++) {
-      final SegmentCommitInfo info = sis.info(i);
-      int segmentName = Integer.parseInt(info.info.name.substring(1), Character.MAX_RADIX);
-      if (segmentName > result.maxSegmentName) {
-        result.maxSegmentName = segmentName;
+    // without an executor, every segment is checked and reported before the next one is
+    // started, otherwise all segments are started and then reported in order as they complete
+    final Deque<SegmentCheck> pending = new ArrayDeque<>();
+    int numSegmentsToCheck = 0;
+    for (SegmentCommitInfo info : sis) {
+      if (onlySegments == null || onlySegments.contains(info.info.name)) {
+        numSegmentsToCheck++;
       }
-      if (onlySegments != null && !onlySegments.contains(info.info.name)) {
-        continue;
+    }
+    final SegmentCheckProgress progress = new SegmentCheckProgress(infoStream, startNS, numSegmentsToCheck);
+    try {
+      for(int i=0;i<numSegments;i++) {
+        final SegmentCommitInfo info = sis.info(i);
+        int segmentName = Integer.parseInt(info.info.name.substring(1), Character.MAX_RADIX);
+        if (segmentName > result.maxSegmentName) {
+          result.maxSegmentName = segmentName;
+        }
+        if (onlySegments != null && !onlySegments.contains(info.info.name)) {
+          continue;
+        }
+        pending.add(startSegmentCheck(info, i, numSegments, nf, executor));
+        if (executor == null) {
+          finishSegmentCheck(pending.poll(), result, progress);
+        }
       }
-      Status.SegmentInfoStatus segInfoStat = new Status.SegmentInfoStatus();
-      result.segmentInfos.add(segInfoStat);
-      msg(infoStream, "  " + (1+i) + " of " + numSegments + ": name=" + info.info.name + " maxDoc=" + info.info.maxDoc());
-      segInfoStat.name = info.info.name;
-      segInfoStat.maxDoc = info.info.maxDoc();
-      
-      final Version version = info.info.getVersion();
-      if (info.info.maxDoc() <= 0) {
-        throw new RuntimeException("illegal number of documents: maxDoc=" + info.info.maxDoc());
+      while (pending.isEmpty() == false) {
+        finishSegmentCheck(pending.poll(), result, progress);
+      }
+    } finally {
+      // only non-empty if we are failing fast
+      for (SegmentCheck check : pending) {
+        check.cancel();
       }
+    }
 
-      int toLoseDocCount = info.info.maxDoc();
+    if (0 == result.numBadSegments) {
+      result.clean = true;
+    } else
+      msg(infoStream, "WARNING: " + result.numBadSegments + " broken segments (containing " + result.totLoseDocCount + " documents) detected");
 
-      SegmentReader reader = null;
-      Sort previousIndexSort = null;
+    if ( ! (result.validCounter = (result.maxSegmentName < sis.counter))) {
+      result.clean = false;
+      result.newSegments.counter = result.maxSegmentName + 1; 
+      msg(infoStream, "ERROR: Next segment name counter " + sis.counter + " is not greater than max segment name " + result.maxSegmentName);
+    }
+    
+    if (result.clean) {
+      msg(infoStream, "No problems were detected with this index.\n");
+    }
 
-      try {
-        msg(infoStream, "    version=" + (version == null ? "3.0" : version));
-        msg(infoStream, "    id=" + StringHelper.idToString(info.info.getId()));
-        final Codec codec = info.info.getCodec();
-        msg(infoStream, "    codec=" + codec);
-        segInfoStat.codec = codec;
-        msg(infoStream, "    compound=" + info.info.getUseCompoundFile());
-        segInfoStat.compound = info.info.getUseCompoundFile();
-        msg(infoStream, "    numFiles=" + info.files().size());
-        Sort indexSort = info.info.getIndexSort();
-        if (indexSort != null) {
-          msg(infoStream, "    sort=" + indexSort);
-          if (previousIndexSort != null) {
-            if (previousIndexSort.equals(indexSort) == false) {
-              throw new RuntimeException("index sort changed from " + previousIndexSort + " to " + indexSort);
-            }
-          } else {
-            previousIndexSort = indexSort;
+    msg(infoStream, String.format(Locale.ROOT, "Took %.3f sec total.", nsToSec(System.nanoTime()-startNS)));
+
+    return result;
+  }
+
+  /** Prints header information about a segment, opens it and starts its checks. */
+  private SegmentCheck startSegmentCheck(SegmentCommitInfo info, int i, int numSegments, NumberFormat nf, ExecutorService executor) throws IOException {
+    final SegmentCheck check = new SegmentCheck(info, infoStream, executor != null);
+    final PrintStream infoStream = check.infoStream;
+    final Status.SegmentInfoStatus segInfoStat = check.status;
+    msg(infoStream, "  " + (1+i) + " of " + numSegments + ": name=" + info.info.name + " maxDoc=" + info.info.maxDoc());
+    segInfoStat.name = info.info.name;
+    segInfoStat.maxDoc = info.info.maxDoc();
+
+    final Version version = info.info.getVersion();
+    if (info.info.maxDoc() <= 0) {
+      throw new RuntimeException("illegal number of documents: maxDoc=" + info.info.maxDoc());
+    }
+
+    check.toLoseDocCount = info.info.maxDoc();
+
+    Sort previousIndexSort = null;
+
+    try {
+      msg(infoStream, "    version=" + (version == null ? "3.0" : version));
+      msg(infoStream, "    id=" + StringHelper.idToString(info.info.getId()));
+      final Codec codec = info.info.getCodec();
+      msg(infoStream, "    codec=" + codec);
+      segInfoStat.codec = codec;
+      msg(infoStream, "    compound=" + info.info.getUseCompoundFile());
+      segInfoStat.compound = info.info.getUseCompoundFile();
+      msg(infoStream, "    numFiles=" + info.files().size());
+      final Sort indexSort = info.info.getIndexSort();
+      if (indexSort != null) {
+        msg(infoStream, "    sort=" + indexSort);
+        if (previousIndexSort != null) {
+          if (previousIndexSort.equals(indexSort) == false) {
+            throw new RuntimeException("index sort changed from " + previousIndexSort + " to " + indexSort);
           }
+        } else {
+          previousIndexSort = indexSort;
         }
-        segInfoStat.numFiles = info.files().size();
-        segInfoStat.sizeMB = info.sizeInBytes()/(1024.*1024.);
-        msg(infoStream, "    size (MB)=" + nf.format(segInfoStat.sizeMB));
-        Map<String,String> diagnostics = info.info.getDiagnostics();
-        segInfoStat.diagnostics = diagnostics;
-        if (diagnostics.size() > 0) {
-          msg(infoStream, "    diagnostics = " + diagnostics);
-        }
+      }
+      segInfoStat.numFiles = info.files().size();
+      segInfoStat.sizeMB = info.sizeInBytes()/(1024.*1024.);
+      msg(infoStream, "    size (MB)=" + nf.format(segInfoStat.sizeMB));
+      Map<String,String> diagnostics = info.info.getDiagnostics();
+      segInfoStat.diagnostics = diagnostics;
+      if (diagnostics.size() > 0) {
+        msg(infoStream, "    diagnostics = " + diagnostics);
+      }
 
-        if (!info.hasDeletions()) {
-          msg(infoStream, "    no deletions");
-          segInfoStat.hasDeletions = false;
-        } else {
-          msg(infoStream, "    has deletions [delGen=" + info.getDelGen() + "]");
-          segInfoStat.hasDeletions = true;
-          segInfoStat.deletionsGen = info.getDelGen();
+      if (!info.hasDeletions()) {
+        msg(infoStream, "    no deletions");
+        segInfoStat.hasDeletions = false;
+      } else {
+        msg(infoStream, "    has deletions [delGen=" + info.getDelGen() + "]");
+        segInfoStat.hasDeletions = true;
+        segInfoStat.deletionsGen = info.getDelGen();
+      }
+
+      if (checksumsOnly) {
+        // no need to open the segment: verify the footer of every file
+        check.toLoseDocCount = info.info.maxDoc() - info.getDelCount();
+        for (String file : info.files()) {
+          submit(check, executor, out -> {
+            long startChecksumNS = System.nanoTime();
+            checksumFile(dir, file);
+            if (verbose) {
+              msg(out, String.format(Locale.ROOT, "    test: checksum %s OK [took %.3f sec]", file, nsToSec(System.nanoTime()-startChecksumNS)));
+            }
+          });
         }
-        
-        long startOpenReaderNS = System.nanoTime();
-        if (infoStream != null)
-          infoStream.print("    test: open reader.........");
-        reader = new SegmentReader(info, IOContext.DEFAULT);
-        msg(infoStream, String.format(Locale.ROOT, "OK [took %.3f sec]", nsToSec(System.nanoTime()-startOpenReaderNS)));
+        return check;
+      }
 
-        segInfoStat.openReaderPassed = true;
-        
+      long startOpenReaderNS = System.nanoTime();
+      if (infoStream != null)
+        infoStream.print("    test: open reader.........");
+      final SegmentReader reader = check.reader = new SegmentReader(info, IOContext.DEFAULT);
+      msg(infoStream, String.format(Locale.ROOT, "OK [took %.3f sec]", nsToSec(System.nanoTime()-startOpenReaderNS)));
+
+      segInfoStat.openReaderPassed = true;
+
+      submit(check, executor, out -> {
         long startIntegrityNS = System.nanoTime();
-        if (infoStream != null)
-          infoStream.print("    test: check integrity.....");
+        if (out != null)
+          out.print("    test: check integrity.....");
         reader.checkIntegrity();
-        msg(infoStream, String.format(Locale.ROOT, "OK [took %.3f sec]", nsToSec(System.nanoTime()-startIntegrityNS)));
+        msg(out, String.format(Locale.ROOT, "OK [took %.3f sec]", nsToSec(System.nanoTime()-startIntegrityNS)));
+      });
+
+      if (reader.maxDoc() != info.info.maxDoc()) {
+        throw new RuntimeException("SegmentReader.maxDoc() " + reader.maxDoc() + " != SegmentInfo.maxDoc " + info.info.maxDoc());
+      }
+
+      final int numDocs = reader.numDocs();
+      check.toLoseDocCount = numDocs;
 
-        if (reader.maxDoc() != info.info.maxDoc()) {
-          throw new RuntimeException("SegmentReader.maxDoc() " + reader.maxDoc() + " != SegmentInfo.maxDoc " + info.info.maxDoc());
+      if (reader.hasDeletions()) {
+        if (reader.numDocs() != info.info.maxDoc() - info.getDelCount()) {
+          throw new RuntimeException("delete count mismatch: info=" + (info.info.maxDoc() - info.getDelCount()) + " vs reader=" + reader.numDocs());
         }
-        
-        final int numDocs = reader.numDocs();
-        toLoseDocCount = numDocs;
-        
-        if (reader.hasDeletions()) {
-          if (reader.numDocs() != info.info.maxDoc() - info.getDelCount()) {
-            throw new RuntimeException("delete count mismatch: info=" + (info.info.maxDoc() - info.getDelCount()) + " vs reader=" + reader.numDocs());
-          }
-          if ((info.info.maxDoc() - reader.numDocs()) > reader.maxDoc()) {
-            throw new RuntimeException("too many deleted docs: maxDoc()=" + reader.maxDoc() + " vs del count=" + (info.info.maxDoc() - reader.numDocs()));
-          }
-          if (info.info.maxDoc() - reader.numDocs() != info.getDelCount()) {
-            throw new RuntimeException("delete count mismatch: info=" + info.getDelCount() + " vs reader=" + (info.info.maxDoc() - reader.numDocs()));
-          }
-        } else {
-          if (info.getDelCount() != 0) {
-            throw new RuntimeException("delete count mismatch: info=" + info.getDelCount() + " vs reader=" + (info.info.maxDoc() - reader.numDocs()));
-          }
+        if ((info.info.maxDoc() - reader.numDocs()) > reader.maxDoc()) {
+          throw new RuntimeException("too many deleted docs: maxDoc()=" + reader.maxDoc() + " vs del count=" + (info.info.maxDoc() - reader.numDocs()));
         }
-        
-        if (checksumsOnly == false) {
-          // Test Livedocs
-          segInfoStat.liveDocStatus = testLiveDocs(reader, infoStream, failFast);
+        if (info.info.maxDoc() - reader.numDocs() != info.getDelCount()) {
+          throw new RuntimeException("delete count mismatch: info=" + info.getDelCount() + " vs reader=" + (info.info.maxDoc() - reader.numDocs()));
+        }
+      } else {
+        if (info.getDelCount() != 0) {
+          throw new RuntimeException("delete count mismatch: info=" + info.getDelCount() + " vs reader=" + (info.info.maxDoc() - reader.numDocs()));
+        }
+      }
 
-          // Test Fieldinfos
-          segInfoStat.fieldInfoStatus = testFieldInfos(reader, infoStream, failFast);
-        
-          // Test Field Norms
-          segInfoStat.fieldNormStatus = testFieldNorms(reader, infoStream, failFast);
-
-          // Test the Term Index
-          segInfoStat.termIndexStatus = testPostings(reader, infoStream, verbose, failFast, version);
-
-          // Test Stored Fields
-          segInfoStat.storedFieldStatus = testStoredFields(reader, infoStream, failFast);
-
-          // Test Term Vectors
-          segInfoStat.termVectorStatus = testTermVectors(reader, infoStream, verbose, crossCheckTermVectors, failFast, version);
-
-          // Test Docvalues
-          segInfoStat.docValuesStatus = testDocValues(reader, infoStream, failFast);
-
-          // Test PointValues
-          segInfoStat.pointsStatus = testPoints(reader, infoStream, failFast);
-
-          // Test index sort
-          segInfoStat.indexSortStatus = testSort(reader, indexSort, infoStream, failFast);
-
-          // Rethrow the first exception we encountered
-          //  This will cause stats for failed segments to be incremented properly
-          if (segInfoStat.liveDocStatus.error != null) {
-            throw new RuntimeException("Live docs test failed");
-          } else if (segInfoStat.fieldInfoStatus.error != null) {
-            throw new RuntimeException("Field Info test failed");
-          } else if (segInfoStat.fieldNormStatus.error != null) {
-            throw new RuntimeException("Field Norm test failed");
-          } else if (segInfoStat.termIndexStatus.error != null) {
-            throw new RuntimeException("Term Index test failed");
-          } else if (segInfoStat.storedFieldStatus.error != null) {
-            throw new RuntimeException("Stored Field test failed");
-          } else if (segInfoStat.termVectorStatus.error != null) {
-            throw new RuntimeException("Term Vector test failed");
-          } else if (segInfoStat.docValuesStatus.error != null) {
-            throw new RuntimeException("DocValues test failed");
-          } else if (segInfoStat.pointsStatus.error != null) {
-            throw new RuntimeException("Points test failed");
+      // Test Livedocs
+      submit(check, executor, out -> segInfoStat.liveDocStatus = testLiveDocs(reader, out, failFast));
+
+      // Test Fieldinfos
+      submit(check, executor, out -> segInfoStat.fieldInfoStatus = testFieldInfos(reader, out, failFast));
+
+      // Test Field Norms
+      submit(check, executor, out -> segInfoStat.fieldNormStatus = testFieldNorms(reader, out, failFast));
+
+      // Test the Term Index
+      submit(check, executor, out -> segInfoStat.termIndexStatus = testPostings(reader, out, verbose, failFast, version));
+
+      // Test Stored Fields
+      submit(check, executor, out -> segInfoStat.storedFieldStatus = testStoredFields(reader, out, failFast));
+
+      // Test Term Vectors
+      submit(check, executor, out -> segInfoStat.termVectorStatus = testTermVectors(reader, out, verbose, crossCheckTermVectors, failFast, version));
+
+      // Test Docvalues
+      submit(check, executor, out -> segInfoStat.docValuesStatus = testDocValues(reader, out, failFast));
+
+      // Test PointValues
+      submit(check, executor, out -> segInfoStat.pointsStatus = testPoints(reader, out, failFast));
+
+      // Test index sort
+      submit(check, executor, out -> segInfoStat.indexSortStatus = testSort(reader, indexSort, out, failFast));
+    } catch (Throwable t) {
+      // reported in order by finishSegmentCheck
+      check.error = t;
+    }
+    return check;
+  }
+
+  /** Waits for the checks of a segment to complete, prints their messages and records the result. */
+  private void finishSegmentCheck(SegmentCheck check, Status result, SegmentCheckProgress progress) throws IOException {
+    final SegmentCommitInfo info = check.info;
+    final Status.SegmentInfoStatus segInfoStat = check.status;
+    result.segmentInfos.add(segInfoStat);
+
+    try {
+      Throwable error = check.error;
+      flush(check.output, infoStream);
+      for (SegmentCheckTask task : check.tasks) {
+        try {
+          task.future.get();
+        } catch (InterruptedException e) {
+          throw new ThreadInterruptedException(e);
+        } catch (ExecutionException e) {
+          if (error == null) {
+            error = e.getCause();
           }
         }
+        flush(task.output, infoStream);
+      }
+      if (error != null) {
+        throw error;
+      }
 
-        msg(infoStream, "");
-        
-        if (verbose) {
-          msg(infoStream, "detailed segment RAM usage: ");
-          msg(infoStream, Accountables.toString(reader));
-        }
+      if (checksumsOnly) {
+        msg(infoStream, "    test: checksums...........OK [" + segInfoStat.numFiles + " files]");
+      } else {
+        // Rethrow the first exception we encountered
+        //  This will cause stats for failed segments to be incremented properly
+        if (segInfoStat.liveDocStatus.error != null) {
+          throw new RuntimeException("Live docs test failed");
+        } else if (segInfoStat.fieldInfoStatus.error != null) {
+          throw new RuntimeException("Field Info test failed");
+        } else if (segInfoStat.fieldNormStatus.error != null) {
+          throw new RuntimeException("Field Norm test failed");
+        } else if (segInfoStat.termIndexStatus.error != null) {
+          throw new RuntimeException("Term Index test failed");
+        } else if (segInfoStat.storedFieldStatus.error != null) {
+          throw new RuntimeException("Stored Field test failed");
+        } else if (segInfoStat.termVectorStatus.error != null) {
+          throw new RuntimeException("Term Vector test failed");
+        } else if (segInfoStat.docValuesStatus.error != null) {
+          throw new RuntimeException("DocValues test failed");
+        } else if (segInfoStat.pointsStatus.error != null) {
+          throw new RuntimeException("Points test failed");
+        }
+      }
+
+      msg(infoStream, "");
+
+      if (verbose && check.reader != null) {
+        msg(infoStream, "detailed segment RAM usage: ");
+        msg(infoStream, Accountables.toString(check.reader));
+      }
 
-      } catch (Throwable t) {
-        if (failFast) {
-          IOUtils.reThrow(t);
-        }
-        msg(infoStream, "FAILED");
-        String comment;
-        comment = "exorciseIndex() would remove reference to this segment";
-        msg(infoStream, "    WARNING: " + comment + "; full exception:");
-        if (infoStream != null)
-          t.printStackTrace(infoStream);
-        msg(infoStream, "");
-        result.totLoseDocCount += toLoseDocCount;
-        result.numBadSegments++;
-        continue;
-      } finally {
-        if (reader != null)
-          reader.close();
+    } catch (Throwable t) {
+      if (failFast) {
+        IOUtils.reThrow(t);
       }
+      msg(infoStream, "FAILED");
+      String comment;
+      comment = "exorciseIndex() would remove reference to this segment";
+      msg(infoStream, "    WARNING: " + comment + "; full exception:");
+      if (infoStream != null)
+        t.printStackTrace(infoStream);
+      msg(infoStream, "");
+      result.totLoseDocCount += check.toLoseDocCount;
+      result.numBadSegments++;
+      return;
+    } finally {
+      if (check.reader != null)
+        check.reader.close();
+      progress.segmentChecked(segInfoStat.sizeMB);
+    }
+
+    // Keeper
+    result.newSegments.add(info.clone());
+  }
 
-      // Keeper
-      result.newSegments.add(info.clone());
+  /** Runs a check of a segment in the calling thread if {@code executor} is null, or asynchronously otherwise. */
+  private static void submit(SegmentCheck check, ExecutorService executor, SegmentPartCheck part) throws IOException {
+    if (executor == null) {
+      part.check(check.infoStream);
+    } else {
+      final ByteArrayOutputStream output = check.output == null ? null : new ByteArrayOutputStream();
+      final PrintStream out = output == null ? null : new PrintStream(output, true, IOUtils.UTF_8);
+      final Future<?> future = executor.submit(() -> {
+        part.check(out);
+        return null;
+      });
+      check.tasks.add(new SegmentCheckTask(future, output));
     }
+  }
 
-    if (0 == result.numBadSegments) {
-      result.clean = true;
-    } else
-      msg(infoStream, "WARNING: " + result.numBadSegments + " broken segments (containing " + result.totLoseDocCount + " documents) detected");
+  /** Verifies the checksum of a file against its codec footer, using large sequential reads. */
+  private static void checksumFile(Directory dir, String file) throws IOException {
+    try (IndexInput in = dir.openInput(file, IOContext.READONCE)) {
+      final long expectedChecksum = CodecUtil.retrieveChecksum(in);
+      in.seek(0);
+      final CRC32 crc = new CRC32();
+      final byte[] buffer = new byte[CHECKSUM_BUFFER_SIZE];
+      // the checksum covers everything but itself
+      for (long remaining = in.length() - Long.BYTES; remaining > 0; ) {
+        final int len = (int) Math.min(buffer.length, remaining);
+        in.readBytes(buffer, 0, len);
+        crc.update(buffer, 0, len);
+        remaining -= len;
+      }
+      final long actualChecksum = crc.getValue();
+      if (actualChecksum != expectedChecksum) {
+        throw new CorruptIndexException("checksum failed (hardware problem?) : expected=" + Long.toHexString(expectedChecksum) +
+                                        " actual=" + Long.toHexString(actualChecksum), in);
+      }
+    }
+  }
 
-    if ( ! (result.validCounter = (result.maxSegmentName < sis.counter))) {
-      result.clean = false;
-      result.newSegments.counter = result.maxSegmentName + 1; 
-      msg(infoStream, "ERROR: Next segment name counter " + sis.counter + " is not greater than max segment name " + result.maxSegmentName);
+  private static void flush(ByteArrayOutputStream output, PrintStream infoStream) throws IOException {
+    if (output != null && infoStream != null) {
+      output.writeTo(infoStream);
+      infoStream.flush();
     }
-    
-    if (result.clean) {
-      msg(infoStream, "No problems were detected with this index.\n");
+  }
+
+  /** A check of one part of a segment, which prints its messages to the given stream. */
+  @FunctionalInterface
+  private interface SegmentPartCheck {
+    void check(PrintStream infoStream) throws IOException;
+  }
+
+  /** A check of one part of a segment that runs concurrently with other checks. */
+  private static final class SegmentCheckTask {
+    final Future<?> future;
+    /** Messages of this check, or null if there is no infoStream. */
+    final ByteArrayOutputStream output;
+
+    SegmentCheckTask(Future<?> future, ByteArrayOutputStream output) {
+      this.future = future;
+      this.output = output;
     }
 
-    msg(infoStream, String.format(Locale.ROOT, "Took %.3f sec total.", nsToSec(System.nanoTime()-startNS)));
+  }
 
-    return result;
+  /** A segment whose checks may be running concurrently with checks of other segments. */
+  private static final class SegmentCheck {
+    final SegmentCommitInfo info;
+    final Status.SegmentInfoStatus status = new Status.SegmentInfoStatus();
+    /** Messages of the segment when checks run concurrently, or null if they are printed directly. */
+    final ByteArrayOutputStream output;
+    final PrintStream infoStream;
+    final List<SegmentCheckTask> tasks = new ArrayList<>();
+    int toLoseDocCount;
+    SegmentReader reader;
+    Throwable error;
+
+    SegmentCheck(SegmentCommitInfo info, PrintStream infoStream, boolean buffered) throws IOException {
+      this.info = info;
+      if (buffered && infoStream != null) {
+        output = new ByteArrayOutputStream();
+        this.infoStream = new PrintStream(output, true, IOUtils.UTF_8);
+      } else {
+        output = null;
+        this.infoStream = infoStream;
+      }
+    }
+
+    void cancel() {
+      for (SegmentCheckTask task : tasks) {
+        task.future.cancel(true);
+      }
+      IOUtils.closeWhileHandlingException(reader);
+    }
+  }
+
+  /** Reports the number of checked segments and the throughput so far. */
+  private static final class SegmentCheckProgress {
+    final PrintStream infoStream;
+    final long startNS;
+    final int numSegments;
+    int numChecked;
+    double checkedMB;
+
+    SegmentCheckProgress(PrintStream infoStream, long startNS, int numSegments) {
+      this.infoStream = infoStream;
+      this.startNS = startNS;
+      this.numSegments = numSegments;
+    }
+
+    void segmentChecked(double sizeMB) {
+      numChecked++;
+      checkedMB += sizeMB;
+      final double sec = nsToSec(System.nanoTime() - startNS);
+      msg(infoStream, String.format(Locale.ROOT, "  checked %d of %d segments, %.2f MB [took %.3f sec, %.2f MB/sec]",
+          numChecked, numSegments, checkedMB, sec, sec == 0 ? 0 : checkedMB / sec));
+      msg(infoStream, "");
+    }
   }
 
   /**
@@ -2620,11 +2884,16 @@ public final class CheckIndex implements Closeable {
     <p>
     Run it like this:
     <pre>
-    java -ea:org.apache.lucene... org.apache.lucene.index.CheckIndex pathToIndex [-exorcise] [-verbose] [-segment X] [-segment Y]
+    java -ea:org.apache.lucene... org.apache.lucene.index.CheckIndex pathToIndex [-exorcise] [-verbose] [-fast] [-threadCount N] [-segment X] [-segment Y]
     </pre>
     <ul>
     <li><code>-exorcise</code>: actually write a new segments_N file, removing any problematic segments. *LOSES DATA*
 
+    <li><code>-fast</code>: only verify the checksums of all files, without opening segments.
+
+    <li><code>-threadCount N</code>: check segments, and independent parts of each
+    segment, concurrently with N threads.
+
     <li><code>-segment X</code>: only check the specified
     segment(s).  This can be specified multiple times,
     to check more than one segment, eg <code>-segment _2
@@ -2660,6 +2929,7 @@ public final class CheckIndex implements Closeable {
     boolean doCrossCheckTermVectors = false;
     boolean verbose = false;
     boolean doChecksumsOnly = false;
+    int threadCount = 1;
     List<String> onlySegments = new ArrayList<>();
     String indexPath = null;
     String dirImpl = null;
@@ -2746,6 +3016,19 @@ public final class CheckIndex implements Closeable {
         opts.doCrossCheckTermVectors = true;
       } else if (arg.equals("-verbose")) {
         opts.verbose = true;
+      } else if (arg.equals("-threadCount")) {
+        if (i == args.length-1) {
+          throw new IllegalArgumentException("ERROR: missing value for -threadCount option");
+        }
+        i++;
+        try {
+          opts.threadCount = Integer.parseInt(args[i]);
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("ERROR: -threadCount must be a number, got: " + args[i]);
+        }
+        if (opts.threadCount < 1) {
+          throw new IllegalArgumentException("ERROR: -threadCount must be at least 1, got: " + opts.threadCount);
+        }
       } else if (arg.equals("-segment")) {
         if (i == args.length-1) {
           throw new IllegalArgumentException("ERROR: missing name for -segment option");
@@ -2769,13 +3052,14 @@ public final class CheckIndex implements Closeable {
 
     if (opts.indexPath == null) {
       throw new IllegalArgumentException("\nERROR: index path not specified" +
-                         "\nUsage: java org.apache.lucene.index.CheckIndex pathToIndex [-exorcise] [-crossCheckTermVectors] [-segment X] [-segment Y] [-dir-impl X]\n" +
+                         "\nUsage: java org.apache.lucene.index.CheckIndex pathToIndex [-exorcise] [-crossCheckTermVectors] [-threadCount N] [-segment X] [-segment Y] [-dir-impl X]\n" +
                          "\n" +
                          "  -exorcise: actually write a new segments_N file, removing any problematic segments\n" +
                          "  -fast: just verify file checksums, omitting logical integrity checks\n" + 
                          "  -crossCheckTermVectors: verifies that term vectors match postings; THIS IS VERY SLOW!\n" +
                          "  -codec X: when exorcising, codec to write the new segments_N file with\n" +
                          "  -verbose: print additional details\n" +
+                         "  -threadCount N: check segments and their parts concurrently with N threads (default: 1)\n" +
                          "  -segment X: only check the specified segments.  This can be specified multiple\n" + 
                          "              times, to check more than one segment, eg '-segment _2 -segment _a'.\n" +
                          "              You can't use this with the -exorcise option\n" +
@@ -2818,6 +3102,7 @@ public final class CheckIndex implements Closeable {
   public int doCheck(Options opts) throws IOException, InterruptedException {
     setCrossCheckTermVectors(opts.doCrossCheckTermVectors);
     setChecksumsOnly(opts.doChecksumsOnly);
+    setThreadCount(opts.threadCount);
     setInfoStream(opts.out, opts.verbose);
 
     Status result = checkIndex(opts.onlySegments);
@@ -166,6 +166,23 @@ public abstract class CodecReader extends LeafReader implements Accountable {
     return getDocValuesReader().getSortedNumeric(fi);
   }
 
+  @Override
+  public final DocValuesSkipper getDocValuesSkipper(String field) throws IOException {
+    ensureOpen();
+    FieldInfo fi = getFieldInfos().fieldInfo(field);
+    if (fi == null) {
+      // Field does not exist
+      return null;
+    }
+    switch (fi.getDocValuesType()) {
+      case NUMERIC:
+      case SORTED_NUMERIC:
+        return getDocValuesReader().getSkipper(fi);
+      default:
+        return null;
+    }
+  }
+
   @Override
   public final SortedSetDocValues getSortedSetDocValues(String field) throws IOException {
     ensureOpen();
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+
+import org.apache.lucene.search.DocIdSetIterator;
+
+/**
+ * Skip index of a {@link DocValuesType#NUMERIC NUMERIC} or
+ * {@link DocValuesType#SORTED_NUMERIC SORTED_NUMERIC} field. It iterates over
+ * blocks of contiguous doc IDs and exposes the range of values of each block,
+ * which allows queries to skip blocks whose values are all out of range and
+ * to match blocks whose values are all in range without reading values.
+ * <p>
+ * The skipper is initially unpositioned: {@link #minDocID()} and
+ * {@link #maxDocID()} return -1 until {@link #advance(int)} is called.
+ *
+ * @see LeafReader#getDocValuesSkipper(String)
+ * @lucene.experimental
+ */
+public abstract class DocValuesSkipper {
+
+  /** Sole constructor. (For invocation by subclass
+   *  constructors, typically implicit.) */
+  protected DocValuesSkipper() {}
+
+  /**
+   * Advance to the first block of documents whose {@link #maxDocID()} is
+   * greater than or equal to <code>target</code> and that contains at least
+   * one document that has a value. If there is no such block, then both
+   * {@link #minDocID()} and {@link #maxDocID()} are set to
+   * {@link DocIdSetIterator#NO_MORE_DOCS}. <code>target</code> must be
+   * greater than {@link #maxDocID()}.
+   */
+  public abstract void advance(int target) throws IOException;
+
+  /** Return the first doc ID of the current block, inclusive. */
+  public abstract int minDocID();
+
+  /** Return the last doc ID of the current block, inclusive. */
+  public abstract int maxDocID();
+
+  /** Return a lower bound of the values of documents in the current block. */
+  public abstract long minValue();
+
+  /** Return an upper bound of the values of documents in the current block. */
+  public abstract long maxValue();
+
+  /** Return the number of documents of the current block that have a value. */
+  public abstract int docCount();
+
+}
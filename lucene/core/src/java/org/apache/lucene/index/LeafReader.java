@@ -269,6 +269,18 @@ public abstract class LeafReader extends IndexReader {
    *  used by a single thread. */
   public abstract SortedSetDocValues getSortedSetDocValues(String field) throws IOException;
 
+  /** Returns a {@link DocValuesSkipper} for this field, or null if the field
+   *  has no numeric or sorted numeric doc values or if they were indexed
+   *  without a skip index. The returned instance should only be used by a
+   *  single thread.
+   *  <p>The default implementation returns null. {@link FilterLeafReader}
+   *  delegates to the wrapped reader, so its sub-classes that change doc IDs
+   *  or doc values must override this method.
+   *  @lucene.experimental */
+  public DocValuesSkipper getDocValuesSkipper(String field) throws IOException {
+    return null;
+  }
+
   /** Returns {@link NumericDocValues} representing norms
    *  for this field, or null if no {@link NumericDocValues}
    *  were indexed. The returned instance should only be
@@ -27,7 +27,9 @@ import org.apache.lucene.index.MultiTermsEnum.TermsEnumIndex;
 import org.apache.lucene.index.MultiTermsEnum.TermsEnumWithSlice;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.InPlaceMergeSorter;
 import org.apache.lucene.util.LongValues;
 import org.apache.lucene.util.RamUsageEstimator;
@@ -755,29 +757,9 @@ public class MultiDocValues {
 
       // enums are not sorted, so let's sort to save memory
       final SegmentMap segmentMap = new SegmentMap(weights);
-      return new OrdinalMap(owner, subs, segmentMap, acceptableOverheadRatio);
-    }
-
-    private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(OrdinalMap.class);
 
-    /** Cache key of whoever asked for this awful thing */
-    public final Object owner;
-    // globalOrd -> (globalOrd - segmentOrd) where segmentOrd is the the ordinal in the first segment that contains this term
-    final PackedLongValues globalOrdDeltas;
-    // globalOrd -> first segment container
-    final PackedLongValues firstSegments;
-    // for every segment, segmentOrd -> globalOrd
-    final LongValues segmentToGlobalOrds[];
-    // the map from/to segment ids
-    final SegmentMap segmentMap;
-    // ram usage
-    final long ramBytesUsed;
-    
-    OrdinalMap(Object owner, TermsEnum subs[], SegmentMap segmentMap, float acceptableOverheadRatio) throws IOException {
       // create the ordinal mappings by pulling a termsenum over each sub's 
       // unique terms, and walking a multitermsenum over those
-      this.owner = owner;
-      this.segmentMap = segmentMap;
       // even though we accept an overhead ratio, we keep these ones with COMPACT
       // since they are only used to resolve values given a global ord, which is
       // slow anyway
@@ -826,10 +808,290 @@ public class MultiDocValues {
         globalOrdDeltas.add(globalOrdDelta);
         globalOrd++;
       }
-      this.firstSegments = firstSegments.build();
-      this.globalOrdDeltas = globalOrdDeltas.build();
+      return new OrdinalMap(owner, segmentMap, globalOrdDeltas.build(), firstSegments.build(),
+          ordDeltas, ordDeltaBits, acceptableOverheadRatio);
+    }
+
+    /**
+     * Create an ordinal map that reuses the mappings of a previously built
+     * ordinal map, typically the one of a previous point-in-time view of the
+     * same index. Entries of <code>previousSegments</code> give, for each
+     * {@link SortedDocValues} instance, the index of the same segment in
+     * <code>previous</code>, or <code>-1</code> if the segment is new.
+     * Segments of <code>previous</code> that are not referenced are
+     * considered removed. Only the terms of new segments are merged into the
+     * global order, the terms of unchanged segments are resolved through the
+     * previous mappings.
+     * <p>
+     * This falls back to building the map from scratch when it is not
+     * expected to be faster, eg. when new segments hold many terms compared
+     * to unchanged segments.
+     * @see #build(Object, SortedDocValues[], float)
+     */
+    public static OrdinalMap build(Object owner, SortedDocValues[] values, OrdinalMap previous, int[] previousSegments,
+        float acceptableOverheadRatio) throws IOException {
+      final TermsEnum[] subs = new TermsEnum[values.length];
+      final long[] valueCounts = new long[values.length];
+      for (int i = 0; i < values.length; ++i) {
+        subs[i] = values[i].termsEnum();
+        valueCounts[i] = values[i].getValueCount();
+      }
+      return build(owner, subs, valueCounts, previous, previousSegments, acceptableOverheadRatio);
+    }
+
+    /**
+     * Same as {@link #build(Object, SortedDocValues[], OrdinalMap, int[], float)}
+     * for {@link SortedSetDocValues}.
+     */
+    public static OrdinalMap build(Object owner, SortedSetDocValues[] values, OrdinalMap previous, int[] previousSegments,
+        float acceptableOverheadRatio) throws IOException {
+      final TermsEnum[] subs = new TermsEnum[values.length];
+      final long[] valueCounts = new long[values.length];
+      for (int i = 0; i < values.length; ++i) {
+        subs[i] = values[i].termsEnum();
+        valueCounts[i] = values[i].getValueCount();
+      }
+      return build(owner, subs, valueCounts, previous, previousSegments, acceptableOverheadRatio);
+    }
+
+    /**
+     * Incremental build: {@code subs} must be dense and {@code valueCounts}
+     * must be their number of unique terms.
+     */
+    private static OrdinalMap build(Object owner, TermsEnum subs[], long[] valueCounts, OrdinalMap previous,
+        int[] previousSegments, float acceptableOverheadRatio) throws IOException {
+      final int numSegments = subs.length;
+      if (previousSegments.length != numSegments) {
+        throw new IllegalArgumentException("values and previousSegments must have the same length");
+      }
+      final int previousNumSegments = previous.segmentToGlobalOrds.length;
+      final FixedBitSet referenced = new FixedBitSet(previousNumSegments);
+      int numRetained = 0;
+      long retainedValueCount = 0, addedValueCount = 0;
+      for (int i = 0; i < numSegments; ++i) {
+        final int previousSegment = previousSegments[i];
+        if (previousSegment == -1) {
+          addedValueCount += valueCounts[i];
+        } else if (previousSegment < 0 || previousSegment >= previousNumSegments) {
+          throw new IllegalArgumentException("previousSegments must be -1 or in [0, " + previousNumSegments + "), got " + previousSegment);
+        } else if (referenced.getAndSet(previousSegment)) {
+          throw new IllegalArgumentException("segment " + previousSegment + " of the previous ordinal map is referenced twice");
+        } else {
+          numRetained++;
+          retainedValueCount += valueCounts[i];
+        }
+      }
+
+      // the terms of every new segment are looked up in every unchanged segment,
+      // merging from scratch is cheaper when new segments hold many terms
+      if (numRetained == 0
+          || addedValueCount * numRetained > (retainedValueCount + addedValueCount) / 4
+          || previous.getValueCount() >= ArrayUtil.MAX_ARRAY_LENGTH) {
+        return build(owner, subs, valueCounts, acceptableOverheadRatio);
+      }
+
+      final SegmentMap segmentMap = new SegmentMap(valueCounts);
+      final int previousValueCount = (int) previous.getValueCount();
+      long maxValueCount = 1;
+      for (long valueCount : valueCounts) {
+        maxValueCount = Math.max(maxValueCount, valueCount);
+      }
+
+      // 1. find previous global ords that are still live, and the first
+      // unchanged segment that contains them
+      final FixedBitSet live = new FixedBitSet(previousValueCount);
+      final PackedInts.Mutable firstSegments = PackedInts.getMutable(previousValueCount,
+          PackedInts.bitsRequired(numSegments - 1), PackedInts.COMPACT);
+      final PackedInts.Mutable firstSegmentOrds = PackedInts.getMutable(previousValueCount,
+          PackedInts.bitsRequired(maxValueCount - 1), PackedInts.COMPACT);
+      for (int i = 0; i < numSegments; ++i) {
+        final int segment = segmentMap.newToOld(i);
+        if (previousSegments[segment] == -1) {
+          continue;
+        }
+        final LongValues previousGlobalOrds = previous.getGlobalOrds(previousSegments[segment]);
+        for (long segmentOrd = 0; segmentOrd < valueCounts[segment]; ++segmentOrd) {
+          final int previousGlobalOrd = (int) previousGlobalOrds.get(segmentOrd);
+          if (live.getAndSet(previousGlobalOrd) == false) {
+            firstSegments.set(previousGlobalOrd, i);
+            firstSegmentOrds.set(previousGlobalOrd, segmentOrd);
+          }
+        }
+      }
+
+      // 2. merge the terms of new segments and find where they go in the
+      // previous global order by seeking unchanged segments
+      final TermsEnum[] retainedTerms = new TermsEnum[numRetained];
+      final LongValues[] retainedGlobalOrds = new LongValues[numRetained];
+      final BytesRef[] retainedCurrentTerms = new BytesRef[numRetained];
+      final boolean[] retainedExhausted = new boolean[numRetained];
+      final ReaderSlice[] slices = new ReaderSlice[numSegments];
+      final List<TermsEnumIndex> indexes = new ArrayList<>();
+      // for every new segment, segmentOrd -> previous global ord * 2 for
+      // existing terms, and new term index * 2 + 1 for new terms
+      final PackedLongValues.Builder[] addedOrds = new PackedLongValues.Builder[numSegments];
+      for (int i = 0, r = 0; i < numSegments; ++i) {
+        final int segment = segmentMap.newToOld(i);
+        slices[i] = new ReaderSlice(0, 0, i);
+        if (previousSegments[segment] == -1) {
+          indexes.add(new TermsEnumIndex(subs[segment], i));
+          addedOrds[i] = PackedLongValues.packedBuilder(PackedInts.COMPACT);
+        } else {
+          retainedTerms[r] = subs[segment];
+          retainedGlobalOrds[r] = previous.getGlobalOrds(previousSegments[segment]);
+          r++;
+        }
+      }
+      // new term index -> previous global ord that it goes before, first segment and ord in this segment
+      final PackedLongValues.Builder newTermPositions = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+      final PackedLongValues.Builder newTermFirstSegments = PackedLongValues.packedBuilder(PackedInts.COMPACT);
+      final PackedLongValues.Builder newTermFirstSegmentOrds = PackedLongValues.packedBuilder(PackedInts.COMPACT);
+      long numNewTerms = 0;
+      if (indexes.isEmpty() == false) {
+        final MultiTermsEnum mte = new MultiTermsEnum(slices);
+        mte.reset(indexes.toArray(new TermsEnumIndex[0]));
+        BytesRef term;
+        while ((term = mte.next()) != null) {
+          long existing = -1;
+          long position = previousValueCount;
+          for (int r = 0; r < numRetained; ++r) {
+            if (retainedExhausted[r]) {
+              continue;
+            }
+            final TermsEnum te = retainedTerms[r];
+            int cmp = retainedCurrentTerms[r] == null ? -1 : retainedCurrentTerms[r].compareTo(term);
+            if (cmp < 0) {
+              final TermsEnum.SeekStatus status = te.seekCeil(term);
+              if (status == TermsEnum.SeekStatus.END) {
+                retainedExhausted[r] = true;
+                continue;
+              }
+              retainedCurrentTerms[r] = te.term();
+              cmp = status == TermsEnum.SeekStatus.FOUND ? 0 : 1;
+            }
+            final long previousGlobalOrd = retainedGlobalOrds[r].get(te.ord());
+            if (cmp == 0) {
+              existing = previousGlobalOrd;
+              break;
+            }
+            position = Math.min(position, previousGlobalOrd);
+          }
+
+          final TermsEnumWithSlice matches[] = mte.getMatchArray();
+          if (existing != -1) {
+            for (int m = 0; m < mte.getMatchCount(); ++m) {
+              final int segmentIndex = matches[m].index;
+              final long segmentOrd = matches[m].terms.ord();
+              addedOrds[segmentIndex].add(existing << 1);
+              if (segmentIndex < firstSegments.get((int) existing)) {
+                firstSegments.set((int) existing, segmentIndex);
+                firstSegmentOrds.set((int) existing, segmentOrd);
+              }
+            }
+          } else {
+            int firstSegmentIndex = Integer.MAX_VALUE;
+            long firstSegmentOrd = -1;
+            for (int m = 0; m < mte.getMatchCount(); ++m) {
+              final int segmentIndex = matches[m].index;
+              addedOrds[segmentIndex].add((numNewTerms << 1) | 1);
+              if (segmentIndex < firstSegmentIndex) {
+                firstSegmentIndex = segmentIndex;
+                firstSegmentOrd = matches[m].terms.ord();
+              }
+            }
+            newTermPositions.add(position);
+            newTermFirstSegments.add(firstSegmentIndex);
+            newTermFirstSegmentOrds.add(firstSegmentOrd);
+            numNewTerms++;
+          }
+        }
+      }
+
+      // 3. compute the new global order by interleaving new terms with live previous terms
+      final PackedLongValues.Builder previousToNewGlobalOrds = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+      final PackedLongValues.Builder newTermGlobalOrds = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+      final PackedLongValues.Builder globalOrdDeltas = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+      final PackedLongValues.Builder globalFirstSegments = PackedLongValues.packedBuilder(PackedInts.COMPACT);
+      final PackedLongValues.Iterator positions = newTermPositions.build().iterator();
+      final PackedLongValues.Iterator newFirstSegments = newTermFirstSegments.build().iterator();
+      final PackedLongValues.Iterator newFirstSegmentOrds = newTermFirstSegmentOrds.build().iterator();
+      long nextPosition = positions.hasNext() ? positions.next() : Long.MAX_VALUE;
+      long globalOrd = 0;
+      for (int previousGlobalOrd = 0; ; ++previousGlobalOrd) {
+        while (nextPosition == previousGlobalOrd) {
+          newTermGlobalOrds.add(globalOrd);
+          globalFirstSegments.add(newFirstSegments.next());
+          globalOrdDeltas.add(globalOrd - newFirstSegmentOrds.next());
+          globalOrd++;
+          nextPosition = positions.hasNext() ? positions.next() : Long.MAX_VALUE;
+        }
+        if (previousGlobalOrd == previousValueCount) {
+          break;
+        }
+        // removed terms are mapped too in order to keep the mapping monotonic, but never looked up
+        previousToNewGlobalOrds.add(globalOrd);
+        if (live.get(previousGlobalOrd)) {
+          globalFirstSegments.add(firstSegments.get(previousGlobalOrd));
+          globalOrdDeltas.add(globalOrd - firstSegmentOrds.get(previousGlobalOrd));
+          globalOrd++;
+        }
+      }
+      assert nextPosition == Long.MAX_VALUE;
+
+      // 4. re-derive segment ord -> global ord deltas
+      final PackedLongValues previousToNew = previousToNewGlobalOrds.build();
+      final PackedLongValues newTerms = newTermGlobalOrds.build();
+      final PackedLongValues.Builder[] ordDeltas = new PackedLongValues.Builder[numSegments];
+      final long[] ordDeltaBits = new long[numSegments];
+      for (int i = 0; i < numSegments; ++i) {
+        ordDeltas[i] = PackedLongValues.monotonicBuilder(acceptableOverheadRatio);
+        final int segment = segmentMap.newToOld(i);
+        if (previousSegments[segment] == -1) {
+          final PackedLongValues.Iterator it = addedOrds[i].build().iterator();
+          for (long segmentOrd = 0; it.hasNext(); ++segmentOrd) {
+            final long encoded = it.next();
+            final long newGlobalOrd = (encoded & 1) == 0 ? previousToNew.get(encoded >>> 1) : newTerms.get(encoded >>> 1);
+            final long delta = newGlobalOrd - segmentOrd;
+            ordDeltaBits[i] |= delta;
+            ordDeltas[i].add(delta);
+          }
+          assert ordDeltas[i].size() == valueCounts[segment];
+        } else {
+          final LongValues previousGlobalOrds = previous.getGlobalOrds(previousSegments[segment]);
+          for (long segmentOrd = 0; segmentOrd < valueCounts[segment]; ++segmentOrd) {
+            final long delta = previousToNew.get(previousGlobalOrds.get(segmentOrd)) - segmentOrd;
+            ordDeltaBits[i] |= delta;
+            ordDeltas[i].add(delta);
+          }
+        }
+      }
+      return new OrdinalMap(owner, segmentMap, globalOrdDeltas.build(), globalFirstSegments.build(),
+          ordDeltas, ordDeltaBits, acceptableOverheadRatio);
+    }
+
+    private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(OrdinalMap.class);
+
+    /** Cache key of whoever asked for this awful thing */
+    public final Object owner;
+    // globalOrd -> (globalOrd - segmentOrd) where segmentOrd is the the ordinal in the first segment that contains this term
+    final PackedLongValues globalOrdDeltas;
+    // globalOrd -> first segment container
+    final PackedLongValues firstSegments;
+    // for every segment, segmentOrd -> globalOrd
+    final LongValues segmentToGlobalOrds[];
+    // the map from/to segment ids
+    final SegmentMap segmentMap;
+    // ram usage
+    final long ramBytesUsed;
+    
+    OrdinalMap(Object owner, SegmentMap segmentMap, PackedLongValues globalOrdDeltas, PackedLongValues firstSegments,
+        PackedLongValues.Builder[] ordDeltas, long[] ordDeltaBits, float acceptableOverheadRatio) {
+      this.owner = owner;
+      this.segmentMap = segmentMap;
+      this.firstSegments = firstSegments;
+      this.globalOrdDeltas = globalOrdDeltas;
       // ordDeltas is typically the bottleneck, so let's see what we can do to make it faster
-      segmentToGlobalOrds = new LongValues[subs.length];
+      segmentToGlobalOrds = new LongValues[ordDeltas.length];
       long ramBytesUsed = BASE_RAM_BYTES_USED + this.globalOrdDeltas.ramBytesUsed()
           + this.firstSegments.ramBytesUsed() + RamUsageEstimator.shallowSizeOf(segmentToGlobalOrds)
           + segmentMap.ramBytesUsed();
@@ -36,4 +36,24 @@ public abstract class NumericDocValues extends DocValuesIterator {
    */
   public abstract long longValue() throws IOException;
 
+  /**
+   * Bulk version of {@link #advanceExact(int)} and {@link #longValue()}:
+   * fill <code>values[0:size]</code> with the values of documents
+   * <code>docs[0:size]</code>, or <code>missingValue</code> for documents
+   * that don't have a value. Documents must be in strictly increasing order
+   * and must be greater than or equal to the current {@link #docID() doc ID}.
+   * After this method returns, this iterator is positioned on the last
+   * document, unless <code>size</code> is 0, but {@link #longValue()} may
+   * not be called until it is advanced again.
+   * <p>
+   * The default implementation calls {@link #advanceExact(int)} and
+   * {@link #longValue()} for every document, codecs may override it in order
+   * to decode values in bulk.
+   */
+  public void longValues(int size, int[] docs, long[] values, long missingValue) throws IOException {
+    for (int i = 0; i < size; ++i) {
+      values[i] = advanceExact(docs[i]) ? longValue() : missingValue;
+    }
+  }
+
 }
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+
+/**
+ * A {@link FilterDirectoryReader} that hides documents that have been
+ * soft-deleted, ie. documents that have a value for the given numeric
+ * doc-values field, by excluding them from the live docs of each segment.
+ * Such documents are typically the previous versions of documents that have
+ * been updated with {@link IndexWriter#softUpdateDocument}.
+ * <p>
+ * Segments that don't have soft-deleted documents are not wrapped. Live docs
+ * are computed when the reader is opened or reopened, so reopening this reader
+ * costs a linear scan of the soft-deletes field of every segment that has
+ * soft-deleted documents.
+ *
+ * @see SoftDeletesRetentionMergePolicy
+ * @lucene.experimental
+ */
+public final class SoftDeletesDirectoryReaderWrapper extends FilterDirectoryReader {
+
+  private final String field;
+
+  /**
+   * Create a new wrapper that hides documents that have a value for the given
+   * numeric doc-values {@code field}.
+   */
+  public SoftDeletesDirectoryReaderWrapper(DirectoryReader in, String field) throws IOException {
+    super(in, new SoftDeletesSubReaderWrapper(field));
+    this.field = field;
+  }
+
+  @Override
+  protected DirectoryReader doWrapDirectoryReader(DirectoryReader in) throws IOException {
+    return new SoftDeletesDirectoryReaderWrapper(in, field);
+  }
+
+  /** Returns the name of the field that marks documents as soft-deleted. */
+  public String getSoftDeletesField() {
+    return field;
+  }
+
+  @Override
+  public String toString() {
+    return "SoftDeletesDirectoryReaderWrapper(" + in + ", field=" + field + ")";
+  }
+
+  private static class SoftDeletesSubReaderWrapper extends SubReaderWrapper {
+    private final String field;
+
+    SoftDeletesSubReaderWrapper(String field) {
+      this.field = Objects.requireNonNull(field);
+    }
+
+    @Override
+    public LeafReader wrap(LeafReader reader) {
+      try {
+        final FixedBitSet liveDocs = applySoftDeletes(reader.getNumericDocValues(field), reader.getLiveDocs(), reader.maxDoc());
+        if (liveDocs == null) {
+          return reader;
+        }
+        return new SoftDeletesFilterLeafReader(reader, liveDocs, liveDocs.cardinality());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /**
+   * Returns the live docs of a segment once documents that are matched by
+   * {@code softDeletes} have been deleted, or {@code null} if no live
+   * document is soft-deleted.
+   */
+  static FixedBitSet applySoftDeletes(DocIdSetIterator softDeletes, Bits liveDocs, int maxDoc) throws IOException {
+    if (softDeletes == null) {
+      return null;
+    }
+    FixedBitSet newLiveDocs = null;
+    for (int doc = softDeletes.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = softDeletes.nextDoc()) {
+      if (liveDocs != null && liveDocs.get(doc) == false) {
+        continue; // already hard-deleted
+      }
+      if (newLiveDocs == null) {
+        newLiveDocs = new FixedBitSet(maxDoc);
+        if (liveDocs == null) {
+          newLiveDocs.set(0, maxDoc);
+        } else {
+          for (int i = 0; i < maxDoc; ++i) {
+            if (liveDocs.get(i)) {
+              newLiveDocs.set(i);
+            }
+          }
+        }
+      }
+      newLiveDocs.clear(doc);
+    }
+    return newLiveDocs;
+  }
+
+  /** A {@link FilterLeafReader} that exposes the given live docs. */
+  static final class SoftDeletesFilterLeafReader extends FilterLeafReader {
+    private final Bits liveDocs;
+    private final int numDocs;
+
+    SoftDeletesFilterLeafReader(LeafReader in, Bits liveDocs, int numDocs) {
+      super(in);
+      this.liveDocs = liveDocs;
+      this.numDocs = numDocs;
+    }
+
+    @Override
+    public Bits getLiveDocs() {
+      return liveDocs;
+    }
+
+    @Override
+    public int numDocs() {
+      return numDocs;
+    }
+
+    @Override
+    public Object getCoreCacheKey() {
+      // the content is the same, only live docs differ
+      return in.getCoreCacheKey();
+    }
+  }
+}
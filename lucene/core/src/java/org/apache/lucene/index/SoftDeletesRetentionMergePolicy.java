@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.FilteredDocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+
+/**
+ * A {@link MergePolicy} that purges soft-deleted documents, ie. documents that
+ * have a value for the given numeric doc-values field, when segments are merged.
+ * Soft-deleted documents that match the retention query are kept in the merged
+ * segment, which can be used to keep recent history of updated documents, for
+ * instance for replication. The retention query is pulled from the supplier
+ * for every merge so that it can be changed over time, eg. to retain all
+ * documents that have been soft-deleted after a given point in time.
+ * <p>
+ * Which segments are merged is decided by the wrapped merge policy: since
+ * soft-deleted documents are not hard deletes, they don't count as deleted
+ * documents when selecting merges.
+ *
+ * @see IndexWriter#softUpdateDocument
+ * @see SoftDeletesDirectoryReaderWrapper
+ * @lucene.experimental
+ */
+public final class SoftDeletesRetentionMergePolicy extends MergePolicyWrapper {
+
+  private final String field;
+  private final Supplier<Query> retentionQuerySupplier;
+
+  /**
+   * Creates a new {@link SoftDeletesRetentionMergePolicy}
+   * @param field the soft deletes field
+   * @param retentionQuerySupplier a query supplier for the retention query, the supplier
+   *        may return {@code null} to purge all soft-deleted documents
+   * @param in the wrapped MergePolicy
+   */
+  public SoftDeletesRetentionMergePolicy(String field, Supplier<Query> retentionQuerySupplier, MergePolicy in) {
+    super(in);
+    this.field = Objects.requireNonNull(field, "field must not be null");
+    this.retentionQuerySupplier = Objects.requireNonNull(retentionQuerySupplier, "retentionQuerySupplier must not be null");
+  }
+
+  @Override
+  public MergeSpecification findMerges(MergeTrigger mergeTrigger, SegmentInfos segmentInfos, IndexWriter writer)
+      throws IOException {
+    return wrap(in.findMerges(mergeTrigger, segmentInfos, writer));
+  }
+
+  @Override
+  public MergeSpecification findForcedMerges(SegmentInfos segmentInfos, int maxSegmentCount,
+      Map<SegmentCommitInfo,Boolean> segmentsToMerge, IndexWriter writer) throws IOException {
+    return wrap(in.findForcedMerges(segmentInfos, maxSegmentCount, segmentsToMerge, writer));
+  }
+
+  @Override
+  public MergeSpecification findForcedDeletesMerges(SegmentInfos segmentInfos, IndexWriter writer) throws IOException {
+    return wrap(in.findForcedDeletesMerges(segmentInfos, writer));
+  }
+
+  private MergeSpecification wrap(MergeSpecification spec) {
+    if (spec == null) {
+      return null;
+    }
+    MergeSpecification wrapped = new MergeSpecification();
+    for (OneMerge merge : spec.merges) {
+      wrapped.add(new SoftDeletesOneMerge(merge));
+    }
+    return wrapped;
+  }
+
+  /** Returns a reader that hides the soft-deleted documents of the given reader that are not retained. */
+  CodecReader applyRetentionQuery(CodecReader reader) throws IOException {
+    final NumericDocValues softDeletes = reader.getNumericDocValues(field);
+    if (softDeletes == null) {
+      return reader;
+    }
+    DocIdSetIterator toPurge = softDeletes;
+    final Query retentionQuery = retentionQuerySupplier.get();
+    if (retentionQuery != null) {
+      final IndexSearcher searcher = new IndexSearcher(reader);
+      searcher.setQueryCache(null);
+      final Weight weight = searcher.createNormalizedWeight(retentionQuery, false);
+      final Scorer scorer = weight.scorer(reader.getContext());
+      if (scorer != null) {
+        final FixedBitSet retained = new FixedBitSet(reader.maxDoc());
+        retained.or(scorer.iterator());
+        toPurge = new FilteredDocIdSetIterator(softDeletes) {
+          @Override
+          protected boolean match(int doc) {
+            return retained.get(doc) == false;
+          }
+        };
+      }
+    }
+    final FixedBitSet liveDocs = SoftDeletesDirectoryReaderWrapper.applySoftDeletes(toPurge, reader.getLiveDocs(), reader.maxDoc());
+    if (liveDocs == null) {
+      return reader;
+    }
+    final int numDocs = liveDocs.cardinality();
+    return new FilterCodecReader(reader) {
+      @Override
+      public Bits getLiveDocs() {
+        return liveDocs;
+      }
+
+      @Override
+      public int numDocs() {
+        return numDocs;
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    return "SoftDeletesRetentionMergePolicy(field=" + field + ", " + in + ")";
+  }
+
+  /** A {@link OneMerge} that delegates to the wrapped merge and then applies soft deletes. */
+  private final class SoftDeletesOneMerge extends OneMerge {
+    private final OneMerge in;
+
+    SoftDeletesOneMerge(OneMerge in) {
+      super(in.segments);
+      this.in = in;
+    }
+
+    @Override
+    public CodecReader wrapForMerge(CodecReader reader) throws IOException {
+      return applyRetentionQuery(in.wrapForMerge(reader));
+    }
+
+    @Override
+    public void mergeFinished() throws IOException {
+      in.mergeFinished();
+    }
+
+    @Override
+    public void setMergeInfo(SegmentCommitInfo info) {
+      super.setMergeInfo(info);
+      in.setMergeInfo(info);
+    }
+  }
+}
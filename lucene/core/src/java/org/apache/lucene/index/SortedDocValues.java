@@ -48,6 +48,26 @@ public abstract class SortedDocValues extends BinaryDocValues {
    */
   public abstract int ordValue();
 
+  /**
+   * Bulk version of {@link #advanceExact(int)} and {@link #ordValue()}:
+   * fill <code>ords[0:size]</code> with the ordinals of documents
+   * <code>docs[0:size]</code>, or -1 for documents that don't have a value.
+   * Documents must be in strictly increasing order and must be greater than
+   * or equal to the current {@link #docID() doc ID}. After this method
+   * returns, this iterator is positioned on the last document, unless
+   * <code>size</code> is 0, but {@link #ordValue()} may not be called until
+   * it is advanced again.
+   * <p>
+   * The default implementation calls {@link #advanceExact(int)} and
+   * {@link #ordValue()} for every document, codecs may override it in order
+   * to decode ordinals in bulk.
+   */
+  public void ordValues(int size, int[] docs, int[] ords) throws IOException {
+    for (int i = 0; i < size; ++i) {
+      ords[i] = advanceExact(docs[i]) ? ordValue() : -1;
+    }
+  }
+
   /** Retrieves the value for the specified ordinal. The returned
    * {@link BytesRef} may be re-used across calls to {@link #lookupOrd(int)}
    * so make sure to {@link BytesRef#deepCopyOf(BytesRef) copy it} if you want
@@ -1147,6 +1147,12 @@ class SortingLeafReader extends FilterLeafReader {
     return new SortingNumericDocValues(dvs);
   }
 
+  @Override
+  public DocValuesSkipper getDocValuesSkipper(String field) throws IOException {
+    // the skip index of the wrapped reader is based on the unsorted doc IDs
+    return null;
+  }
+
   @Override
   public SortedNumericDocValues getSortedNumericDocValues(String field)
       throws IOException {
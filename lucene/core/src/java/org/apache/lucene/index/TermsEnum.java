@@ -171,6 +171,23 @@ public abstract class TermsEnum implements BytesRefIterator {
    */
   public abstract PostingsEnum postings(PostingsEnum reuse, int flags) throws IOException;
 
+  /**
+   * Return a {@link ImpactsEnum} for the current term, which allows to
+   * iterate over postings and to get information about upcoming impacts.
+   * Do not call this when the enum is unpositioned.
+   * The default implementation wraps {@link #postings(PostingsEnum, int)}
+   * into a {@link SlowImpactsEnum}, which doesn't know anything about
+   * upcoming impacts.
+   *
+   * @param flags specifies which optional per-document values
+   *        you require; see {@link PostingsEnum#FREQS}
+   * @see #postings(PostingsEnum, int)
+   * @lucene.experimental
+   */
+  public ImpactsEnum impacts(int flags) throws IOException {
+    return new SlowImpactsEnum(postings(null, flags));
+  }
+
   /**
    * Expert: Returns the TermsEnums internal state to position the TermsEnum
    * without re-seeking the term dictionary.
@@ -35,6 +35,7 @@ final class Boolean2ScorerSupplier extends ScorerSupplier {
   private final boolean needsScores;
   private final int minShouldMatch;
   private long cost = -1;
+  private boolean topScoresOnly = false;
 
   Boolean2ScorerSupplier(BooleanWeight weight,
       Map<Occur, Collection<ScorerSupplier>> subs,
@@ -83,6 +84,11 @@ final class Boolean2ScorerSupplier extends ScorerSupplier {
     return cost;
   }
 
+  @Override
+  public void setTopScoresOnly() {
+    topScoresOnly = true;
+  }
+
   @Override
   public Scorer get(boolean randomAccess) throws IOException {
     // three cases: conjunction, disjunction, or mix
@@ -94,7 +100,7 @@ final class Boolean2ScorerSupplier extends ScorerSupplier {
 
     // pure disjunction
     if (subs.get(Occur.FILTER).isEmpty() && subs.get(Occur.MUST).isEmpty()) {
-      return excl(opt(subs.get(Occur.SHOULD), minShouldMatch, needsScores, randomAccess), subs.get(Occur.MUST_NOT));
+      return excl(opt(subs.get(Occur.SHOULD), minShouldMatch, needsScores, topScoresOnly, randomAccess), subs.get(Occur.MUST_NOT));
     }
 
     // conjunction-disjunction mix:
@@ -119,13 +125,13 @@ final class Boolean2ScorerSupplier extends ScorerSupplier {
         msmRandomAccess = msmCost > reqCost;
       }
       Scorer req = excl(req(subs.get(Occur.FILTER), subs.get(Occur.MUST), reqRandomAccess), subs.get(Occur.MUST_NOT));
-      Scorer opt = opt(subs.get(Occur.SHOULD), minShouldMatch, needsScores, msmRandomAccess);
+      Scorer opt = opt(subs.get(Occur.SHOULD), minShouldMatch, needsScores, false, msmRandomAccess);
       return new ConjunctionScorer(weight, Arrays.asList(req, opt), Arrays.asList(req, opt));
     } else {
       assert needsScores;
       return new ReqOptSumScorer(
           excl(req(subs.get(Occur.FILTER), subs.get(Occur.MUST), randomAccess), subs.get(Occur.MUST_NOT)),
-          opt(subs.get(Occur.SHOULD), minShouldMatch, needsScores, true));
+          opt(subs.get(Occur.SHOULD), minShouldMatch, needsScores, false, true));
     }
   }
 
@@ -179,12 +185,12 @@ final class Boolean2ScorerSupplier extends ScorerSupplier {
     if (prohibited.isEmpty()) {
       return main;
     } else {
-      return new ReqExclScorer(main, opt(prohibited, 1, false, true));
+      return new ReqExclScorer(main, opt(prohibited, 1, false, false, true));
     }
   }
 
   private Scorer opt(Collection<ScorerSupplier> optional, int minShouldMatch,
-      boolean needsScores, boolean randomAccess) throws IOException {
+      boolean needsScores, boolean topScoresOnly, boolean randomAccess) throws IOException {
     if (optional.size() == 1) {
       return optional.iterator().next().get(randomAccess);
     } else if (minShouldMatch > 1) {
@@ -210,6 +216,12 @@ final class Boolean2ScorerSupplier extends ScorerSupplier {
       for (ScorerSupplier scorer : optional) {
         optionalScorers.add(scorer.get(randomAccess));
       }
+      if (needsScores && topScoresOnly
+          && optionalScorers.stream().allMatch(s -> Float.isFinite(s.maxScore()))) {
+        // only the top hits are needed and scores are bounded so we can skip
+        // over documents that cannot beat the min competitive score
+        return new WANDScorer(weight, optionalScorers);
+      }
       return new DisjunctionSumScorer(weight, optionalScorers, needsScores);
     }
   }
@@ -79,4 +79,20 @@ public interface Collector {
    * @return {@code true} if scores are needed.
    */
   boolean needsScores();
+
+  /**
+   * Indicates whether this collector only needs the top-scoring hits, in which
+   * case it may call {@link Scorer#setMinCompetitiveScore(float)} on the
+   * scorers it is fed with. {@link IndexSearcher} then creates scorers in
+   * top-scores mode, which may skip non-competitive hits, instead of bulk
+   * scorers. Other scorers ignore the min competitive score, so collectors
+   * that wrap this collector and need all matches just keep the default.
+   * The default implementation returns {@code false}.
+   *
+   * @return {@code true} if only the top-scoring hits are needed.
+   * @lucene.experimental
+   */
+  default boolean needsTopScoresOnly() {
+    return false;
+  }
 }
@@ -64,6 +64,18 @@ class ConjunctionScorer extends Scorer {
     return scorers.length;
   }
 
+  @Override
+  public float maxScore() {
+    // We iterate in the same order as #score() so no need to worry
+    // about floating-point errors: we would do the same errors in
+    // #score()
+    double sum = 0d;
+    for (Scorer scorer : scorers) {
+      sum += scorer.maxScore();
+    }
+    return (float) sum;
+  }
+
   @Override
   public Collection<ChildScorer> getChildren() {
     ArrayList<ChildScorer> children = new ArrayList<>();
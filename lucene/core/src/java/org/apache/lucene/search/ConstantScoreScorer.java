@@ -78,5 +78,10 @@ public final class ConstantScoreScorer extends Scorer {
     return 1;
   }
 
+  @Override
+  public float maxScore() {
+    return score;
+  }
+
 }
 
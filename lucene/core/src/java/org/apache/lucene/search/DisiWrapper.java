@@ -30,6 +30,7 @@ public class DisiWrapper {
   public final float matchCost; // the match cost for two-phase iterators, 0 otherwise
   public int doc; // the current doc, used for comparison
   public DisiWrapper next; // reference to a next element, see #topList
+  public long maxScore; // the scaled max score of the scorer, only used by WANDScorer
 
   // An approximation of the iterator, or the iterator itself if it does not
   // support two-phase iteration
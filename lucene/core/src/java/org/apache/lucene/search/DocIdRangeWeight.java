@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.util.Bits;
+
+/**
+ * A {@link Weight} that only matches the documents of the wrapped weight
+ * whose doc IDs are in {@code [minDocId, maxDocId)}. This is how
+ * {@link IndexSearcher} searches partitions of segments through
+ * {@link IndexSearcher#search(java.util.List, Weight, Collector)}.
+ */
+final class DocIdRangeWeight extends Weight {
+
+  final Weight in;
+  private final int minDocId, maxDocId;
+
+  DocIdRangeWeight(Weight in, int minDocId, int maxDocId) {
+    super(in.getQuery());
+    this.in = in;
+    this.minDocId = minDocId;
+    this.maxDocId = maxDocId;
+  }
+
+  @Override
+  public void extractTerms(Set<Term> terms) {
+    in.extractTerms(terms);
+  }
+
+  @Override
+  public Explanation explain(LeafReaderContext context, int doc) throws IOException {
+    return in.explain(context, doc);
+  }
+
+  @Override
+  public Scorer scorer(LeafReaderContext context) throws IOException {
+    final Scorer scorer = in.scorer(context);
+    return scorer == null ? null : new DocIdRangeScorer(this, scorer);
+  }
+
+  @Override
+  public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+    final ScorerSupplier supplier = in.scorerSupplier(context);
+    if (supplier == null) {
+      return null;
+    }
+    return new ScorerSupplier() {
+      @Override
+      public void setTopScoresOnly() {
+        supplier.setTopScoresOnly();
+      }
+
+      @Override
+      public Scorer get(boolean randomAccess) throws IOException {
+        return new DocIdRangeScorer(DocIdRangeWeight.this, supplier.get(randomAccess));
+      }
+
+      @Override
+      public long cost() {
+        return supplier.cost();
+      }
+    };
+  }
+
+  @Override
+  public BulkScorer bulkScorer(LeafReaderContext context) throws IOException {
+    final BulkScorer bulkScorer = in.bulkScorer(context);
+    if (bulkScorer == null) {
+      return null;
+    }
+    return new BulkScorer() {
+      @Override
+      public int score(LeafCollector collector, Bits acceptDocs, int min, int max) throws IOException {
+        final int from = Math.max(min, minDocId);
+        final int to = Math.min(max, maxDocId);
+        int next = from;
+        if (from < to) {
+          next = bulkScorer.score(collector, acceptDocs, from, to);
+        }
+        return next >= maxDocId ? DocIdSetIterator.NO_MORE_DOCS : next;
+      }
+
+      @Override
+      public long cost() {
+        return bulkScorer.cost();
+      }
+    };
+  }
+
+  /** Restricts the iteration of a {@link Scorer} to {@code [minDocId, maxDocId)}. */
+  private final class DocIdRangeScorer extends Scorer {
+
+    private final Scorer in;
+    private final DocIdSetIterator approximation;
+    private final TwoPhaseIterator twoPhase;
+    private final DocIdSetIterator iterator;
+
+    DocIdRangeScorer(Weight weight, Scorer in) {
+      super(weight);
+      this.in = in;
+      final TwoPhaseIterator inTwoPhase = in.twoPhaseIterator();
+      if (inTwoPhase == null) {
+        approximation = new RangeIterator(in.iterator());
+        twoPhase = null;
+        iterator = approximation;
+      } else {
+        approximation = new RangeIterator(inTwoPhase.approximation());
+        twoPhase = new TwoPhaseIterator(approximation) {
+          @Override
+          public boolean matches() throws IOException {
+            return inTwoPhase.matches();
+          }
+
+          @Override
+          public float matchCost() {
+            return inTwoPhase.matchCost();
+          }
+        };
+        iterator = TwoPhaseIterator.asDocIdSetIterator(twoPhase);
+      }
+    }
+
+    @Override
+    public int docID() {
+      return approximation.docID();
+    }
+
+    @Override
+    public float score() throws IOException {
+      return in.score();
+    }
+
+    @Override
+    public int freq() throws IOException {
+      return in.freq();
+    }
+
+    @Override
+    public float maxScore() {
+      return in.maxScore();
+    }
+
+    @Override
+    public void setMinCompetitiveScore(float minScore) {
+      in.setMinCompetitiveScore(minScore);
+    }
+
+    @Override
+    public DocIdSetIterator iterator() {
+      return iterator;
+    }
+
+    @Override
+    public TwoPhaseIterator twoPhaseIterator() {
+      return twoPhase;
+    }
+
+    @Override
+    public Collection<ChildScorer> getChildren() {
+      return Collections.singleton(new ChildScorer(in, "RANGE"));
+    }
+  }
+
+  private final class RangeIterator extends DocIdSetIterator {
+
+    private final DocIdSetIterator in;
+    private int doc = -1;
+
+    RangeIterator(DocIdSetIterator in) {
+      this.in = in;
+    }
+
+    @Override
+    public int docID() {
+      return doc;
+    }
+
+    @Override
+    public int nextDoc() throws IOException {
+      return advance(doc + 1);
+    }
+
+    @Override
+    public int advance(int target) throws IOException {
+      target = Math.max(target, minDocId);
+      if (target >= maxDocId) {
+        return doc = NO_MORE_DOCS;
+      }
+      int next = in.docID();
+      if (next < target) {
+        next = in.advance(target);
+      }
+      return doc = next >= maxDocId ? NO_MORE_DOCS : next;
+    }
+
+    @Override
+    public long cost() {
+      return Math.min(in.cost(), maxDocId - minDocId);
+    }
+  }
+}
@@ -19,7 +19,6 @@ package org.apache.lucene.search;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -292,15 +291,74 @@ public class IndexSearcher {
 
   /**
    * Expert: Creates an array of leaf slices each holding a subset of the given leaves.
-   * Each {@link LeafSlice} is executed in a single thread. By default there
-   * will be one {@link LeafSlice} per leaf ({@link org.apache.lucene.index.LeafReaderContext}).
+   * Each {@link LeafSlice} is executed in a single thread. By default, this
+   * calls {@link #slices(List, int, int, boolean)} with at most
+   * {@value #MAX_DOCS_PER_SLICE} documents and at most
+   * {@value #MAX_SEGMENTS_PER_SLICE} segments per slice: small segments are
+   * grouped together while larger segments get their own slice.
+   * Override this method in order to tune parallelism, for instance to the
+   * number of threads of the executor, or to split large segments into
+   * several doc ID ranges.
    */
   protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
-    LeafSlice[] slices = new LeafSlice[leaves.size()];
-    for (int i = 0; i < slices.length; i++) {
-      slices[i] = new LeafSlice(leaves.get(i));
+    return slices(leaves, MAX_DOCS_PER_SLICE, MAX_SEGMENTS_PER_SLICE, false);
+  }
+
+  /** Default maximum number of documents per slice, see {@link #slices(List)}. */
+  public static final int MAX_DOCS_PER_SLICE = 250_000;
+
+  /** Default maximum number of segments per slice, see {@link #slices(List)}. */
+  public static final int MAX_SEGMENTS_PER_SLICE = 5;
+
+  /**
+   * Expert: Creates an array of leaf slices so that each slice has at most
+   * {@code maxDocsPerSlice} documents, unless it is made of a single
+   * segment, and at most {@code maxSegmentsPerSlice} segments.
+   * <p>Consecutive segments are grouped together as long as these
+   * constraints are met. Segments that have more than
+   * {@code maxDocsPerSlice} documents get their own slice, or, if
+   * {@code allowSegmentPartitions} is {@code true}, are split into partitions
+   * of similar sizes, each partition being executed as its own slice. Slices
+   * are returned in doc ID order so that ties are broken the same way as
+   * with a single-threaded search when merging results.
+   * @lucene.experimental
+   */
+  public static LeafSlice[] slices(List<LeafReaderContext> leaves, int maxDocsPerSlice, int maxSegmentsPerSlice,
+      boolean allowSegmentPartitions) {
+    if (maxDocsPerSlice < 1) {
+      throw new IllegalArgumentException("maxDocsPerSlice must be at least 1, got " + maxDocsPerSlice);
+    }
+    if (maxSegmentsPerSlice < 1) {
+      throw new IllegalArgumentException("maxSegmentsPerSlice must be at least 1, got " + maxSegmentsPerSlice);
     }
-    return slices;
+    final List<LeafSlice> slices = new ArrayList<>();
+    final List<LeafReaderContextPartition> group = new ArrayList<>();
+    long groupDocs = 0;
+    for (LeafReaderContext ctx : leaves) {
+      final int maxDoc = ctx.reader().maxDoc();
+      if (group.isEmpty() == false
+          && (groupDocs + maxDoc > maxDocsPerSlice || group.size() == maxSegmentsPerSlice)) {
+        slices.add(new LeafSlice(group.toArray(new LeafReaderContextPartition[group.size()])));
+        group.clear();
+        groupDocs = 0;
+      }
+      if (maxDoc > maxDocsPerSlice && allowSegmentPartitions) {
+        // split the segment into doc ID ranges of similar sizes
+        final int numPartitions = (int) ((maxDoc + (long) maxDocsPerSlice - 1) / maxDocsPerSlice);
+        for (int i = 0; i < numPartitions; ++i) {
+          final int minDocId = (int) ((long) maxDoc * i / numPartitions);
+          final int maxDocId = (int) ((long) maxDoc * (i + 1) / numPartitions);
+          slices.add(new LeafSlice(LeafReaderContextPartition.createFromAndTo(ctx, minDocId, maxDocId)));
+        }
+      } else {
+        group.add(LeafReaderContextPartition.createForEntireSegment(ctx));
+        groupDocs += maxDoc;
+      }
+    }
+    if (group.isEmpty() == false) {
+      slices.add(new LeafSlice(group.toArray(new LeafReaderContextPartition[group.size()])));
+    }
+    return slices.toArray(new LeafSlice[slices.size()]);
   }
   
   /** Return the {@link IndexReader} this searches. */
@@ -593,12 +651,12 @@ public class IndexSearcher {
       final Weight weight = createNormalizedWeight(query, needsScores);
       final List<Future<C>> topDocsFutures = new ArrayList<>(leafSlices.length);
       for (int i = 0; i < leafSlices.length; ++i) {
-        final LeafReaderContext[] leaves = leafSlices[i].leaves;
+        final LeafReaderContextPartition[] partitions = leafSlices[i].partitions;
         final C collector = collectors.get(i);
         topDocsFutures.add(executor.submit(new Callable<C>() {
           @Override
           public C call() throws Exception {
-            search(Arrays.asList(leaves), weight, collector);
+            search(partitions, weight, collector);
             return collector;
           }
         }));
@@ -653,7 +711,20 @@ public class IndexSearcher {
         // continue with the following leaf
         continue;
       }
-      BulkScorer scorer = weight.bulkScorer(ctx);
+      BulkScorer scorer;
+      if (collector.needsTopScoresOnly()) {
+        // bulk scorers do not know about the min competitive score, so we
+        // use a Scorer which may skip over non-competitive hits instead
+        ScorerSupplier supplier = weight.scorerSupplier(ctx);
+        if (supplier == null) {
+          scorer = null;
+        } else {
+          supplier.setTopScoresOnly();
+          scorer = new Weight.DefaultBulkScorer(supplier.get(false));
+        }
+      } else {
+        scorer = weight.bulkScorer(ctx);
+      }
       if (scorer != null) {
         try {
           scorer.score(leafCollector, ctx.reader().getLiveDocs());
@@ -665,6 +736,35 @@ public class IndexSearcher {
     }
   }
 
+  /**
+   * Lower-level search API.
+   * <p>
+   * Same as {@link #search(List, Weight, Collector)} but only collects
+   * documents that belong to the given partitions of leaves. Each partition
+   * is searched through {@link #search(List, Weight, Collector)}, with a
+   * weight that only matches the doc IDs of the partition if it does not
+   * cover the entire segment.
+   *
+   * @param partitions
+   *          the partitions of the searchers leaves to execute the searches on
+   * @param weight
+   *          to match documents
+   * @param collector
+   *          to receive hits
+   * @lucene.experimental
+   */
+  protected void search(LeafReaderContextPartition[] partitions, Weight weight, Collector collector)
+      throws IOException {
+    for (LeafReaderContextPartition partition : partitions) {
+      if (partition.isEntireSegment()) {
+        search(Collections.singletonList(partition.ctx), weight, collector);
+      } else {
+        search(Collections.singletonList(partition.ctx),
+            new DocIdRangeWeight(weight, partition.minDocId, partition.maxDocId), collector);
+      }
+    }
+  }
+
   /** Expert: called to re-write queries into primitive queries.
    * @throws BooleanQuery.TooManyClauses If a query would exceed 
    *         {@link BooleanQuery#getMaxClauseCount()} clauses.
@@ -756,9 +856,79 @@ public class IndexSearcher {
    */
   public static class LeafSlice {
     final LeafReaderContext[] leaves;
+    final LeafReaderContextPartition[] partitions;
     
     public LeafSlice(LeafReaderContext... leaves) {
       this.leaves = leaves;
+      this.partitions = new LeafReaderContextPartition[leaves.length];
+      for (int i = 0; i < leaves.length; ++i) {
+        partitions[i] = LeafReaderContextPartition.createForEntireSegment(leaves[i]);
+      }
+    }
+
+    /**
+     * Create a slice from partitions of leaves. A slice may not hold two
+     * partitions of the same leaf.
+     */
+    public LeafSlice(LeafReaderContextPartition... partitions) {
+      this.partitions = partitions;
+      this.leaves = new LeafReaderContext[partitions.length];
+      for (int i = 0; i < partitions.length; ++i) {
+        leaves[i] = partitions[i].ctx;
+        for (int j = 0; j < i; ++j) {
+          if (leaves[j] == leaves[i]) {
+            throw new IllegalArgumentException("A slice may not hold several partitions of the same leaf");
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * A range of doc IDs of a {@link LeafReaderContext} that is searched as a
+   * unit of work by a {@link LeafSlice}. This allows large segments to be
+   * searched concurrently.
+   *
+   * @lucene.experimental
+   */
+  public static final class LeafReaderContextPartition {
+    /** The leaf that this partition belongs to. */
+    public final LeafReaderContext ctx;
+    /** The first doc ID of this partition, inclusive. */
+    public final int minDocId;
+    /** The last doc ID of this partition, exclusive. */
+    public final int maxDocId;
+
+    private LeafReaderContextPartition(LeafReaderContext ctx, int minDocId, int maxDocId) {
+      if (minDocId < 0 || minDocId >= maxDocId) {
+        throw new IllegalArgumentException("Illegal doc ID range: minDocId=" + minDocId + ", maxDocId=" + maxDocId);
+      }
+      this.ctx = ctx;
+      this.minDocId = minDocId;
+      this.maxDocId = maxDocId;
+    }
+
+    /** Create a partition that covers all documents of the given leaf. */
+    public static LeafReaderContextPartition createForEntireSegment(LeafReaderContext ctx) {
+      return new LeafReaderContextPartition(ctx, 0, DocIdSetIterator.NO_MORE_DOCS);
+    }
+
+    /** Create a partition that covers doc IDs in {@code [minDocId, maxDocId)} of the given leaf. */
+    public static LeafReaderContextPartition createFromAndTo(LeafReaderContext ctx, int minDocId, int maxDocId) {
+      if (maxDocId > ctx.reader().maxDoc()) {
+        throw new IllegalArgumentException("maxDocId=" + maxDocId + " is greater than maxDoc=" + ctx.reader().maxDoc());
+      }
+      return new LeafReaderContextPartition(ctx, minDocId, maxDocId);
+    }
+
+    /** Return whether this partition covers all documents of its leaf. */
+    public boolean isEntireSegment() {
+      return minDocId == 0 && maxDocId == DocIdSetIterator.NO_MORE_DOCS;
+    }
+
+    @Override
+    public String toString() {
+      return "LeafReaderContextPartition(ord=" + ctx.ord + ", minDocId=" + minDocId + ", maxDocId=" + maxDocId + ")";
     }
   }
 
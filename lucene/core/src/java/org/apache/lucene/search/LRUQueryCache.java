@@ -28,7 +28,11 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Predicate;
 
@@ -49,7 +53,11 @@ import org.apache.lucene.util.RoaringDocIdSet;
  * eviction policy in order to remain under a given maximum size and number of
  * bytes used.
  *
- * This class is thread-safe.
+ * This class is thread-safe. Lookups do not take any lock: accesses to cached
+ * queries are recorded into lossy buffers that are replayed into the LRU
+ * queue the next time that the cache is modified, so the eviction order is
+ * only an approximation of the least-recently-used order when the cache is
+ * accessed concurrently.
  *
  * Note that query eviction runs in linear time with the total number of
  * segments that have cache entries so this cache works best with
@@ -79,7 +87,8 @@ import org.apache.lucene.util.RoaringDocIdSet;
  * {@link #onQueryCache}, {@link #onQueryEviction},
  * {@link #onDocIdSetCache}, {@link #onDocIdSetEviction} and {@link #onClear}.
  * It is better to not perform heavy computations in these methods though since
- * they are called synchronously and under a lock.
+ * they are called synchronously and, except {@link #onHit} and {@link #onMiss}
+ * which may be called concurrently from several threads, under a lock.
  *
  * @see QueryCachingPolicy
  * @lucene.experimental
@@ -97,26 +106,39 @@ public class LRUQueryCache implements QueryCache, Accountable {
       HASHTABLE_RAM_BYTES_PER_ENTRY
       + 2 * RamUsageEstimator.NUM_BYTES_OBJECT_REF; // previous & next references
 
+  // every cached query is both in uniqueQueries and in the LRU queue
+  static final long QUERY_RAM_BYTES_PER_ENTRY =
+      HASHTABLE_RAM_BYTES_PER_ENTRY + LINKED_HASHTABLE_RAM_BYTES_PER_ENTRY;
+
+  // number of accesses that each access buffer may hold, must be a power of two
+  private static final int ACCESS_BUFFER_SIZE = 16;
+
   private final int maxSize;
   private final long maxRamBytesUsed;
   private final Predicate<LeafReaderContext> leavesToCache;
   // maps queries that are contained in the cache to a singleton so that this
-  // cache does not store several copies of the same query
+  // cache does not store several copies of the same query, may be read without
+  // holding the lock
   private final Map<Query, Query> uniqueQueries;
   // The contract between this set and the per-leaf caches is that per-leaf caches
   // are only allowed to store sub-sets of the queries that are contained in
   // mostRecentlyUsedQueries. This is why write operations are performed under a lock
+  private final Map<Query, Query> lruQueries;
   private final Set<Query> mostRecentlyUsedQueries;
   private final Map<Object, LeafCache> cache;
   private final ReentrantLock lock;
+  // recent accesses to cached queries, striped by thread so that concurrent
+  // lookups do not contend on the same buffer
+  private final AccessBuffer[] accessBuffers;
 
   // these variables are volatile so that we do not need to sync reads
   // but increments need to be performed under the lock
   private volatile long ramBytesUsed;
-  private volatile long hitCount;
-  private volatile long missCount;
   private volatile long cacheCount;
   private volatile long cacheSize;
+  // hits and misses are recorded outside of the lock
+  private final LongAdder hitCount;
+  private final LongAdder missCount;
 
   /**
    * Expert: Create a new instance that will cache at most <code>maxSize</code>
@@ -128,11 +150,19 @@ public class LRUQueryCache implements QueryCache, Accountable {
     this.maxSize = maxSize;
     this.maxRamBytesUsed = maxRamBytesUsed;
     this.leavesToCache = leavesToCache;
-    uniqueQueries = new LinkedHashMap<>(16, 0.75f, true);
-    mostRecentlyUsedQueries = uniqueQueries.keySet();
-    cache = new IdentityHashMap<>();
+    uniqueQueries = new ConcurrentHashMap<>();
+    lruQueries = new LinkedHashMap<>(16, 0.75f, true);
+    mostRecentlyUsedQueries = lruQueries.keySet();
+    cache = new ConcurrentHashMap<>();
     lock = new ReentrantLock();
+    final int numBuffers = Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2));
+    accessBuffers = new AccessBuffer[numBuffers];
+    for (int i = 0; i < numBuffers; ++i) {
+      accessBuffers[i] = new AccessBuffer();
+    }
     ramBytesUsed = 0;
+    hitCount = new LongAdder();
+    missCount = new LongAdder();
   }
 
   /**
@@ -176,23 +206,25 @@ public class LRUQueryCache implements QueryCache, Accountable {
    * Expert: callback when there is a cache hit on a given query.
    * Implementing this method is typically useful in order to compute more
    * fine-grained statistics about the query cache.
+   * NOTE: this method is not called under a lock and may be called
+   * concurrently from several threads.
    * @see #onMiss
    * @lucene.experimental
    */
   protected void onHit(Object readerCoreKey, Query query) {
-    assert lock.isHeldByCurrentThread();
-    hitCount += 1;
+    hitCount.increment();
   }
 
   /**
    * Expert: callback when there is a cache miss on a given query.
+   * NOTE: this method is not called under a lock and may be called
+   * concurrently from several threads.
    * @see #onHit
    * @lucene.experimental
    */
   protected void onMiss(Object readerCoreKey, Query query) {
-    assert lock.isHeldByCurrentThread();
     assert query != null;
-    missCount += 1;
+    missCount.increment();
   }
 
   /**
@@ -265,7 +297,6 @@ public class LRUQueryCache implements QueryCache, Accountable {
   }
 
   DocIdSet get(Query key, LeafReaderContext context) {
-    assert lock.isHeldByCurrentThread();
     assert key instanceof BoostQuery == false;
     assert key instanceof ConstantScoreQuery == false;
     final Object readerKey = context.reader().getCoreCacheKey();
@@ -274,12 +305,14 @@ public class LRUQueryCache implements QueryCache, Accountable {
       onMiss(readerKey, key);
       return null;
     }
-    // this get call moves the query to the most-recently-used position
     final Query singleton = uniqueQueries.get(key);
     if (singleton == null) {
       onMiss(readerKey, key);
       return null;
     }
+    // the query will be moved to the most-recently-used position when access
+    // buffers get drained
+    recordAccess(singleton);
     final DocIdSet cached = leafCache.get(singleton);
     if (cached == null) {
       onMiss(readerKey, singleton);
@@ -295,11 +328,15 @@ public class LRUQueryCache implements QueryCache, Accountable {
     // under a lock to make sure that mostRecentlyUsedQueries and cache remain sync'ed
     lock.lock();
     try {
+      drainAccessBuffers();
       Query singleton = uniqueQueries.putIfAbsent(query, query);
       if (singleton == null) {
-        onQueryCache(singleton, LINKED_HASHTABLE_RAM_BYTES_PER_ENTRY + ramBytesUsed(query));
+        lruQueries.put(query, query);
+        onQueryCache(query, QUERY_RAM_BYTES_PER_ENTRY + ramBytesUsed(query));
       } else {
         query = singleton;
+        // move to the most-recently-used position
+        lruQueries.get(query);
       }
       final Object key = context.reader().getCoreCacheKey();
       LeafCache leafCache = cache.get(key);
@@ -328,7 +365,7 @@ public class LRUQueryCache implements QueryCache, Accountable {
         final Query query = iterator.next();
         final int size = mostRecentlyUsedQueries.size();
         iterator.remove();
-        if (size == mostRecentlyUsedQueries.size()) {
+        if (size == mostRecentlyUsedQueries.size() || uniqueQueries.remove(query) == null) {
           // size did not decrease, because the hash of the query changed since it has been
           // put into the cache
           throw new ConcurrentModificationException("Removal from the cache failed! This " +
@@ -369,8 +406,10 @@ public class LRUQueryCache implements QueryCache, Accountable {
   public void clearQuery(Query query) {
     lock.lock();
     try {
+      drainAccessBuffers();
       final Query singleton = uniqueQueries.remove(query);
       if (singleton != null) {
+        lruQueries.remove(singleton);
         onEviction(singleton);
       }
     } finally {
@@ -380,7 +419,7 @@ public class LRUQueryCache implements QueryCache, Accountable {
 
   private void onEviction(Query singleton) {
     assert lock.isHeldByCurrentThread();
-    onQueryEviction(singleton, LINKED_HASHTABLE_RAM_BYTES_PER_ENTRY + ramBytesUsed(singleton));
+    onQueryEviction(singleton, QUERY_RAM_BYTES_PER_ENTRY + ramBytesUsed(singleton));
     for (LeafCache leafCache : cache.values()) {
       leafCache.remove(singleton);
     }
@@ -392,8 +431,10 @@ public class LRUQueryCache implements QueryCache, Accountable {
   public void clear() {
     lock.lock();
     try {
+      drainAccessBuffers();
       cache.clear();
-      // Note that this also clears the uniqueQueries map since mostRecentlyUsedQueries is the uniqueQueries.keySet view:
+      uniqueQueries.clear();
+      // Note that this also clears the lruQueries map since mostRecentlyUsedQueries is the lruQueries.keySet view:
       mostRecentlyUsedQueries.clear();
       onClear();
     } finally {
@@ -417,9 +458,13 @@ public class LRUQueryCache implements QueryCache, Accountable {
           throw new AssertionError("One leaf cache contains more keys than the top-level cache: " + keys);
         }
       }
+      if (uniqueQueries.keySet().equals(mostRecentlyUsedQueries) == false) {
+        throw new AssertionError("uniqueQueries and mostRecentlyUsedQueries are out of sync: "
+            + uniqueQueries.keySet() + " != " + mostRecentlyUsedQueries);
+      }
       long recomputedRamBytesUsed =
             HASHTABLE_RAM_BYTES_PER_ENTRY * cache.size()
-          + LINKED_HASHTABLE_RAM_BYTES_PER_ENTRY * uniqueQueries.size();
+          + QUERY_RAM_BYTES_PER_ENTRY * uniqueQueries.size();
       for (Query query : mostRecentlyUsedQueries) {
         recomputedRamBytesUsed += ramBytesUsed(query);
       }
@@ -450,12 +495,33 @@ public class LRUQueryCache implements QueryCache, Accountable {
   List<Query> cachedQueries() {
     lock.lock();
     try {
+      drainAccessBuffers();
       return new ArrayList<>(mostRecentlyUsedQueries);
     } finally {
       lock.unlock();
     }
   }
 
+  private void recordAccess(Query singleton) {
+    final int bufferIndex = (int) Thread.currentThread().getId() & (accessBuffers.length - 1);
+    if (accessBuffers[bufferIndex].add(singleton) && lock.tryLock()) {
+      // the buffer is full, replay accesses unless another thread is already
+      // modifying the cache
+      try {
+        drainAccessBuffers();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private void drainAccessBuffers() {
+    assert lock.isHeldByCurrentThread();
+    for (AccessBuffer buffer : accessBuffers) {
+      buffer.drainTo(lruQueries);
+    }
+  }
+
   @Override
   public Weight doCache(Weight weight, QueryCachingPolicy policy) {
     while (weight instanceof CachingWrapperWeight) {
@@ -563,7 +629,7 @@ public class LRUQueryCache implements QueryCache, Accountable {
    * @see #getMissCount()
    */
   public final long getHitCount() {
-    return hitCount;
+    return hitCount.sum();
   }
 
   /**
@@ -574,7 +640,7 @@ public class LRUQueryCache implements QueryCache, Accountable {
    * @see #getHitCount()
    */
   public final long getMissCount() {
-    return missCount;
+    return missCount.sum();
   }
 
   /**
@@ -614,7 +680,40 @@ public class LRUQueryCache implements QueryCache, Accountable {
     return getCacheCount() - getCacheSize();
   }
 
-  // this class is not thread-safe, everything but ramBytesUsed needs to be called under a lock
+  /**
+   * A lossy buffer of accesses to cached queries. Accesses may be overwritten
+   * by more recent ones if the buffer is not drained in time, which only
+   * makes the LRU order less accurate.
+   */
+  private static class AccessBuffer {
+
+    private final AtomicReferenceArray<Query> queries = new AtomicReferenceArray<>(ACCESS_BUFFER_SIZE);
+    private final AtomicInteger writeCount = new AtomicInteger();
+
+    /** Record an access, returns {@code true} if the buffer should be drained. */
+    boolean add(Query query) {
+      final int count = writeCount.getAndIncrement();
+      queries.lazySet(count & (ACCESS_BUFFER_SIZE - 1), query);
+      return ((count + 1) & (ACCESS_BUFFER_SIZE - 1)) == 0;
+    }
+
+    /** Replay accesses, oldest first, into the given access-ordered map. */
+    void drainTo(Map<Query, Query> lruQueries) {
+      final int start = writeCount.get();
+      for (int i = 0; i < ACCESS_BUFFER_SIZE; ++i) {
+        final Query query = queries.getAndSet((start + i) & (ACCESS_BUFFER_SIZE - 1), null);
+        if (query != null) {
+          // this moves the query to the most-recently-used position, or is a
+          // no-op if the query has been evicted in the meantime
+          lruQueries.get(query);
+        }
+      }
+    }
+
+  }
+
+  // this class is not thread-safe for writes, everything but get and
+  // ramBytesUsed needs to be called under a lock
   private class LeafCache implements Accountable {
 
     private final Object key;
@@ -623,7 +722,9 @@ public class LRUQueryCache implements QueryCache, Accountable {
 
     LeafCache(Object key) {
       this.key = key;
-      cache = new IdentityHashMap<>();
+      // keys are the singletons from uniqueQueries, so lookups are usually
+      // resolved by reference equality
+      cache = new ConcurrentHashMap<>();
       ramBytesUsed = 0;
     }
 
@@ -721,22 +822,13 @@ public class LRUQueryCache implements QueryCache, Accountable {
         policy.onUse(getQuery());
       }
       // Short-circuit: Check whether this segment is eligible for caching
-      // before we take a lock because of #get
+      // before we look up the cache
       if (shouldCache(context) == false) {
         return in.scorer(context);
       }
 
-      // If the lock is already busy, prefer using the uncached version than waiting
-      if (lock.tryLock() == false) {
-        return in.scorer(context);
-      }
-
-      DocIdSet docIdSet;
-      try {
-        docIdSet = get(in.getQuery(), context);
-      } finally {
-        lock.unlock();
-      }
+      // lookups do not take the lock
+      DocIdSet docIdSet = get(in.getQuery(), context);
 
       if (docIdSet == null) {
         if (policy.shouldCache(in.getQuery())) {
@@ -765,22 +857,13 @@ public class LRUQueryCache implements QueryCache, Accountable {
         policy.onUse(getQuery());
       }
       // Short-circuit: Check whether this segment is eligible for caching
-      // before we take a lock because of #get
+      // before we look up the cache
       if (shouldCache(context) == false) {
         return in.bulkScorer(context);
       }
 
-      // If the lock is already busy, prefer using the uncached version than waiting
-      if (lock.tryLock() == false) {
-        return in.bulkScorer(context);
-      }
-
-      DocIdSet docIdSet;
-      try {
-        docIdSet = get(in.getQuery(), context);
-      } finally {
-        lock.unlock();
-      }
+      // lookups do not take the lock
+      DocIdSet docIdSet = get(in.getQuery(), context);
 
       if (docIdSet == null) {
         if (policy.shouldCache(in.getQuery())) {
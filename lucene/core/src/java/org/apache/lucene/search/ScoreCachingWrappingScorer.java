@@ -53,6 +53,11 @@ public class ScoreCachingWrappingScorer extends FilterScorer {
     return curScore;
   }
 
+  @Override
+  public float maxScore() {
+    return in.maxScore();
+  }
+
   @Override
   public Collection<ChildScorer> getChildren() {
     return Collections.singleton(new ChildScorer(in, "CACHED"));
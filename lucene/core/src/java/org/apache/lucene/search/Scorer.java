@@ -140,4 +140,30 @@ public abstract class Scorer {
   public TwoPhaseIterator twoPhaseIterator() {
     return null;
   }
+
+  /**
+   * Return the maximum score that this scorer may produce. If scores are not
+   * bounded, {@link Float#POSITIVE_INFINITY} must be returned.
+   *
+   * The default implementation returns {@link Float#POSITIVE_INFINITY}.
+   * @lucene.experimental
+   */
+  public float maxScore() {
+    return Float.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Optional method: Tell the scorer that its iterator may safely ignore all
+   * documents whose score is less than the given {@code minScore}. This is a
+   * no-op by default.
+   *
+   * This method may only be called from collectors that do not need to know
+   * about all matches, since the total number of matches becomes a lower
+   * bound once it has been called. The given score may only increase
+   * across calls.
+   * @lucene.experimental
+   */
+  public void setMinCompetitiveScore(float minScore) {
+    // no-op by default
+  }
 }
@@ -44,4 +44,17 @@ public abstract class ScorerSupplier {
    */
   public abstract long cost();
 
+  /**
+   * Inform this {@link ScorerSupplier} that the {@link Scorer} returned by
+   * {@link #get} produces the final scores of the query and feeds a collector
+   * that only needs the top-scoring hits, which may call
+   * {@link Scorer#setMinCompetitiveScore(float)}. This must be called before
+   * {@link #get}. This is a no-op by default.
+   * @see Collector#needsTopScoresOnly()
+   * @lucene.experimental
+   */
+  public void setTopScoresOnly() {
+    // no-op by default
+  }
+
 }
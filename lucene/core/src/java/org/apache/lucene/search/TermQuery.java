@@ -21,6 +21,8 @@ import java.io.IOException;
 import java.util.Objects;
 import java.util.Set;
 
+import org.apache.lucene.index.ImpactsEnum;
+import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexReaderContext;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
@@ -86,14 +88,69 @@ public class TermQuery extends Query {
 
     @Override
     public Scorer scorer(LeafReaderContext context) throws IOException {
-      assert termStates == null || termStates.wasBuiltFor(ReaderUtil.getTopLevelContext(context)) : "The top-reader used to create Weight is not the same as the current reader's top-reader (" + ReaderUtil.getTopLevelContext(context);;
       final TermsEnum termsEnum = getTermsEnum(context);
       if (termsEnum == null) {
         return null;
       }
+      return scorer(context, termsEnum, false);
+    }
+
+    @Override
+    public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+      final TermsEnum termsEnum = getTermsEnum(context);
+      if (termsEnum == null) {
+        return null;
+      }
+      final long cost = termsEnum.docFreq();
+      return new ScorerSupplier() {
+
+        private boolean topScoresOnly = false;
+
+        @Override
+        public void setTopScoresOnly() {
+          topScoresOnly = true;
+        }
+
+        @Override
+        public Scorer get(boolean randomAccess) throws IOException {
+          return scorer(context, termsEnum, topScoresOnly);
+        }
+
+        @Override
+        public long cost() {
+          return cost;
+        }
+      };
+    }
+
+    private Scorer scorer(LeafReaderContext context, TermsEnum termsEnum, boolean topScoresOnly) throws IOException {
+      assert termStates == null || termStates.wasBuiltFor(ReaderUtil.getTopLevelContext(context)) : "The top-reader used to create Weight is not the same as the current reader's top-reader (" + ReaderUtil.getTopLevelContext(context);;
+      float maxFreq = getMaxFreq(context.reader().getFieldInfos().fieldInfo(term.field()).getIndexOptions(),
+          termsEnum.totalTermFreq(), termsEnum.docFreq());
+      if (needsScores && topScoresOnly) {
+        // impacts allow to skip non-competitive blocks of documents when the
+        // collector only needs the top hits
+        ImpactsEnum impacts = termsEnum.impacts(PostingsEnum.FREQS);
+        assert impacts != null;
+        return new TermScorer(this, impacts, similarity.simScorer(stats, context), maxFreq);
+      }
       PostingsEnum docs = termsEnum.postings(null, needsScores ? PostingsEnum.FREQS : PostingsEnum.NONE);
       assert docs != null;
-      return new TermScorer(this, docs, similarity.simScorer(stats, context));
+      return new TermScorer(this, docs, similarity.simScorer(stats, context), maxFreq);
+    }
+
+    private float getMaxFreq(IndexOptions indexOptions, long ttf, long df) {
+      // TODO: store the max term freq?
+      if (indexOptions.compareTo(IndexOptions.DOCS_AND_FREQS) < 0) {
+        // omitTFAP field, tf values are implicitly 1.
+        return 1;
+      } else if (ttf == -1) {
+        // the codec does not record total term freqs
+        return Float.POSITIVE_INFINITY;
+      } else {
+        // every matching doc contains the term at least once
+        return Math.min(Integer.MAX_VALUE, ttf - df + 1);
+      }
     }
 
     /**
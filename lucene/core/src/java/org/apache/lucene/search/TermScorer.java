@@ -19,6 +19,8 @@ package org.apache.lucene.search;
 
 import java.io.IOException;
 
+import org.apache.lucene.index.Impacts;
+import org.apache.lucene.index.ImpactsEnum;
 import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.search.similarities.Similarity;
 
@@ -26,7 +28,11 @@ import org.apache.lucene.search.similarities.Similarity;
  */
 final class TermScorer extends Scorer {
   private final PostingsEnum postingsEnum;
+  private final ImpactsEnum impactsEnum;
+  private final DocIdSetIterator iterator;
   private final Similarity.SimScorer docScorer;
+  private final float maxFreq;
+  private float minCompetitiveScore;
 
   /**
    * Construct a <code>TermScorer</code>.
@@ -38,11 +44,41 @@ final class TermScorer extends Scorer {
    * @param docScorer
    *          The <code>Similarity.SimScorer</code> implementation
    *          to be used for score computations.
+   * @param maxFreq
+   *          An upper bound of the term frequency of the searched term in any document.
    */
-  TermScorer(Weight weight, PostingsEnum td, Similarity.SimScorer docScorer) {
+  TermScorer(Weight weight, PostingsEnum td, Similarity.SimScorer docScorer, float maxFreq) {
     super(weight);
     this.docScorer = docScorer;
     this.postingsEnum = td;
+    this.impactsEnum = null;
+    this.iterator = td;
+    this.maxFreq = maxFreq;
+  }
+
+  /**
+   * Construct a <code>TermScorer</code> that uses impacts in order to skip
+   * blocks of documents that may not produce competitive scores once
+   * {@link #setMinCompetitiveScore(float)} has been called.
+   *
+   * @param weight
+   *          The weight of the <code>Term</code> in the query.
+   * @param impactsEnum
+   *          An iterator over the documents matching the <code>Term</code>
+   *          that also exposes impacts.
+   * @param docScorer
+   *          The <code>Similarity.SimScorer</code> implementation
+   *          to be used for score computations.
+   * @param maxFreq
+   *          An upper bound of the term frequency of the searched term in any document.
+   */
+  TermScorer(Weight weight, ImpactsEnum impactsEnum, Similarity.SimScorer docScorer, float maxFreq) {
+    super(weight);
+    this.docScorer = docScorer;
+    this.postingsEnum = impactsEnum;
+    this.impactsEnum = impactsEnum;
+    this.iterator = new ImpactsDISI();
+    this.maxFreq = maxFreq;
   }
 
   @Override
@@ -57,7 +93,7 @@ final class TermScorer extends Scorer {
 
   @Override
   public DocIdSetIterator iterator() {
-    return postingsEnum;
+    return iterator;
   }
 
   @Override
@@ -66,7 +102,105 @@ final class TermScorer extends Scorer {
     return docScorer.score(postingsEnum.docID(), postingsEnum.freq());
   }
 
+  @Override
+  public float maxScore() {
+    return docScorer.maxScore(maxFreq);
+  }
+
+  @Override
+  public void setMinCompetitiveScore(float minScore) {
+    if (minScore > minCompetitiveScore) {
+      minCompetitiveScore = minScore;
+      if (impactsEnum != null) {
+        // force the current block to be checked again
+        ((ImpactsDISI) iterator).upTo = -1;
+      }
+    }
+  }
+
   /** Returns a string representation of this <code>TermScorer</code>. */
   @Override
   public String toString() { return "scorer(" + weight + ")[" + super.toString() + "]"; }
+
+  /**
+   * {@link DocIdSetIterator} that skips blocks of documents whose impacts
+   * can't produce a score that is greater than or equal to the minimum
+   * competitive score.
+   */
+  private final class ImpactsDISI extends DocIdSetIterator {
+
+    // max doc ID of the current competitive block, -1 if unknown
+    int upTo = -1;
+
+    /**
+     * Return the first target that is greater than or equal to {@code target}
+     * and that belongs to a block that may contain competitive documents, and
+     * update {@link #upTo} accordingly.
+     */
+    private int advanceTarget(int target) throws IOException {
+      if (target <= upTo) {
+        // still in the current competitive block
+        return target;
+      }
+
+      while (true) {
+        impactsEnum.advanceShallow(target);
+        Impacts impacts = impactsEnum.getImpacts();
+
+        // Skip as many levels as possible: if a level is not competitive,
+        // then the next level may not be competitive either
+        int skipUpTo = -1;
+        for (int level = 0; level < impacts.numLevels(); ++level) {
+          if (docScorer.maxScore(impacts.getImpacts(level)) >= minCompetitiveScore) {
+            break;
+          }
+          skipUpTo = impacts.getDocIdUpTo(level);
+        }
+
+        if (skipUpTo == -1) {
+          upTo = impacts.getDocIdUpTo(0);
+          return target;
+        } else if (skipUpTo == NO_MORE_DOCS) {
+          upTo = NO_MORE_DOCS;
+          return NO_MORE_DOCS;
+        }
+        target = skipUpTo + 1;
+      }
+    }
+
+    @Override
+    public int docID() {
+      return impactsEnum.docID();
+    }
+
+    @Override
+    public int nextDoc() throws IOException {
+      return advance(impactsEnum.docID() + 1);
+    }
+
+    @Override
+    public int advance(int target) throws IOException {
+      if (minCompetitiveScore == 0) {
+        // all documents are competitive
+        return impactsEnum.advance(target);
+      }
+      while (true) {
+        int doc = impactsEnum.docID();
+        final int competitiveTarget = advanceTarget(target);
+        if (doc < competitiveTarget) {
+          doc = impactsEnum.advance(competitiveTarget);
+        }
+        if (doc <= upTo) {
+          return doc;
+        }
+        // the enum moved to a block whose impacts haven't been checked yet
+        target = doc;
+      }
+    }
+
+    @Override
+    public long cost() {
+      return impactsEnum.cost();
+    }
+  }
 }
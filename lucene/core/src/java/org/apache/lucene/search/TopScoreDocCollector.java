@@ -33,6 +33,17 @@ import org.apache.lucene.index.LeafReaderContext;
  * {@link Float#NEGATIVE_INFINITY} are not valid scores.  This
  * collector will not properly collect hits with such
  * scores.
+ *
+ * <p>When created with {@code trackTotalHits=false}, this collector
+ * tells {@link Scorer}s about the minimum score that a hit needs in order to
+ * be competitive through {@link Scorer#setMinCompetitiveScore(float)}. Some
+ * scorers use this information to skip over non-competitive hits, so
+ * {@link TopDocs#totalHits} is only a lower bound of the number of matches in
+ * that case. Skipping only happens when this collector is passed directly to
+ * {@link IndexSearcher}, which then creates scorers in top-scores mode (see
+ * {@link ScorerSupplier#setTopScoresOnly()}). When it is wrapped in another
+ * collector that does not report {@link #needsTopScoresOnly()}, such as
+ * {@link MultiCollector}, all matches are still collected.
  */
 public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
 
@@ -49,8 +60,8 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
 
   private static class SimpleTopScoreDocCollector extends TopScoreDocCollector {
 
-    SimpleTopScoreDocCollector(int numHits) {
-      super(numHits);
+    SimpleTopScoreDocCollector(int numHits, boolean trackTotalHits) {
+      super(numHits, trackTotalHits);
     }
 
     @Override
@@ -77,6 +88,14 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
           pqTop.doc = doc + docBase;
           pqTop.score = score;
           pqTop = pq.updateTop();
+          updateMinCompetitiveScore(scorer);
+        }
+
+        @Override
+        public void setScorer(Scorer scorer) throws IOException {
+          super.setScorer(scorer);
+          // the queue might already be full from previous segments
+          updateMinCompetitiveScore(scorer);
         }
 
       };
@@ -89,8 +108,8 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
     private final ScoreDoc after;
     private int collectedHits;
 
-    PagingTopScoreDocCollector(int numHits, ScoreDoc after) {
-      super(numHits);
+    PagingTopScoreDocCollector(int numHits, ScoreDoc after, boolean trackTotalHits) {
+      super(numHits, trackTotalHits);
       this.after = after;
       this.collectedHits = 0;
     }
@@ -135,6 +154,14 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
           pqTop.doc = doc + docBase;
           pqTop.score = score;
           pqTop = pq.updateTop();
+          updateMinCompetitiveScore(scorer);
+        }
+
+        @Override
+        public void setScorer(Scorer scorer) throws IOException {
+          super.setScorer(scorer);
+          // the queue might already be full from previous segments
+          updateMinCompetitiveScore(scorer);
         }
       };
     }
@@ -165,26 +192,63 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
    * objects.
    */
   public static TopScoreDocCollector create(int numHits, ScoreDoc after) {
+    return create(numHits, after, true);
+  }
+
+  /**
+   * Creates a new {@link TopScoreDocCollector} given the number of hits to
+   * collect, the bottom of the previous page, and whether the total hit count
+   * needs to be accurate.
+   *
+   * <p>When {@code trackTotalHits} is {@code false}, the returned collector
+   * lets scorers skip over hits that cannot compete for the top
+   * {@code numHits}, and {@link TopDocs#totalHits} is only a lower bound of
+   * the number of matches.
+   *
+   * <p><b>NOTE</b>: The instances returned by this method
+   * pre-allocate a full array of length
+   * <code>numHits</code>, and fill the array with sentinel
+   * objects.
+   *
+   * @lucene.experimental
+   */
+  public static TopScoreDocCollector create(int numHits, ScoreDoc after, boolean trackTotalHits) {
 
     if (numHits <= 0) {
       throw new IllegalArgumentException("numHits must be > 0; please use TotalHitCountCollector if you just need the total hit count");
     }
 
     if (after == null) {
-      return new SimpleTopScoreDocCollector(numHits);
+      return new SimpleTopScoreDocCollector(numHits, trackTotalHits);
     } else {
-      return new PagingTopScoreDocCollector(numHits, after);
+      return new PagingTopScoreDocCollector(numHits, after, trackTotalHits);
     }
   }
 
   ScoreDoc pqTop;
+  final boolean trackTotalHits;
 
   // prevents instantiation
-  TopScoreDocCollector(int numHits) {
+  TopScoreDocCollector(int numHits, boolean trackTotalHits) {
     super(new HitQueue(numHits, true));
     // HitQueue implements getSentinelObject to return a ScoreDoc, so we know
     // that at this point top() is already initialized.
     pqTop = pq.top();
+    this.trackTotalHits = trackTotalHits;
+  }
+
+  /** Tell the scorer about the score that hits need to exceed in order to be
+   *  competitive, if the total hit count does not need to be accurate. This is
+   *  a no-op unless the scorer was created in top-scores mode, which only
+   *  happens when this collector owns the scorer. */
+  void updateMinCompetitiveScore(Scorer scorer) {
+    // pqTop.score is -Infinity as long as the queue is not full
+    // Since docs are collected in order of increasing doc ID, documents that
+    // have the same score as pqTop cannot compete, so pqTop.score is a valid
+    // min competitive score. Skipping only works with non-negative scores.
+    if (trackTotalHits == false && pqTop.score > 0) {
+      scorer.setMinCompetitiveScore(pqTop.score);
+    }
   }
 
   @Override
@@ -212,4 +276,9 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
   public boolean needsScores() {
     return true;
   }
+
+  @Override
+  public boolean needsTopScoresOnly() {
+    return trackTotalHits == false;
+  }
 }
@@ -0,0 +1,509 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.apache.lucene.search.DisiPriorityQueue.leftNode;
+import static org.apache.lucene.search.DisiPriorityQueue.parentNode;
+import static org.apache.lucene.search.DisiPriorityQueue.rightNode;
+
+/**
+ * A scorer for pure disjunctions that is able to skip over documents that
+ * cannot produce a competitive score, as described in
+ * <a href="http://citeseerx.ist.psu.edu/viewdoc/download?doi=10.1.1.365.2939&amp;rep=rep1&amp;type=pdf">Efficient
+ * Query Evaluation using a Two-Level Retrieval Process</a> by Broder,
+ * Carmel, Herscovici, Soffer and Zien.
+ *
+ * This implementation keeps sub scorers in 3 different places:
+ *  - lead: a linked list of scorer that are positioned on the desired doc ID
+ *  - tail: a heap that contains scorers which are behind the desired doc ID
+ *    and whose sum of max scores is less than the minimum competitive score,
+ *    ordered by max score so that the scorers that can contribute the most
+ *    are advanced first
+ *  - head: a heap that contains scorers which are beyond the desired doc ID,
+ *    ordered by doc ID in order to move quickly to the next candidate.
+ *
+ * Finding the next match consists of first setting the desired doc ID to the
+ * least entry in 'head', and then advance 'tail' until the sum of the max
+ * scores of the 'lead' scorers is competitive or there is no way the
+ * document can be competitive anymore.
+ *
+ * Max scores are scaled and rounded to longs so that additions and
+ * subtractions are exact: max scores are rounded up and the minimum
+ * competitive score is rounded down so that this scorer never skips
+ * documents that might be competitive.
+ */
+final class WANDScorer extends Scorer {
+
+  private static final int FLOAT_MANTISSA_BITS = 24;
+  private static final long MAX_SCALED_SCORE = (1L << 24) - 1;
+
+  /** Return a scaling factor for the given float so that
+   *  {@code f x 2^scalingFactor} would be in {@code [2^23, 2^24[}. Special
+   *  cases:
+   *  <pre>
+   *    scalingFactor(0) = scalingFactor(MIN_VALUE) - 1
+   *    scalingFactor(+Infty) = scalingFactor(MAX_VALUE) + 1
+   *  </pre> */
+  static int scalingFactor(float f) {
+    if (f < 0) {
+      throw new IllegalArgumentException("Scores must be positive or null");
+    } else if (f == 0) {
+      return scalingFactor(Float.MIN_VALUE) - 1;
+    } else if (Float.isInfinite(f)) {
+      return scalingFactor(Float.MAX_VALUE) + 1;
+    } else {
+      double d = f;
+      // Since doubles have more amplitude than floats for the
+      // exponent, the cast produces a normal value.
+      assert d == 0 || Math.getExponent(d) >= Double.MIN_EXPONENT; // normal double
+      return FLOAT_MANTISSA_BITS - 1 - Math.getExponent(d);
+    }
+  }
+
+  /** Scale max scores in an unsigned integer to avoid overflows
+   *  (only the lower 24 bits of the long are used) as well as
+   *  floating-point arithmetic errors. Those are rounded up in order
+   *  to make sure we do not miss any matches. */
+  static long scaleMaxScore(float maxScore, int scalingFactor) {
+    assert Float.isNaN(maxScore) == false;
+    assert maxScore >= 0;
+
+    // NOTE: because doubles have more amplitude than floats for the
+    // exponent, the scalb call produces an accurate value.
+    final double scaled = Math.scalb((double) maxScore, scalingFactor);
+
+    if (scaled > MAX_SCALED_SCORE) {
+      // This happens if one scorer returns +Infty as a max score, which
+      // callers are expected to prevent
+      return MAX_SCALED_SCORE;
+    }
+
+    return (long) Math.ceil(scaled); // round up, cast is accurate since value is <= 2^24
+  }
+
+  /** Scale min competitive scores the same way as max scores but this time
+   *  by rounding down in order to make sure that we do not miss any matches. */
+  static long scaleMinScore(float minScore, int scalingFactor) {
+    assert Float.isFinite(minScore);
+    assert minScore >= 0;
+
+    // like for scaleMaxScore, this scalb call is accurate
+    final double scaled = Math.scalb((double) minScore, scalingFactor);
+    return (long) Math.floor(scaled); // round down, cast saturates if scaled > Long.MAX_VALUE, which is fine
+  }
+
+  private final int scalingFactor;
+  // scaled min competitive score
+  private long minCompetitiveScore;
+
+  // list of scorers which 'lead' the iteration and are currently
+  // positioned on 'doc'. This is sometimes called the 'pivot' in
+  // some descriptions of WAND (Weak AND).
+  DisiWrapper lead;
+  int doc;  // current doc ID of the leads
+  long leadMaxScore; // sum of the max scores of scorers in 'lead'
+
+  // priority queue of scorers that are too advanced compared to the current
+  // doc. Ordered by doc ID.
+  final DisiPriorityQueue head;
+
+  // priority queue of scorers which are behind the current doc.
+  // Ordered by maxScore.
+  final DisiWrapper[] tail;
+  long tailMaxScore; // sum of the max scores of scorers in 'tail'
+  int tailSize;
+
+  final Collection<ChildScorer> childScorers;
+  final long cost;
+
+  /** Sole constructor. All scorers must return a finite {@link Scorer#maxScore()}. */
+  WANDScorer(Weight weight, Collection<Scorer> scorers) {
+    super(weight);
+
+    this.minCompetitiveScore = 0;
+    this.doc = -1;
+
+    head = new DisiPriorityQueue(scorers.size());
+    // there can be at most num_scorers scorers behind the current position
+    tail = new DisiWrapper[scorers.size()];
+
+    int scalingFactor = Integer.MAX_VALUE;
+    for (Scorer scorer : scorers) {
+      final float maxScore = scorer.maxScore();
+      if (Float.isFinite(maxScore) == false) {
+        throw new IllegalArgumentException("Scorers must have finite max scores, got " + maxScore);
+      }
+      if (maxScore != 0) {
+        // 0 should not impact the scale
+        scalingFactor = Math.min(scalingFactor, scalingFactor(maxScore));
+      }
+    }
+    // Use a scaling factor of 0 if all max scores are 0
+    this.scalingFactor = scalingFactor == Integer.MAX_VALUE ? 0 : scalingFactor;
+
+    final List<ChildScorer> children = new ArrayList<>();
+    long cost = 0;
+    for (Scorer scorer : scorers) {
+      final DisiWrapper w = new DisiWrapper(scorer);
+      w.maxScore = scaleMaxScore(scorer.maxScore(), this.scalingFactor);
+      cost += w.cost;
+      addLead(w);
+      children.add(new ChildScorer(scorer, "SHOULD"));
+    }
+    this.childScorers = children;
+    this.cost = cost;
+  }
+
+  // returns a boolean so that it can be called from assert
+  // the return value is useless: it always returns true
+  private boolean ensureConsistent() {
+    long maxScoreSum = 0;
+    for (int i = 0; i < tailSize; ++i) {
+      assert tail[i].doc < doc;
+      maxScoreSum = Math.addExact(maxScoreSum, tail[i].maxScore);
+    }
+    assert maxScoreSum == tailMaxScore : maxScoreSum + " " + tailMaxScore;
+
+    maxScoreSum = 0;
+    for (DisiWrapper w = lead; w != null; w = w.next) {
+      assert w.doc == doc;
+      maxScoreSum = Math.addExact(maxScoreSum, w.maxScore);
+    }
+    assert maxScoreSum == leadMaxScore : maxScoreSum + " " + leadMaxScore;
+
+    for (DisiWrapper w : head) {
+      assert w.doc > doc;
+    }
+
+    assert tailSize == 0 || tailMaxScore < minCompetitiveScore;
+
+    return true;
+  }
+
+  @Override
+  public float maxScore() {
+    double maxScore = 0;
+    for (ChildScorer child : childScorers) {
+      maxScore += child.child.maxScore();
+    }
+    return (float) maxScore;
+  }
+
+  @Override
+  public void setMinCompetitiveScore(float minScore) {
+    assert minScore >= 0;
+    final long scaledMinScore = scaleMinScore(minScore, scalingFactor);
+    // the min competitive score may only increase, otherwise the
+    // invariants of 'tail' would be broken
+    if (scaledMinScore > minCompetitiveScore) {
+      minCompetitiveScore = scaledMinScore;
+    }
+  }
+
+  @Override
+  public Collection<ChildScorer> getChildren() {
+    return childScorers;
+  }
+
+  @Override
+  public DocIdSetIterator iterator() {
+    return TwoPhaseIterator.asDocIdSetIterator(twoPhaseIterator());
+  }
+
+  @Override
+  public TwoPhaseIterator twoPhaseIterator() {
+    DocIdSetIterator approximation = new DocIdSetIterator() {
+
+      @Override
+      public int docID() {
+        return doc;
+      }
+
+      @Override
+      public int nextDoc() throws IOException {
+        return advance(doc + 1);
+      }
+
+      @Override
+      public int advance(int target) throws IOException {
+        assert ensureConsistent();
+
+        // Move 'lead' iterators back to the tail
+        pushBackLeads(target);
+
+        // Advance 'head' as well
+        advanceHead(target);
+
+        // Pop the new 'lead' from the 'head'
+        setDocAndLeadMaxScore();
+
+        assert ensureConsistent();
+
+        // Advance to the next possible match
+        return doNextCandidate();
+      }
+
+      @Override
+      public long cost() {
+        return cost;
+      }
+    };
+    return new TwoPhaseIterator(approximation) {
+
+      @Override
+      public boolean matches() throws IOException {
+        while (leadMaxScore < minCompetitiveScore) {
+          if (leadMaxScore + tailMaxScore >= minCompetitiveScore) {
+            // a competitive match on doc is still possible, try to
+            // advance scorers from the tail
+            advanceTail();
+          } else {
+            return false;
+          }
+        }
+        return true;
+      }
+
+      @Override
+      public float matchCost() {
+        // maximum number of scorers that matches() might advance
+        return tail.length;
+      }
+
+    };
+  }
+
+  private void addLead(DisiWrapper lead) {
+    lead.next = this.lead;
+    this.lead = lead;
+    leadMaxScore += lead.maxScore;
+  }
+
+  private void pushBackLeads(int target) throws IOException {
+    for (DisiWrapper s = lead; s != null; s = s.next) {
+      final DisiWrapper evicted = insertTailWithOverFlow(s);
+      if (evicted != null) {
+        evicted.doc = evicted.iterator.advance(target);
+        head.add(evicted);
+      }
+    }
+    lead = null;
+    leadMaxScore = 0;
+  }
+
+  private void advanceHead(int target) throws IOException {
+    DisiWrapper headTop = head.top();
+    while (headTop != null && headTop.doc < target) {
+      final DisiWrapper evicted = insertTailWithOverFlow(headTop);
+      if (evicted != null) {
+        evicted.doc = evicted.iterator.advance(target);
+        headTop = head.updateTop(evicted);
+      } else {
+        head.pop();
+        headTop = head.top();
+      }
+    }
+  }
+
+  private void advanceTail(DisiWrapper disi) throws IOException {
+    disi.doc = disi.iterator.advance(doc);
+    if (disi.doc == doc) {
+      addLead(disi);
+    } else {
+      head.add(disi);
+    }
+  }
+
+  private void advanceTail() throws IOException {
+    final DisiWrapper top = popTail();
+    advanceTail(top);
+  }
+
+  /** Reinitializes lead, leadMaxScore and doc from 'head'. */
+  private void setDocAndLeadMaxScore() {
+    if (head.size() == 0) {
+      // all scorers are in 'tail', which means that the sum of their max
+      // scores is not competitive: there are no more matches
+      doc = DocIdSetIterator.NO_MORE_DOCS;
+      return;
+    }
+
+    // The top of `head` defines the next potential match
+    // pop all documents which are on this doc
+    lead = head.pop();
+    lead.next = null;
+    leadMaxScore = lead.maxScore;
+    doc = lead.doc;
+    while (head.size() > 0 && head.top().doc == doc) {
+      addLead(head.pop());
+    }
+  }
+
+  /** Move iterators to the tail until there is a potential match. */
+  private int doNextCandidate() throws IOException {
+    while (doc != DocIdSetIterator.NO_MORE_DOCS && leadMaxScore + tailMaxScore < minCompetitiveScore) {
+      // no competitive match on doc is possible, move to the next potential match
+      pushBackLeads(doc + 1);
+      advanceHead(doc + 1);
+      setDocAndLeadMaxScore();
+      assert ensureConsistent();
+    }
+
+    return doc;
+  }
+
+  /** Advance all entries from the tail to know about all matches on the
+   *  current doc. */
+  private void advanceAllTail() throws IOException {
+    // we return the next doc when the sum of the scores of the potential
+    // matching clauses is high enough but some of the clauses in 'tail' might
+    // match as well
+    // since we are advancing all clauses in tail, we just iterate the array
+    // without reorganizing the PQ
+    for (int i = tailSize - 1; i >= 0; --i) {
+      advanceTail(tail[i]);
+    }
+    tailSize = 0;
+    tailMaxScore = 0;
+    assert ensureConsistent();
+  }
+
+  @Override
+  public float score() throws IOException {
+    // we need to know about all matches
+    advanceAllTail();
+    double score = 0;
+    for (DisiWrapper s = lead; s != null; s = s.next) {
+      score += s.scorer.score();
+    }
+    return (float) score;
+  }
+
+  @Override
+  public int freq() throws IOException {
+    // we need to know about all matches
+    advanceAllTail();
+    int freq = 0;
+    for (DisiWrapper s = lead; s != null; s = s.next) {
+      freq += 1;
+    }
+    return freq;
+  }
+
+  @Override
+  public int docID() {
+    return doc;
+  }
+
+  /** Insert an entry in 'tail' and evict the entry with the greatest max score if full. */
+  private DisiWrapper insertTailWithOverFlow(DisiWrapper s) {
+    if (tailMaxScore + s.maxScore < minCompetitiveScore) {
+      // we have free room for this new entry
+      addTail(s);
+      tailMaxScore += s.maxScore;
+      return null;
+    } else if (tailSize == 0) {
+      return s;
+    } else {
+      final DisiWrapper top = tail[0];
+      if (greaterMaxScore(top, s) == false) {
+        return s;
+      }
+      // Swap top and s
+      tail[0] = s;
+      downHeapMaxScore(tail, tailSize);
+      tailMaxScore = tailMaxScore - top.maxScore + s.maxScore;
+      return top;
+    }
+  }
+
+  /** Add an entry to 'tail'. Fails if over capacity. */
+  private void addTail(DisiWrapper s) {
+    tail[tailSize] = s;
+    upHeapMaxScore(tail, tailSize);
+    tailSize += 1;
+  }
+
+  /** Pop the entry from the 'tail' that has the greatest score contribution. */
+  private DisiWrapper popTail() {
+    assert tailSize > 0;
+    final DisiWrapper result = tail[0];
+    tail[0] = tail[--tailSize];
+    downHeapMaxScore(tail, tailSize);
+    tailMaxScore -= result.maxScore;
+    return result;
+  }
+
+  /** Heap helpers */
+
+  private static void upHeapMaxScore(DisiWrapper[] heap, int i) {
+    final DisiWrapper node = heap[i];
+    int j = parentNode(i);
+    while (j >= 0 && greaterMaxScore(node, heap[j])) {
+      heap[i] = heap[j];
+      i = j;
+      j = parentNode(j);
+    }
+    heap[i] = node;
+  }
+
+  private static void downHeapMaxScore(DisiWrapper[] heap, int size) {
+    int i = 0;
+    final DisiWrapper node = heap[0];
+    int j = leftNode(i);
+    if (j < size) {
+      int k = rightNode(j);
+      if (k < size && greaterMaxScore(heap[k], heap[j])) {
+        j = k;
+      }
+      if (greaterMaxScore(heap[j], node)) {
+        do {
+          heap[i] = heap[j];
+          i = j;
+          j = leftNode(i);
+          k = rightNode(j);
+          if (k < size && greaterMaxScore(heap[k], heap[j])) {
+            j = k;
+          }
+        } while (j < size && greaterMaxScore(heap[j], node));
+        heap[i] = node;
+      }
+    }
+  }
+
+  /**
+   * In the tail, we want to get first entries that produce the maximum scores
+   * and in case of ties (eg. constant-score queries), those that have the least
+   * cost so that they are likely to advance further.
+   */
+  private static boolean greaterMaxScore(DisiWrapper w1, DisiWrapper w2) {
+    if (w1.maxScore > w2.maxScore) {
+      return true;
+    } else if (w1.maxScore < w2.maxScore) {
+      return false;
+    } else {
+      return w1.cost < w2.cost;
+    }
+  }
+
+}
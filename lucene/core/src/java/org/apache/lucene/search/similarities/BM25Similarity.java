@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.lucene.index.FieldInvertState;
+import org.apache.lucene.index.Impact;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.search.CollectionStatistics;
@@ -229,12 +230,29 @@ public class BM25Similarity extends Similarity {
     private final float weightValue; // boost * idf * (k1 + 1)
     private final NumericDocValues norms;
     private final float[] cache;
+    private final float minNorm; // the least normalization factor that can be applied to freqs
+    private final boolean monotonicNorms; // whether greater encoded norms always give lower normalization factors
     
     BM25DocScorer(BM25Stats stats, NumericDocValues norms) throws IOException {
       this.stats = stats;
       this.weightValue = stats.weight * (k1 + 1);
       this.cache = stats.cache;
       this.norms = norms;
+      if (norms == null) {
+        minNorm = k1;
+        monotonicNorms = true;
+      } else {
+        float min = Float.POSITIVE_INFINITY;
+        boolean monotonic = true;
+        for (int i = 0; i < cache.length; ++i) {
+          min = Math.min(min, cache[i]);
+          if (i > 0 && cache[i] > cache[i - 1]) {
+            monotonic = false;
+          }
+        }
+        minNorm = min;
+        monotonicNorms = monotonic;
+      }
     }
     
     @Override
@@ -252,6 +270,39 @@ public class BM25Similarity extends Similarity {
       }
       return weightValue * freq / (freq + norm);
     }
+
+    @Override
+    public float maxScore(float maxFreq) {
+      if (Float.isInfinite(maxFreq)) {
+        // freq / (freq + norm) tends to 1
+        return weightValue;
+      }
+      // the score increases with freq and decreases with norm
+      return weightValue * maxFreq / (maxFreq + minNorm);
+    }
+
+    @Override
+    public float maxScore(List<Impact> impacts) {
+      float maxScore = 0;
+      for (Impact impact : impacts) {
+        final float freq = impact.freq == Integer.MAX_VALUE ? Float.POSITIVE_INFINITY : impact.freq;
+        if (Float.isInfinite(freq)) {
+          return weightValue;
+        }
+        final float norm;
+        if (norms == null) {
+          norm = k1;
+        } else if (monotonicNorms && impact.norm >= Byte.MIN_VALUE && impact.norm <= Byte.MAX_VALUE) {
+          // impacts only guarantee that norms are less than or equal, in
+          // unsigned order, which is only safe to use if the cache is monotonic
+          norm = cache[(byte) impact.norm & 0xFF];
+        } else {
+          norm = minNorm;
+        }
+        maxScore = Math.max(maxScore, weightValue * freq / (freq + norm));
+      }
+      return maxScore;
+    }
     
     @Override
     public Explanation explain(int doc, Explanation freq) throws IOException {
@@ -17,6 +17,7 @@
 package org.apache.lucene.search.similarities;
 
 
+import org.apache.lucene.index.Impact;
 import org.apache.lucene.index.FieldInvertState;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.CollectionStatistics;
@@ -31,6 +32,7 @@ import org.apache.lucene.util.SmallFloat;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
 
 /** 
  * Similarity defines the components of Lucene scoring.
@@ -163,6 +165,33 @@ public abstract class Similarity {
      */
     public abstract float score(int doc, float freq) throws IOException;
 
+    /**
+     * Return the maximum score that this scorer may produce for freqs in {@code ]0, maxFreq]}.
+     * {@code Float.POSITIVE_INFINITY} is a fine return value if scores are not bounded.
+     * The default implementation returns {@link Float#POSITIVE_INFINITY}.
+     * @param maxFreq the maximum frequency
+     * @lucene.experimental
+     */
+    public float maxScore(float maxFreq) {
+      return Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Return the maximum score that this scorer may produce for documents
+     * whose (freq, norm) pair is less competitive than or equal to one of the
+     * given {@code impacts}. The default implementation only considers
+     * frequencies and calls {@link #maxScore(float)} with the maximum
+     * frequency of {@code impacts}.
+     * @lucene.experimental
+     */
+    public float maxScore(List<Impact> impacts) {
+      int maxFreq = 0;
+      for (Impact impact : impacts) {
+        maxFreq = Math.max(maxFreq, impact.freq);
+      }
+      return maxScore(maxFreq == Integer.MAX_VALUE ? Float.POSITIVE_INFINITY : maxFreq);
+    }
+
     /** Computes the amount of a sloppy phrase match, based on an edit distance. */
     public abstract float computeSlopFactor(int distance);
     
@@ -0,0 +1,442 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.store;
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+
+/**
+ * A memory-resident {@link Directory} implementation that stores files in
+ * {@link ByteBuffer}s. Locking implementation is by default the
+ * {@link SingleInstanceLockFactory}.
+ *
+ * <p>Unlike {@link RAMDirectory}, which stores files as lists of 1KB
+ * {@code byte[]} arrays, this directory stores files in chunks of
+ * {@link #DEFAULT_MAX_CHUNK_SIZE} bytes (configurable), which are read
+ * through the same {@link IndexInput} implementation as {@link MMapDirectory}.
+ * Small files only use as much memory as they need. Chunks can either be
+ * allocated on the heap or as direct buffers, outside of the heap, which
+ * reduces the pressure on the garbage collector for large indexes.
+ *
+ * <p>Files are immutable once their {@link IndexOutput} is closed, and files
+ * can't be opened for reading while they are being written, although
+ * {@link #fileLength} returns the number of bytes written so far. There is no global
+ * lock: files are tracked in a concurrent map and reads don't need any
+ * synchronization.
+ *
+ * <p>It is still recommended to materialize large indexes on disk and use
+ * {@link MMapDirectory}, which is a high-performance directory
+ * implementation working directly on the file system cache of the
+ * operating system.
+ *
+ * @lucene.experimental
+ */
+public class ByteBuffersDirectory extends BaseDirectory implements Accountable {
+
+  /** Default maximum size of a chunk: 64KB. */
+  public static final int DEFAULT_MAX_CHUNK_SIZE = 1 << 16;
+
+  /** Size of the first chunk of a file, which grows until it reaches the maximum chunk size. */
+  static final int MIN_CHUNK_SIZE = 1 << 8;
+
+  private final Map<String,FileEntry> files = new ConcurrentHashMap<>();
+  private final AtomicLong sizeInBytes = new AtomicLong();
+  private final int chunkSizePower;
+  private final boolean useDirectBuffers;
+
+  /** Used to generate temp file names in {@link #createTempOutput}. */
+  private final AtomicLong nextTempFileCounter = new AtomicLong();
+
+  /** Constructs an empty {@link Directory} that stores files on the heap. */
+  public ByteBuffersDirectory() {
+    this(new SingleInstanceLockFactory());
+  }
+
+  /** Constructs an empty {@link Directory} with the given {@link LockFactory} that stores files on the heap. */
+  public ByteBuffersDirectory(LockFactory lockFactory) {
+    this(lockFactory, DEFAULT_MAX_CHUNK_SIZE, false);
+  }
+
+  /**
+   * Constructs an empty {@link Directory} with the given {@link LockFactory}.
+   *
+   * @param lockFactory the lock factory to use
+   * @param maxChunkSize the maximum size of the chunks that files are stored in,
+   *        rounded down to a power of 2
+   * @param useDirectBuffers whether to allocate chunks as direct buffers, outside
+   *        of the heap, rather than on the heap
+   */
+  public ByteBuffersDirectory(LockFactory lockFactory, int maxChunkSize, boolean useDirectBuffers) {
+    super(lockFactory);
+    if (maxChunkSize <= 0) {
+      throw new IllegalArgumentException("maxChunkSize must be positive, got " + maxChunkSize);
+    }
+    this.chunkSizePower = Math.min(30, 31 - Integer.numberOfLeadingZeros(maxChunkSize));
+    this.useDirectBuffers = useDirectBuffers;
+  }
+
+  /** Returns the maximum size of a chunk. */
+  public final int getMaxChunkSize() {
+    return 1 << chunkSizePower;
+  }
+
+  /** Returns whether chunks are allocated as direct buffers, outside of the heap. */
+  public final boolean getUseDirectBuffers() {
+    return useDirectBuffers;
+  }
+
+  @Override
+  public String[] listAll() {
+    ensureOpen();
+    // the key set is weakly consistent, so files that are concurrently created
+    // or deleted may or may not be returned
+    List<String> names = new ArrayList<>(files.keySet());
+    String[] namesArray = names.toArray(new String[names.size()]);
+    Arrays.sort(namesArray);
+    return namesArray;
+  }
+
+  /** Returns true if a file with the given name exists, even if it is still being written. */
+  public boolean fileNameExists(String name) {
+    ensureOpen();
+    return files.containsKey(name);
+  }
+
+  /**
+   * Returns the length of a file, or the number of bytes that have been
+   * written so far if the file is still open for writing.
+   */
+  @Override
+  public long fileLength(String name) throws IOException {
+    ensureOpen();
+    return getEntry(name).length();
+  }
+
+  /**
+   * Return total size in bytes of all files in this directory, including
+   * files that are being written.
+   */
+  @Override
+  public long ramBytesUsed() {
+    ensureOpen();
+    return sizeInBytes.get();
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    return Accountables.namedAccountables("file", files);
+  }
+
+  @Override
+  public void deleteFile(String name) throws IOException {
+    ensureOpen();
+    FileEntry entry = files.remove(name);
+    if (entry == null) {
+      throw new NoSuchFileException(name);
+    }
+    entry.delete();
+  }
+
+  @Override
+  public IndexOutput createOutput(String name, IOContext context) throws IOException {
+    ensureOpen();
+    FileEntry entry = new FileEntry(name);
+    if (files.putIfAbsent(name, entry) != null) {
+      throw new FileAlreadyExistsException(name);
+    }
+    return new ByteBuffersIndexOutput(entry);
+  }
+
+  @Override
+  public IndexOutput createTempOutput(String prefix, String suffix, IOContext context) throws IOException {
+    ensureOpen();
+    while (true) {
+      String name = IndexFileNames.segmentFileName(prefix, suffix + "_" + Long.toString(nextTempFileCounter.getAndIncrement(), Character.MAX_RADIX), "tmp");
+      FileEntry entry = new FileEntry(name);
+      if (files.putIfAbsent(name, entry) == null) {
+        return new ByteBuffersIndexOutput(entry);
+      }
+    }
+  }
+
+  @Override
+  public void sync(Collection<String> names) throws IOException {
+    ensureOpen();
+  }
+
+  @Override
+  public void rename(String source, String dest) throws IOException {
+    ensureOpen();
+    FileEntry entry = getEntry(source);
+    if (files.putIfAbsent(dest, entry) != null) {
+      throw new FileAlreadyExistsException(dest);
+    }
+    if (!files.remove(source, entry)) {
+      throw new IllegalStateException("file was unexpectedly replaced: " + source);
+    }
+    entry.name = dest;
+  }
+
+  @Override
+  public void syncMetaData() throws IOException {
+    // we are by definition not durable!
+  }
+
+  /** Returns a stream reading an existing file. */
+  @Override
+  public IndexInput openInput(String name, IOContext context) throws IOException {
+    ensureOpen();
+    final FileContent content = getEntry(name).content();
+    // duplicate buffers since reads modify their positions
+    final ByteBuffer[] buffers = new ByteBuffer[content.buffers.length];
+    for (int i = 0; i < buffers.length; ++i) {
+      buffers[i] = content.buffers[i].duplicate();
+    }
+    final String resourceDescription = "ByteBuffersIndexInput(name=" + name + ")";
+    return ByteBufferIndexInput.newInstance(resourceDescription, buffers, content.length, chunkSizePower,
+        new ByteBufferGuard(resourceDescription, null));
+  }
+
+  /** Closes the store to future operations, releasing associated memory. */
+  @Override
+  public void close() {
+    isOpen = false;
+    files.clear();
+    sizeInBytes.set(0);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "@" + Integer.toHexString(hashCode()) + " lockFactory=" + lockFactory
+        + " maxChunkSize=" + getMaxChunkSize() + " useDirectBuffers=" + useDirectBuffers;
+  }
+
+  private FileEntry getEntry(String name) throws NoSuchFileException {
+    FileEntry entry = files.get(name);
+    if (entry == null) {
+      throw new NoSuchFileException(name);
+    }
+    return entry;
+  }
+
+  private ByteBuffer allocate(int size) {
+    return useDirectBuffers ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+  }
+
+  /** The immutable content of a file. */
+  private static final class FileContent {
+    /** One buffer per chunk, plus a trailing empty buffer if the length is a multiple of the chunk size. */
+    final ByteBuffer[] buffers;
+    final long length;
+
+    FileContent(ByteBuffer[] buffers, long length) {
+      this.buffers = buffers;
+      this.length = length;
+    }
+  }
+
+  /** A file of this directory. */
+  private final class FileEntry implements Accountable {
+
+    private volatile String name;
+    /** null while the file is being written */
+    private volatile FileContent content;
+    /** the output that writes this file, until its content is published */
+    private volatile ByteBuffersIndexOutput output;
+    /** Number of bytes that this file accounts for in {@link #sizeInBytes}. */
+    private long ramBytesUsed;
+    private boolean deleted;
+
+    FileEntry(String name) {
+      this.name = name;
+    }
+
+    FileContent content() throws AccessDeniedException {
+      final FileContent content = this.content;
+      if (content == null) {
+        throw new AccessDeniedException(name, null, "file is still open for writing");
+      }
+      return content;
+    }
+
+    /** Returns the length of the file, or the number of bytes written so far if it is still being written. */
+    long length() {
+      final FileContent content = this.content;
+      if (content != null) {
+        return content.length;
+      }
+      final ByteBuffersIndexOutput output = this.output;
+      if (output == null) {
+        // the content was published concurrently
+        return this.content.length;
+      }
+      return output.getFilePointer();
+    }
+
+    /** Record that this file now uses {@code delta} more bytes. */
+    synchronized void addRamBytesUsed(long delta) {
+      if (deleted == false) {
+        ramBytesUsed += delta;
+        sizeInBytes.addAndGet(delta);
+      }
+    }
+
+    synchronized void delete() {
+      deleted = true;
+      sizeInBytes.addAndGet(-ramBytesUsed);
+      ramBytesUsed = 0;
+    }
+
+    void publish(FileContent content) {
+      this.content = content;
+      this.output = null;
+    }
+
+    @Override
+    public synchronized long ramBytesUsed() {
+      return ramBytesUsed;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  /** An {@link IndexOutput} that writes into chunks of a {@link FileEntry}. */
+  private final class ByteBuffersIndexOutput extends IndexOutput {
+
+    private final FileEntry entry;
+    private final Checksum crc = new BufferedChecksum(new CRC32());
+    private final List<ByteBuffer> buffers = new ArrayList<>();
+    private ByteBuffer current;
+    /** Number of bytes in all buffers but {@link #current}. */
+    private long previousBuffersLength;
+    private boolean closed;
+
+    ByteBuffersIndexOutput(FileEntry entry) {
+      super("ByteBuffersIndexOutput(name=" + entry.name + ")", entry.name);
+      this.entry = entry;
+      this.current = allocate(Math.min(MIN_CHUNK_SIZE, 1 << chunkSizePower));
+      buffers.add(current);
+      entry.addRamBytesUsed(current.capacity());
+      entry.output = this;
+    }
+
+    /** Make room for at least one byte in {@link #current}. */
+    private void ensureCapacity() {
+      final int chunkSize = 1 << chunkSizePower;
+      if (current.capacity() < chunkSize) {
+        // only the first buffer may be smaller than the chunk size: grow it
+        assert buffers.size() == 1;
+        ByteBuffer newBuffer = allocate(Math.min(chunkSize, current.capacity() << 1));
+        current.flip();
+        newBuffer.put(current);
+        entry.addRamBytesUsed(newBuffer.capacity() - current.capacity());
+        buffers.set(0, newBuffer);
+        current = newBuffer;
+      } else {
+        previousBuffersLength += current.position();
+        current = allocate(chunkSize);
+        buffers.add(current);
+        entry.addRamBytesUsed(chunkSize);
+      }
+    }
+
+    @Override
+    public void writeByte(byte b) throws IOException {
+      if (current.hasRemaining() == false) {
+        ensureCapacity();
+      }
+      current.put(b);
+      crc.update(b);
+    }
+
+    @Override
+    public void writeBytes(byte[] b, int offset, int length) throws IOException {
+      crc.update(b, offset, length);
+      while (length > 0) {
+        if (current.hasRemaining() == false) {
+          ensureCapacity();
+        }
+        final int chunk = Math.min(length, current.remaining());
+        current.put(b, offset, chunk);
+        offset += chunk;
+        length -= chunk;
+      }
+    }
+
+    @Override
+    public long getFilePointer() {
+      return previousBuffersLength + current.position();
+    }
+
+    @Override
+    public long getChecksum() throws IOException {
+      return crc.getValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      final long length = getFilePointer();
+      // trim the last buffer so that it doesn't waste memory
+      if (current.hasRemaining()) {
+        final ByteBuffer trimmed = allocate(current.position());
+        current.flip();
+        trimmed.put(current);
+        entry.addRamBytesUsed(trimmed.capacity() - current.capacity());
+        buffers.set(buffers.size() - 1, trimmed);
+        current = trimmed;
+      }
+      final int chunkSize = 1 << chunkSizePower;
+      if (current.capacity() == chunkSize) {
+        // ByteBufferIndexInput needs a buffer for position=length
+        buffers.add(allocate(0));
+      }
+      final ByteBuffer[] content = new ByteBuffer[buffers.size()];
+      for (int i = 0; i < content.length; ++i) {
+        ByteBuffer buffer = buffers.get(i);
+        buffer.clear();
+        content[i] = buffer.asReadOnlyBuffer();
+      }
+      assert content.length == (length >>> chunkSizePower) + 1;
+      entry.publish(new FileContent(content, length));
+      buffers.clear();
+    }
+  }
+}
@@ -88,11 +88,17 @@ import org.apache.lucene.util.SuppressForbidden;
  * {@link Future#cancel(boolean)} you should use the legacy {@code RAFDirectory}
  * from the Lucene {@code misc} module in favor of {@link MMapDirectory}.
  * </p>
+ * <p>
+ * Whether pages are loaded into physical memory when a file is opened, and
+ * which access pattern is advised to the operating system, can be configured
+ * on a per-file basis with an {@link MMapPolicy}, see {@link #setPolicy}.
+ * </p>
  * @see <a href="http://blog.thetaphi.de/2012/07/use-lucenes-mmapdirectory-on-64bit.html">Blog post about MMapDirectory</a>
  */
 public class MMapDirectory extends FSDirectory {
   private boolean useUnmapHack = UNMAP_SUPPORTED;
   private boolean preload;
+  private MMapPolicy policy = MMapPolicy.DEFAULT;
 
   /** 
    * Default max chunk size.
@@ -206,7 +212,8 @@ public class MMapDirectory extends FSDirectory {
   /**
    * Set to {@code true} to ask mapped pages to be loaded
    * into physical memory on init. The behavior is best-effort 
-   * and operating system dependent.
+   * and operating system dependent. If {@code true}, all files
+   * are preloaded regardless of the {@link #setPolicy policy}.
    * @see MappedByteBuffer#load
    */
   public void setPreload(boolean preload) {
@@ -221,6 +228,27 @@ public class MMapDirectory extends FSDirectory {
     return preload;
   }
   
+  /**
+   * Sets the {@link MMapPolicy} that decides, on a per-file basis, whether
+   * mapped pages should be loaded into physical memory and which access
+   * pattern should be advised to the operating system. This only applies
+   * to files that are opened after the policy is set.
+   * @see MMapPolicy#forExtensions
+   * @lucene.experimental
+   */
+  public void setPolicy(MMapPolicy policy) {
+    this.policy = Objects.requireNonNull(policy);
+  }
+
+  /**
+   * Returns the current {@link MMapPolicy}, {@link MMapPolicy#DEFAULT} by default.
+   * @see #setPolicy
+   * @lucene.experimental
+   */
+  public MMapPolicy getPolicy() {
+    return policy;
+  }
+
   /**
    * Returns the current mmap chunk size.
    * @see #MMapDirectory(Path, LockFactory, int)
@@ -238,14 +266,18 @@ public class MMapDirectory extends FSDirectory {
     try (FileChannel c = FileChannel.open(path, StandardOpenOption.READ)) {
       final String resourceDescription = "MMapIndexInput(path=\"" + path.toString() + "\")";
       final boolean useUnmap = getUseUnmap();
+      final MMapPolicy policy = this.policy;
+      final boolean preload = this.preload || policy.preload(name, context);
+      final MMapPolicy.Advice advice = policy.advice(name, context);
       return ByteBufferIndexInput.newInstance(resourceDescription,
-          map(resourceDescription, c, 0, c.size()), 
+          map(resourceDescription, c, 0, c.size(), preload, policy, advice), 
           c.size(), chunkSizePower, new ByteBufferGuard(resourceDescription, useUnmap ? CLEANER : null));
     }
   }
 
-  /** Maps a file into a set of buffers */
-  final ByteBuffer[] map(String resourceDescription, FileChannel fc, long offset, long length) throws IOException {
+  /** Maps a file into a set of buffers, and applies the given preload and access pattern settings to each of them */
+  final ByteBuffer[] map(String resourceDescription, FileChannel fc, long offset, long length,
+      boolean preload, MMapPolicy policy, MMapPolicy.Advice advice) throws IOException {
     if ((length >>> chunkSizePower) >= Integer.MAX_VALUE)
       throw new IllegalArgumentException("RandomAccessFile too big for chunk size: " + resourceDescription);
     
@@ -268,6 +300,10 @@ public class MMapDirectory extends FSDirectory {
       } catch (IOException ioe) {
         throw convertMapFailedIOException(ioe, resourceDescription, bufSize);
       }
+      if (advice != MMapPolicy.Advice.NORMAL) {
+        // give the hint before preloading so that preloading benefits from it
+        policy.advise(resourceDescription, buffer, advice);
+      }
       if (preload) {
         buffer.load();
       }
@@ -321,6 +357,20 @@ public class MMapDirectory extends FSDirectory {
   
   /** Reference to a BufferCleaner that does unmapping; {@code null} if not supported. */
   private static final BufferCleaner CLEANER;
+
+  /**
+   * Expert: unmaps a buffer that was returned by {@link FileChannel#map}, with the same
+   * workaround as this directory. The buffer must not be accessed by any thread anymore,
+   * or the JVM may crash.
+   * @throws UnsupportedOperationException if {@link #UNMAP_SUPPORTED} is <code>false</code>
+   * @lucene.internal
+   */
+  public static void unmap(String resourceDescription, ByteBuffer buffer) throws IOException {
+    if (CLEANER == null) {
+      throw new UnsupportedOperationException(UNMAP_NOT_SUPPORTED_REASON);
+    }
+    CLEANER.freeBuffer(resourceDescription, buffer);
+  }
   
   static {
     final Object hack = AccessController.doPrivileged((PrivilegedAction<Object>) MMapDirectory::unmapHackImpl);
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.store;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.lucene.index.IndexFileNames;
+
+/**
+ * Decides how {@link MMapDirectory} treats the pages of the files that it
+ * maps: whether they should be loaded into physical memory when the file is
+ * opened, and which access pattern should be advised to the operating system.
+ * <p>
+ * Pure Java can't give access pattern hints to the operating system, so
+ * {@link #advise} does nothing by default. The {@code misc} module has a
+ * {@code NativePosixMMapPolicy} that calls {@code madvise} through JNI and
+ * falls back to this behavior when the native library is not available.
+ *
+ * @see MMapDirectory#setPolicy(MMapPolicy)
+ * @lucene.experimental
+ */
+public abstract class MMapPolicy {
+
+  /** Access pattern hints, with the same meaning as their {@code madvise} counterparts. */
+  public enum Advice {
+    /** No particular access pattern, the operating system applies its default read-ahead. */
+    NORMAL,
+    /** Pages are read sequentially, so read-ahead should be aggressive and pages may be freed soon after they have been read. */
+    SEQUENTIAL,
+    /** Pages are read in random order, so read-ahead is useless. */
+    RANDOM
+  }
+
+  /** Policy that never preloads files and doesn't give any access pattern hint. */
+  public static final MMapPolicy DEFAULT = new MMapPolicy() {
+    @Override
+    public boolean preload(String name, IOContext context) {
+      return false;
+    }
+
+    @Override
+    public Advice advice(String name, IOContext context) {
+      return Advice.NORMAL;
+    }
+
+    @Override
+    public String toString() {
+      return "MMapPolicy.DEFAULT";
+    }
+  };
+
+  /** Sole constructor. (For invocation by subclass
+   *  constructors, typically implicit.) */
+  protected MMapPolicy() {}
+
+  /**
+   * Returns {@code true} if the pages of the file with the given name should
+   * be loaded into physical memory when it is opened with the given context.
+   * @see MappedByteBuffer#load
+   */
+  public abstract boolean preload(String name, IOContext context);
+
+  /** Returns the access pattern that is expected for the file with the given name when it is opened with the given context. */
+  public abstract Advice advice(String name, IOContext context);
+
+  /**
+   * Gives the given access pattern hint to the operating system for a
+   * mapped chunk of a file. This is only called when the advice is not
+   * {@link Advice#NORMAL}. The behavior is best-effort and the default
+   * implementation does nothing.
+   *
+   * @param resourceDescription description of the mapped file, for error messages
+   * @param buffer a mapped chunk of the file
+   * @param advice the access pattern hint
+   */
+  public void advise(String resourceDescription, MappedByteBuffer buffer, Advice advice) throws IOException {}
+
+  /**
+   * Returns a policy that preloads files whose extension is in {@code preloadExtensions},
+   * advises random access for files whose extension is in {@code randomAccessExtensions},
+   * and advises sequential access for all files that are opened for merging. Files that are
+   * opened for merging are never preloaded since they are only read once.
+   * <p>
+   * For instance, preloading terms indexes and doc values but advising random access for
+   * postings and stored fields could look like this:
+   * <pre class="prettyprint">
+   * MMapPolicy.forExtensions(
+   *     new HashSet&lt;&gt;(Arrays.asList("tip", "dvd", "nvd")),
+   *     new HashSet&lt;&gt;(Arrays.asList("doc", "fdt")));
+   * </pre>
+   * Files that are stored in a compound file are opened as slices of the compound file,
+   * so they follow the policy of the {@code cfs} extension.
+   */
+  public static MMapPolicy forExtensions(Set<String> preloadExtensions, Set<String> randomAccessExtensions) {
+    return new ExtensionMMapPolicy(preloadExtensions, randomAccessExtensions);
+  }
+
+  private static class ExtensionMMapPolicy extends MMapPolicy {
+
+    private final Set<String> preloadExtensions;
+    private final Set<String> randomAccessExtensions;
+
+    ExtensionMMapPolicy(Set<String> preloadExtensions, Set<String> randomAccessExtensions) {
+      this.preloadExtensions = Collections.unmodifiableSet(new HashSet<>(Objects.requireNonNull(preloadExtensions)));
+      this.randomAccessExtensions = Collections.unmodifiableSet(new HashSet<>(Objects.requireNonNull(randomAccessExtensions)));
+    }
+
+    @Override
+    public boolean preload(String name, IOContext context) {
+      return context.context != IOContext.Context.MERGE
+          && preloadExtensions.contains(IndexFileNames.getExtension(name));
+    }
+
+    @Override
+    public Advice advice(String name, IOContext context) {
+      if (context.context == IOContext.Context.MERGE) {
+        return Advice.SEQUENTIAL;
+      } else if (randomAccessExtensions.contains(IndexFileNames.getExtension(name))) {
+        return Advice.RANDOM;
+      } else {
+        return Advice.NORMAL;
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "MMapPolicy.forExtensions(preload=" + preloadExtensions + ", randomAccess=" + randomAccessExtensions + ")";
+    }
+  }
+}
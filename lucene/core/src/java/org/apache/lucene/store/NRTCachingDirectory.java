@@ -26,7 +26,6 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
-import org.apache.lucene.store.RAMDirectory;      // javadocs
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.Accountables;
 import org.apache.lucene.util.IOUtils;
@@ -36,7 +35,7 @@ import org.apache.lucene.util.IOUtils;
 //   - rename to MergeCacheingDir?  NRTCachingDir
 
 /**
- * Wraps a {@link RAMDirectory}
+ * Wraps a {@link ByteBuffersDirectory}
  * around any provided delegate directory, to
  * be used during NRT search.
  *
@@ -69,7 +68,7 @@ import org.apache.lucene.util.IOUtils;
 
 public class NRTCachingDirectory extends FilterDirectory implements Accountable {
 
-  private final RAMDirectory cache = new RAMDirectory();
+  private final ByteBuffersDirectory cache = new ByteBuffersDirectory();
 
 
   private final long maxMergeSizeBytes;
@@ -220,7 +219,7 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
   }
 
   /** Subclass can override this to customize logic; return
-   *  true if this file should be written to the RAMDirectory. */
+   *  true if this file should be written to the in-memory cache. */
   protected boolean doCacheWrite(String name, IOContext context) {
     //System.out.println(Thread.currentThread().getName() + ": CACHE check merge=" + merge + " size=" + (merge==null ? 0 : merge.estimatedMergeBytes));
 
@@ -260,7 +259,9 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
         out = first.createTempOutput(prefix, suffix, context);
         String name = out.getName();
         toDelete.add(name);
-        if (slowFileExists(second, name)) {
+        // files of the cache may still be open for writing, so they can't be opened to check existence
+        boolean exists = second == cache ? cache.fileNameExists(name) : slowFileExists(second, name);
+        if (exists) {
           out.close();
         } else {
           toDelete.remove(name);
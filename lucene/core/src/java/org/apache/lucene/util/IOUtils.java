@@ -42,6 +42,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.ByteBuffersDirectory;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.store.FileSwitchDirectory;
 import org.apache.lucene.store.FilterDirectory;
@@ -445,7 +446,7 @@ public final class IOUtils {
       FileSwitchDirectory fsd = (FileSwitchDirectory) dir;
       // Spinning is contagious:
       return spins(fsd.getPrimaryDir()) || spins(fsd.getSecondaryDir());
-    } else if (dir instanceof RAMDirectory) {
+    } else if (dir instanceof RAMDirectory || dir instanceof ByteBuffersDirectory) {
       return false;
     } else if (dir instanceof FSDirectory) {
       return spins(((FSDirectory) dir).getDirectory());
@@ -16,6 +16,8 @@
  */
 package org.apache.lucene.util;
 
+import java.util.Arrays;
+
 /** Abstraction over an array of longs.
  *  @lucene.internal */
 public abstract class LongValues  {
@@ -37,9 +39,26 @@ public abstract class LongValues  {
       return 0;
     }
 
+    @Override
+    public void get(int size, int[] indexes, long[] values) {
+      Arrays.fill(values, 0, size, 0L);
+    }
+
   };
 
   /** Get value at <code>index</code>. */
   public abstract long get(long index);
 
+  /**
+   * Bulk get: fill <code>values[0:size]</code> with the values at
+   * <code>indexes[0:size]</code>. The default implementation calls
+   * {@link #get(long)} for every index, sub-classes may override it with a
+   * tighter loop.
+   */
+  public void get(int size, int[] indexes, long[] values) {
+    for (int i = 0; i < size; ++i) {
+      values[i] = get(indexes[i]);
+    }
+  }
+
 }
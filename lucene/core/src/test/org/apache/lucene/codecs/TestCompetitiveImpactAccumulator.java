@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.lucene.index.Impact;
+import org.apache.lucene.util.LuceneTestCase;
+
+public class TestCompetitiveImpactAccumulator extends LuceneTestCase {
+
+  public void testBasics() {
+    CompetitiveImpactAccumulator acc = new CompetitiveImpactAccumulator();
+
+    acc.add(3, 5);
+    assertEquals(Collections.singletonList(new Impact(3, 5)), acc.getCompetitiveFreqNormPairs());
+
+    // greater norm: more competitive
+    acc.add(3, 6);
+    assertEquals(Collections.singletonList(new Impact(3, 6)), acc.getCompetitiveFreqNormPairs());
+
+    acc.add(10, 4);
+    assertEquals(Arrays.asList(new Impact(3, 6), new Impact(10, 4)), acc.getCompetitiveFreqNormPairs());
+
+    // dominated by (10, 4)
+    acc.add(9, 3);
+    assertEquals(Arrays.asList(new Impact(3, 6), new Impact(10, 4)), acc.getCompetitiveFreqNormPairs());
+
+    // negative norms are greater than positive norms in unsigned order
+    acc.add(1, -100);
+    assertEquals(Arrays.asList(new Impact(1, -100), new Impact(3, 6), new Impact(10, 4)), acc.getCompetitiveFreqNormPairs());
+
+    // norms that do not fit in a byte
+    acc.add(7, 1000);
+    assertEquals(Arrays.asList(new Impact(1, -100), new Impact(7, 1000), new Impact(10, 4)), acc.getCompetitiveFreqNormPairs());
+
+    acc.clear();
+    assertEquals(Collections.emptyList(), acc.getCompetitiveFreqNormPairs());
+  }
+
+  public void testAddAll() {
+    CompetitiveImpactAccumulator acc1 = new CompetitiveImpactAccumulator();
+    acc1.add(3, 5);
+    acc1.add(7, 2000);
+    CompetitiveImpactAccumulator acc2 = new CompetitiveImpactAccumulator();
+    acc2.add(4, 5);
+    acc2.add(20, 1);
+    acc1.addAll(acc2);
+    // (4, 5) is dominated by (7, 2000)
+    assertEquals(Arrays.asList(new Impact(7, 2000), new Impact(20, 1)), acc1.getCompetitiveFreqNormPairs());
+    // acc2 is not modified
+    assertEquals(Arrays.asList(new Impact(4, 5), new Impact(20, 1)), acc2.getCompetitiveFreqNormPairs());
+  }
+
+  public void testRandom() {
+    Random random = random();
+    int iters = atLeast(100);
+    for (int iter = 0; iter < iters; ++iter) {
+      CompetitiveImpactAccumulator acc = new CompetitiveImpactAccumulator();
+      List<Impact> all = new ArrayList<>();
+      int numPairs = 1 + random.nextInt(200);
+      for (int i = 0; i < numPairs; ++i) {
+        int freq = 1 + random.nextInt(50);
+        long norm;
+        if (random.nextBoolean()) {
+          norm = (byte) random.nextInt();
+        } else {
+          norm = random.nextLong();
+        }
+        acc.add(freq, norm);
+        all.add(new Impact(freq, norm));
+      }
+
+      // brute-force: keep pairs that are not dominated by another pair
+      List<Impact> expected = new ArrayList<>();
+      for (Impact impact : all) {
+        boolean competitive = true;
+        for (Impact other : all) {
+          if (other.freq >= impact.freq && Long.compareUnsigned(other.norm, impact.norm) >= 0
+              && (other.freq != impact.freq || other.norm != impact.norm)) {
+            competitive = false;
+            break;
+          }
+        }
+        if (competitive && expected.contains(impact) == false) {
+          expected.add(impact);
+        }
+      }
+      expected.sort((i1, i2) -> Integer.compare(i1.freq, i2.freq));
+      assertEquals(expected, acc.getCompetitiveFreqNormPairs());
+    }
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.compressing;
+
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.util.TestUtil;
+
+public class TestFastWithDictionaryCompressionMode extends AbstractTestLZ4CompressionMode {
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    mode = CompressionMode.FAST_WITH_DICTIONARY;
+  }
+
+  public void testDictionary() throws IOException {
+    final DictionaryCompressionMode mode = CompressionMode.FAST_WITH_DICTIONARY;
+    final int iterations = atLeast(10);
+    for (int i = 0; i < iterations; ++i) {
+      final byte[] sample = randomArray();
+      final byte[] dictionary = mode.trainDictionary(sample, 0, sample.length);
+      assertTrue(dictionary.length <= Math.min(sample.length, 8 * 1024));
+      // data that is similar to the sample, with random edits
+      final byte[] decompressed = randomArray(TestUtil.nextInt(random(), 0, 16 * 1024), 255);
+      for (int j = 0; j + 16 <= decompressed.length && sample.length >= 16; j += 16) {
+        if (random().nextBoolean()) {
+          System.arraycopy(sample, random().nextInt(sample.length - 15), decompressed, j, 16);
+        }
+      }
+      final int off = random().nextBoolean() ? 0 : TestUtil.nextInt(random(), 0, decompressed.length);
+      final int len = TestUtil.nextInt(random(), 0, decompressed.length - off);
+      final byte[] compressed = compress(mode.newCompressor(dictionary), decompressed, off, len);
+      final byte[] restored = decompress(mode.newDecompressor(dictionary), compressed, len);
+      assertArrayEquals(Arrays.copyOfRange(decompressed, off, off + len), restored);
+    }
+  }
+
+  public void testDictionaryImprovesCompression() throws IOException {
+    final DictionaryCompressionMode mode = CompressionMode.FAST_WITH_DICTIONARY;
+    final byte[] sample = randomArray(8 * 1024, 255);
+    final byte[] dictionary = mode.trainDictionary(sample, 0, sample.length);
+    assertArrayEquals(sample, dictionary);
+    final byte[] decompressed = Arrays.copyOfRange(sample, 1024, 2048);
+    final byte[] compressedWithoutDictionary = compress(mode.newCompressor(), decompressed, 0, decompressed.length);
+    final byte[] compressedWithDictionary = compress(mode.newCompressor(dictionary), decompressed, 0, decompressed.length);
+    assertTrue(compressedWithDictionary.length < compressedWithoutDictionary.length / 10);
+    assertArrayEquals(decompressed, decompress(mode.newDecompressor(dictionary), compressedWithDictionary, decompressed.length));
+  }
+
+  public void testSampleDictionary() {
+    final byte[] bytes = randomArray(100, 255);
+    assertArrayEquals(Arrays.copyOfRange(bytes, 10, 60), CompressionMode.sampleDictionary(bytes, 10, 50, 64, 4));
+    final byte[] dictionary = CompressionMode.sampleDictionary(bytes, 0, 100, 40, 4);
+    assertEquals(40, dictionary.length);
+    // samples are evenly spread and include both ends
+    assertArrayEquals(Arrays.copyOfRange(bytes, 0, 10), Arrays.copyOfRange(dictionary, 0, 10));
+    assertArrayEquals(Arrays.copyOfRange(bytes, 30, 40), Arrays.copyOfRange(dictionary, 10, 20));
+    assertArrayEquals(Arrays.copyOfRange(bytes, 90, 100), Arrays.copyOfRange(dictionary, 30, 40));
+  }
+}
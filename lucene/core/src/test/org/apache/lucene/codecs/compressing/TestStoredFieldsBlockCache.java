@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.compressing;
+
+
+import java.io.IOException;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.TestUtil;
+
+public class TestStoredFieldsBlockCache extends LuceneTestCase {
+
+  public void testEviction() {
+    final byte[] block = new byte[100];
+    final long blockRamBytesUsed = StoredFieldsBlockCache.RAM_BYTES_PER_ENTRY + RamUsageEstimator.sizeOf(block);
+    StoredFieldsBlockCache cache = new StoredFieldsBlockCache(3 * blockRamBytesUsed, 1);
+    final Object core1 = new Object();
+    final Object core2 = new Object();
+    cache.addCoreCacheKey(core1);
+    cache.addCoreCacheKey(core2);
+    cache.put(core1, 0, block);
+    cache.put(core1, 100, block);
+    cache.put(core2, 0, block);
+    assertEquals(3, cache.getCacheSize());
+    assertEquals(0, cache.getEvictionCount());
+    assertTrue(cache.ramBytesUsed() <= cache.getMaxRamBytesUsed());
+
+    // makes (core1, 100) the least recently used block
+    assertSame(block, cache.get(core1, 0));
+    cache.put(core2, 100, block);
+    assertEquals(3, cache.getCacheSize());
+    assertEquals(1, cache.getEvictionCount());
+    assertNull(cache.get(core1, 100));
+    assertSame(block, cache.get(core2, 0));
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(2d / 3, cache.getHitRatio(), 0d);
+
+    cache.clearCoreCacheKey(core2);
+    assertEquals(1, cache.getCacheSize());
+    assertSame(block, cache.get(core1, 0));
+    assertEquals(1, cache.getEvictionCount());
+
+    cache.clear();
+    assertEquals(0, cache.getCacheSize());
+    assertEquals(0, cache.ramBytesUsed());
+  }
+
+  public void testRejectBlocksOfClearedCores() {
+    StoredFieldsBlockCache cache = new StoredFieldsBlockCache(1 << 20, 4);
+    final Object core = new Object();
+    final byte[] block = new byte[100];
+    // not added yet
+    cache.put(core, 0, block);
+    assertEquals(0, cache.getCacheSize());
+
+    cache.addCoreCacheKey(core);
+    for (int i = 0; i < 10; ++i) {
+      cache.put(core, i * 100, block);
+    }
+    assertEquals(10, cache.getCacheSize());
+
+    cache.clearCoreCacheKey(core);
+    assertEquals(0, cache.getCacheSize());
+    assertEquals(0, cache.ramBytesUsed());
+    // e.g. a clone that is still used after the reader has been closed
+    cache.put(core, 0, block);
+    assertEquals(0, cache.getCacheSize());
+    assertNull(cache.get(core, 0));
+  }
+
+  public void testBlocksLargerThanPartitionAreNotCached() {
+    StoredFieldsBlockCache cache = new StoredFieldsBlockCache(1000, 1);
+    final Object core = new Object();
+    cache.addCoreCacheKey(core);
+    cache.put(core, 0, new byte[2000]);
+    assertEquals(0, cache.getCacheSize());
+    assertEquals(0, cache.ramBytesUsed());
+  }
+
+  public void testIllegalArguments() {
+    expectThrows(IllegalArgumentException.class, () -> {
+      new StoredFieldsBlockCache(-1);
+    });
+    expectThrows(IllegalArgumentException.class, () -> {
+      new StoredFieldsBlockCache(1 << 20, 3);
+    });
+  }
+
+  public void testCachedDocuments() throws IOException {
+    final StoredFieldsBlockCache cache = new StoredFieldsBlockCache(1 << 20);
+    final StoredFieldsBlockCache previous = CompressingStoredFieldsFormat.getDefaultBlockCache();
+    CompressingStoredFieldsFormat.setDefaultBlockCache(cache);
+    try {
+      Directory dir = newDirectory();
+      IndexWriterConfig iwc = newIndexWriterConfig()
+          .setCodec(TestUtil.getDefaultCodec())
+          .setMaxBufferedDocs(IndexWriterConfig.DISABLE_AUTO_FLUSH)
+          .setRAMBufferSizeMB(IndexWriterConfig.DEFAULT_RAM_BUFFER_SIZE_MB)
+          .setMergePolicy(NoMergePolicy.INSTANCE);
+      IndexWriter writer = new IndexWriter(dir, iwc);
+      final int numDocs = atLeast(200);
+      final String[] values = new String[numDocs];
+      for (int i = 0; i < numDocs; ++i) {
+        values[i] = TestUtil.randomSimpleString(random(), random().nextInt(10) == 0 ? 20000 : 1000);
+        Document doc = new Document();
+        doc.add(new StringField("id", Integer.toString(i), Field.Store.YES));
+        doc.add(new StoredField("value", values[i]));
+        writer.addDocument(doc);
+      }
+      writer.commit();
+
+      // a single segment that has many blocks
+      DirectoryReader reader = DirectoryReader.open(writer);
+      for (int iter = 0; iter < 2; ++iter) {
+        for (int i = 0; i < numDocs; ++i) {
+          int docID = random().nextInt(numDocs);
+          Document doc = reader.document(docID);
+          assertEquals(values[Integer.parseInt(doc.get("id"))], doc.get("value"));
+        }
+      }
+      assertTrue(cache.getCacheSize() > 0);
+      assertTrue(cache.getHitCount() > 0);
+
+      // cached blocks are still used after a reopen
+      writer.deleteDocuments(new Term("id", "0"));
+      DirectoryReader newReader = DirectoryReader.openIfChanged(reader, writer);
+      assertNotNull(newReader);
+      reader.close();
+      final long hitCount = cache.getHitCount();
+      for (int i = 1; i < numDocs; ++i) {
+        Document doc = newReader.document(i);
+        assertEquals(values[Integer.parseInt(doc.get("id"))], doc.get("value"));
+      }
+      assertTrue(cache.getHitCount() > hitCount);
+
+      // blocks are removed when segments are closed
+      IOUtils.close(newReader, writer, dir);
+      assertEquals(0, cache.getCacheSize());
+      assertEquals(0, cache.ramBytesUsed());
+    } finally {
+      CompressingStoredFieldsFormat.setDefaultBlockCache(previous);
+    }
+  }
+}
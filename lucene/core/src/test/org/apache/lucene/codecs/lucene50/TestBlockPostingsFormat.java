@@ -17,17 +17,27 @@
 package org.apache.lucene.codecs.lucene50;
 
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.CompetitiveImpactAccumulator;
 import org.apache.lucene.codecs.blocktree.FieldReader;
 import org.apache.lucene.codecs.blocktree.Stats;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.codecs.lucene50.Lucene50ScoreSkipReader.MutableImpactList;
 import org.apache.lucene.index.BasePostingsFormatTestCase;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.Impact;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.ByteArrayDataInput;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMOutputStream;
 import org.apache.lucene.util.TestUtil;
 
 /**
@@ -78,4 +88,55 @@ public class TestBlockPostingsFormat extends BasePostingsFormatTestCase {
     shouldFail(10, -1);
     shouldFail(10, 12);
   }
+
+  public void testImpactSerialization() throws IOException {
+    // omit norms and omit freqs
+    doTestImpactSerialization(Collections.singletonList(new Impact(1, -1L)));
+
+    // omit freqs
+    doTestImpactSerialization(Collections.singletonList(new Impact(1, 42L)));
+    // omit freqs with very large norms
+    doTestImpactSerialization(Collections.singletonList(new Impact(1, Long.MIN_VALUE + 1)));
+
+    // omit norms
+    doTestImpactSerialization(Collections.singletonList(new Impact(30, -1L)));
+    // omit norms with large freq
+    doTestImpactSerialization(Collections.singletonList(new Impact(500, -1L)));
+
+    // freqs and norms, basic
+    doTestImpactSerialization(
+        Arrays.asList(
+            new Impact(1, 120L),
+            new Impact(3, 15L),
+            new Impact(10, 9L),
+            new Impact(12, 3L),
+            new Impact(30, 2L)));
+
+    // freqs and norms, high values
+    doTestImpactSerialization(
+        Arrays.asList(
+            new Impact(2, -1L),
+            new Impact(10, -5L),
+            new Impact(12, 1000L),
+            new Impact(40, 100L),
+            new Impact(400, 30L),
+            new Impact(4000, 1L)));
+  }
+
+  private void doTestImpactSerialization(List<Impact> impacts) throws IOException {
+    CompetitiveImpactAccumulator acc = new CompetitiveImpactAccumulator();
+    for (Impact impact : impacts) {
+      acc.add(impact.freq, impact.norm);
+    }
+    assertEquals(impacts, acc.getCompetitiveFreqNormPairs());
+    try(RAMOutputStream out = new RAMOutputStream()) {
+      Lucene50SkipWriter.writeImpacts(acc, out);
+      byte[] b = new byte[Math.toIntExact(out.getFilePointer())];
+      out.writeTo(b, 0);
+      ByteArrayDataInput in = new ByteArrayDataInput(b);
+      MutableImpactList impacts2 = new MutableImpactList();
+      Lucene50ScoreSkipReader.readImpacts(in, impacts2);
+      assertEquals(impacts, impacts2);
+    }
+  }
 }
@@ -47,6 +47,7 @@ import org.apache.lucene.index.BaseCompressingDocValuesFormatTestCase;
 import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesSkipper;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
@@ -686,4 +687,170 @@ public class TestLucene70DocValuesFormat extends BaseCompressingDocValuesFormatT
     ir.close();
     dir.close();
   }
+
+  public void testBulkNumericValues() throws Exception {
+    final long min = random().nextInt(1000);
+    final long mul = TestUtil.nextInt(random(), 1, 100);
+    final LongSupplier table = () -> random().nextInt(10) == 0 ? Long.MAX_VALUE : min + random().nextInt(3);
+    final LongSupplier gcd = () -> min + mul * random().nextInt(100000);
+    final LongSupplier constant = () -> min;
+    for (LongSupplier values : Arrays.asList(table, gcd, constant, blocksOfVariousBPV())) {
+      for (double density : new double[] { 1, 0.5, 0.01 }) {
+        doTestBulkNumericValues(density, values);
+      }
+    }
+  }
+
+  private void doTestBulkNumericValues(double density, LongSupplier values) throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig conf = newIndexWriterConfig(new MockAnalyzer(random()));
+    IndexWriter writer = new IndexWriter(dir, conf);
+    final int numDocs = atLeast(Lucene70DocValuesFormat.NUMERIC_BLOCK_SIZE * 3);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      if (random().nextDouble() <= density) {
+        doc.add(new NumericDocValuesField("dv", values.getAsLong()));
+      }
+      writer.addDocument(doc);
+    }
+    writer.forceMerge(1);
+    DirectoryReader ir = DirectoryReader.open(writer);
+    writer.close();
+
+    for (LeafReaderContext context : ir.leaves()) {
+      LeafReader r = context.reader();
+      NumericDocValues expected = DocValues.getNumeric(r, "dv");
+      NumericDocValues actual = DocValues.getNumeric(r, "dv");
+      final long missingValue = random().nextLong();
+      int[] docs = new int[64];
+      long[] bulkValues = new long[64];
+      for (int doc = random().nextInt(10); doc < r.maxDoc(); ) {
+        int size = 0;
+        for (; size < docs.length && doc < r.maxDoc(); doc += 1 + random().nextInt(random().nextBoolean() ? 2 : 200)) {
+          docs[size++] = doc;
+        }
+        actual.longValues(size, docs, bulkValues, missingValue);
+        assertEquals(docs[size - 1], actual.docID());
+        for (int i = 0; i < size; ++i) {
+          final long expectedValue = expected.advanceExact(docs[i]) ? expected.longValue() : missingValue;
+          assertEquals(expectedValue, bulkValues[i]);
+        }
+      }
+    }
+    ir.close();
+    dir.close();
+  }
+
+  public void testBulkSortedOrds() throws Exception {
+    for (double density : new double[] { 1, 0.5, 0.01 }) {
+      Directory dir = newDirectory();
+      IndexWriterConfig conf = newIndexWriterConfig(new MockAnalyzer(random()));
+      IndexWriter writer = new IndexWriter(dir, conf);
+      final int numValues = random().nextBoolean() ? 1 : TestUtil.nextInt(random(), 2, 5000);
+      final int numDocs = atLeast(10000);
+      for (int i = 0; i < numDocs; i++) {
+        Document doc = new Document();
+        if (random().nextDouble() <= density) {
+          doc.add(new SortedDocValuesField("dv", new BytesRef(Integer.toString(random().nextInt(numValues)))));
+        }
+        writer.addDocument(doc);
+      }
+      writer.forceMerge(1);
+      DirectoryReader ir = DirectoryReader.open(writer);
+      writer.close();
+
+      for (LeafReaderContext context : ir.leaves()) {
+        LeafReader r = context.reader();
+        SortedDocValues expected = DocValues.getSorted(r, "dv");
+        SortedDocValues actual = DocValues.getSorted(r, "dv");
+        int[] docs = new int[64];
+        int[] ords = new int[64];
+        for (int doc = random().nextInt(10); doc < r.maxDoc(); ) {
+          int size = 0;
+          for (; size < docs.length && doc < r.maxDoc(); doc += 1 + random().nextInt(random().nextBoolean() ? 2 : 200)) {
+            docs[size++] = doc;
+          }
+          actual.ordValues(size, docs, ords);
+          assertEquals(docs[size - 1], actual.docID());
+          for (int i = 0; i < size; ++i) {
+            final int expectedOrd = expected.advanceExact(docs[i]) ? expected.ordValue() : -1;
+            assertEquals(expectedOrd, ords[i]);
+          }
+        }
+      }
+      ir.close();
+      dir.close();
+    }
+  }
+
+  public void testSkipIndex() throws Exception {
+    for (boolean sortedNumeric : new boolean[] { false, true }) {
+      for (double density : new double[] { 1, 0.5, 0.001 }) {
+        doTestSkipIndex(sortedNumeric, density);
+      }
+    }
+  }
+
+  private void doTestSkipIndex(boolean sortedNumeric, double density) throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig conf = newIndexWriterConfig(new MockAnalyzer(random()));
+    IndexWriter writer = new IndexWriter(dir, conf);
+    final int numDocs = atLeast(10000);
+    final long base = random().nextLong() / 2;
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      // leave a whole block of doc IDs without values
+      if (random().nextDouble() <= density && (i < 4096 || i >= 8192)) {
+        final int numValues = sortedNumeric ? TestUtil.nextInt(random(), 1, 3) : 1;
+        for (int j = 0; j < numValues; ++j) {
+          final long value = base + i + random().nextInt(1000);
+          if (sortedNumeric) {
+            doc.add(new SortedNumericDocValuesField("dv", value));
+          } else {
+            doc.add(new NumericDocValuesField("dv", value));
+          }
+        }
+      }
+      writer.addDocument(doc);
+    }
+    writer.forceMerge(1);
+    DirectoryReader ir = DirectoryReader.open(writer);
+    writer.close();
+
+    for (LeafReaderContext context : ir.leaves()) {
+      LeafReader r = context.reader();
+      SortedNumericDocValues values = DocValues.getSortedNumeric(r, "dv");
+      DocValuesSkipper skipper = r.getDocValuesSkipper("dv");
+      if (values.nextDoc() == DocIdSetIterator.NO_MORE_DOCS) {
+        assertNull(skipper);
+        continue;
+      }
+      assertNotNull(skipper);
+      assertEquals(-1, skipper.minDocID());
+      assertEquals(-1, skipper.maxDocID());
+      for (skipper.advance(0); skipper.minDocID() != DocIdSetIterator.NO_MORE_DOCS; skipper.advance(skipper.maxDocID() + 1)) {
+        // the skipper must not skip documents that have a value
+        assertEquals(values.docID() >>> 12, skipper.minDocID() >>> 12);
+        assertEquals(0, skipper.minDocID() & 4095);
+        assertEquals(Math.min(r.maxDoc(), skipper.minDocID() + 4096) - 1, skipper.maxDocID());
+        long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+        int docCount = 0;
+        for (; values.docID() <= skipper.maxDocID(); values.nextDoc()) {
+          docCount++;
+          for (int i = 0; i < values.docValueCount(); ++i) {
+            final long value = values.nextValue();
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+          }
+        }
+        assertEquals(docCount, skipper.docCount());
+        assertEquals(min, skipper.minValue());
+        assertEquals(max, skipper.maxValue());
+      }
+      assertEquals(DocIdSetIterator.NO_MORE_DOCS, values.docID());
+      assertEquals(DocIdSetIterator.NO_MORE_DOCS, skipper.maxDocID());
+    }
+    ir.close();
+    dir.close();
+  }
 }
@@ -17,9 +17,28 @@
 package org.apache.lucene.index;
 
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.store.BaseDirectoryWrapper;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.NamedThreadFactory;
+import org.apache.lucene.util.TestUtil;
 import org.junit.Test;
 
 public class TestCheckIndex extends BaseTestCheckIndex {
@@ -56,4 +75,131 @@ public class TestCheckIndex extends BaseTestCheckIndex {
   public void testObtainsLock() throws IOException {
     testObtainsLock(directory);
   }
+
+  private static void indexDocs(Directory dir, int numSegments) throws IOException {
+    IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE));
+    for (int i = 0; i < numSegments; i++) {
+      int numDocs = TestUtil.nextInt(random(), 1, 50);
+      for (int j = 0; j < numDocs; j++) {
+        Document doc = new Document();
+        doc.add(new StringField("id", i + "_" + j, Field.Store.YES));
+        doc.add(new NumericDocValuesField("dv", j));
+        doc.add(new IntPoint("point", j));
+        writer.addDocument(doc);
+      }
+      if (random().nextBoolean()) {
+        writer.deleteDocuments(new Term("id", i + "_0"));
+      }
+      writer.commit();
+    }
+    writer.close();
+  }
+
+  @Test
+  public void testThreadCount() throws IOException {
+    indexDocs(directory, TestUtil.nextInt(random(), 2, 10));
+    CheckIndex checker = new CheckIndex(directory);
+    ByteArrayOutputStream bos = new ByteArrayOutputStream(1024);
+    checker.setInfoStream(new PrintStream(bos, true, IOUtils.UTF_8), random().nextBoolean());
+    CheckIndex.Status sequential = checker.checkIndex();
+    checker.setThreadCount(TestUtil.nextInt(random(), 2, 4));
+    CheckIndex.Status concurrent = checker.checkIndex();
+    checker.close();
+
+    assertTrue(sequential.clean);
+    assertTrue(concurrent.clean);
+    assertEquals(sequential.segmentInfos.size(), concurrent.segmentInfos.size());
+    for (int i = 0; i < sequential.segmentInfos.size(); i++) {
+      CheckIndex.Status.SegmentInfoStatus expected = sequential.segmentInfos.get(i);
+      CheckIndex.Status.SegmentInfoStatus actual = concurrent.segmentInfos.get(i);
+      assertEquals(expected.name, actual.name);
+      assertTrue(actual.openReaderPassed);
+      assertEquals(expected.liveDocStatus.numDeleted, actual.liveDocStatus.numDeleted);
+      assertEquals(expected.termIndexStatus.termCount, actual.termIndexStatus.termCount);
+      assertEquals(expected.storedFieldStatus.docCount, actual.storedFieldStatus.docCount);
+      assertEquals(expected.docValuesStatus.totalNumericFields, actual.docValuesStatus.totalNumericFields);
+      assertEquals(expected.pointsStatus.totalValuePoints, actual.pointsStatus.totalValuePoints);
+    }
+    assertEquals(sequential.newSegments.size(), concurrent.newSegments.size());
+
+    // messages are printed in the same order
+    String output = bos.toString(IOUtils.UTF_8);
+    String[] runs = output.split("No problems were detected with this index.");
+    assertEquals(3, runs.length);
+    for (String run : Arrays.asList(runs[0], runs[1])) {
+      int from = 0;
+      for (CheckIndex.Status.SegmentInfoStatus segment : sequential.segmentInfos) {
+        from = run.indexOf("name=" + segment.name + " ", from);
+        assertTrue(run, from != -1);
+        assertTrue(run, run.indexOf("test: stored fields", from) != -1);
+      }
+    }
+  }
+
+  @Test
+  public void testCustomExecutor() throws Exception {
+    indexDocs(directory, TestUtil.nextInt(random(), 1, 5));
+    ExecutorService executor = Executors.newFixedThreadPool(TestUtil.nextInt(random(), 1, 3), new NamedThreadFactory("TestCheckIndex"));
+    try (CheckIndex checker = new CheckIndex(directory)) {
+      checker.setChecksumsOnly(random().nextBoolean());
+      assertTrue(checker.checkIndex(null, executor).clean);
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+  }
+
+  @Test
+  public void testChecksumsOnlyDetectsCorruption() throws IOException {
+    BaseDirectoryWrapper dir = newDirectory();
+    dir.setCheckIndexOnClose(false);
+    indexDocs(dir, 1);
+
+    SegmentInfos sis = SegmentInfos.readLatestCommit(dir);
+    // segment infos are read with the commit, so they can't be checked on their own
+    String[] files = sis.info(0).files().stream().filter(f -> f.endsWith(".si") == false).toArray(String[]::new);
+    Arrays.sort(files);
+    String file = files[random().nextInt(files.length)];
+    byte[] bytes;
+    try (IndexInput in = dir.openInput(file, IOContext.READONCE)) {
+      bytes = new byte[(int) in.length()];
+      in.readBytes(bytes, 0, bytes.length);
+    }
+    // flip a bit that is covered by the checksum, right before the footer
+    bytes[bytes.length - CodecUtil.footerLength() - 1] ^= 1;
+    dir.deleteFile(file);
+    try (IndexOutput out = dir.createOutput(file, IOContext.DEFAULT)) {
+      out.writeBytes(bytes, bytes.length);
+    }
+
+    CheckIndex checker = new CheckIndex(dir);
+    checker.setChecksumsOnly(true);
+    checker.setThreadCount(TestUtil.nextInt(random(), 1, 4));
+    ByteArrayOutputStream bos = new ByteArrayOutputStream(1024);
+    checker.setInfoStream(new PrintStream(bos, true, IOUtils.UTF_8));
+    CheckIndex.Status status = checker.checkIndex();
+    assertFalse(status.clean);
+    assertEquals(1, status.numBadSegments);
+    assertFalse(status.segmentInfos.get(0).openReaderPassed);
+    assertTrue(bos.toString(IOUtils.UTF_8), bos.toString(IOUtils.UTF_8).contains("checksum failed"));
+
+    checker.setFailFast(true);
+    expectThrows(CorruptIndexException.class, () -> {
+      checker.checkIndex();
+    });
+    checker.close();
+    dir.close();
+  }
+
+  @Test
+  public void testParseThreadCount() {
+    assertEquals(1, CheckIndex.parseOptions(new String[] {"index"}).threadCount);
+    assertEquals(4, CheckIndex.parseOptions(new String[] {"index", "-threadCount", "4"}).threadCount);
+    expectThrows(IllegalArgumentException.class, () -> {
+      CheckIndex.parseOptions(new String[] {"index", "-threadCount", "0"});
+    });
+    expectThrows(IllegalArgumentException.class, () -> {
+      CheckIndex.parseOptions(new String[] {"index", "-threadCount"});
+    });
+  }
 }
@@ -25,11 +25,16 @@ import java.lang.reflect.Modifier;
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
 import org.apache.lucene.store.BaseDirectoryWrapper;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
 
 public class TestFilterLeafReader extends LuceneTestCase {
 
@@ -165,7 +170,9 @@ public class TestFilterLeafReader extends LuceneTestCase {
     for (Method m : superClazz.getMethods()) {
       final int mods = m.getModifiers();
       if (Modifier.isStatic(mods) || Modifier.isAbstract(mods) || Modifier.isFinal(mods) || m.isSynthetic()
-          || m.getName().equals("attributes") || m.getName().equals("getStats")) {
+          || m.getName().equals("attributes") || m.getName().equals("getStats")
+          // the default impl returns null, which would disable the skip index of wrapped readers
+          || m.getName().equals("getDocValuesSkipper")) {
         continue;
       }
       // The point of these checks is to ensure that methods that have a default
@@ -190,6 +197,62 @@ public class TestFilterLeafReader extends LuceneTestCase {
     checkOverrideMethods(FilterLeafReader.FilterPostingsEnum.class);
   }
 
+  public void testDocValuesSkipper() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig().setCodec(TestUtil.getDefaultCodec()));
+    final int numDocs = TestUtil.nextInt(random(), 3 * 4096, 5 * 4096);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      doc.add(new NumericDocValuesField("dv", i));
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    DirectoryReader dr = DirectoryReader.open(w);
+    w.close();
+    LeafReader r = getOnlyLeafReader(dr);
+    assertNotNull(r.getDocValuesSkipper("dv"));
+
+    final int[] numVisited = new int[1];
+    FilterLeafReader r2 = new FilterLeafReader(r) {
+      @Override
+      public NumericDocValues getNumericDocValues(String field) throws IOException {
+        return new FilterNumericDocValues(super.getNumericDocValues(field)) {
+          @Override
+          public int nextDoc() throws IOException {
+            numVisited[0]++;
+            return super.nextDoc();
+          }
+
+          @Override
+          public int advance(int target) throws IOException {
+            numVisited[0]++;
+            return super.advance(target);
+          }
+
+          @Override
+          public boolean advanceExact(int target) throws IOException {
+            numVisited[0]++;
+            return super.advanceExact(target);
+          }
+        };
+      }
+    };
+    assertNotNull(r2.getDocValuesSkipper("dv"));
+
+    // only the block of 4096 docs that contains the range is read, other blocks are skipped
+    IndexSearcher searcher = new IndexSearcher(r2);
+    searcher.setQueryCache(null);
+    assertEquals(11, searcher.count(NumericDocValuesField.newRangeQuery("dv", 10000, 10010)));
+    assertTrue("visited " + numVisited[0] + " docs", numVisited[0] < 2 * 4096);
+
+    // sorting changes doc IDs, so the skip index of the wrapped reader may not be used
+    LeafReader sorted = SortingLeafReader.wrap(r, new Sort(new SortField("dv", SortField.Type.LONG, true)));
+    assertNull(sorted.getDocValuesSkipper("dv"));
+
+    dr.close();
+    dir.close();
+  }
+
   public void testUnwrap() throws IOException {
     Directory dir = newDirectory();
     RandomIndexWriter w = new RandomIndexWriter(random(), dir);
@@ -23,15 +23,19 @@ import java.util.HashMap;
 
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
 import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.MultiDocValues.OrdinalMap;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.LongValues;
 import org.apache.lucene.util.LuceneTestCase;
 import org.apache.lucene.util.RamUsageTester;
 import org.apache.lucene.util.TestUtil;
+import org.apache.lucene.util.packed.PackedInts;
 
 public class TestOrdinalMap extends LuceneTestCase {
 
@@ -96,4 +100,90 @@ public class TestOrdinalMap extends LuceneTestCase {
     dir.close();
   }
 
+  public void testIncrementalBuild() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriterConfig cfg = new IndexWriterConfig(new MockAnalyzer(random())).setCodec(TestUtil.alwaysDocValuesFormat(TestUtil.getDefaultDocValuesFormat()));
+    IndexWriter iw = new IndexWriter(dir, cfg);
+    final int numTerms = TestUtil.nextInt(random(), 10, 2000);
+    int id = 0;
+    DirectoryReader r = null;
+    OrdinalMap previous = null;
+    final int iters = atLeast(10);
+    for (int iter = 0; iter < iters; ++iter) {
+      // a large first segment, then small ones so that the incremental build is not skipped
+      final int numDocs = iter == 0 ? atLeast(1000) : TestUtil.nextInt(random(), 1, 20);
+      for (int i = 0; i < numDocs; ++i) {
+        Document d = new Document();
+        d.add(new StringField("id", Integer.toString(id++), Store.NO));
+        final int numValues = random().nextInt(3);
+        for (int j = 0; j < numValues; ++j) {
+          d.add(new SortedSetDocValuesField("ssdv", new BytesRef(Integer.toString(random().nextInt(numTerms)))));
+        }
+        iw.addDocument(d);
+      }
+      if (random().nextInt(3) == 0) {
+        iw.deleteDocuments(new Term("id", Integer.toString(random().nextInt(id))));
+      }
+      if (rarely()) {
+        iw.forceMerge(TestUtil.nextInt(random(), 1, 3));
+      }
+      DirectoryReader newReader = r == null ? DirectoryReader.open(iw) : DirectoryReader.openIfChanged(r, iw);
+      if (newReader == null) {
+        continue;
+      }
+      final SortedSetDocValues[] values = getSortedSetValues(newReader);
+      final OrdinalMap expected = OrdinalMap.build(null, values, PackedInts.DEFAULT);
+      if (previous != null) {
+        final int[] previousSegments = new int[values.length];
+        for (int i = 0; i < previousSegments.length; ++i) {
+          previousSegments[i] = -1;
+          for (int j = 0; j < r.leaves().size(); ++j) {
+            if (r.leaves().get(j).reader().getCoreCacheKey() == newReader.leaves().get(i).reader().getCoreCacheKey()) {
+              previousSegments[i] = j;
+            }
+          }
+        }
+        final OrdinalMap actual = OrdinalMap.build(null, getSortedSetValues(newReader), previous, previousSegments, PackedInts.DEFAULT);
+        assertEquals(expected.getValueCount(), actual.getValueCount());
+        for (int i = 0; i < values.length; ++i) {
+          final LongValues expectedGlobalOrds = expected.getGlobalOrds(i);
+          final LongValues actualGlobalOrds = actual.getGlobalOrds(i);
+          for (long ord = 0; ord < values[i].getValueCount(); ++ord) {
+            assertEquals(expectedGlobalOrds.get(ord), actualGlobalOrds.get(ord));
+          }
+        }
+        for (long globalOrd = 0; globalOrd < expected.getValueCount(); ++globalOrd) {
+          assertEquals(expected.getFirstSegmentNumber(globalOrd), actual.getFirstSegmentNumber(globalOrd));
+          assertEquals(expected.getFirstSegmentOrd(globalOrd), actual.getFirstSegmentOrd(globalOrd));
+        }
+        assertEquals(RamUsageTester.sizeOf(actual, ORDINAL_MAP_ACCUMULATOR), actual.ramBytesUsed());
+      }
+      IOUtils.close(r);
+      r = newReader;
+      previous = expected;
+    }
+    IOUtils.close(r, iw, dir);
+  }
+
+  public void testIncrementalBuildIllegalArguments() throws IOException {
+    final OrdinalMap previous = OrdinalMap.build(null, new SortedDocValues[] { DocValues.emptySorted(), DocValues.emptySorted() }, PackedInts.DEFAULT);
+    expectThrows(IllegalArgumentException.class, () -> {
+      OrdinalMap.build(null, new SortedDocValues[] { DocValues.emptySorted() }, previous, new int[] { 0, 1 }, PackedInts.DEFAULT);
+    });
+    expectThrows(IllegalArgumentException.class, () -> {
+      OrdinalMap.build(null, new SortedDocValues[] { DocValues.emptySorted() }, previous, new int[] { 2 }, PackedInts.DEFAULT);
+    });
+    expectThrows(IllegalArgumentException.class, () -> {
+      OrdinalMap.build(null, new SortedDocValues[] { DocValues.emptySorted(), DocValues.emptySorted() }, previous, new int[] { 1, 1 }, PackedInts.DEFAULT);
+    });
+  }
+
+  private static SortedSetDocValues[] getSortedSetValues(IndexReader reader) throws IOException {
+    final SortedSetDocValues[] values = new SortedSetDocValues[reader.leaves().size()];
+    for (int i = 0; i < values.length; ++i) {
+      values[i] = DocValues.getSortedSet(reader.leaves().get(i).reader(), "ssdv");
+    }
+    return values;
+  }
+
 }
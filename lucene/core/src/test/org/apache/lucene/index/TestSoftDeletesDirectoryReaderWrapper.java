@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.LuceneTestCase;
+
+public class TestSoftDeletesDirectoryReaderWrapper extends LuceneTestCase {
+
+  private static Document newDoc(String id) {
+    Document doc = new Document();
+    doc.add(new StringField("id", id, Field.Store.YES));
+    return doc;
+  }
+
+  public void testSoftUpdates() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig());
+    int numIds = atLeast(10);
+    int numUpdates = atLeast(100);
+    for (int i = 0; i < numUpdates; i++) {
+      String id = Integer.toString(random().nextInt(numIds));
+      writer.softUpdateDocument(new Term("id", id), newDoc(id), new NumericDocValuesField("soft_delete", 1));
+      if (random().nextInt(20) == 0) {
+        writer.commit();
+      }
+    }
+    DirectoryReader reader = new SoftDeletesDirectoryReaderWrapper(DirectoryReader.open(writer), "soft_delete");
+    assertEquals(numUpdates, reader.maxDoc());
+    IndexSearcher searcher = newSearcher(reader);
+    int numLiveIds = 0;
+    for (int i = 0; i < numIds; i++) {
+      int count = searcher.count(new TermQuery(new Term("id", Integer.toString(i))));
+      assertTrue(count <= 1);
+      numLiveIds += count;
+    }
+    assertEquals(numLiveIds, reader.numDocs());
+
+    // hard deletes and soft updates are both applied on reopen
+    writer.deleteDocuments(new Term("id", "0"));
+    writer.softUpdateDocument(new Term("id", "1"), newDoc("1"), new NumericDocValuesField("soft_delete", 1));
+    DirectoryReader newReader = DirectoryReader.openIfChanged(reader, writer);
+    assertNotNull(newReader);
+    assertTrue(newReader instanceof SoftDeletesDirectoryReaderWrapper);
+    searcher = newSearcher(newReader);
+    assertEquals(0, searcher.count(new TermQuery(new Term("id", "0"))));
+    assertEquals(1, searcher.count(new TermQuery(new Term("id", "1"))));
+    IOUtils.close(reader, newReader, writer, dir);
+  }
+
+  public void testSegmentsWithoutSoftDeletesAreNotWrapped() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig()
+        .setMaxBufferedDocs(IndexWriterConfig.DISABLE_AUTO_FLUSH)
+        .setRAMBufferSizeMB(IndexWriterConfig.DEFAULT_RAM_BUFFER_SIZE_MB)
+        .setMergePolicy(NoMergePolicy.INSTANCE));
+    writer.addDocument(newDoc("0"));
+    writer.commit();
+    writer.addDocument(newDoc("1"));
+    writer.softUpdateDocument(new Term("id", "1"), newDoc("1"), new NumericDocValuesField("soft_delete", 1));
+    writer.commit();
+    DirectoryReader reader = new SoftDeletesDirectoryReaderWrapper(DirectoryReader.open(dir), "soft_delete");
+    assertEquals(2, reader.leaves().size());
+    LeafReader first = reader.leaves().get(0).reader();
+    LeafReader second = reader.leaves().get(1).reader();
+    assertTrue(first instanceof SegmentReader);
+    assertFalse(second instanceof SegmentReader);
+    assertEquals(1, second.numDocs());
+    assertFalse(second.getLiveDocs().get(0));
+    assertTrue(second.getLiveDocs().get(1));
+    // the content is unchanged so query caches can be shared with the wrapped reader
+    assertSame(FilterLeafReader.unwrap(second).getCoreCacheKey(), second.getCoreCacheKey());
+    assertEquals(2, reader.numDocs());
+    IOUtils.close(reader, writer, dir);
+  }
+
+  public void testIllegalSoftUpdates() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig());
+    Document doc = newDoc("0");
+    doc.add(new SortedDocValuesField("sorted", new BytesRef("foo")));
+    writer.addDocument(doc);
+    expectThrows(IllegalArgumentException.class, () -> {
+      writer.softUpdateDocument(new Term("id", "0"), newDoc("0"));
+    });
+    expectThrows(IllegalArgumentException.class, () -> {
+      writer.softUpdateDocument(null, newDoc("0"), new NumericDocValuesField("soft_delete", 1));
+    });
+    // soft deletes must be numeric and can't change the type of an existing field
+    expectThrows(IllegalArgumentException.class, () -> {
+      writer.softUpdateDocument(new Term("id", "0"), newDoc("0"), new SortedDocValuesField("soft_delete", new BytesRef("1")));
+    });
+    expectThrows(IllegalArgumentException.class, () -> {
+      writer.softUpdateDocument(new Term("id", "0"), newDoc("0"), new NumericDocValuesField("sorted", 1));
+    });
+    expectThrows(IllegalArgumentException.class, () -> {
+      writer.softUpdateDocuments(new Term("id", "0"), Arrays.asList(newDoc("0")));
+    });
+    IOUtils.close(writer, dir);
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestSoftDeletesRetentionMergePolicy extends LuceneTestCase {
+
+  private static Document newDoc(String id, long version) {
+    Document doc = new Document();
+    doc.add(new StringField("id", id, Field.Store.YES));
+    doc.add(new LongPoint("version", version));
+    return doc;
+  }
+
+  public void testPurgeSoftDeletes() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriterConfig config = newIndexWriterConfig();
+    config.setMergePolicy(new SoftDeletesRetentionMergePolicy("soft_delete", () -> null, newMergePolicy()));
+    IndexWriter writer = new IndexWriter(dir, config);
+    int numIds = atLeast(5);
+    int numUpdates = atLeast(50);
+    boolean[] exists = new boolean[numIds];
+    for (int i = 0; i < numUpdates; i++) {
+      int id = random().nextInt(numIds);
+      exists[id] = true;
+      writer.softUpdateDocument(new Term("id", Integer.toString(id)), newDoc(Integer.toString(id), i),
+          new NumericDocValuesField("soft_delete", 1));
+      if (random().nextInt(10) == 0) {
+        writer.commit();
+      }
+    }
+    int numLiveIds = 0;
+    for (boolean e : exists) {
+      numLiveIds += e ? 1 : 0;
+    }
+    writer.forceMerge(1);
+    DirectoryReader reader = DirectoryReader.open(writer);
+    assertEquals(1, reader.leaves().size());
+    assertEquals(numLiveIds, reader.maxDoc());
+    assertEquals(numLiveIds, reader.numDocs());
+    IOUtils.close(reader, writer, dir);
+  }
+
+  public void testRetainSoftDeletes() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriterConfig config = newIndexWriterConfig();
+    // retain everything until told otherwise
+    AtomicLong minRetainedVersion = new AtomicLong(Long.MIN_VALUE);
+    config.setMergePolicy(new SoftDeletesRetentionMergePolicy("soft_delete",
+        () -> LongPoint.newRangeQuery("version", minRetainedVersion.get(), Long.MAX_VALUE), newMergePolicy()));
+    IndexWriter writer = new IndexWriter(dir, config);
+    int numUpdates = atLeast(20);
+    for (int i = 0; i < numUpdates; i++) {
+      writer.softUpdateDocument(new Term("id", "0"), newDoc("0", i), new NumericDocValuesField("soft_delete", 1));
+      if (random().nextBoolean()) {
+        writer.commit();
+      }
+    }
+
+    // retain the last 5 versions
+    minRetainedVersion.set(numUpdates - 5);
+    writer.forceMerge(1);
+    DirectoryReader reader = DirectoryReader.open(writer);
+    assertEquals(5, reader.maxDoc());
+    DirectoryReader softDeletesReader = new SoftDeletesDirectoryReaderWrapper(reader, "soft_delete");
+    assertEquals(1, softDeletesReader.numDocs());
+    IndexSearcher searcher = newSearcher(softDeletesReader);
+    assertEquals(1, searcher.count(LongPoint.newExactQuery("version", numUpdates - 1)));
+
+    // purge everything on the next merge
+    minRetainedVersion.set(Long.MAX_VALUE);
+    writer.softUpdateDocument(new Term("id", "0"), newDoc("0", numUpdates), new NumericDocValuesField("soft_delete", 1));
+    writer.forceMerge(1);
+    DirectoryReader newReader = DirectoryReader.openIfChanged(softDeletesReader, writer);
+    assertNotNull(newReader);
+    assertEquals(1, newReader.maxDoc());
+    assertEquals(1, newReader.numDocs());
+    IOUtils.close(softDeletesReader, newReader, writer, dir);
+  }
+
+  public void testConcurrentUpdatesAndMerges() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig config = newIndexWriterConfig().setMaxBufferedDocs(TestUtil.nextInt(random(), 2, 20));
+    config.setMergePolicy(new SoftDeletesRetentionMergePolicy("soft_delete", () -> null, newLogMergePolicy(2)));
+    IndexWriter writer = new IndexWriter(dir, config);
+    int numIds = atLeast(20);
+    Thread[] threads = new Thread[TestUtil.nextInt(random(), 2, 4)];
+    CountDownLatch startingGun = new CountDownLatch(1);
+    for (int t = 0; t < threads.length; t++) {
+      final long seed = random().nextLong();
+      threads[t] = new Thread(() -> {
+        try {
+          Random r = new Random(seed);
+          startingGun.await();
+          for (int i = 0; i < 500; i++) {
+            String id = Integer.toString(r.nextInt(numIds));
+            if (r.nextInt(10) == 0) {
+              // hard deletes that happen while soft-deleted documents are being purged
+              writer.deleteDocuments(new Term("id", id));
+            } else {
+              writer.softUpdateDocument(new Term("id", id), newDoc(id, i), new NumericDocValuesField("soft_delete", 1));
+            }
+          }
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      });
+      threads[t].start();
+    }
+    startingGun.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    DirectoryReader reader = new SoftDeletesDirectoryReaderWrapper(DirectoryReader.open(writer), "soft_delete");
+    IndexSearcher searcher = newSearcher(reader);
+    for (int i = 0; i < numIds; i++) {
+      assertTrue(searcher.count(new TermQuery(new Term("id", Integer.toString(i)))) <= 1);
+    }
+    IOUtils.close(reader, writer);
+    TestUtil.checkIndex(dir);
+    dir.close();
+  }
+}
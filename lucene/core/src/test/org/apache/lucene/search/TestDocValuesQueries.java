@@ -25,7 +25,9 @@ import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
@@ -92,6 +94,60 @@ public class TestDocValuesQueries extends LuceneTestCase {
     }
   }
 
+  public void testDuelPointRangeClusteredNumericRangeQuery() throws IOException {
+    doTestDuelPointRangeClusteredNumericRangeQuery(false, 1);
+  }
+
+  public void testDuelPointRangeClusteredSortedNumericRangeQuery() throws IOException {
+    doTestDuelPointRangeClusteredNumericRangeQuery(true, 3);
+  }
+
+  // values increase with doc IDs, like timestamps in a time-sorted index, so that the skip index can be used
+  private void doTestDuelPointRangeClusteredNumericRangeQuery(boolean sortedNumeric, int maxValuesPerDoc) throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter iw = new IndexWriter(dir, newIndexWriterConfig().setCodec(TestUtil.getDefaultCodec()));
+    final int numDocs = TestUtil.nextInt(random(), 10000, 20000);
+    final int minValuesPerDoc = random().nextBoolean() ? 0 : 1;
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      final int numValues = TestUtil.nextInt(random(), minValuesPerDoc, maxValuesPerDoc);
+      for (int j = 0; j < numValues; ++j) {
+        final long value = i + random().nextInt(100);
+        if (sortedNumeric) {
+          doc.add(new SortedNumericDocValuesField("dv", value));
+        } else {
+          doc.add(new NumericDocValuesField("dv", value));
+        }
+        doc.add(new LongPoint("idx", value));
+      }
+      iw.addDocument(doc);
+    }
+    iw.forceMerge(1);
+    if (random().nextBoolean()) {
+      iw.deleteDocuments(LongPoint.newRangeQuery("idx", 0L, 5000L));
+    }
+    final IndexReader reader = DirectoryReader.open(iw);
+    assertNotNull(reader.leaves().get(0).reader().getDocValuesSkipper("dv"));
+    final IndexSearcher searcher = newSearcher(reader, false);
+    iw.close();
+
+    for (int i = 0; i < 100; ++i) {
+      final long min = random().nextBoolean() ? Long.MIN_VALUE : TestUtil.nextLong(random(), -100, numDocs + 100);
+      final long max = random().nextBoolean() ? Long.MAX_VALUE : TestUtil.nextLong(random(), -100, numDocs + 100);
+      final Query q1 = LongPoint.newRangeQuery("idx", min, max);
+      final Query q2;
+      if (sortedNumeric) {
+        q2 = SortedNumericDocValuesField.newRangeQuery("dv", min, max);
+      } else {
+        q2 = NumericDocValuesField.newRangeQuery("dv", min, max);
+      }
+      assertSameMatches(searcher, q1, q2, false);
+    }
+
+    reader.close();
+    dir.close();
+  }
+
   private void doTestDuelPointRangeSortedRangeQuery(boolean sortedSet, int maxValuesPerDoc) throws IOException {
     final int iters = atLeast(10);
     for (int iter = 0; iter < iters; ++iter) {
@@ -19,18 +19,24 @@ package org.apache.lucene.search;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Field.Store;
 import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.MultiReader;
+import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause.Occur;
@@ -135,6 +141,110 @@ public class TestIndexSearcher extends LuceneTestCase {
     IOUtils.close(r, dir);
   }
 
+  public void testSlices() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig(null).setMergePolicy(NoMergePolicy.INSTANCE));
+    final int[] segmentSizes = new int[] { 3, 2, 25, 1, 1, 1, 4 };
+    for (int size : segmentSizes) {
+      for (int i = 0; i < size; ++i) {
+        w.addDocument(new Document());
+      }
+      w.commit();
+    }
+    IndexReader r = DirectoryReader.open(w);
+    w.close();
+    assertEquals(segmentSizes.length, r.leaves().size());
+
+    IndexSearcher.LeafSlice[] slices = IndexSearcher.slices(r.leaves(), 10, 3, true);
+    // [3, 2], [25/3], [25/3], [25/3], [1, 1, 1], [4]
+    assertEquals(6, slices.length);
+    assertEquals(2, slices[0].partitions.length);
+    assertTrue(slices[0].partitions[0].isEntireSegment());
+    assertTrue(slices[0].partitions[1].isEntireSegment());
+    int expectedMinDocId = 0;
+    for (int i = 1; i <= 3; ++i) {
+      assertEquals(1, slices[i].partitions.length);
+      IndexSearcher.LeafReaderContextPartition partition = slices[i].partitions[0];
+      assertSame(r.leaves().get(2), partition.ctx);
+      assertFalse(partition.isEntireSegment());
+      assertEquals(expectedMinDocId, partition.minDocId);
+      assertTrue(partition.maxDocId - partition.minDocId <= 10);
+      expectedMinDocId = partition.maxDocId;
+    }
+    assertEquals(25, expectedMinDocId);
+    assertEquals(3, slices[4].partitions.length);
+    assertEquals(1, slices[5].partitions.length);
+
+    // segments are not split unless explicitly allowed
+    slices = IndexSearcher.slices(r.leaves(), 10, 3, false);
+    // [3, 2], [25], [1, 1, 1], [4]
+    assertEquals(4, slices.length);
+    assertEquals(1, slices[1].partitions.length);
+    assertTrue(slices[1].partitions[0].isEntireSegment());
+    assertEquals(3, slices[2].partitions.length);
+
+    // every segment in its own slice
+    assertEquals(segmentSizes.length, IndexSearcher.slices(r.leaves(), Integer.MAX_VALUE, 1, true).length);
+    expectThrows(IllegalArgumentException.class, () -> IndexSearcher.slices(r.leaves(), 0, 1, true));
+    expectThrows(IllegalArgumentException.class, () -> IndexSearcher.slices(r.leaves(), 1, 0, true));
+    expectThrows(IllegalArgumentException.class,
+        () -> new IndexSearcher.LeafSlice(IndexSearcher.LeafReaderContextPartition.createFromAndTo(r.leaves().get(2), 0, 5),
+            IndexSearcher.LeafReaderContextPartition.createFromAndTo(r.leaves().get(2), 5, 10)));
+
+    IOUtils.close(r, dir);
+  }
+
+  public void testIntraSegmentConcurrency() throws Exception {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    final int numDocs = atLeast(500);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      doc.add(new StringField("foo", random().nextBoolean() ? "bar" : "baz", Store.NO));
+      w.addDocument(doc);
+    }
+    IndexReader r = w.getReader();
+    w.close();
+
+    ExecutorService service = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<Runnable>(),
+        new NamedThreadFactory("TestIndexSearcher"));
+    final int maxDocsPerSlice = TestUtil.nextInt(random(), 1, 100);
+    final int maxSegmentsPerSlice = TestUtil.nextInt(random(), 1, 5);
+    IndexSearcher searcher = new IndexSearcher(r);
+    final AtomicInteger searchLeavesCalls = new AtomicInteger();
+    IndexSearcher concurrentSearcher = new IndexSearcher(r, service) {
+      @Override
+      protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
+        return slices(leaves, maxDocsPerSlice, maxSegmentsPerSlice, true);
+      }
+
+      @Override
+      protected void search(List<LeafReaderContext> leaves, Weight weight, Collector collector) throws IOException {
+        // partitions of segments must go through this method too
+        searchLeavesCalls.incrementAndGet();
+        super.search(leaves, weight, collector);
+      }
+    };
+    for (Query query : new Query[] { new MatchAllDocsQuery(), new TermQuery(new Term("foo", "bar")) }) {
+      assertEquals(searcher.count(query), concurrentSearcher.count(query));
+      TopDocs expected = searcher.search(query, 10);
+      TopDocs actual = concurrentSearcher.search(query, 10);
+      assertEquals(expected.totalHits, actual.totalHits);
+      CheckHits.checkEqual(query, expected.scoreDocs, actual.scoreDocs);
+    }
+    int numPartitions = 0;
+    for (IndexSearcher.LeafSlice slice : concurrentSearcher.leafSlices) {
+      numPartitions += slice.partitions.length;
+    }
+    searchLeavesCalls.set(0);
+    concurrentSearcher.search(new MatchAllDocsQuery(), 10);
+    assertEquals(numPartitions, searchLeavesCalls.get());
+
+    TestUtil.shutdownExecutorService(service);
+    IOUtils.close(r, dir);
+  }
+
   public void testCount() throws IOException {
     Directory dir = newDirectory();
     RandomIndexWriter w = new RandomIndexWriter(random(), dir);
@@ -170,6 +170,79 @@ public class TestLRUQueryCache extends LuceneTestCase {
     queryCache.assertConsistent();
   }
 
+  public void testConcurrentLookups() throws Throwable {
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    Document doc = new Document();
+    StringField f = new StringField("color", "", Store.NO);
+    doc.add(f);
+    final int numDocs = atLeast(100);
+    for (int i = 0; i < numDocs; ++i) {
+      f.setStringValue(RandomPicks.randomFrom(random(), new String[] {"blue", "red", "yellow"}));
+      w.addDocument(doc);
+    }
+    final DirectoryReader reader = w.getReader();
+    w.close();
+    final IndexSearcher searcher = new IndexSearcher(reader);
+    final LRUQueryCache queryCache = new LRUQueryCache(2, 100000, context -> true);
+    searcher.setQueryCache(queryCache);
+    searcher.setQueryCachingPolicy(QueryCachingPolicy.ALWAYS_CACHE);
+
+    final Query red = new TermQuery(new Term("color", "red"));
+    final Query blue = new TermQuery(new Term("color", "blue"));
+    final int redCount = totalHits(searcher, red);
+    final int blueCount = totalHits(searcher, blue);
+    assertEquals(Arrays.asList(red, blue), queryCache.cachedQueries());
+    final long lookups = queryCache.getTotalCount();
+
+    // hits are recorded without taking the lock, make sure that none of them are lost
+    final int numThreads = TestUtil.nextInt(random(), 2, 8);
+    final int numIters = atLeast(100);
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+    Thread[] threads = new Thread[numThreads];
+    for (int i = 0; i < threads.length; ++i) {
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            for (int j = 0; j < numIters; ++j) {
+              assertEquals(redCount, totalHits(searcher, red));
+            }
+          } catch (Throwable t) {
+            error.compareAndSet(null, t);
+          }
+        }
+      };
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    if (error.get() != null) {
+      throw error.get();
+    }
+
+    final long expectedLookups = (long) numThreads * numIters * reader.leaves().size();
+    assertEquals(lookups + expectedLookups, queryCache.getTotalCount());
+    assertEquals(queryCache.getTotalCount() - queryCache.getCacheCount(), queryCache.getHitCount());
+    // red is the most recently used query
+    assertEquals(Arrays.asList(blue, red), queryCache.cachedQueries());
+    assertEquals(blueCount, totalHits(searcher, blue));
+    queryCache.assertConsistent();
+
+    reader.close();
+    dir.close();
+  }
+
+  // does not use the IndexSearcher#count shortcuts, which do not use the cache
+  private static int totalHits(IndexSearcher searcher, Query query) throws IOException {
+    TotalHitCountCollector collector = new TotalHitCountCollector();
+    searcher.search(query, collector);
+    return collector.getTotalHits();
+  }
+
   public void testLRUEviction() throws Exception {
     Directory dir = newDirectory();
     final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
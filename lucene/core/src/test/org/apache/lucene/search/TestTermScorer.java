@@ -24,15 +24,22 @@ import java.util.List;
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.similarities.BM25Similarity;
 import org.apache.lucene.search.similarities.ClassicSimilarity;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
 
 public class TestTermScorer extends LuceneTestCase {
   protected Directory directory;
@@ -192,4 +199,58 @@ public class TestTermScorer extends LuceneTestCase {
     // should not fail this time since norms are not necessary
     weight2.scorer(forbiddenNorms.getContext()).iterator().nextDoc();
   }
+
+  public void testRandomTopDocs() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    // make sure to exercise the postings format that records impacts
+    iwc.setCodec(TestUtil.getDefaultCodec());
+    iwc.setSimilarity(new BM25Similarity());
+    IndexWriter w = new IndexWriter(dir, iwc);
+    int numDocs = atLeast(2000);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      StringBuilder text = new StringBuilder();
+      // vary both freqs and lengths so that impacts differ across blocks
+      int numA = random().nextInt(10) == 0 ? 1 + random().nextInt(10) : 1;
+      for (int j = 0; j < numA; ++j) {
+        text.append("a ");
+      }
+      if (random().nextInt(5) == 0) {
+        text.append("b ");
+      }
+      int numFillers = random().nextInt(20);
+      for (int j = 0; j < numFillers; ++j) {
+        text.append("c ");
+      }
+      doc.add(new TextField(FIELD, text.toString(), Field.Store.NO));
+      w.addDocument(doc);
+    }
+    if (random().nextBoolean()) {
+      w.forceMerge(1);
+    }
+    IndexReader reader = DirectoryReader.open(w);
+    w.close();
+    // we don't use newSearcher since wrapped readers don't expose impacts
+    IndexSearcher searcher = new IndexSearcher(reader);
+    searcher.setSimilarity(new BM25Similarity());
+    searcher.setQueryCache(null);
+
+    for (String term : new String[] {"a", "b", "c"}) {
+      Query query = new TermQuery(new Term(FIELD, term));
+      int numHits = 1 + random().nextInt(20);
+      TopScoreDocCollector complete = TopScoreDocCollector.create(numHits, null, true);
+      searcher.search(query, complete);
+      TopScoreDocCollector topScores = TopScoreDocCollector.create(numHits, null, false);
+      searcher.search(query, topScores);
+
+      TopDocs expected = complete.topDocs();
+      TopDocs actual = topScores.topDocs();
+      assertTrue(actual.totalHits <= expected.totalHits);
+      CheckHits.checkEqual(query, expected.scoreDocs, actual.scoreDocs);
+    }
+
+    reader.close();
+    dir.close();
+  }
 }
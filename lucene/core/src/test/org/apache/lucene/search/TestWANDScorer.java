@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.similarities.BM25Similarity;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+
+public class TestWANDScorer extends LuceneTestCase {
+
+  public void testScalingFactor() {
+    doTestScalingFactor(1);
+    doTestScalingFactor(2);
+    doTestScalingFactor(Math.nextDown(1f));
+    doTestScalingFactor(Math.nextUp(1f));
+    doTestScalingFactor(Float.MIN_VALUE);
+    doTestScalingFactor(Math.nextUp(Float.MIN_VALUE));
+    doTestScalingFactor(Float.MAX_VALUE);
+    doTestScalingFactor(Math.nextDown(Float.MAX_VALUE));
+    assertEquals(WANDScorer.scalingFactor(Float.MIN_VALUE) - 1, WANDScorer.scalingFactor(0));
+    assertEquals(WANDScorer.scalingFactor(Float.MAX_VALUE) + 1, WANDScorer.scalingFactor(Float.POSITIVE_INFINITY));
+  }
+
+  private void doTestScalingFactor(float f) {
+    int scalingFactor = WANDScorer.scalingFactor(f);
+    float scaled = Math.scalb(f, scalingFactor);
+    assertTrue(""+scaled, scaled >= 1 << 23);
+    assertTrue(""+scaled, scaled < 1 << 24);
+  }
+
+  public void testScaleMaxScore() {
+    final int scalingFactor = WANDScorer.scalingFactor(2f);
+    assertEquals(1L << 23, WANDScorer.scaleMaxScore(2f, scalingFactor));
+    // max scores are rounded up
+    assertEquals(1, WANDScorer.scaleMaxScore(Float.MIN_VALUE, scalingFactor));
+    // min scores are rounded down
+    assertEquals(0, WANDScorer.scaleMinScore(Float.MIN_VALUE, scalingFactor));
+    assertEquals(1L << 23, WANDScorer.scaleMinScore(2f, scalingFactor));
+  }
+
+  public void testRandom() throws Exception {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir, newIndexWriterConfig(new MockAnalyzer(random())));
+    final String[] terms = new String[] { "a", "b", "c", "d", "e", "f", "g", "h" };
+    final int numDocs = atLeast(1000);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      StringBuilder text = new StringBuilder();
+      final int numTerms = 1 + random().nextInt(20);
+      for (int j = 0; j < numTerms; ++j) {
+        // skew the distribution so that some terms are much more frequent than others
+        final int index = Math.min(terms.length - 1, (int) Math.abs(random().nextGaussian() * 3));
+        text.append(terms[index]).append(' ');
+      }
+      doc.add(new TextField("foo", text.toString(), Store.NO));
+      w.addDocument(doc);
+    }
+    IndexReader reader = w.getReader();
+    w.close();
+    IndexSearcher searcher = newSearcher(reader);
+    searcher.setSimilarity(new BM25Similarity());
+
+    final int iters = atLeast(50);
+    for (int iter = 0; iter < iters; ++iter) {
+      BooleanQuery.Builder builder = new BooleanQuery.Builder();
+      final int numClauses = 2 + random().nextInt(5);
+      for (int i = 0; i < numClauses; ++i) {
+        builder.add(new TermQuery(new Term("foo", terms[random().nextInt(terms.length)])), Occur.SHOULD);
+      }
+      if (random().nextBoolean()) {
+        builder.add(new TermQuery(new Term("foo", terms[random().nextInt(terms.length)])), Occur.MUST_NOT);
+      }
+      Query query = builder.build();
+
+      final int numHits = 1 + random().nextInt(20);
+      TopScoreDocCollector complete = TopScoreDocCollector.create(numHits, null, true);
+      searcher.search(query, complete);
+      TopScoreDocCollector topScores = TopScoreDocCollector.create(numHits, null, false);
+      searcher.search(query, topScores);
+
+      TopDocs expected = complete.topDocs();
+      TopDocs actual = topScores.topDocs();
+      assertTrue(actual.totalHits <= expected.totalHits);
+      CheckHits.checkEqual(query, expected.scoreDocs, actual.scoreDocs);
+
+      // sibling collectors must still see all matches
+      TopScoreDocCollector wrapped = TopScoreDocCollector.create(numHits, null, false);
+      TotalHitCountCollector totalHitCount = new TotalHitCountCollector();
+      searcher.search(query, MultiCollector.wrap(wrapped, totalHitCount));
+      assertEquals(expected.totalHits, totalHitCount.getTotalHits());
+      CheckHits.checkEqual(query, expected.scoreDocs, wrapped.topDocs().scoreDocs);
+    }
+
+    reader.close();
+    dir.close();
+  }
+
+}
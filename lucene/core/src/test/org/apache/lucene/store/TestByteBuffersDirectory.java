@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.store;
+
+
+import java.io.IOException;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Path;
+
+import org.apache.lucene.util.TestUtil;
+
+/**
+ * Tests ByteBuffersDirectory
+ */
+public class TestByteBuffersDirectory extends BaseDirectoryTestCase {
+
+  @Override
+  protected Directory getDirectory(Path path) {
+    return new ByteBuffersDirectory(new SingleInstanceLockFactory(), 1 << TestUtil.nextInt(random(), 4, 20), random().nextBoolean());
+  }
+
+  public void testChunkBoundaries() throws IOException {
+    final int chunkSize = 1 << TestUtil.nextInt(random(), 1, 12);
+    try (ByteBuffersDirectory dir = new ByteBuffersDirectory(new SingleInstanceLockFactory(), chunkSize, random().nextBoolean())) {
+      assertEquals(chunkSize, dir.getMaxChunkSize());
+      final int[] lengths = new int[] { 0, 1, chunkSize - 1, chunkSize, chunkSize + 1, 3 * chunkSize, 3 * chunkSize + 1 };
+      for (int length : lengths) {
+        final String name = "file" + length;
+        final byte[] bytes = new byte[length];
+        random().nextBytes(bytes);
+        try (IndexOutput out = dir.createOutput(name, newIOContext(random()))) {
+          out.writeBytes(bytes, bytes.length);
+        }
+        assertEquals(length, dir.fileLength(name));
+        try (IndexInput in = dir.openInput(name, newIOContext(random()))) {
+          final byte[] read = new byte[length];
+          in.readBytes(read, 0, length);
+          assertArrayEquals(bytes, read);
+          in.seek(length);
+          assertEquals(length, in.getFilePointer());
+        }
+      }
+    }
+  }
+
+  public void testMaxChunkSizeIsRoundedDown() throws IOException {
+    try (ByteBuffersDirectory dir = new ByteBuffersDirectory(new SingleInstanceLockFactory(), 1000, false)) {
+      assertEquals(512, dir.getMaxChunkSize());
+    }
+    expectThrows(IllegalArgumentException.class, () -> {
+      new ByteBuffersDirectory(new SingleInstanceLockFactory(), 0, false);
+    });
+  }
+
+  public void testCannotReadFileBeingWritten() throws IOException {
+    try (ByteBuffersDirectory dir = new ByteBuffersDirectory()) {
+      IndexOutput out = dir.createOutput("foo", newIOContext(random()));
+      out.writeInt(42);
+      assertTrue(dir.fileNameExists("foo"));
+      expectThrows(AccessDeniedException.class, () -> {
+        dir.openInput("foo", newIOContext(random()));
+      });
+      // the length of a file that is being written is the number of bytes written so far
+      assertEquals(4, dir.fileLength("foo"));
+      out.close();
+      assertEquals(4, dir.fileLength("foo"));
+      try (IndexInput in = dir.openInput("foo", newIOContext(random()))) {
+        assertEquals(42, in.readInt());
+      }
+    }
+  }
+
+  public void testRenameFileBeingWritten() throws IOException {
+    try (ByteBuffersDirectory dir = new ByteBuffersDirectory()) {
+      IndexOutput out = dir.createOutput("foo", newIOContext(random()));
+      out.writeInt(42);
+      dir.rename("foo", "bar");
+      assertFalse(dir.fileNameExists("foo"));
+      assertEquals(4, dir.fileLength("bar"));
+      AccessDeniedException e = expectThrows(AccessDeniedException.class, () -> {
+        dir.openInput("bar", newIOContext(random()));
+      });
+      assertEquals("bar", e.getFile());
+      out.close();
+      try (IndexInput in = dir.openInput("bar", newIOContext(random()))) {
+        assertEquals(42, in.readInt());
+      }
+    }
+  }
+
+  public void testRamBytesUsed() throws IOException {
+    try (ByteBuffersDirectory dir = new ByteBuffersDirectory(new SingleInstanceLockFactory(), 1 << 10, random().nextBoolean())) {
+      assertEquals(0, dir.ramBytesUsed());
+      final byte[] bytes = new byte[TestUtil.nextInt(random(), 1, 10000)];
+      try (IndexOutput out = dir.createOutput("foo", newIOContext(random()))) {
+        out.writeBytes(bytes, bytes.length);
+      }
+      // the last chunk is trimmed on close
+      assertEquals(bytes.length, dir.ramBytesUsed());
+      assertEquals(1, dir.getChildResources().size());
+
+      // a file that is deleted while it is being written is released on close
+      IndexOutput out = dir.createOutput("bar", newIOContext(random()));
+      out.writeBytes(bytes, bytes.length);
+      assertTrue(dir.ramBytesUsed() > bytes.length);
+      dir.deleteFile("bar");
+      out.close();
+      assertEquals(bytes.length, dir.ramBytesUsed());
+
+      dir.deleteFile("foo");
+      assertEquals(0, dir.ramBytesUsed());
+    }
+  }
+}
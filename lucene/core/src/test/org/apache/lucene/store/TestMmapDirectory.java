@@ -18,8 +18,13 @@ package org.apache.lucene.store;
 
 
 import java.io.IOException;
+import java.nio.MappedByteBuffer;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 
 import org.junit.Ignore;
@@ -33,8 +38,92 @@ public class TestMmapDirectory extends BaseDirectoryTestCase {
   protected Directory getDirectory(Path path) throws IOException {
     MMapDirectory m = new MMapDirectory(path);
     m.setPreload(random().nextBoolean());
+    if (random().nextBoolean()) {
+      m.setPolicy(randomPolicy());
+    }
     return m;
   }
+
+  private static MMapPolicy randomPolicy() {
+    final Set<String> preloadExtensions = new HashSet<>();
+    final Set<String> randomAccessExtensions = new HashSet<>();
+    for (String extension : new String[] { "tip", "dvd", "nvd", "doc", "fdt", "cfs", "bin" }) {
+      switch (random().nextInt(3)) {
+        case 0:
+          preloadExtensions.add(extension);
+          break;
+        case 1:
+          randomAccessExtensions.add(extension);
+          break;
+        default:
+          break;
+      }
+    }
+    return MMapPolicy.forExtensions(preloadExtensions, randomAccessExtensions);
+  }
+
+  public void testExtensionPolicy() throws Exception {
+    MMapPolicy policy = MMapPolicy.forExtensions(
+        new HashSet<>(Arrays.asList("tip", "dvd")),
+        new HashSet<>(Arrays.asList("doc")));
+    assertTrue(policy.preload("_0_Lucene50_0.tip", IOContext.DEFAULT));
+    assertTrue(policy.preload("_0_Lucene70_0.dvd", IOContext.READONCE));
+    assertFalse(policy.preload("_0_Lucene50_0.doc", IOContext.DEFAULT));
+    assertFalse(policy.preload("segments_1", IOContext.DEFAULT));
+    // never preload on merge
+    IOContext merge = new IOContext(new MergeInfo(100, 1000, false, 1));
+    assertFalse(policy.preload("_0_Lucene50_0.tip", merge));
+
+    assertEquals(MMapPolicy.Advice.RANDOM, policy.advice("_0_Lucene50_0.doc", IOContext.DEFAULT));
+    assertEquals(MMapPolicy.Advice.NORMAL, policy.advice("_0_Lucene50_0.tip", IOContext.DEFAULT));
+    assertEquals(MMapPolicy.Advice.NORMAL, policy.advice("segments_1", IOContext.DEFAULT));
+    assertEquals(MMapPolicy.Advice.SEQUENTIAL, policy.advice("_0_Lucene50_0.doc", merge));
+    assertEquals(MMapPolicy.Advice.SEQUENTIAL, policy.advice("_0_Lucene50_0.tip", merge));
+  }
+
+  public void testPolicyIsApplied() throws Exception {
+    final Set<String> advised = new HashSet<>();
+    final Set<String> preloaded = new HashSet<>();
+    MMapPolicy policy = new MMapPolicy() {
+      @Override
+      public boolean preload(String name, IOContext context) {
+        if (name.startsWith("preload")) {
+          preloaded.add(name);
+          return true;
+        }
+        return false;
+      }
+
+      @Override
+      public Advice advice(String name, IOContext context) {
+        return context.context == IOContext.Context.MERGE ? Advice.SEQUENTIAL : Advice.RANDOM;
+      }
+
+      @Override
+      public void advise(String resourceDescription, MappedByteBuffer buffer, Advice advice) {
+        advised.add(resourceDescription + ":" + advice);
+      }
+    };
+    try (MMapDirectory dir = new MMapDirectory(createTempDir("testPolicyIsApplied"))) {
+      dir.setPolicy(policy);
+      assertSame(policy, dir.getPolicy());
+      for (String name : new String[] { "preload", "other" }) {
+        try (IndexOutput out = dir.createOutput(name, IOContext.DEFAULT)) {
+          out.writeInt(42);
+        }
+      }
+      try (IndexInput in = dir.openInput("preload", IOContext.DEFAULT)) {
+        assertEquals(42, in.readInt());
+      }
+      try (IndexInput in = dir.openInput("other", new IOContext(new MergeInfo(1, 4, false, 1)))) {
+        assertEquals(42, in.readInt());
+      }
+      assertEquals(Collections.singleton("preload"), preloaded);
+      assertEquals(2, advised.size());
+      assertTrue(advised.toString(), advised.stream().anyMatch(s -> s.contains("preload") && s.endsWith(":RANDOM")));
+      assertTrue(advised.toString(), advised.stream().anyMatch(s -> s.contains("other") && s.endsWith(":SEQUENTIAL")));
+    }
+  }
   
   @Override
   public void setUp() throws Exception {
@@ -114,6 +114,19 @@ public class TestDirectPacked extends LuceneTestCase {
       for (int j = 0; j < original.length; j++) {
         assertEquals("bpv=" + bpv, original[j], reader.get(j));
       }
+      // bulk get
+      int[] indexes = new int[original.length];
+      int size = 0;
+      for (int j = 0; j < original.length; j++) {
+        if (random().nextBoolean()) {
+          indexes[size++] = j;
+        }
+      }
+      long[] values = new long[size];
+      reader.get(size, indexes, values);
+      for (int j = 0; j < size; j++) {
+        assertEquals("bpv=" + bpv, original[indexes[j]], values[j]);
+      }
       input.close();
     }
   }
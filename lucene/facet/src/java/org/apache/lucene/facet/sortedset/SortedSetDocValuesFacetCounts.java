@@ -32,12 +32,14 @@ import org.apache.lucene.facet.FacetsConfig;
 import org.apache.lucene.facet.LabelAndValue;
 import org.apache.lucene.facet.TopOrdAndIntQueue;
 import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState.OrdRange;
+import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.MultiDocValues.MultiSortedSetDocValues;
 import org.apache.lucene.index.MultiDocValues;
 import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.search.ConjunctionDISI;
 import org.apache.lucene.search.DocIdSetIterator;
@@ -65,6 +67,9 @@ import org.apache.lucene.util.LongValues;
  * @lucene.experimental */
 public class SortedSetDocValuesFacetCounts extends Facets {
 
+  /** Number of documents whose ords are decoded at once for single-valued fields. */
+  private static final int BATCH_SIZE = 64;
+
   final SortedSetDocValuesReaderState state;
   final SortedSetDocValues dv;
   final String field;
@@ -194,6 +199,8 @@ public class SortedSetDocValuesFacetCounts extends Facets {
 
       DocIdSetIterator it = ConjunctionDISI.intersectIterators(Arrays.asList(
                                   hits.bits.iterator(), segValues));
+      // single-valued fields get their ords decoded in batches
+      SortedDocValues singleValues = DocValues.unwrapSingleton(segValues);
 
       // TODO: yet another option is to count all segs
       // first, only in seg-ord space, and then do a
@@ -213,12 +220,16 @@ public class SortedSetDocValuesFacetCounts extends Facets {
         if (hits.totalHits < numSegOrds/10) {
           //System.out.println("    remap as-we-go");
           // Remap every ord to global ord as we iterate:
-          for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
-            int term = (int) segValues.nextOrd();
-            while (term != SortedSetDocValues.NO_MORE_ORDS) {
-              //System.out.println("      segOrd=" + segOrd + " ord=" + term + " globalOrd=" + ordinalMap.getGlobalOrd(segOrd, term));
-              counts[(int) ordMap.get(term)]++;
-              term = (int) segValues.nextOrd();
+          if (singleValues != null) {
+            countSingleValued(hits.bits.iterator(), singleValues, counts, ordMap);
+          } else {
+            for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
+              int term = (int) segValues.nextOrd();
+              while (term != SortedSetDocValues.NO_MORE_ORDS) {
+                //System.out.println("      segOrd=" + segOrd + " ord=" + term + " globalOrd=" + ordinalMap.getGlobalOrd(segOrd, term));
+                counts[(int) ordMap.get(term)]++;
+                term = (int) segValues.nextOrd();
+              }
             }
           }
         } else {
@@ -226,12 +237,16 @@ public class SortedSetDocValuesFacetCounts extends Facets {
 
           // First count in seg-ord space:
           final int[] segCounts = new int[numSegOrds];
-          for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
-            int term = (int) segValues.nextOrd();
-            while (term != SortedSetDocValues.NO_MORE_ORDS) {
-              //System.out.println("      ord=" + term);
-              segCounts[term]++;
-              term = (int) segValues.nextOrd();
+          if (singleValues != null) {
+            countSingleValued(hits.bits.iterator(), singleValues, segCounts, null);
+          } else {
+            for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
+              int term = (int) segValues.nextOrd();
+              while (term != SortedSetDocValues.NO_MORE_ORDS) {
+                //System.out.println("      ord=" + term);
+                segCounts[term]++;
+                term = (int) segValues.nextOrd();
+              }
             }
           }
 
@@ -247,17 +262,45 @@ public class SortedSetDocValuesFacetCounts extends Facets {
       } else {
         // No ord mapping (e.g., single segment index):
         // just aggregate directly into counts:
-        for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
-          int term = (int) segValues.nextOrd();
-          while (term != SortedSetDocValues.NO_MORE_ORDS) {
-            counts[term]++;
-            term = (int) segValues.nextOrd();
+        if (singleValues != null) {
+          countSingleValued(hits.bits.iterator(), singleValues, counts, null);
+        } else {
+          for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
+            int term = (int) segValues.nextOrd();
+            while (term != SortedSetDocValues.NO_MORE_ORDS) {
+              counts[term]++;
+              term = (int) segValues.nextOrd();
+            }
           }
         }
       }
     }
   }
 
+  /**
+   * Counts the ords of the documents of <code>it</code> for a single-valued
+   * field, decoding ords of batches of documents at once. Ords are
+   * mapped to global ords through <code>ordMap</code> if it is not null.
+   */
+  private static void countSingleValued(DocIdSetIterator it, SortedDocValues values, int[] counts, LongValues ordMap) throws IOException {
+    final int[] docs = new int[BATCH_SIZE];
+    final int[] ords = new int[BATCH_SIZE];
+    for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; ) {
+      int size = 0;
+      do {
+        docs[size++] = doc;
+        doc = it.nextDoc();
+      } while (size < BATCH_SIZE && doc != DocIdSetIterator.NO_MORE_DOCS);
+      values.ordValues(size, docs, ords);
+      for (int i = 0; i < size; ++i) {
+        final int ord = ords[i];
+        if (ord != -1) {
+          counts[ordMap == null ? ord : (int) ordMap.get(ord)]++;
+        }
+      }
+    }
+  }
+
   /** Does all the "real work" of tallying up the counts. */
   private final void countAll() throws IOException {
     //System.out.println("ssdv count");
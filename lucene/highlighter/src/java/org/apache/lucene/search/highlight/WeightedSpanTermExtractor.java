@@ -29,6 +29,7 @@ import java.util.Set;
 import org.apache.lucene.analysis.CachingTokenFilter;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.DocValuesSkipper;
 import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.Fields;
 import org.apache.lucene.index.FilterLeafReader;
@@ -459,6 +460,11 @@ public class WeightedSpanTermExtractor {
     public NumericDocValues getNumericDocValues(String field) throws IOException {
       return super.getNumericDocValues(FIELD_NAME);
     }
+
+    @Override
+    public DocValuesSkipper getDocValuesSkipper(String field) throws IOException {
+      return super.getDocValuesSkipper(FIELD_NAME);
+    }
     
     @Override
     public BinaryDocValues getBinaryDocValues(String field) throws IOException {
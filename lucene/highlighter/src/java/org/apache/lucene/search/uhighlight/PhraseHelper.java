@@ -35,6 +35,7 @@ import java.util.function.Function;
 import java.util.function.Predicate;
 
 import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.DocValuesSkipper;
 import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.Fields;
 import org.apache.lucene.index.FilterLeafReader;
@@ -570,6 +571,11 @@ public class PhraseHelper {
       return super.getNumericDocValues(fieldName);
     }
 
+    @Override
+    public DocValuesSkipper getDocValuesSkipper(String field) throws IOException {
+      return super.getDocValuesSkipper(fieldName);
+    }
+
     @Override
     public BinaryDocValues getBinaryDocValues(String field) throws IOException {
       return super.getBinaryDocValues(fieldName);
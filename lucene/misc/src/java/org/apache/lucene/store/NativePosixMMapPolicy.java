@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.store;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.util.Objects;
+
+/**
+ * An {@link MMapPolicy} that wraps another policy and gives its access
+ * pattern hints to the operating system by calling {@code madvise} through
+ * {@link NativePosixUtil}.
+ * <p>
+ * If the {@code NativePosixUtil} library can't be loaded, or if a call to
+ * {@code madvise} fails, hints are silently ignored and files are still
+ * mapped and preloaded as decided by the wrapped policy. Use
+ * {@link #isNativeAvailable()} to check whether hints can be applied.
+ * <p>
+ * To use this you must compile
+ * NativePosixUtil.cpp (exposes Linux-specific APIs through
+ * JNI) for your platform, by running <code>ant
+ * build-native-unix</code>, and then putting the resulting
+ * <code>libNativePosixUtil.so</code> (from
+ * <code>lucene/build/native</code>) onto your dynamic
+ * linker search path.
+ *
+ * @lucene.experimental
+ */
+public class NativePosixMMapPolicy extends MMapPolicy {
+
+  private static final boolean NATIVE_AVAILABLE;
+  static {
+    boolean available;
+    try {
+      // initializing the class loads the native library
+      Class.forName(NativePosixUtil.class.getName());
+      available = true;
+    } catch (ClassNotFoundException | LinkageError | SecurityException e) {
+      available = false;
+    }
+    NATIVE_AVAILABLE = available;
+  }
+
+  private final MMapPolicy in;
+
+  /** Create a new {@link NativePosixMMapPolicy} that applies the hints of the given policy. */
+  public NativePosixMMapPolicy(MMapPolicy in) {
+    this.in = Objects.requireNonNull(in);
+  }
+
+  /** Returns {@code true} if the native library could be loaded, so that access pattern hints are applied. */
+  public static boolean isNativeAvailable() {
+    return NATIVE_AVAILABLE;
+  }
+
+  @Override
+  public boolean preload(String name, IOContext context) {
+    return in.preload(name, context);
+  }
+
+  @Override
+  public Advice advice(String name, IOContext context) {
+    return in.advice(name, context);
+  }
+
+  @Override
+  public void advise(String resourceDescription, MappedByteBuffer buffer, Advice advice) throws IOException {
+    if (NATIVE_AVAILABLE == false || buffer.capacity() == 0) {
+      return;
+    }
+    final int nativeAdvice;
+    switch (advice) {
+      case NORMAL:
+        nativeAdvice = NativePosixUtil.NORMAL;
+        break;
+      case SEQUENTIAL:
+        nativeAdvice = NativePosixUtil.SEQUENTIAL;
+        break;
+      case RANDOM:
+        nativeAdvice = NativePosixUtil.RANDOM;
+        break;
+      default:
+        throw new AssertionError("unknown advice: " + advice);
+    }
+    try {
+      NativePosixUtil.madvise(buffer, nativeAdvice);
+    } catch (IOException e) {
+      // hints are best-effort, the file can still be read
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "NativePosixMMapPolicy(" + in + ", nativeAvailable=" + NATIVE_AVAILABLE + ")";
+  }
+}
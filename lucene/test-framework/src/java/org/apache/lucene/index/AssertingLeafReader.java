@@ -465,6 +465,22 @@ public class AssertingLeafReader extends FilterLeafReader {
       return in.longValue();
     }    
 
+    @Override
+    public void longValues(int size, int[] docs, long[] values, long missingValue) throws IOException {
+      assertThread("Numeric doc values", creationThread);
+      assert size >= 0 && size <= docs.length && size <= values.length;
+      for (int i = 0; i < size; ++i) {
+        assert docs[i] >= 0 && docs[i] < maxDoc;
+        assert i == 0 ? docs[i] >= in.docID() : docs[i] > docs[i - 1];
+      }
+      in.longValues(size, docs, values, missingValue);
+      if (size > 0) {
+        assert in.docID() == docs[size - 1];
+        lastDocID = docs[size - 1];
+        exists = false; // values may not be read until the next advance
+      }
+    }
+
     @Override
     public String toString() {
       return "AssertingNumericDocValues(" + in + ")";
@@ -626,6 +642,25 @@ public class AssertingLeafReader extends FilterLeafReader {
       return ord;
     }
 
+    @Override
+    public void ordValues(int size, int[] docs, int[] ords) throws IOException {
+      assertThread("Sorted doc values", creationThread);
+      assert size >= 0 && size <= docs.length && size <= ords.length;
+      for (int i = 0; i < size; ++i) {
+        assert docs[i] >= 0 && docs[i] < maxDoc;
+        assert i == 0 ? docs[i] >= in.docID() : docs[i] > docs[i - 1];
+      }
+      in.ordValues(size, docs, ords);
+      for (int i = 0; i < size; ++i) {
+        assert ords[i] >= -1 && ords[i] < valueCount;
+      }
+      if (size > 0) {
+        assert in.docID() == docs[size - 1];
+        lastDocID = docs[size - 1];
+        exists = false; // ords may not be read until the next advance
+      }
+    }
+
     @Override
     public BytesRef lookupOrd(int ord) throws IOException {
       assertThread("Sorted doc values", creationThread);
@@ -860,6 +895,72 @@ public class AssertingLeafReader extends FilterLeafReader {
     }
   }
 
+  /** Wraps a DocValuesSkipper but with additional asserts */
+  public static class AssertingDocValuesSkipper extends DocValuesSkipper {
+    private final Thread creationThread = Thread.currentThread();
+    private final DocValuesSkipper in;
+    private final int maxDoc;
+
+    public AssertingDocValuesSkipper(DocValuesSkipper in, int maxDoc) {
+      this.in = in;
+      this.maxDoc = maxDoc;
+      // should start unpositioned:
+      assert in.minDocID() == -1;
+      assert in.maxDocID() == -1;
+    }
+
+    @Override
+    public void advance(int target) throws IOException {
+      assertThread("Doc values skipper", creationThread);
+      assert target >= 0;
+      assert target > in.maxDocID();
+      in.advance(target);
+      assert in.maxDocID() >= target;
+      if (in.minDocID() == DocIdSetIterator.NO_MORE_DOCS) {
+        assert in.maxDocID() == DocIdSetIterator.NO_MORE_DOCS;
+      } else {
+        assert in.minDocID() <= in.maxDocID();
+        assert in.maxDocID() < maxDoc;
+        assert in.docCount() > 0;
+        assert in.docCount() <= in.maxDocID() - in.minDocID() + 1;
+        assert in.minValue() <= in.maxValue();
+      }
+    }
+
+    @Override
+    public int minDocID() {
+      assertThread("Doc values skipper", creationThread);
+      return in.minDocID();
+    }
+
+    @Override
+    public int maxDocID() {
+      assertThread("Doc values skipper", creationThread);
+      return in.maxDocID();
+    }
+
+    @Override
+    public long minValue() {
+      assertThread("Doc values skipper", creationThread);
+      assert in.minDocID() != -1 && in.minDocID() != DocIdSetIterator.NO_MORE_DOCS;
+      return in.minValue();
+    }
+
+    @Override
+    public long maxValue() {
+      assertThread("Doc values skipper", creationThread);
+      assert in.minDocID() != -1 && in.minDocID() != DocIdSetIterator.NO_MORE_DOCS;
+      return in.maxValue();
+    }
+
+    @Override
+    public int docCount() {
+      assertThread("Doc values skipper", creationThread);
+      assert in.minDocID() != -1 && in.minDocID() != DocIdSetIterator.NO_MORE_DOCS;
+      return in.docCount();
+    }
+  }
+
   /** Wraps a SortedSetDocValues but with additional asserts */
   public static class AssertingPointValues extends PointValues {
 
@@ -1061,6 +1162,18 @@ public class AssertingLeafReader extends FilterLeafReader {
     }
   }
 
+  @Override
+  public DocValuesSkipper getDocValuesSkipper(String field) throws IOException {
+    DocValuesSkipper skipper = in.getDocValuesSkipper(field);
+    if (skipper != null) {
+      FieldInfo fi = getFieldInfos().fieldInfo(field);
+      assert fi != null;
+      assert fi.getDocValuesType() == DocValuesType.NUMERIC || fi.getDocValuesType() == DocValuesType.SORTED_NUMERIC;
+      return new AssertingDocValuesSkipper(skipper, maxDoc());
+    }
+    return null;
+  }
+
   @Override
   public SortedSetDocValues getSortedSetDocValues(String field) throws IOException {
     SortedSetDocValues dv = super.getSortedSetDocValues(field);
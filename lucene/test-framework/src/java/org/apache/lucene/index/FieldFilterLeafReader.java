@@ -133,6 +133,11 @@ public final class FieldFilterLeafReader extends FilterLeafReader {
     return hasField(field) ? super.getSortedSetDocValues(field) : null;
   }
 
+  @Override
+  public DocValuesSkipper getDocValuesSkipper(String field) throws IOException {
+    return hasField(field) ? super.getDocValuesSkipper(field) : null;
+  }
+
   @Override
   public NumericDocValues getNormValues(String field) throws IOException {
     return hasField(field) ? super.getNormValues(field) : null;
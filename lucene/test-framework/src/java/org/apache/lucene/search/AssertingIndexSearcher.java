@@ -68,7 +68,8 @@ public class AssertingIndexSearcher extends IndexSearcher {
 
   @Override
   protected void search(List<LeafReaderContext> leaves, Weight weight, Collector collector) throws IOException {
-    assert weight instanceof AssertingWeight;
+    assert weight instanceof AssertingWeight
+        || (weight instanceof DocIdRangeWeight && ((DocIdRangeWeight) weight).in instanceof AssertingWeight);
     super.search(leaves, weight, AssertingCollector.wrap(random, collector));
   }
 
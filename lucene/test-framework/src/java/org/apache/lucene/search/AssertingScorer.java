@@ -72,6 +72,20 @@ public class AssertingScorer extends Scorer {
     return score;
   }
 
+  @Override
+  public float maxScore() {
+    final float maxScore = in.maxScore();
+    assert Float.isNaN(maxScore) == false : "NaN max score for in="+in;
+    return maxScore;
+  }
+
+  @Override
+  public void setMinCompetitiveScore(float minScore) {
+    assert needsScores;
+    assert minScore >= 0 : "min competitive scores must be positive, got " + minScore;
+    in.setMinCompetitiveScore(minScore);
+  }
+
   @Override
   public Collection<ChildScorer> getChildren() {
     // We cannot hide that we hold a single child, else
@@ -58,6 +58,12 @@ class AssertingWeight extends FilterWeight {
     }
     return new ScorerSupplier() {
       private boolean getCalled = false;
+      @Override
+      public void setTopScoresOnly() {
+        assert getCalled == false;
+        inScorerSupplier.setTopScoresOnly();
+      }
+
       @Override
       public Scorer get(boolean randomAccess) throws IOException {
         assert getCalled == false;
@@ -19,6 +19,7 @@ import java.io.IOException;
 
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.SoftDeletesDirectoryReaderWrapper;
 import org.apache.lucene.store.Directory;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.util.plugin.NamedListInitializedPlugin;
@@ -71,4 +72,19 @@ public abstract class IndexReaderFactory implements NamedListInitializedPlugin {
    */
   public abstract DirectoryReader newReader(IndexWriter writer, SolrCore core)
       throws IOException;
+
+  /**
+   * Wraps the given reader so that documents that have been soft-deleted are hidden,
+   * if a <code>softDeletesField</code> is configured in the <code>indexConfig</code>
+   * of the given core.
+   *
+   * @see SoftDeletesDirectoryReaderWrapper
+   */
+  protected static DirectoryReader wrapSoftDeletes(DirectoryReader reader, SolrCore core) throws IOException {
+    final String softDeletesField = core.getSolrConfig().indexConfig.softDeletesField;
+    if (softDeletesField == null) {
+      return reader;
+    }
+    return new SoftDeletesDirectoryReaderWrapper(reader, softDeletesField);
+  }
 }
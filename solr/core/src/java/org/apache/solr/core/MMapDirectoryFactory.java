@@ -19,12 +19,17 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.LockFactory; // javadocs
 import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.MMapPolicy;
+import org.apache.lucene.store.NativePosixMMapPolicy;
 import org.apache.solr.common.params.SolrParams;
 import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.StrUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,6 +41,13 @@ import org.slf4j.LoggerFactory;
  * <ul>
  *  <li>unmap -- See {@link MMapDirectory#setUseUnmap(boolean)}</li>
  *  <li>maxChunkSize -- The Max chunk size.  See {@link MMapDirectory#MMapDirectory(Path, LockFactory, int)}</li>
+ *  <li>preload -- Whether to load all mapped pages into physical memory when opening files.  See {@link MMapDirectory#setPreload(boolean)}</li>
+ *  <li>preloadExtensions -- Comma-separated extensions of files whose pages should be loaded into physical memory
+ *  when they are opened for searching, eg. <code>tip,dvd,nvd</code>.  See {@link MMapPolicy#forExtensions}</li>
+ *  <li>randomAccessExtensions -- Comma-separated extensions of files that should be advised for random access,
+ *  eg. <code>doc,fdt</code>.  Files that are opened for merging are always advised for sequential access.</li>
+ *  <li>nativeAdvice -- Whether to give access pattern hints to the operating system through the
+ *  <code>NativePosixUtil</code> library of the Lucene misc module.  See {@link NativePosixMMapPolicy}</li>
  * </ul>
  *
  **/
@@ -43,6 +55,8 @@ public class MMapDirectoryFactory extends StandardDirectoryFactory {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   boolean unmapHack;
   private int maxChunk;
+  private boolean preload;
+  private MMapPolicy policy;
 
   @Override
   public void init(NamedList args) {
@@ -53,6 +67,32 @@ public class MMapDirectoryFactory extends StandardDirectoryFactory {
       throw new IllegalArgumentException("maxChunk must be greater than 0");
     }
     unmapHack = params.getBool("unmap", true);
+    preload = params.getBool("preload", false);
+    policy = MMapPolicy.forExtensions(
+        toExtensions(params.get("preloadExtensions")),
+        toExtensions(params.get("randomAccessExtensions")));
+    if (params.getBool("nativeAdvice", false)) {
+      if (NativePosixMMapPolicy.isNativeAvailable() == false) {
+        log.warn("nativeAdvice is enabled but the NativePosixUtil library could not be loaded, access pattern hints will be ignored");
+      }
+      policy = new NativePosixMMapPolicy(policy);
+    }
+  }
+
+  private static Set<String> toExtensions(String extensions) {
+    Set<String> set = new HashSet<>();
+    if (extensions != null) {
+      for (String extension : StrUtils.splitSmart(extensions, ',')) {
+        extension = extension.trim();
+        if (extension.startsWith(".")) {
+          extension = extension.substring(1);
+        }
+        if (extension.isEmpty() == false) {
+          set.add(extension);
+        }
+      }
+    }
+    return set;
   }
 
   @Override
@@ -64,6 +104,8 @@ public class MMapDirectoryFactory extends StandardDirectoryFactory {
     } catch (IllegalArgumentException e) {
       log.warn("Unmap not supported on this JVM, continuing on without setting unmap", e);
     }
+    mapDirectory.setPreload(preload);
+    mapDirectory.setPolicy(policy);
     return mapDirectory;
   }
   
@@ -18,18 +18,40 @@ package org.apache.solr.core;
 
 import java.io.IOException;
 
+import org.apache.lucene.store.ByteBuffersDirectory;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.LockFactory;
-import org.apache.lucene.store.RAMDirectory;
 import org.apache.lucene.store.SingleInstanceLockFactory;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrException.ErrorCode;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.NamedList;
 
 /**
- * Factory to instantiate {@link org.apache.lucene.store.RAMDirectory}
+ * Factory to instantiate an in-memory {@link org.apache.lucene.store.ByteBuffersDirectory}.
+ * <p>
+ * Can set the following parameters:
+ * <ul>
+ *  <li>maxChunkSize - The maximum size of the buffers that files are stored in, rounded down to a power of 2.</li>
+ *  <li>directBuffers - Whether buffers should be allocated outside of the Java heap. Defaults to false.</li>
+ * </ul>
  */
 public class RAMDirectoryFactory extends EphemeralDirectoryFactory {
 
+  private int maxChunk = ByteBuffersDirectory.DEFAULT_MAX_CHUNK_SIZE;
+  private boolean directBuffers;
+
+  @Override
+  public void init(NamedList args) {
+    super.init(args);
+    SolrParams params = SolrParams.toSolrParams(args);
+    maxChunk = params.getInt("maxChunkSize", ByteBuffersDirectory.DEFAULT_MAX_CHUNK_SIZE);
+    if (maxChunk <= 0) {
+      throw new IllegalArgumentException("maxChunkSize must be greater than 0");
+    }
+    directBuffers = params.getBool("directBuffers", false);
+  }
+
   @Override
   protected LockFactory createLockFactory(String rawLockType) throws IOException {
     if (!(rawLockType == null || DirectoryFactory.LOCK_TYPE_SINGLE.equalsIgnoreCase(rawLockType.trim()))) {
@@ -41,7 +63,7 @@ public class RAMDirectoryFactory extends EphemeralDirectoryFactory {
 
   @Override
   protected Directory create(String path, LockFactory lockFactory, DirContext dirContext) throws IOException {
-    return new RAMDirectory(lockFactory);
+    return new ByteBuffersDirectory(lockFactory, maxChunk, directBuffers);
   }
 
 }
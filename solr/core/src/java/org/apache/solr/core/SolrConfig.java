@@ -265,6 +265,16 @@ public class SolrConfig extends Config implements MapSerializable {
       conf = new CacheConfig(FastLRUCache.class, args, null);
     }
     fieldValueCacheConfig = conf;
+    conf = CacheConfig.getConfig(this, "query/ordinalMapCache");
+    if (conf == null) {
+      Map<String, String> args = new HashMap<>();
+      args.put(NAME, "ordinalMapCache");
+      args.put("size", "10000");
+      args.put("initialSize", "10");
+      args.put("showItems", "-1");
+      conf = new CacheConfig(FastLRUCache.class, args, null);
+    }
+    ordinalMapCacheConfig = conf;
     useColdSearcher = getBool("query/useColdSearcher", false);
     dataDir = get("dataDir", null);
     if (dataDir != null && dataDir.length() == 0) dataDir = null;
@@ -483,6 +493,7 @@ public class SolrConfig extends Config implements MapSerializable {
   public final CacheConfig queryResultCacheConfig;
   public final CacheConfig documentCacheConfig;
   public final CacheConfig fieldValueCacheConfig;
+  public final CacheConfig ordinalMapCacheConfig;
   public final Map<String, CacheConfig> userCacheConfigs;
   // SolrIndexSearcher - more...
   public final boolean useFilterForSortedQuery;
@@ -23,7 +23,8 @@ import org.apache.lucene.store.Directory;
 
 /**
  * Default IndexReaderFactory implementation. Returns a standard Lucene
- * {@link DirectoryReader}.
+ * {@link DirectoryReader}, which hides soft-deleted documents if a
+ * <code>softDeletesField</code> is configured.
  * 
  * @see DirectoryReader#open(Directory)
  */
@@ -31,11 +32,11 @@ public class StandardIndexReaderFactory extends IndexReaderFactory {
   
   @Override
   public DirectoryReader newReader(Directory indexDir, SolrCore core) throws IOException {
-    return DirectoryReader.open(indexDir);
+    return wrapSoftDeletes(DirectoryReader.open(indexDir), core);
   }
 
   @Override
   public DirectoryReader newReader(IndexWriter writer, SolrCore core) throws IOException {
-    return DirectoryReader.open(writer);
+    return wrapSoftDeletes(DirectoryReader.open(writer), core);
   }
 }
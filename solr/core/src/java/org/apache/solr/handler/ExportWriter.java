@@ -51,6 +51,7 @@ import org.apache.solr.common.MapWriter.EntryWriter;
 import org.apache.solr.common.PushWriter;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.ByteArrayUtf8CharSequence;
 import org.apache.solr.common.util.JavaBinCodec;
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.request.SolrQueryRequest;
@@ -1327,6 +1328,14 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
 
   protected abstract class FieldWriter {
     public abstract boolean write(int docId, LeafReader reader, EntryWriter out, int fieldIndex) throws IOException;
+
+    /**
+     * Return true if terms can be written as the UTF-8 bytes that are read from doc values. This is only the case
+     * for javabin, which writes these bytes as they are instead of decoding them to a String first.
+     */
+    protected boolean writesUtf8() {
+      return writer instanceof JavaBinCodec;
+    }
   }
 
   class IntFieldWriter extends FieldWriter {
@@ -1354,23 +1363,31 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
     private FieldType fieldType;
     private SchemaField schemaField;
     private boolean numeric;
+    private boolean utf8Terms;  // true if the terms are the UTF-8 bytes of the values
     private CharsRefBuilder cref = new CharsRefBuilder();
+    private ByteArrayUtf8CharSequence utf8 = new ByteArrayUtf8CharSequence();
 
     public MultiFieldWriter(String field, FieldType fieldType, SchemaField schemaField, boolean numeric) {
       this.field = field;
       this.fieldType = fieldType;
       this.schemaField = schemaField;
       this.numeric = numeric;
+      this.utf8Terms = fieldType.getClass() == StrField.class;
     }
 
     public boolean write(int docId, LeafReader reader, EntryWriter out, int fieldIndex) throws IOException {
       SortedSetDocValues vals = DocValues.getSortedSet(reader, this.field);
       if (vals.advance(docId) != docId) return false;
+      final boolean passthrough = utf8Terms && writesUtf8();
       out.put(this.field,
           (IteratorWriter) w -> {
             long o;
             while((o = vals.nextOrd()) != SortedSetDocValues.NO_MORE_ORDS) {
               BytesRef ref = vals.lookupOrd(o);
+              if (passthrough) {
+                w.add(utf8.reset(ref.bytes, ref.offset, ref.length));
+                continue;
+              }
               fieldType.indexedToReadable(ref, cref);
               IndexableField f = fieldType.createField(schemaField, cref.toString(), 1.0f);
               if (f == null) w.add(cref.toString());
@@ -1489,6 +1506,7 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
     private String field;
     private FieldType fieldType;
     private CharsRefBuilder cref = new CharsRefBuilder();
+    private ByteArrayUtf8CharSequence utf8 = new ByteArrayUtf8CharSequence();
 
     public StringFieldWriter(String field, FieldType fieldType) {
       this.field = field;
@@ -1503,6 +1521,11 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
       int ord = vals.ordValue();
 
       BytesRef ref = vals.lookupOrd(ord);
+      if (writesUtf8()) {
+        // the terms of string fields are the UTF-8 bytes of their values
+        ew.put(this.field, utf8.reset(ref.bytes, ref.offset, ref.length));
+        return true;
+      }
       fieldType.indexedToReadable(ref, cref);
       ew.put(this.field, cref.toString());
       return true;
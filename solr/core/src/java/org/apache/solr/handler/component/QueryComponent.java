@@ -76,6 +76,7 @@ import org.apache.solr.search.DocList;
 import org.apache.solr.search.DocListAndSet;
 import org.apache.solr.search.DocSlice;
 import org.apache.solr.search.Grouping;
+import org.apache.solr.search.PostFilter;
 import org.apache.solr.search.QParser;
 import org.apache.solr.search.QParserPlugin;
 import org.apache.solr.search.QueryCommand;
@@ -389,7 +390,12 @@ public class QueryComponent extends SearchComponent
     
     QueryResult result = new QueryResult();
 
-    cmd.setSegmentTerminateEarly(params.getBool(CommonParams.SEGMENT_TERMINATE_EARLY, CommonParams.SEGMENT_TERMINATE_EARLY_DEFAULT));
+    final Boolean segmentTerminateEarly = params.getBool(CommonParams.SEGMENT_TERMINATE_EARLY);
+    if (segmentTerminateEarly != null) {
+      cmd.setSegmentTerminateEarly(segmentTerminateEarly);
+    } else {
+      cmd.setSegmentTerminateEarly(canSegmentTerminateEarly(rb, cmd, searcher));
+    }
     if (cmd.getSegmentTerminateEarly()) {
       result.setSegmentTerminatedEarly(Boolean.FALSE);
     }
@@ -568,6 +574,38 @@ public class QueryComponent extends SearchComponent
     doPrefetch(rb);
   }
 
+  /**
+   * Returns whether the query may stop collecting each segment after the requested number of hits when the
+   * request does not specify {@link CommonParams#SEGMENT_TERMINATE_EARLY}. This is only the case when the index
+   * sort is explicitly configured through <code>&lt;indexSort&gt;</code>, the sort of the request is a prefix of
+   * the index sort and nothing but the top hits is needed. Hit counts are then a lower bound, which is reported
+   * through the <code>segmentTerminatedEarly</code> response header.
+   */
+  protected boolean canSegmentTerminateEarly(ResponseBuilder rb, QueryCommand cmd, SolrIndexSearcher searcher) {
+    return rb.req.getCore().getSolrConfig().indexConfig.indexSort != null // opt-in, hit counts become approximate
+        && cmd.getLen() > 0
+        && cmd.isNeedDocSet() == false // the doc set would be truncated
+        && cmd.getCursorMark() == null // hits before the cursor would count towards the per-segment limit
+        && rb.getGroupingSpec() == null
+        && rb.getRankQuery() == null // re-ranking needs more than the top hits
+        && hasPostFilter(cmd.getFilterList()) == false // post filters such as {!collapse} replay hits on finish()
+        && searcher.canSegmentTerminateEarly(cmd.getSort());
+  }
+
+  private static boolean hasPostFilter(List<Query> filters) {
+    if (filters != null) {
+      for (Query q : filters) {
+        if (q instanceof PostFilter) {
+          final PostFilter pf = (PostFilter) q;
+          if (pf.getCache() == false && pf.getCost() >= 100) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
   protected void doFieldSortValues(ResponseBuilder rb, SolrIndexSearcher searcher) throws IOException
   {
     SolrQueryRequest req = rb.req;
@@ -778,6 +816,10 @@ public class QueryComponent extends SearchComponent
       mergeIds(rb, sreq);
     }
 
+    if ((sreq.purpose & ShardRequest.PURPOSE_REFINE_TOP_IDS) != 0) {
+      mergeNextIds(rb, sreq);
+    }
+
     if ((sreq.purpose & ShardRequest.PURPOSE_GET_TERM_STATS) != 0) {
       updateStats(rb, sreq);
     }
@@ -902,11 +944,20 @@ public class QueryComponent extends SearchComponent
     // perhaps we shouldn't attempt to parse the query at this level?
     // Alternate Idea: instead of specifying all these things at the upper level,
     // we could just specify that this is a shard request.
+    int batchSize = 0;
     if(rb.shards_rows > -1) {
       // if the client set shards.rows set this explicity
       sreq.params.set(CommonParams.ROWS,rb.shards_rows);
     } else {
-      sreq.params.set(CommonParams.ROWS, rb.getSortSpec().getOffset() + rb.getSortSpec().getCount());
+      int numNeeded = rb.getSortSpec().getOffset() + rb.getSortSpec().getCount();
+      batchSize = rb.req.getParams().getInt(ShardParams.SHARDS_BATCH_SIZE, 0);
+      // a cursor requires start=0, so the next batches can't be requested by offset
+      if (batchSize <= 0 || batchSize >= numNeeded || rb.shards_start > -1
+          || rb.onePassDistributedQuery || rb.getMergeStrategies() != null || rb.getCursorMark() != null) {
+        batchSize = 0;
+      }
+      // if batched, only ask for the first batch: the next ones are requested while merging
+      sreq.params.set(CommonParams.ROWS, batchSize > 0 ? batchSize : numNeeded);
     }
 
     sreq.params.set(ResponseBuilder.FIELD_SORT_VALUES,"true");
@@ -947,6 +998,12 @@ public class QueryComponent extends SearchComponent
 
     if (additionalAdded) sreq.params.add(CommonParams.FL, additionalFL.toString());
 
+    if (batchSize > 0) {
+      SortSpec ss = rb.getSortSpec();
+      rb._shardDocBatchMerger = new ShardDocBatchMerger(getSortFields(ss), rb.req.getSearcher(),
+          ss.getOffset(), ss.getCount(), batchSize, new ModifiableSolrParams(sreq.params));
+    }
+
     rb.addRequest(this, sreq);
   }
   
@@ -974,13 +1031,7 @@ public class QueryComponent extends SearchComponent
       }
 
       SortSpec ss = rb.getSortSpec();
-      Sort sort = ss.getSort();
-
-      SortField[] sortFields = null;
-      if(sort != null) sortFields = sort.getSort();
-      else {
-        sortFields = new SortField[]{SortField.FIELD_SCORE};
-      }
+      SortField[] sortFields = getSortFields(ss);
  
       IndexSchema schema = rb.req.getSchema();
       SchemaField uniqueKeyField = schema.getUniqueKeyField();
@@ -991,7 +1042,10 @@ public class QueryComponent extends SearchComponent
 
       // Merge the docs via a priority queue so we don't have to sort *all* of the
       // documents... we only need to order the top (rows+start)
-      final ShardFieldSortedHitQueue queue = new ShardFieldSortedHitQueue(sortFields, ss.getOffset() + ss.getCount(), rb.req.getSearcher());
+      // When shards return batches, the batch merger orders them instead
+      final ShardDocBatchMerger batchMerger = rb._shardDocBatchMerger;
+      final ShardFieldSortedHitQueue queue = batchMerger != null ? null
+          : new ShardFieldSortedHitQueue(sortFields, ss.getOffset() + ss.getCount(), rb.req.getSearcher());
 
       NamedList<Object> shardInfo = null;
       if(rb.req.getParams().getBool(ShardParams.SHARDS_INFO, false)) {
@@ -1077,6 +1131,13 @@ public class QueryComponent extends SearchComponent
         NamedList sortFieldValues = (NamedList)(srsp.getSolrResponse().getResponse().get("sort_values"));
         NamedList unmarshalledSortFieldValues = unmarshalSortValues(ss, sortFieldValues, schema);
 
+        if (batchMerger != null) {
+          // duplicates are detected while merging batches
+          batchMerger.addFirstBatch(srsp.getShard(), srsp.getShardAddress(),
+              toShardDocs(srsp, docs, unmarshalledSortFieldValues, uniqueKeyField), isLastBatch(docs, 0, batchMerger.batchSize));
+          continue;
+        }
+
         // go through every doc in this response, construct a ShardDoc, and
         // put it in the priority queue so it can be ordered.
         for (int i=0; i<docs.size(); i++) {
@@ -1099,63 +1160,31 @@ public class QueryComponent extends SearchComponent
             // }
           }
 
-          ShardDoc shardDoc = new ShardDoc();
-          shardDoc.id = id;
-          shardDoc.shard = srsp.getShard();
-          shardDoc.orderInShard = i;
-          Object scoreObj = doc.getFieldValue("score");
-          if (scoreObj != null) {
-            if (scoreObj instanceof String) {
-              shardDoc.score = Float.parseFloat((String)scoreObj);
-            } else {
-              shardDoc.score = (Float)scoreObj;
-            }
-          }
-
-          shardDoc.sortFieldValues = unmarshalledSortFieldValues;
-
+          ShardDoc shardDoc = createShardDoc(doc, id, srsp.getShard(), i, unmarshalledSortFieldValues);
           queue.insertWithOverflow(shardDoc);
         } // end for-each-doc-in-response
       } // end for-each-response
       
-      // The queue now has 0 -> queuesize docs, where queuesize <= start + rows
-      // So we want to pop the last documents off the queue to get
-      // the docs offset -> queuesize
-      int resultSize = queue.size() - ss.getOffset();
-      resultSize = Math.max(0, resultSize);  // there may not be any docs in range
-
-      Map<Object,ShardDoc> resultIds = new HashMap<>();
-      for (int i=resultSize-1; i>=0; i--) {
-        ShardDoc shardDoc = queue.pop();
-        shardDoc.positionInResponse = i;
-        // Need the toString() for correlation with other lists that must
-        // be strings (like keys in highlighting, explain, etc)
-        resultIds.put(shardDoc.id.toString(), shardDoc);
+      if (batchMerger != null) {
+        batchMerger.numFound = numFound;
+        batchMerger.maxScore = maxScore;
+        mergeShardDocBatches(rb);
+      } else {
+        // The queue now has 0 -> queuesize docs, where queuesize <= start + rows
+        // So we want to pop the last documents off the queue to get
+        // the docs offset -> queuesize
+        int resultSize = queue.size() - ss.getOffset();
+        resultSize = Math.max(0, resultSize);  // there may not be any docs in range
+
+        ShardDoc[] resultDocs = new ShardDoc[resultSize];
+        for (int i=resultSize-1; i>=0; i--) {
+          resultDocs[i] = queue.pop();
+        }
+        setMergedIds(rb, Arrays.asList(resultDocs), numFound, maxScore);
       }
 
-      // Add hits for distributed requests
-      // https://issues.apache.org/jira/browse/SOLR-3518
-      rb.rsp.addToLog("hits", numFound);
-
-      SolrDocumentList responseDocs = new SolrDocumentList();
-      if (maxScore!=null) responseDocs.setMaxScore(maxScore);
-      responseDocs.setNumFound(numFound);
-      responseDocs.setStart(ss.getOffset());
-      // size appropriately
-      for (int i=0; i<resultSize; i++) responseDocs.add(null);
-
-      // save these results in a private area so we can access them
-      // again when retrieving stored fields.
-      // TODO: use ResponseBuilder (w/ comments) or the request context?
-      rb.resultIds = resultIds;
-      rb.setResponseDocs(responseDocs);
-
-      populateNextCursorMarkFromMergedShards(rb);
-
       if (partialResults) {
-        if(rb.rsp.getResponseHeader().get(SolrQueryResponse.RESPONSE_HEADER_PARTIAL_RESULTS_KEY) == null) {
-          rb.rsp.getResponseHeader().add(SolrQueryResponse.RESPONSE_HEADER_PARTIAL_RESULTS_KEY, Boolean.TRUE);
-        }
+        setPartialResults(rb);
       }
       if (segmentTerminatedEarly != null) {
         final Object existingSegmentTerminatedEarly = rb.rsp.getResponseHeader().get(SolrQueryResponse.RESPONSE_HEADER_SEGMENT_TERMINATED_EARLY_KEY);
@@ -1168,6 +1197,138 @@ public class QueryComponent extends SearchComponent
       }
   }
 
+  /**
+   * Merges the next batches of top ids that were requested from some shards while merging batches, see
+   * {@link ShardParams#SHARDS_BATCH_SIZE}.
+   */
+  protected void mergeNextIds(ResponseBuilder rb, ShardRequest sreq) {
+    ShardDocBatchMerger batchMerger = rb._shardDocBatchMerger;
+    if (batchMerger.isComplete()) {
+      return; // a prefetched batch that is not needed anymore
+    }
+    IndexSchema schema = rb.req.getSchema();
+    SchemaField uniqueKeyField = schema.getUniqueKeyField();
+
+    for (ShardResponse srsp : sreq.responses) {
+      int start = batchMerger.getNextStart(srsp.getShard());
+      if (srsp.getException() != null) {
+        // go on without the remaining docs of this shard
+        batchMerger.addBatch(srsp.getShard(), Collections.emptyList(), start, true);
+        setPartialResults(rb);
+        continue;
+      }
+
+      SolrDocumentList docs = (SolrDocumentList)srsp.getSolrResponse().getResponse().get("response");
+      NamedList sortFieldValues = (NamedList)(srsp.getSolrResponse().getResponse().get("sort_values"));
+      NamedList unmarshalledSortFieldValues = unmarshalSortValues(rb.getSortSpec(), sortFieldValues, schema);
+      batchMerger.addBatch(srsp.getShard(), toShardDocs(srsp, docs, unmarshalledSortFieldValues, uniqueKeyField),
+          start, isLastBatch(docs, start, batchMerger.batchSize));
+    }
+
+    mergeShardDocBatches(rb);
+  }
+
+  /**
+   * Merges the batches of top ids that have been received so far, requesting the next batches of shards that run low
+   * on docs along the way, and sets the merged ids once the requested page is complete.
+   */
+  private void mergeShardDocBatches(ResponseBuilder rb) {
+    ShardDocBatchMerger batchMerger = rb._shardDocBatchMerger;
+    while (!batchMerger.merge()) {
+      // shards that need a batch at the same time are requested together, and are sent out in parallel
+      for (String replica : batchMerger.nextRequests()) {
+        ShardRequest sreq = new ShardRequest();
+        sreq.purpose = ShardRequest.PURPOSE_REFINE_TOP_IDS;
+        sreq.shards = new String[] {replica};
+        sreq.params = new ModifiableSolrParams(batchMerger.params);
+        sreq.params.set(CommonParams.START, batchMerger.getNextStart(replica));
+        sreq.params.set(CommonParams.ROWS, batchMerger.batchSize);
+        rb.addRequest(this, sreq);
+      }
+      if (batchMerger.isWaiting()) {
+        return; // go on when the next batch of that shard is received
+      }
+    }
+    setMergedIds(rb, batchMerger.getPage(), batchMerger.numFound - batchMerger.getNumDuplicates(), batchMerger.maxScore);
+  }
+
+  private static boolean isLastBatch(SolrDocumentList docs, int start, int batchSize) {
+    return docs.size() < batchSize || start + docs.size() >= docs.getNumFound();
+  }
+
+  private List<ShardDoc> toShardDocs(ShardResponse srsp, SolrDocumentList docs, NamedList sortFieldValues, SchemaField uniqueKeyField) {
+    List<ShardDoc> shardDocs = new ArrayList<>(docs.size());
+    for (int i=0; i<docs.size(); i++) {
+      SolrDocument doc = docs.get(i);
+      Object id = doc.getFieldValue(uniqueKeyField.getName());
+      shardDocs.add(createShardDoc(doc, id, srsp.getShard(), i, sortFieldValues));
+    }
+    return shardDocs;
+  }
+
+  private ShardDoc createShardDoc(SolrDocument doc, Object id, String shard, int orderInShard, NamedList sortFieldValues) {
+    ShardDoc shardDoc = new ShardDoc();
+    shardDoc.id = id;
+    shardDoc.shard = shard;
+    shardDoc.orderInShard = orderInShard;
+    Object scoreObj = doc.getFieldValue("score");
+    if (scoreObj != null) {
+      if (scoreObj instanceof String) {
+        shardDoc.score = Float.parseFloat((String)scoreObj);
+      } else {
+        shardDoc.score = (Float)scoreObj;
+      }
+    }
+
+    shardDoc.sortFieldValues = sortFieldValues;
+    return shardDoc;
+  }
+
+  /**
+   * Sets the merged page of ids, in order, as the results of this request.
+   */
+  private void setMergedIds(ResponseBuilder rb, List<ShardDoc> resultDocs, long numFound, Float maxScore) {
+    Map<Object,ShardDoc> resultIds = new HashMap<>();
+    for (int i=0; i<resultDocs.size(); i++) {
+      ShardDoc shardDoc = resultDocs.get(i);
+      shardDoc.positionInResponse = i;
+      // Need the toString() for correlation with other lists that must
+      // be strings (like keys in highlighting, explain, etc)
+      resultIds.put(shardDoc.id.toString(), shardDoc);
+    }
+
+    // Add hits for distributed requests
+    // https://issues.apache.org/jira/browse/SOLR-3518
+    rb.rsp.addToLog("hits", numFound);
+
+    SolrDocumentList responseDocs = new SolrDocumentList();
+    if (maxScore!=null) responseDocs.setMaxScore(maxScore);
+    responseDocs.setNumFound(numFound);
+    responseDocs.setStart(rb.getSortSpec().getOffset());
+    // size appropriately
+    for (int i=0; i<resultDocs.size(); i++) responseDocs.add(null);
+
+    // save these results in a private area so we can access them
+    // again when retrieving stored fields.
+    // TODO: use ResponseBuilder (w/ comments) or the request context?
+    rb.resultIds = resultIds;
+    rb.setResponseDocs(responseDocs);
+
+    populateNextCursorMarkFromMergedShards(rb);
+  }
+
+  private static void setPartialResults(ResponseBuilder rb) {
+    if(rb.rsp.getResponseHeader().get(SolrQueryResponse.RESPONSE_HEADER_PARTIAL_RESULTS_KEY) == null) {
+      rb.rsp.getResponseHeader().add(SolrQueryResponse.RESPONSE_HEADER_PARTIAL_RESULTS_KEY, Boolean.TRUE);
+    }
+  }
+
+  private static SortField[] getSortFields(SortSpec ss) {
+    Sort sort = ss.getSort();
+    if (sort != null) return sort.getSort();
+    return new SortField[]{SortField.FIELD_SCORE};
+  }
+
   /**
    * Inspects the state of the {@link ResponseBuilder} and populates the next 
    * {@link ResponseBuilder#setNextCursorMark} as appropriate based on the merged 
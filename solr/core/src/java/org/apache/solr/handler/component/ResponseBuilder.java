@@ -167,6 +167,9 @@ public class ResponseBuilder
 
   public boolean onePassDistributedQuery;
 
+  // set when the top ids of shards are merged in batches, see ShardParams.SHARDS_BATCH_SIZE
+  ShardDocBatchMerger _shardDocBatchMerger;
+
   public FacetComponent.FacetInfo _facetInfo;
   /* private... components that don't own these shouldn't use them */
   SolrDocumentList _responseDocs;
@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.handler.component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.apache.lucene.search.SortField;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.params.ShardParams;
+import org.apache.solr.search.SolrIndexSearcher;
+
+/**
+ * Merges the sorted top ids of shards on read, for distributed requests that set
+ * {@link ShardParams#SHARDS_BATCH_SIZE}.
+ * <p>
+ * Instead of asking every shard for its <code>start+rows</code> top docs, each shard is asked for a batch of its
+ * top docs. The batches are merged with a k-way merge that holds the next doc of every shard, and the merge stops as
+ * soon as the requested page is complete. The next batch of a shard that has more matches is requested once half of
+ * its buffered docs have been merged, so that it usually arrives before the merge runs out of the docs of that shard,
+ * and all shards that need a batch at the same time are requested together. The next batches of a shard are requested
+ * from the replica that returned its first batch, since continuing by offset on a replica at another commit point could
+ * skip or repeat docs. Docs before <code>start</code> are counted but not kept.
+ */
+class ShardDocBatchMerger {
+
+  private static class ShardState {
+    final ArrayDeque<ShardDoc> buffer = new ArrayDeque<>();
+    String address;         // the replica to request the next batches from
+    int nextStart;          // the offset of the next batch to request
+    boolean exhausted;      // true if all docs of this shard have been received
+    boolean hasHead;        // true if the next doc of this shard is in the merge queue
+    boolean pending;        // true if the next batch of this shard has been requested but not received yet
+
+    int numBuffered() {
+      return buffer.size() + (hasHead ? 1 : 0);
+    }
+  }
+
+  final int batchSize;
+  final int offset;
+  final int numNeeded;
+  final ModifiableSolrParams params;  // the params of the main shard request, before other components modified it
+  long numFound;
+  Float maxScore;
+
+  private final Map<String,ShardState> shards = new LinkedHashMap<>();
+  private final Map<String,ShardState> replicas = new HashMap<>();  // by address
+  private final PriorityQueue<ShardDoc> heads;
+  private final Set<Object> mergedIds = new HashSet<>();
+  private final List<ShardDoc> page = new ArrayList<>();
+  private int numMerged;
+  private int numDuplicates;
+  private boolean complete;
+
+  ShardDocBatchMerger(SortField[] sortFields, SolrIndexSearcher searcher, int offset, int count, int batchSize,
+                      ModifiableSolrParams params) {
+    this.offset = offset;
+    this.numNeeded = offset + count;
+    this.batchSize = batchSize;
+    this.params = params;
+    // lessThan(a, b) returns true if a sorts after b
+    final ShardFieldSortedHitQueue comparator = new ShardFieldSortedHitQueue(sortFields, 1, searcher);
+    heads = new PriorityQueue<>((a, b) -> comparator.lessThan(a, b) ? 1 : comparator.lessThan(b, a) ? -1 : 0);
+  }
+
+  /**
+   * Add the first batch of sorted docs of a shard. <code>address</code> is the replica that returned it, or null if
+   * unknown, and <code>exhausted</code> must be true if the shard has no more docs after this batch.
+   */
+  void addFirstBatch(String shard, String address, List<ShardDoc> docs, boolean exhausted) {
+    assert !shards.containsKey(shard);
+    ShardState state = new ShardState();
+    state.address = address == null ? shard : address;
+    shards.put(shard, state);
+    replicas.put(state.address, state);
+    addBatch(state.address, docs, 0, exhausted);
+  }
+
+  /**
+   * Add the next batch of sorted docs that was requested from the given replica, which started at <code>start</code>
+   * in the results of the shard. <code>exhausted</code> must be true if the shard has no more docs after this batch.
+   */
+  void addBatch(String address, List<ShardDoc> docs, int start, boolean exhausted) {
+    ShardState state = replicas.get(address);
+    state.buffer.addAll(docs);
+    state.nextStart = start + docs.size();
+    state.exhausted = exhausted || docs.isEmpty();
+    state.pending = false;
+    if (!state.hasHead) {
+      pollHead(state);
+    }
+  }
+
+  private void pollHead(ShardState state) {
+    assert !state.hasHead;
+    ShardDoc next = state.buffer.poll();
+    if (next != null) {
+      heads.add(next);
+      state.hasHead = true;
+    }
+  }
+
+  /**
+   * Merge as many docs as possible, and return true if the requested page is complete. Otherwise the next batches of
+   * {@link #nextRequests()} must be requested, and the merge waits for one of them if {@link #isWaiting()}.
+   */
+  boolean merge() {
+    while (numMerged < numNeeded) {
+      boolean waiting = false;
+      for (ShardState state : shards.values()) {
+        if (needsNextBatch(state)) {
+          return false;
+        }
+        // the next doc of this shard could be the next doc of the merge
+        waiting |= !state.hasHead && !state.exhausted;
+      }
+      if (waiting) {
+        return false;
+      }
+
+      ShardDoc doc = heads.poll();
+      if (doc == null) {
+        break; // all shards are exhausted
+      }
+      ShardState state = stateOf(doc.shard);
+      state.hasHead = false;
+      pollHead(state);
+
+      if (!mergedIds.add(doc.id)) {
+        // duplicate detected, keep the first one
+        numDuplicates++;
+        continue;
+      }
+      if (numMerged >= offset) {
+        page.add(doc);
+      }
+      numMerged++;
+    }
+    complete = true;
+    return true;
+  }
+
+  private boolean needsNextBatch(ShardState state) {
+    if (state.exhausted || state.pending) {
+      return false;
+    }
+    final int numBuffered = state.numBuffered();
+    // don't prefetch docs that can't make it to the page because the buffer of this shard already fills it
+    return numBuffered == 0 || (numBuffered <= batchSize / 2 && numBuffered < numNeeded - numMerged);
+  }
+
+  /** Return the state of a shard, given the shard of its first batch or the replica of the next ones. */
+  private ShardState stateOf(String shard) {
+    ShardState state = replicas.get(shard);
+    return state != null ? state : shards.get(shard);
+  }
+
+  /**
+   * Return the replicas to request the next batch of a shard from now, and mark these batches as pending. These are
+   * the shards that the merge waits for and the shards whose buffer is running low.
+   */
+  List<String> nextRequests() {
+    List<String> requests = new ArrayList<>();
+    for (ShardState state : shards.values()) {
+      if (needsNextBatch(state)) {
+        state.pending = true;
+        requests.add(state.address);
+      }
+    }
+    return requests;
+  }
+
+  /** Return true if the merge can't go on until the pending batch of some shard has been received. */
+  boolean isWaiting() {
+    for (ShardState state : shards.values()) {
+      if (!state.hasHead && !state.exhausted) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Return true once the requested page is complete. Batches that were prefetched but that are received after that
+   * are not needed anymore.
+   */
+  boolean isComplete() {
+    return complete;
+  }
+
+  /** Return the offset of the next batch that is requested from the given replica. */
+  int getNextStart(String address) {
+    return replicas.get(address).nextStart;
+  }
+
+  /** Return the docs of the requested page, in order. Only valid once {@link #merge()} returned true. */
+  List<ShardDoc> getPage() {
+    return page;
+  }
+
+  /** Return the number of duplicate ids that were skipped while merging. */
+  int getNumDuplicates() {
+    return numDuplicates;
+  }
+}
@@ -45,17 +45,39 @@ import org.apache.lucene.util.Bits;
 
 public final class SlowCompositeReaderWrapper extends LeafReader {
 
+  /**
+   * Expert: a cache of the {@link OrdinalMap}s of the wrapped reader, by field.
+   * Implementations must be thread-safe.
+   */
+  public interface OrdinalMapCache {
+
+    /** Return the cached ordinal map of the given field, or null if not cached. */
+    OrdinalMap get(String field);
+
+    /** Cache the ordinal map of the given field. */
+    void put(String field, OrdinalMap map);
+
+  }
+
   private final CompositeReader in;
   private final Fields fields;
   private final boolean merging;
+  private final OrdinalMapCache cachedOrdMaps;
   
   /** This method is sugar for getting an {@link LeafReader} from
    * an {@link IndexReader} of any kind. If the reader is already atomic,
    * it is returned unchanged, otherwise wrapped by this class.
    */
   public static LeafReader wrap(IndexReader reader) throws IOException {
+    return wrap(reader, newOrdinalMapCache());
+  }
+
+  /** Same as {@link #wrap(IndexReader)} but ordinal maps of the wrapped
+   * reader are cached in the given {@link OrdinalMapCache}.
+   */
+  public static LeafReader wrap(IndexReader reader, OrdinalMapCache ordMapCache) throws IOException {
     if (reader instanceof CompositeReader) {
-      return new SlowCompositeReaderWrapper((CompositeReader) reader, false);
+      return new SlowCompositeReaderWrapper((CompositeReader) reader, false, ordMapCache);
     } else {
       assert reader instanceof LeafReader;
       return (LeafReader) reader;
@@ -63,11 +85,33 @@ public final class SlowCompositeReaderWrapper extends LeafReader {
   }
 
   SlowCompositeReaderWrapper(CompositeReader reader, boolean merging) throws IOException {
+    this(reader, merging, newOrdinalMapCache());
+  }
+
+  private SlowCompositeReaderWrapper(CompositeReader reader, boolean merging, OrdinalMapCache ordMapCache) throws IOException {
     super();
     in = reader;
     fields = MultiFields.getFields(in);
     in.registerParentReader(this);
     this.merging = merging;
+    this.cachedOrdMaps = ordMapCache;
+  }
+
+  private static OrdinalMapCache newOrdinalMapCache() {
+    // TODO: this could really be a weak map somewhere else on the coreCacheKey,
+    // but do we really need to optimize slow-wrapper any more?
+    final Map<String,OrdinalMap> cache = new HashMap<>();
+    return new OrdinalMapCache() {
+      @Override
+      public synchronized OrdinalMap get(String field) {
+        return cache.get(field);
+      }
+
+      @Override
+      public synchronized void put(String field, OrdinalMap map) {
+        cache.put(field, map);
+      }
+    };
   }
 
   @Override
@@ -193,10 +237,6 @@ public final class SlowCompositeReaderWrapper extends LeafReader {
     return new MultiDocValues.MultiSortedSetDocValues(values, starts, map, cost);
   }
   
-  // TODO: this could really be a weak map somewhere else on the coreCacheKey,
-  // but do we really need to optimize slow-wrapper any more?
-  private final Map<String,OrdinalMap> cachedOrdMaps = new HashMap<>();
-
   @Override
   public NumericDocValues getNormValues(String field) throws IOException {
     ensureOpen();
@@ -20,7 +20,7 @@ import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.index.MergePolicyWrapper;
 import org.apache.lucene.search.Sort;
 
-// TODO: remove this and add indexSort specification directly to solrconfig.xml?  But for BWC, also accept SortingMergePolicy specifiction?
+// TODO: remove this in favor of the <indexSort> element of <indexConfig>, which is equivalent?
 
 public final class SortingMergePolicy extends MergePolicyWrapper {
 
@@ -17,7 +17,13 @@
 package org.apache.solr.request;
 
 import java.io.IOException;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
 
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReaderContext;
@@ -33,6 +39,7 @@ import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.CharsRefBuilder;
 import org.apache.lucene.util.LongValues;
 import org.apache.lucene.util.UnicodeUtil;
+import org.apache.solr.common.SolrException;
 import org.apache.solr.common.params.FacetParams;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.schema.FieldType;
@@ -54,11 +61,27 @@ import org.apache.solr.util.LongPriorityQueue;
  * This means the ordinal map is created per-reopen: O(nterms), but this may
  * perform better than PerSegmentSingleValuedFaceting which has to merge O(nterms)
  * per query. Additionally it works for multi-valued fields.
+ * <p>
+ * Fields that don't have docvalues are uninverted per-segment, so only new
+ * segments need to be uninverted after a commit. Segments may be counted
+ * concurrently, in which case counts are collected in segment ordinal space
+ * and only mapped to global ordinals once a segment is done.
  */
 public class DocValuesFacets {
   private DocValuesFacets() {}
   
   public static NamedList<Integer> getCounts(SolrIndexSearcher searcher, DocSet docs, String fieldName, int offset, int limit, int mincount, boolean missing, String sort, String prefix, String contains, boolean ignoreCase, FacetDebugInfo fdebug) throws IOException {
+    return getCounts(searcher, docs, fieldName, offset, limit, mincount, missing, sort, prefix, contains, ignoreCase, fdebug, SimpleFacets.directExecutor, 0);
+  }
+
+  /**
+   * Same as {@link #getCounts(SolrIndexSearcher, DocSet, String, int, int, int, boolean, String, String, String, boolean, FacetDebugInfo)}
+   * but segments are counted on the given executor, by at most <code>threads</code>
+   * concurrent tasks, or an unbounded number of tasks if <code>threads</code> is negative.
+   * Segments are counted sequentially by the calling thread if <code>threads</code> is 0.
+   */
+  public static NamedList<Integer> getCounts(SolrIndexSearcher searcher, DocSet docs, String fieldName, int offset, int limit, int mincount, boolean missing, String sort, String prefix, String contains, boolean ignoreCase, FacetDebugInfo fdebug,
+                                             Executor executor, int threads) throws IOException {
     SchemaField schemaField = searcher.getSchema().getField(fieldName);
     FieldType ft = schemaField.getType();
     NamedList<Integer> res = new NamedList<>();
@@ -123,34 +146,38 @@ public class DocValuesFacets {
         fdebug.putInfoItem("numBuckets", nTerms);
       }
 
-      Filter filter = docs.getTopFilter();
       List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
-      for (int subIndex = 0; subIndex < leaves.size(); subIndex++) {
-        LeafReaderContext leaf = leaves.get(subIndex);
-        DocIdSet dis = filter.getDocIdSet(leaf, null); // solr docsets already exclude any deleted docs
-        DocIdSetIterator disi = null;
-        if (dis != null) {
-          disi = dis.iterator();
-        }
-        if (disi != null) {
-          if (multiValued) {
-            SortedSetDocValues sub = leaf.reader().getSortedSetDocValues(fieldName);
-            if (sub == null) {
-              sub = DocValues.emptySortedSet();
-            }
-            final SortedDocValues singleton = DocValues.unwrapSingleton(sub);
-            if (singleton != null) {
-              // some codecs may optimize SORTED_SET storage for single-valued fields
-              accumSingle(counts, startTermIndex, singleton, disi, subIndex, ordinalMap);
+      if (threads != 0 && leaves.size() > 1) {
+        accumConcurrently(counts, startTermIndex, docs, fieldName, multiValued, leaves, ordinalMap, executor, threads);
+      } else {
+        Filter filter = docs.getTopFilter();
+        for (int subIndex = 0; subIndex < leaves.size(); subIndex++) {
+          LeafReaderContext leaf = leaves.get(subIndex);
+          DocIdSet dis = filter.getDocIdSet(leaf, null); // solr docsets already exclude any deleted docs
+          DocIdSetIterator disi = null;
+          if (dis != null) {
+            disi = dis.iterator();
+          }
+          if (disi != null) {
+            if (multiValued) {
+              SortedSetDocValues sub = leaf.reader().getSortedSetDocValues(fieldName);
+              if (sub == null) {
+                sub = DocValues.emptySortedSet();
+              }
+              final SortedDocValues singleton = DocValues.unwrapSingleton(sub);
+              if (singleton != null) {
+                // some codecs may optimize SORTED_SET storage for single-valued fields
+                accumSingle(counts, startTermIndex, singleton, disi, subIndex, ordinalMap);
+              } else {
+                accumMulti(counts, startTermIndex, sub, disi, subIndex, ordinalMap);
+              }
             } else {
-              accumMulti(counts, startTermIndex, sub, disi, subIndex, ordinalMap);
-            }
-          } else {
-            SortedDocValues sub = leaf.reader().getSortedDocValues(fieldName);
-            if (sub == null) {
-              sub = DocValues.emptySorted();
+              SortedDocValues sub = leaf.reader().getSortedDocValues(fieldName);
+              if (sub == null) {
+                sub = DocValues.emptySorted();
+              }
+              accumSingle(counts, startTermIndex, sub, disi, subIndex, ordinalMap);
             }
-            accumSingle(counts, startTermIndex, sub, disi, subIndex, ordinalMap);
           }
         }
       }
@@ -373,6 +400,107 @@ public class DocValuesFacets {
     }
   }
   
+  /**
+   * accumulates facet counts of all segments by counting each segment in its own task, in segment
+   * ordinal space, and folding the counts into global ordinal space as tasks complete
+   */
+  static void accumConcurrently(int counts[], int startTermIndex, DocSet docs, String fieldName, boolean multiValued,
+                                List<LeafReaderContext> leaves, OrdinalMap map, Executor executor, int threads) throws IOException {
+    final Filter filter = docs.getTopFilter();
+    final int[][] segCounts = new int[leaves.size()][];
+    final CompletionService<Integer> completionService = new ExecutorCompletionService<>(executor);
+    // tasks that can't be submitted yet because of the limit on the number of threads
+    final LinkedList<Callable<Integer>> pending = new LinkedList<>();
+    int permits = threads < 0 ? Integer.MAX_VALUE : threads;
+    for (int i = 0; i < leaves.size(); i++) {
+      final int subIndex = i;
+      final LeafReaderContext leaf = leaves.get(subIndex);
+      Callable<Integer> task = () -> {
+        segCounts[subIndex] = countSegment(leaf, filter, fieldName, multiValued);
+        return subIndex;
+      };
+      if (--permits >= 0) {
+        completionService.submit(task);
+      } else {
+        pending.add(task);
+      }
+    }
+
+    for (int i = 0; i < leaves.size(); i++) {
+      final int subIndex;
+      try {
+        subIndex = completionService.take().get();
+        if (!pending.isEmpty()) {
+          completionService.submit(pending.removeFirst());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else {
+          throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "Error in per-segment faceting on field: " + fieldName, cause);
+        }
+      }
+      if (segCounts[subIndex] != null) {
+        migrateGlobal(counts, startTermIndex, segCounts[subIndex], map == null ? null : map.getGlobalOrds(subIndex));
+        segCounts[subIndex] = null; // better GC
+      }
+    }
+  }
+
+  /** counts a single segment in segment ordinal space, with the missing count first, or returns null if no docs match */
+  static int[] countSegment(LeafReaderContext leaf, Filter filter, String fieldName, boolean multiValued) throws IOException {
+    DocIdSet dis = filter.getDocIdSet(leaf, null); // solr docsets already exclude any deleted docs
+    DocIdSetIterator disi = dis == null ? null : dis.iterator();
+    if (disi == null) {
+      return null;
+    }
+    final int[] segCounts;
+    if (multiValued) {
+      SortedSetDocValues sub = leaf.reader().getSortedSetDocValues(fieldName);
+      if (sub == null) {
+        sub = DocValues.emptySortedSet();
+      }
+      segCounts = new int[1 + (int) sub.getValueCount()];
+      final SortedDocValues singleton = DocValues.unwrapSingleton(sub);
+      if (singleton != null) {
+        // some codecs may optimize SORTED_SET storage for single-valued fields
+        accumSingleSeg(segCounts, singleton, disi, leaf.ord, null);
+      } else {
+        accumMultiSeg(segCounts, sub, disi, leaf.ord, null);
+      }
+    } else {
+      SortedDocValues sub = leaf.reader().getSortedDocValues(fieldName);
+      if (sub == null) {
+        sub = DocValues.emptySorted();
+      }
+      segCounts = new int[1 + sub.getValueCount()];
+      accumSingleSeg(segCounts, sub, disi, leaf.ord, null);
+    }
+    return segCounts;
+  }
+
+  /**
+   * folds counts in segment ordinal space (segCounts) into the counts of global ordinals that are
+   * between <code>startTermIndex</code> (or the missing count if -1) and the end of <code>counts</code>
+   */
+  static void migrateGlobal(int counts[], int startTermIndex, int segCounts[], LongValues ordMap) {
+    if (startTermIndex == -1) {
+      counts[0] += segCounts[0];
+    }
+    for (int ord = 1; ord < segCounts.length; ord++) {
+      int count = segCounts[ord];
+      if (count != 0) {
+        int term = ordMap == null ? ord - 1 : (int) ordMap.get(ord - 1);
+        int arrIdx = term - startTermIndex;
+        if (arrIdx >= 0 && arrIdx < counts.length) counts[arrIdx] += count;
+      }
+    }
+  }
+
   /** folds counts in segment ordinal space (segCounts) into global ordinal space (counts) */
   static void migrateGlobal(int counts[], int segCounts[], int subIndex, OrdinalMap map) {
     final LongValues ordMap = map.getGlobalOrds(subIndex);
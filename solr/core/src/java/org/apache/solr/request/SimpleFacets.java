@@ -532,7 +532,10 @@ public class SimpleFacets {
             }
           break;
         case FC:
-          counts = DocValuesFacets.getCounts(searcher, docs, field, offset,limit, mincount, missing, sort, prefix, contains, ignoreCase, fdebug);
+          // unlike fcs, segments are only counted concurrently if the threads local param is given
+          final int fcThreads = parsed.localParams == null || parsed.localParams.get(CommonParams.THREADS) == null ? 0 : threads;
+          counts = DocValuesFacets.getCounts(searcher, docs, field, offset,limit, mincount, missing, sort, prefix, contains, ignoreCase, fdebug,
+                                             fcThreads == 0 ? directExecutor : facetExecutor, fcThreads);
           break;
         default:
           throw new AssertionError();
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesType;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.MultiDocValues.OrdinalMap;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.util.packed.PackedInts;
+
+/**
+ * An {@link OrdinalMap} that is cached by a {@link SolrIndexSearcher}, along
+ * with the core cache keys of the segments that it maps, so that it can be
+ * reused by the next searcher if these segments are unchanged.
+ *
+ * @see SolrIndexSearcher#getOrdinalMapCache()
+ * @lucene.internal
+ */
+public final class CachedOrdinalMap {
+
+  private final Object[] coreKeys;
+  private final OrdinalMap ordinalMap;
+
+  CachedOrdinalMap(IndexReader reader, OrdinalMap ordinalMap) {
+    this.coreKeys = coreKeys(reader);
+    this.ordinalMap = ordinalMap;
+  }
+
+  /** Return the cached ordinal map. */
+  public OrdinalMap getOrdinalMap() {
+    return ordinalMap;
+  }
+
+  /** Return whether the cached ordinal map is valid for the given reader,
+   *  ie. whether the reader has exactly the same segments. */
+  public boolean isValidFor(IndexReader reader) {
+    return Arrays.equals(coreKeys, coreKeys(reader));
+  }
+
+  /**
+   * Build the ordinal map of the given field for the given reader, reusing the
+   * mappings of the segments that it has in common with this cached ordinal map.
+   * Returns null if the reader doesn't need an ordinal map for this field.
+   */
+  CachedOrdinalMap rebuild(IndexReader reader, String field) throws IOException {
+    final List<LeafReaderContext> leaves = reader.leaves();
+    if (leaves.size() <= 1) {
+      return null;
+    }
+    DocValuesType type = DocValuesType.NONE;
+    for (LeafReaderContext context : leaves) {
+      final FieldInfo fieldInfo = context.reader().getFieldInfos().fieldInfo(field);
+      if (fieldInfo != null) {
+        type = fieldInfo.getDocValuesType();
+        break;
+      }
+    }
+    if (type != DocValuesType.SORTED && type != DocValuesType.SORTED_SET) {
+      return null;
+    }
+
+    final Map<Object,Integer> previousSegmentsByKey = new IdentityHashMap<>();
+    for (int i = 0; i < coreKeys.length; ++i) {
+      previousSegmentsByKey.put(coreKeys[i], i);
+    }
+    final int[] previousSegments = new int[leaves.size()];
+    for (int i = 0; i < previousSegments.length; ++i) {
+      final LeafReader leaf = leaves.get(i).reader();
+      final FieldInfo fieldInfo = leaf.getFieldInfos().fieldInfo(field);
+      if (fieldInfo != null && fieldInfo.getDocValuesType() != type) {
+        return null;
+      }
+      final Integer previousSegment = previousSegmentsByKey.get(leaf.getCoreCacheKey());
+      previousSegments[i] = previousSegment == null ? -1 : previousSegment;
+    }
+
+    final OrdinalMap map;
+    if (type == DocValuesType.SORTED) {
+      final SortedDocValues[] values = new SortedDocValues[leaves.size()];
+      for (int i = 0; i < values.length; ++i) {
+        values[i] = DocValues.getSorted(leaves.get(i).reader(), field);
+      }
+      map = OrdinalMap.build(reader.getCoreCacheKey(), values, ordinalMap, previousSegments, PackedInts.DEFAULT);
+    } else {
+      final SortedSetDocValues[] values = new SortedSetDocValues[leaves.size()];
+      for (int i = 0; i < values.length; ++i) {
+        values[i] = DocValues.getSortedSet(leaves.get(i).reader(), field);
+      }
+      map = OrdinalMap.build(reader.getCoreCacheKey(), values, ordinalMap, previousSegments, PackedInts.DEFAULT);
+    }
+    return new CachedOrdinalMap(reader, map);
+  }
+
+  private static Object[] coreKeys(IndexReader reader) {
+    final List<LeafReaderContext> leaves = reader.leaves();
+    final Object[] coreKeys = new Object[leaves.size()];
+    for (int i = 0; i < coreKeys.length; ++i) {
+      coreKeys[i] = leaves.get(i).reader().getCoreCacheKey();
+    }
+    return coreKeys;
+  }
+
+  @Override
+  public String toString() {
+    return "CachedOrdinalMap(segments=" + coreKeys.length + ", valueCount=" + ordinalMap.getValueCount()
+        + ", ramBytesUsed=" + ordinalMap.ramBytesUsed() + ")";
+  }
+}
@@ -20,8 +20,11 @@ import org.apache.lucene.queries.function.FunctionQuery;
 import org.apache.lucene.queries.function.ValueSource;
 import org.apache.lucene.queries.function.valuesource.QueryValueSource;
 import org.apache.lucene.search.*;
+import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.SolrParams;
 import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.schema.NumericFieldType;
+import org.apache.solr.schema.SchemaField;
 import org.apache.solr.search.function.*;
 
 /**
@@ -60,11 +63,46 @@ public class FunctionRangeQParserPlugin extends QParserPlugin {
         boolean includeLower = localParams.getBool("incl",true);
         boolean includeUpper = localParams.getBool("incu",true);
 
+        Query dvq = getDocValuesRangeQuery(l, u, includeLower, includeUpper);
+        if (dvq != null) {
+          return dvq;
+        }
+
         // TODO: add a score=val option to allow score to be the value
         ValueSourceRangeFilter rf = new ValueSourceRangeFilter(vs, l, u, includeLower, includeUpper);
         FunctionRangeQuery frq = new FunctionRangeQuery(rf);
         return frq;
       }
+
+      /**
+       * If the function is just a single-valued integer or long field that has docValues, returns
+       * a docValues range query on this field, which can skip whole blocks of documents thanks to the
+       * docValues skip index. Returns null otherwise, or if the query may be used as a post filter.
+       */
+      private Query getDocValuesRangeQuery(String l, String u, boolean includeLower, boolean includeUpper) {
+        if (funcStr == null || CommonParams.FALSE.equals(localParams.get(CommonParams.CACHE))) {
+          return null;
+        }
+        SchemaField sf = req.getSchema().getFieldOrNull(funcStr.trim());
+        if (sf == null || sf.multiValued() || !sf.hasDocValues() || !(sf.getType() instanceof NumericFieldType)) {
+          return null;
+        }
+        switch (((NumericFieldType) sf.getType()).getType()) {
+          case INTEGER:
+          case LONG:
+            break;
+          default:
+            return null;
+        }
+        try {
+          return NumericFieldType.numericDocValuesRangeQuery(sf.getName(),
+              l == null ? null : Long.parseLong(l),
+              u == null ? null : Long.parseLong(u),
+              includeLower, includeUpper);
+        } catch (NumberFormatException e) {
+          return null; // not an integer, let the function range query deal with it
+        }
+      }
     };
   }
 
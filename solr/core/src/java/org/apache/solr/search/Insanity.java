@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 
 import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.DocValuesSkipper;
 import org.apache.lucene.index.DocValuesType;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.FieldInfos;
@@ -83,6 +84,15 @@ public class Insanity {
       }
     }
 
+    @Override
+    public DocValuesSkipper getDocValuesSkipper(String field) throws IOException {
+      if (insaneField.equals(field)) {
+        return null;
+      } else {
+        return in.getDocValuesSkipper(field);
+      }
+    }
+
     @Override
     public BinaryDocValues getBinaryDocValues(String field) throws IOException {
       if (insaneField.equals(field)) {
@@ -153,6 +153,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
   private final SolrCache<QueryResultKey,DocList> queryResultCache;
   private final SolrCache<Integer,Document> documentCache;
   private final SolrCache<String,UnInvertedField> fieldValueCache;
+  private final SolrCache<String,CachedOrdinalMap> ordinalMapCache;
 
   // map of generic caches - not synchronized since it's read-only after the constructor.
   private final Map<String,SolrCache> cacheMap;
@@ -162,6 +163,9 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
   private final FieldInfos fieldInfos;
 
+  /** The sort that segments of this searcher are sorted with, or null if segments are not sorted. */
+  private final Sort indexSort;
+
   /** Contains the names/patterns of all docValues=true,stored=false fields in the schema. */
   private final Set<String> allNonStoredDVs;
 
@@ -214,14 +218,17 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     EarlyTerminatingSortingCollector earlyTerminatingSortingCollector = null;
     if (cmd.getSegmentTerminateEarly()) {
       final Sort cmdSort = cmd.getSort();
-      final int cmdLen = cmd.getLen();
-      final Sort mergeSort = core.getSolrCoreState().getMergePolicySort();
-
-      if (cmdSort == null || cmdLen <= 0 || mergeSort == null ||
-          !EarlyTerminatingSortingCollector.canEarlyTerminate(cmdSort, mergeSort)) {
-        log.warn("unsupported combination: segmentTerminateEarly=true cmdSort={} cmdLen={} mergeSort={}", cmdSort, cmdLen, mergeSort);
+      // collect up to the superset size rather than the number of rows since the top docs collector
+      // returns (and the query result cache stores) the first supersetMaxDoc hits
+      final int cmdLen = cmd.getSupersetMaxDoc();
+
+      if (!canSegmentTerminateEarly(cmdSort) || cmdLen <= 0) {
+        log.warn("unsupported combination: segmentTerminateEarly=true cmdSort={} cmdLen={} indexSort={}", cmdSort, cmdLen, indexSort);
+      } else if (postFilter != null) {
+        // post filters may replay hits into segments that have been terminated on finish()
+        log.warn("unsupported combination: segmentTerminateEarly=true postFilter={}", postFilter);
       } else {
-        collector = earlyTerminatingSortingCollector = new EarlyTerminatingSortingCollector(collector, cmdSort, cmd.getLen());
+        collector = earlyTerminatingSortingCollector = new EarlyTerminatingSortingCollector(collector, cmdSort, cmdLen);
       }
     }
 
@@ -278,7 +285,6 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     this.directoryFactory = directoryFactory;
     this.reader = (DirectoryReader) super.readerContext.reader();
     this.rawReader = r;
-    this.leafReader = SlowCompositeReaderWrapper.wrap(this.reader);
     this.core = core;
     this.schema = schema;
     this.name = "Searcher@" + Integer.toHexString(hashCode()) + "[" + core.getName() + "]"
@@ -312,6 +318,9 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       fieldValueCache = solrConfig.fieldValueCacheConfig == null ? null
           : solrConfig.fieldValueCacheConfig.newInstance();
       if (fieldValueCache != null) clist.add(fieldValueCache);
+      ordinalMapCache = solrConfig.ordinalMapCacheConfig == null ? null
+          : solrConfig.ordinalMapCacheConfig.newInstance();
+      if (ordinalMapCache != null) clist.add(ordinalMapCache);
       filterCache = solrConfig.filterCacheConfig == null ? null : solrConfig.filterCacheConfig.newInstance();
       if (filterCache != null) clist.add(filterCache);
       queryResultCache = solrConfig.queryResultCacheConfig == null ? null
@@ -339,15 +348,34 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       this.queryResultCache = null;
       this.documentCache = null;
       this.fieldValueCache = null;
+      this.ordinalMapCache = null;
       this.cacheMap = NO_GENERIC_CACHES;
       this.cacheList = NO_CACHES;
     }
 
+    if (ordinalMapCache == null) {
+      this.leafReader = SlowCompositeReaderWrapper.wrap(this.reader);
+    } else {
+      this.leafReader = SlowCompositeReaderWrapper.wrap(this.reader, new SlowCompositeReaderWrapper.OrdinalMapCache() {
+        @Override
+        public MultiDocValues.OrdinalMap get(String field) {
+          final CachedOrdinalMap cached = ordinalMapCache.get(field);
+          return cached == null ? null : cached.getOrdinalMap();
+        }
+
+        @Override
+        public void put(String field, MultiDocValues.OrdinalMap map) {
+          ordinalMapCache.put(field, new CachedOrdinalMap(reader, map));
+        }
+      });
+    }
+
     final Set<String> nonStoredDVsUsedAsStored = new HashSet<>();
     final Set<String> allNonStoredDVs = new HashSet<>();
     final Set<String> nonStoredDVsWithoutCopyTargets = new HashSet<>();
 
     this.fieldInfos = leafReader.getFieldInfos();
+    this.indexSort = computeIndexSort(reader);
     for (FieldInfo fieldInfo : fieldInfos) {
       final SchemaField schemaField = schema.getFieldOrNull(fieldInfo.name);
       if (schemaField != null && !schemaField.stored() && schemaField.hasDocValues()) {
@@ -445,6 +473,34 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     return leafReader;
   }
 
+  /**
+   * Returns the sort that the segments of this searcher are sorted with, or null if segments are not sorted.
+   * This is the sort that was configured through <code>&lt;indexSort&gt;</code> (or a sorting merge policy)
+   * in the <code>&lt;indexConfig&gt;</code> section of solrconfig.xml when these segments were written.
+   */
+  public Sort getIndexSort() {
+    return indexSort;
+  }
+
+  /**
+   * Returns true if a search sorted with the given sort can stop collecting each segment after the requested
+   * number of hits, ie. if the given sort is a prefix of the {@link #getIndexSort() index sort}.
+   */
+  public boolean canSegmentTerminateEarly(Sort sort) {
+    return sort != null && indexSort != null && EarlyTerminatingSortingCollector.canEarlyTerminate(sort, indexSort);
+  }
+
+  private static Sort computeIndexSort(DirectoryReader reader) {
+    // IndexWriter makes sure that all sorted segments share the same sort
+    for (LeafReaderContext context : reader.leaves()) {
+      final Sort sort = context.reader().getIndexSort();
+      if (sort != null) {
+        return sort;
+      }
+    }
+    return null;
+  }
+
   /** Raw reader (no fieldcaches etc). Useful for operations like addIndexes */
   public final DirectoryReader getRawReader() {
     return rawReader;
@@ -578,6 +634,27 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       });
     }
 
+    if (solrConfig.ordinalMapCacheConfig != null && solrConfig.ordinalMapCacheConfig.getRegenerator() == null) {
+      solrConfig.ordinalMapCacheConfig.setRegenerator(new CacheRegenerator() {
+        @Override
+        public boolean regenerateItem(SolrIndexSearcher newSearcher, SolrCache newCache, SolrCache oldCache,
+            Object oldKey, Object oldVal) throws IOException {
+          final CachedOrdinalMap cached = (CachedOrdinalMap) oldVal;
+          if (cached.isValidFor(newSearcher.getIndexReader())) {
+            // same segments, eg. only deletes changed
+            newCache.put(oldKey, cached);
+          } else {
+            // only merge the terms of new segments
+            final CachedOrdinalMap rebuilt = cached.rebuild(newSearcher.getIndexReader(), (String) oldKey);
+            if (rebuilt != null) {
+              newCache.put(oldKey, rebuilt);
+            }
+          }
+          return true;
+        }
+      });
+    }
+
     if (solrConfig.filterCacheConfig != null && solrConfig.filterCacheConfig.getRegenerator() == null) {
       solrConfig.filterCacheConfig.setRegenerator(new CacheRegenerator() {
         @Override
@@ -952,6 +1029,15 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     return fieldValueCache;
   }
 
+  /**
+   * expert: internal API, subject to change. Returns the cache of the {@link MultiDocValues.OrdinalMap}s
+   * that map segment ordinals of sorted and sorted set doc values to global ordinals of this searcher, by field.
+   * These maps are used by faceting, collapsing and expanding through {@link #getSlowAtomicReader()}.
+   */
+  public SolrCache<String,CachedOrdinalMap> getOrdinalMapCache() {
+    return ordinalMapCache;
+  }
+
   /** Returns a weighted sort according to this searcher */
   public Sort weightSort(Sort sort) throws IOException {
     return (sort != null) ? sort.rewrite(this) : null;
@@ -1748,8 +1834,10 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     }
 
     // lastly, put the superset in the cache if the size is less than or equal
-    // to queryResultMaxDocsCached
-    if (key != null && superset.size() <= queryResultMaxDocsCached && !qr.isPartialResults()) {
+    // to queryResultMaxDocsCached. Results whose hit count is approximate because
+    // segments terminated early are not cached so that cached hit counts are exact.
+    if (key != null && superset.size() <= queryResultMaxDocsCached && !qr.isPartialResults()
+        && !Boolean.TRUE.equals(qr.getSegmentTerminatedEarly())) {
       queryResultCache.put(key, superset);
     }
   }
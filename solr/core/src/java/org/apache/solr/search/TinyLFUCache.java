@@ -0,0 +1,318 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.util.ExecutorUtil;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.SimpleOrderedMap;
+import org.apache.solr.util.ConcurrentTinyLFUCache;
+import org.apache.solr.util.DefaultSolrThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SolrCache based on ConcurrentTinyLFUCache implementation.
+ * <p>
+ * Unlike {@link FastLRUCache}, this cache takes the access frequency of entries into
+ * account when deciding whether to admit a new entry, which makes it resistant to
+ * scans such as deep paging that would otherwise evict popular entries. Lookups are
+ * lock-free and evictions only inspect a small sample of entries.
+ * <p>
+ * In addition to <code>size</code>, <code>initialSize</code>, <code>autowarmCount</code>
+ * and <code>showItems</code>, this cache supports:
+ * <ul>
+ *   <li><code>maxRamMB</code>: the maximum amount of memory that this cache may use,
+ *   computed through {@link Accountable}. Unbounded by default. If set and
+ *   <code>size</code> is not set, the number of entries is unbounded and the
+ *   frequency sketch grows with the number of entries.</li>
+ *   <li><code>warmThreads</code>: the number of threads to use in order to regenerate
+ *   items during auto-warming, 1 by default. The {@link CacheRegenerator} must be
+ *   thread-safe if this is greater than 1.</li>
+ * </ul>
+ * <p>
+ * Access frequencies of the previous cache are carried over on auto-warming.
+ *
+ * @see org.apache.solr.util.ConcurrentTinyLFUCache
+ * @see org.apache.solr.search.SolrCache
+ * @since solr 7.0
+ */
+public class TinyLFUCache<K, V> extends SolrCacheBase implements SolrCache<K,V>, Accountable {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  // contains the statistics objects for all open caches of the same type
+  private List<ConcurrentTinyLFUCache.Stats> statsList;
+
+  private long warmupTime = 0;
+
+  private String description = "Concurrent TinyLFU Cache";
+  private ConcurrentTinyLFUCache<K,V> cache;
+  private int showItems = 0;
+  private int warmThreads = 1;
+
+  private long maxRamBytes;
+
+  @Override
+  public Object init(Map args, Object persistence, CacheRegenerator regenerator) {
+    super.init(args, regenerator);
+    String str = (String) args.get("maxRamMB");
+    maxRamBytes = str == null ? Long.MAX_VALUE : (long) (Double.parseDouble(str) * 1024L * 1024L);
+
+    str = (String) args.get("size");
+    final int limit;
+    if (str == null) {
+      limit = maxRamBytes == Long.MAX_VALUE ? 1024 : Integer.MAX_VALUE;
+    } else {
+      limit = Integer.parseInt(str);
+    }
+
+    str = (String) args.get("initialSize");
+    final int initialSize = Math.min(str == null ? 1024 : Integer.parseInt(str), limit);
+
+    str = (String) args.get("showItems");
+    showItems = str == null ? 0 : Integer.parseInt(str);
+
+    str = (String) args.get("warmThreads");
+    warmThreads = str == null ? 1 : Integer.parseInt(str);
+    if (warmThreads < 1) {
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "warmThreads must be at least 1, got " + warmThreads);
+    }
+
+    description = generateDescription(limit, initialSize);
+    cache = new ConcurrentTinyLFUCache<>(limit, maxRamBytes, initialSize);
+    cache.setAlive(false);
+
+    statsList = (List<ConcurrentTinyLFUCache.Stats>) persistence;
+    if (statsList == null) {
+      // must be the first time a cache of this type is being created
+      // Use a CopyOnWriteArrayList since puts are very rare and iteration may be a frequent operation
+      // because it is used in getStatistics()
+      statsList = new CopyOnWriteArrayList<>();
+
+      // the first entry will be for cumulative stats of caches that have been closed.
+      statsList.add(new ConcurrentTinyLFUCache.Stats());
+    }
+    statsList.add(cache.getStats());
+    return statsList;
+  }
+
+  /**
+   * @return Returns the description of this Cache.
+   */
+  protected String generateDescription(int limit, int initialSize) {
+    String description = "Concurrent TinyLFU Cache(maxSize=" + (limit == Integer.MAX_VALUE ? "unbounded" : limit)
+        + ", initialSize=" + initialSize;
+    if (maxRamBytes != Long.MAX_VALUE) {
+      description += ", maxRamMB=" + (maxRamBytes / 1024L / 1024L);
+    }
+    if (isAutowarmingOn()) {
+      description += ", " + getAutowarmDescription() + ", warmThreads=" + warmThreads;
+    }
+    description += ')';
+    return description;
+  }
+
+  @Override
+  public int size() {
+    return cache.size();
+  }
+
+  @Override
+  public V put(K key, V value) {
+    return cache.put(key, value);
+  }
+
+  @Override
+  public V get(K key) {
+    return cache.get(key);
+  }
+
+  @Override
+  public void clear() {
+    cache.clear();
+  }
+
+  @Override
+  public void setState(State state) {
+    super.setState(state);
+    cache.setAlive(state == State.LIVE);
+  }
+
+  @Override
+  public void warm(SolrIndexSearcher searcher, SolrCache old) {
+    long warmingStartTime = System.nanoTime();
+    TinyLFUCache other = (TinyLFUCache) old;
+    // keys that were popular in the previous cache are likely to remain popular
+    cache.copyFrequencies(other.cache);
+    if (regenerator == null) return;
+    // warm entries, most frequently accessed first so that the most useful
+    // entries are regenerated if the regenerator decides to stop
+    if (isAutowarmingOn()) {
+      int sz = autowarm.getWarmCount(other.size());
+      Map<Object, Object> items = other.cache.getMostFrequentlyAccessedItems(sz);
+      if (warmThreads == 1 || items.size() <= 1) {
+        for (Map.Entry<Object, Object> item : items.entrySet()) {
+          if (regenerateItem(searcher, old, item) == false) break;
+        }
+      } else {
+        warmConcurrently(searcher, old, items);
+      }
+    }
+    warmupTime = TimeUnit.MILLISECONDS.convert(System.nanoTime() - warmingStartTime, TimeUnit.NANOSECONDS);
+  }
+
+  private void warmConcurrently(SolrIndexSearcher searcher, SolrCache old, Map<Object, Object> items) {
+    final AtomicBoolean continueRegen = new AtomicBoolean(true);
+    final ExecutorService executor = ExecutorUtil.newMDCAwareFixedThreadPool(
+        Math.min(warmThreads, items.size()), new DefaultSolrThreadFactory("tinyLFUCacheWarming"));
+    try {
+      final List<Future<?>> futures = new ArrayList<>(items.size());
+      for (Map.Entry<Object, Object> item : items.entrySet()) {
+        futures.add(executor.submit(() -> {
+          if (continueRegen.get() && regenerateItem(searcher, old, item) == false) {
+            continueRegen.set(false);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          SolrException.log(log, "Error during auto-warming", e.getCause());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    } finally {
+      ExecutorUtil.shutdownAndAwaitTermination(executor);
+    }
+  }
+
+  private boolean regenerateItem(SolrIndexSearcher searcher, SolrCache old, Map.Entry<Object, Object> item) {
+    try {
+      return regenerator.regenerateItem(searcher, this, old, item.getKey(), item.getValue());
+    } catch (Exception e) {
+      SolrException.log(log, "Error during auto-warming of key:" + item.getKey(), e);
+      return true;
+    }
+  }
+
+  @Override
+  public void close() {
+    // add the stats to the cumulative stats object (the first in the statsList)
+    statsList.get(0).add(cache.getStats());
+    statsList.remove(cache.getStats());
+  }
+
+  //////////////////////// SolrInfoMBeans methods //////////////////////
+  @Override
+  public String getName() {
+    return TinyLFUCache.class.getName();
+  }
+
+  @Override
+  public String getDescription() {
+    return description;
+  }
+
+  @Override
+  public String getSource() {
+    return null;
+  }
+
+  @Override
+  public NamedList getStatistics() {
+    NamedList<Serializable> lst = new SimpleOrderedMap<>();
+    if (cache == null)  return lst;
+    ConcurrentTinyLFUCache.Stats stats = cache.getStats();
+    long lookups = stats.getCumulativeLookups();
+    long hits = stats.getCumulativeHits();
+    long inserts = stats.getCumulativePuts();
+    long evictions = stats.getCumulativeEvictions();
+    long size = stats.getCurrentSize();
+    long clookups = 0;
+    long chits = 0;
+    long cinserts = 0;
+    long cevictions = 0;
+
+    // NOTE: It is safe to iterate on a CopyOnWriteArrayList
+    for (ConcurrentTinyLFUCache.Stats statistics : statsList) {
+      clookups += statistics.getCumulativeLookups();
+      chits += statistics.getCumulativeHits();
+      cinserts += statistics.getCumulativePuts();
+      cevictions += statistics.getCumulativeEvictions();
+    }
+
+    lst.add("lookups", lookups);
+    lst.add("hits", hits);
+    lst.add("hitratio", calcHitRatio(lookups, hits));
+    lst.add("inserts", inserts);
+    lst.add("evictions", evictions);
+    lst.add("size", size);
+    if (maxRamBytes != Long.MAX_VALUE) {
+      lst.add("maxRamMB", maxRamBytes / 1024L / 1024L);
+    }
+    lst.add("ramBytesUsed", ramBytesUsed());
+
+    lst.add("warmupTime", warmupTime);
+    lst.add("cumulative_lookups", clookups);
+    lst.add("cumulative_hits", chits);
+    lst.add("cumulative_hitratio", calcHitRatio(clookups, chits));
+    lst.add("cumulative_inserts", cinserts);
+    lst.add("cumulative_evictions", cevictions);
+
+    if (showItems != 0) {
+      Map<K,V> items = cache.getMostFrequentlyAccessedItems(showItems == -1 ? Integer.MAX_VALUE : showItems);
+      for (Map.Entry<K,V> e : items.entrySet()) {
+        lst.add("item_" + e.getKey(), e.getValue().toString());
+      }
+    }
+
+    return lst;
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return cache.ramBytesUsed();
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public String toString() {
+    return name() + getStatistics().toString();
+  }
+}
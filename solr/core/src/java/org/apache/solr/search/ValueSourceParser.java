@@ -60,6 +60,7 @@ import org.apache.solr.search.facet.MinAgg;
 import org.apache.solr.search.facet.PercentileAgg;
 import org.apache.solr.search.facet.SumAgg;
 import org.apache.solr.search.facet.SumsqAgg;
+import org.apache.solr.search.facet.TopKAgg;
 import org.apache.solr.search.facet.UniqueAgg;
 import org.apache.solr.search.function.CollapseScoreFunction;
 import org.apache.solr.search.function.OrdFieldSource;
@@ -963,6 +964,8 @@ public abstract class ValueSourceParser implements NamedListInitializedPlugin {
 
     addParser("agg_percentile", new PercentileAgg.Parser());
 
+    addParser("agg_topk", new TopKAgg.Parser());
+
   }
 
   ///////////////////////////////////////////////////////////////////////////////
@@ -56,10 +56,14 @@ public class FacetField extends FacetRequestSorted {
   String prefix;
   FacetMethod method;
   int cacheDf;  // 0 means "default", -1 means "never cache"
+  int threads;  // number of threads to count segments concurrently with when using the dv method, 0 means sequential, <0 means as many as the node allows
 
   // experimental - force perSeg collection when using dv method, currently for testing purposes only.
   Boolean perSeg;
 
+  // experimental - smaller segments are counted together when counting concurrently, currently lowered for testing purposes only.
+  int minDocsPerTask = FacetFieldProcessorByArrayDV.MIN_DOCS_PER_TASK;
+
   {
     // defaults for FacetRequestSorted
     mincount = 1;
@@ -144,6 +148,11 @@ public class FacetField extends FacetRequestSorted {
       return new FacetFieldProcessorByArrayDV(fcontext, this, sf);
     }
 
+    if (method != FacetMethod.UIF && ft.getUninversionType(sf) != null) {
+      // values uninverted per-segment, so that only new segments need to be uninverted after a commit
+      return new FacetFieldProcessorByArrayDV(fcontext, this, sf);
+    }
+
     // Top-level multi-valued field cache (UIF)
     return new FacetFieldProcessorByArrayUIF(fcontext, this, sf);
   }
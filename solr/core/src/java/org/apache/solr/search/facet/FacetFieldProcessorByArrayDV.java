@@ -17,8 +17,10 @@
 package org.apache.solr.search.facet;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReaderContext;
@@ -40,6 +42,8 @@ import org.apache.solr.uninverting.FieldCacheImpl;
  */
 class FacetFieldProcessorByArrayDV extends FacetFieldProcessorByArray {
   static boolean unwrap_singleValued_multiDv = true;  // only set to false for test coverage
+  static final int BATCH_SIZE = 64; // number of docs whose ords are decoded at once for single-valued fields
+  static final int MIN_DOCS_PER_TASK = 1 << 16; // default for FacetField.minDocsPerTask
 
   boolean multiValuedField;
   SortedSetDocValues si;  // only used for term lookups (for both single and multi-valued)
@@ -120,60 +124,125 @@ class FacetFieldProcessorByArrayDV extends FacetFieldProcessorByArray {
     final List<LeafReaderContext> leaves = fcontext.searcher.getIndexReader().leaves();
     Filter filter = fcontext.base.getTopFilter();
 
+    // counts of different segments can be computed independently and then summed up, as long as they are mapped to global ords
+    if (canDoPerSeg && ordinalMap != null && freq.threads != 0) {
+      int[] taskStarts = getTaskStarts(leaves);
+      if (taskStarts.length > 2) {
+        collectConcurrently(leaves, filter, accumSeg, taskStarts);
+        return;
+      }
+    }
+
+    LeafCounter counter = new LeafCounter(countAcc);
     for (int subIdx = 0; subIdx < leaves.size(); subIdx++) {
       LeafReaderContext subCtx = leaves.get(subIdx);
 
       setNextReaderFirstPhase(subCtx);
 
-      DocIdSet dis = filter.getDocIdSet(subCtx, null); // solr docsets already exclude any deleted docs
-      DocIdSetIterator disi = dis.iterator();
+      collectLeaf(counter, subIdx, subCtx, filter, canDoPerSeg, accumSeg);
+    }
+  }
 
-      SortedDocValues singleDv = null;
-      SortedSetDocValues multiDv = null;
-      if (multiValuedField) {
-        // TODO: get sub from multi?
-        multiDv = subCtx.reader().getSortedSetDocValues(sf.getName());
-        if (multiDv == null) {
-          multiDv = DocValues.emptySortedSet();
-        }
-        // some codecs may optimize SortedSet storage for single-valued fields
-        // this will be null if this is not a wrapped single valued docvalues.
-        if (unwrap_singleValued_multiDv) {
-          singleDv = DocValues.unwrapSingleton(multiDv);
+  /**
+   * Group consecutive segments into tasks that have at least {@link FacetField#minDocsPerTask} docs, and about as many
+   * tasks as threads may count at once. Task <code>i</code> counts segments <code>starts[i]</code> (inclusive)
+   * to <code>starts[i+1]</code> (exclusive).
+   */
+  private int[] getTaskStarts(List<LeafReaderContext> leaves) {
+    int maxConcurrency = FacetProcessor.getMaxConcurrency(freq.threads);
+    long docsPerTask = Math.max(freq.minDocsPerTask, (fcontext.searcher.maxDoc() + maxConcurrency - 1) / maxConcurrency);
+    int[] starts = new int[leaves.size() + 1];
+    int numTasks = 0;
+    long numDocs = 0;
+    for (int subIdx = 0; subIdx < leaves.size(); subIdx++) {
+      if (numDocs == 0) {
+        starts[numTasks++] = subIdx;
+      }
+      numDocs += leaves.get(subIdx).reader().maxDoc();
+      if (numDocs >= docsPerTask) {
+        numDocs = 0;
+      }
+    }
+    starts[numTasks] = leaves.size();
+    return Arrays.copyOf(starts, numTasks + 1);
+  }
+
+  /**
+   * Count groups of segments concurrently, each into its own {@link CountSlotAcc}, and then merge these counts
+   * into {@link #countAcc}. Only used for counts over the full range of global ords.
+   */
+  private void collectConcurrently(List<LeafReaderContext> leaves, Filter filter, boolean accumSeg, int[] taskStarts) throws IOException {
+    List<Callable<CountSlotAcc>> tasks = new ArrayList<>(taskStarts.length - 1);
+    for (int task = 0; task + 1 < taskStarts.length; task++) {
+      final int start = taskStarts[task];
+      final int end = taskStarts[task + 1];
+      tasks.add(() -> {
+        CountSlotAcc taskCounts = new CountSlotArrAcc(fcontext, nTerms);
+        LeafCounter counter = new LeafCounter(taskCounts);
+        for (int subIdx = start; subIdx < end; subIdx++) {
+          collectLeaf(counter, subIdx, leaves.get(subIdx), filter, true, accumSeg);
         }
-      } else {
-        singleDv = subCtx.reader().getSortedDocValues(sf.getName());
-        if (singleDv == null) {
-          singleDv = DocValues.emptySorted();
+        return taskCounts;
+      });
+    }
+
+    for (CountSlotAcc taskCounts : FacetProcessor.runConcurrently(tasks, freq.threads)) {
+      for (int slot = 0; slot < nTerms; slot++) {
+        int count = taskCounts.getCount(slot);
+        if (count > 0) {
+          countAcc.incrementCount(slot, count);
         }
       }
+    }
+  }
+
+  private void collectLeaf(LeafCounter counter, int subIdx, LeafReaderContext subCtx, Filter filter, boolean canDoPerSeg, boolean accumSeg) throws IOException {
+    DocIdSet dis = filter.getDocIdSet(subCtx, null); // solr docsets already exclude any deleted docs
+    DocIdSetIterator disi = dis.iterator();
 
-      LongValues toGlobal = ordinalMap == null ? null : ordinalMap.getGlobalOrds(subIdx);
+    SortedDocValues singleDv = null;
+    SortedSetDocValues multiDv = null;
+    if (multiValuedField) {
+      // TODO: get sub from multi?
+      multiDv = subCtx.reader().getSortedSetDocValues(sf.getName());
+      if (multiDv == null) {
+        multiDv = DocValues.emptySortedSet();
+      }
+      // some codecs may optimize SortedSet storage for single-valued fields
+      // this will be null if this is not a wrapped single valued docvalues.
+      if (unwrap_singleValued_multiDv) {
+        singleDv = DocValues.unwrapSingleton(multiDv);
+      }
+    } else {
+      singleDv = subCtx.reader().getSortedDocValues(sf.getName());
+      if (singleDv == null) {
+        singleDv = DocValues.emptySorted();
+      }
+    }
 
-      if (singleDv != null) {
-        if (accumSeg) {
-          collectPerSeg(singleDv, disi, toGlobal);
+    LongValues toGlobal = ordinalMap == null ? null : ordinalMap.getGlobalOrds(subIdx);
+
+    if (singleDv != null) {
+      if (accumSeg) {
+        counter.collectPerSeg(singleDv, disi, toGlobal);
+      } else {
+        if (canDoPerSeg && toGlobal != null) {
+          counter.collectCounts(singleDv, disi, toGlobal);
         } else {
-          if (canDoPerSeg && toGlobal != null) {
-            collectCounts(singleDv, disi, toGlobal);
-          } else {
-            collectDocs(singleDv, disi, toGlobal);
-          }
+          collectDocs(counter, singleDv, disi, toGlobal);
         }
+      }
+    } else {
+      if (accumSeg) {
+        counter.collectPerSeg(multiDv, disi, toGlobal);
       } else {
-        if (accumSeg) {
-          collectPerSeg(multiDv, disi, toGlobal);
+        if (canDoPerSeg && toGlobal != null) {
+          counter.collectCounts(multiDv, disi, toGlobal);
         } else {
-          if (canDoPerSeg && toGlobal != null) {
-            collectCounts(multiDv, disi, toGlobal);
-          } else {
-            collectDocs(multiDv, disi, toGlobal);
-          }
+          collectDocs(multiDv, disi, toGlobal);
         }
       }
     }
-
-    reuse = null;  // better GC
   }
 
   @Override
@@ -181,139 +250,177 @@ class FacetFieldProcessorByArrayDV extends FacetFieldProcessorByArray {
     return si.lookupOrd(ord);
   }
 
-  private void collectPerSeg(SortedDocValues singleDv, DocIdSetIterator disi, LongValues toGlobal) throws IOException {
-    int segMax = singleDv.getValueCount() + 1;
-    final int[] counts = getCountArr( segMax );
-
-    /** alternate trial implementations
-     // ord
-     // FieldUtil.visitOrds(singleDv, disi,  (doc,ord)->{counts[ord+1]++;} );
+  /**
+   * Counts the docs of segments into a {@link CountSlotAcc}. The buffers of a counter must not be shared across
+   * threads, so each thread that counts segments uses its own counter.
+   */
+  private class LeafCounter {
+    final CountSlotAcc countAcc;
 
-    FieldUtil.OrdValues ordValues = FieldUtil.getOrdValues(singleDv, disi);
-    while (ordValues.nextDoc() != DocIdSetIterator.NO_MORE_DOCS) {
-      counts[ ordValues.getOrd() + 1]++;
+    LeafCounter(CountSlotAcc countAcc) {
+      this.countAcc = countAcc;
     }
-     **/
 
+    void collectPerSeg(SortedDocValues singleDv, DocIdSetIterator disi, LongValues toGlobal) throws IOException {
+      int segMax = singleDv.getValueCount() + 1;
+      final int[] counts = getCountArr( segMax );
 
-    // calculate segment-local counts
-    int doc;
-    if (singleDv instanceof FieldCacheImpl.SortedDocValuesImpl.Iter) {
-      FieldCacheImpl.SortedDocValuesImpl.Iter fc = (FieldCacheImpl.SortedDocValuesImpl.Iter) singleDv;
-      while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
-        counts[fc.getOrd(doc) + 1]++;
+      /** alternate trial implementations
+       // ord
+       // FieldUtil.visitOrds(singleDv, disi,  (doc,ord)->{counts[ord+1]++;} );
+
+      FieldUtil.OrdValues ordValues = FieldUtil.getOrdValues(singleDv, disi);
+      while (ordValues.nextDoc() != DocIdSetIterator.NO_MORE_DOCS) {
+        counts[ ordValues.getOrd() + 1]++;
       }
-    } else {
-      while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
-        if (singleDv.advanceExact(doc)) {
-          counts[singleDv.ordValue() + 1]++;
+       **/
+
+
+      // calculate segment-local counts
+      int doc;
+      if (singleDv instanceof FieldCacheImpl.SortedDocValuesImpl.Iter) {
+        FieldCacheImpl.SortedDocValuesImpl.Iter fc = (FieldCacheImpl.SortedDocValuesImpl.Iter) singleDv;
+        while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+          counts[fc.getOrd(doc) + 1]++;
+        }
+      } else {
+        for (int size = nextBatch(singleDv, disi); size > 0; size = nextBatch(singleDv, disi)) {
+          for (int i = 0; i < size; i++) {
+            counts[ordBatch[i] + 1]++;
+          }
         }
       }
-    }
 
-    // convert segment-local counts to global counts
-    for (int i=1; i<segMax; i++) {
-      int segCount = counts[i];
-      if (segCount > 0) {
-        int slot = toGlobal == null ? (i - 1) : (int) toGlobal.get(i - 1);
-        countAcc.incrementCount(slot, segCount);
+      // convert segment-local counts to global counts
+      for (int i=1; i<segMax; i++) {
+        int segCount = counts[i];
+        if (segCount > 0) {
+          int slot = toGlobal == null ? (i - 1) : (int) toGlobal.get(i - 1);
+          countAcc.incrementCount(slot, segCount);
+        }
       }
     }
-  }
 
-  private void collectPerSeg(SortedSetDocValues multiDv, DocIdSetIterator disi, LongValues toGlobal) throws IOException {
-    int segMax = (int)multiDv.getValueCount();
-    final int[] counts = getCountArr( segMax );
+    void collectPerSeg(SortedSetDocValues multiDv, DocIdSetIterator disi, LongValues toGlobal) throws IOException {
+      int segMax = (int)multiDv.getValueCount();
+      final int[] counts = getCountArr( segMax );
 
-    int doc;
-    while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
-      if (multiDv.advanceExact(doc)) {
-        for(;;) {
-          int segOrd = (int)multiDv.nextOrd();
-          if (segOrd < 0) break;
-          counts[segOrd]++;
+      int doc;
+      while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+        if (multiDv.advanceExact(doc)) {
+          for(;;) {
+            int segOrd = (int)multiDv.nextOrd();
+            if (segOrd < 0) break;
+            counts[segOrd]++;
+          }
         }
       }
-    }
 
-    for (int i=0; i<segMax; i++) {
-      int segCount = counts[i];
-      if (segCount > 0) {
-        int slot = toGlobal == null ? (i) : (int) toGlobal.get(i);
-        countAcc.incrementCount(slot, segCount);
+      for (int i=0; i<segMax; i++) {
+        int segCount = counts[i];
+        if (segCount > 0) {
+          int slot = toGlobal == null ? (i) : (int) toGlobal.get(i);
+          countAcc.incrementCount(slot, segCount);
+        }
       }
     }
-  }
 
-  private int[] reuse;
-  private int[] getCountArr(int maxNeeded) {
-    if (reuse == null) {
-      // make the count array large enough for any segment
-      // FUTURE: (optionally) directly use the array of the CountAcc for an optimized index..
-      reuse = new int[(int) si.getValueCount() + 1];
-    } else {
-      Arrays.fill(reuse, 0, maxNeeded, 0);
+    int[] reuse;
+    int[] getCountArr(int maxNeeded) {
+      if (reuse == null) {
+        // make the count array large enough for any segment
+        // FUTURE: (optionally) directly use the array of the CountAcc for an optimized index..
+        reuse = new int[(int) si.getValueCount() + 1];
+      } else {
+        Arrays.fill(reuse, 0, maxNeeded, 0);
+      }
+      return reuse;
     }
-    return reuse;
-  }
 
-  private void collectDocs(SortedDocValues singleDv, DocIdSetIterator disi, LongValues toGlobal) throws IOException {
-    int doc;
-    while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
-      if (singleDv.advanceExact(doc)) {
-        int segOrd = singleDv.ordValue();
-        collect(doc, segOrd, toGlobal);
+    int[] docBatch;
+    int[] ordBatch;
+
+    /**
+     * Fill {@link #docBatch} with the next docs of <code>disi</code> and
+     * {@link #ordBatch} with their ords, or -1 if they don't have a value.
+     * Returns the number of docs, or 0 if <code>disi</code> is exhausted.
+     */
+    int nextBatch(SortedDocValues singleDv, DocIdSetIterator disi) throws IOException {
+      if (docBatch == null) {
+        docBatch = new int[BATCH_SIZE];
+        ordBatch = new int[BATCH_SIZE];
       }
+      int size = 0;
+      while (size < BATCH_SIZE) {
+        int doc = disi.nextDoc();
+        if (doc == DocIdSetIterator.NO_MORE_DOCS) break;
+        docBatch[size++] = doc;
+      }
+      singleDv.ordValues(size, docBatch, ordBatch);
+      return size;
     }
-  }
 
-  private void collectCounts(SortedDocValues singleDv, DocIdSetIterator disi, LongValues toGlobal) throws IOException {
-    int doc;
-    if (singleDv instanceof FieldCacheImpl.SortedDocValuesImpl.Iter) {
+    void collectCounts(SortedDocValues singleDv, DocIdSetIterator disi, LongValues toGlobal) throws IOException {
+      int doc;
+      if (singleDv instanceof FieldCacheImpl.SortedDocValuesImpl.Iter) {
 
-      FieldCacheImpl.SortedDocValuesImpl.Iter fc = (FieldCacheImpl.SortedDocValuesImpl.Iter)singleDv;
-      while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
-        int segOrd = fc.getOrd(doc);
-        if (segOrd < 0) continue;
-        int ord = (int)toGlobal.get(segOrd);
-        countAcc.incrementCount(ord, 1);
-      }
+        FieldCacheImpl.SortedDocValuesImpl.Iter fc = (FieldCacheImpl.SortedDocValuesImpl.Iter)singleDv;
+        while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+          int segOrd = fc.getOrd(doc);
+          if (segOrd < 0) continue;
+          int ord = (int)toGlobal.get(segOrd);
+          countAcc.incrementCount(ord, 1);
+        }
 
-    } else {
+      } else {
 
-      while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
-        if (singleDv.advanceExact(doc)) {
-          int segOrd = singleDv.ordValue();
-          int ord = (int) toGlobal.get(segOrd);
-          countAcc.incrementCount(ord, 1);
+        for (int size = nextBatch(singleDv, disi); size > 0; size = nextBatch(singleDv, disi)) {
+          for (int i = 0; i < size; i++) {
+            int segOrd = ordBatch[i];
+            if (segOrd >= 0) {
+              int ord = (int) toGlobal.get(segOrd);
+              countAcc.incrementCount(ord, 1);
+            }
+          }
         }
+
       }
+    }
 
+    void collectCounts(SortedSetDocValues multiDv, DocIdSetIterator disi, LongValues toGlobal) throws IOException {
+      int doc;
+      while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+        if (multiDv.advanceExact(doc)) {
+          for(;;) {
+            int segOrd = (int)multiDv.nextOrd();
+            if (segOrd < 0) break;
+            int ord = (int)toGlobal.get(segOrd);
+            countAcc.incrementCount(ord, 1);
+          }
+        }
+      }
     }
   }
 
-  private void collectDocs(SortedSetDocValues multiDv, DocIdSetIterator disi, LongValues toGlobal) throws IOException {
-    int doc;
-    while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
-      if (multiDv.advanceExact(doc)) {
-        for(;;) {
-          int segOrd = (int)multiDv.nextOrd();
-          if (segOrd < 0) break;
-          collect(doc, segOrd, toGlobal);
+  private void collectDocs(LeafCounter counter, SortedDocValues singleDv, DocIdSetIterator disi, LongValues toGlobal) throws IOException {
+    for (int size = counter.nextBatch(singleDv, disi); size > 0; size = counter.nextBatch(singleDv, disi)) {
+      for (int i = 0; i < size; i++) {
+        int segOrd = counter.ordBatch[i];
+        if (segOrd >= 0) {
+          collect(counter.docBatch[i], segOrd, toGlobal);
         }
       }
     }
   }
 
-  private void collectCounts(SortedSetDocValues multiDv, DocIdSetIterator disi, LongValues toGlobal) throws IOException {
+  private void collectDocs(SortedSetDocValues multiDv, DocIdSetIterator disi, LongValues toGlobal) throws IOException {
     int doc;
     while ((doc = disi.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
       if (multiDv.advanceExact(doc)) {
         for(;;) {
           int segOrd = (int)multiDv.nextOrd();
           if (segOrd < 0) break;
-          int ord = (int)toGlobal.get(segOrd);
-          countAcc.incrementCount(ord, 1);
+          collect(doc, segOrd, toGlobal);
         }
       }
     }
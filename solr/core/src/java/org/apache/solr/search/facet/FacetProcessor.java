@@ -24,12 +24,21 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Query;
 import org.apache.solr.common.SolrException;
+import org.apache.solr.common.util.ExecutorUtil;
 import org.apache.solr.common.util.SimpleOrderedMap;
 import org.apache.solr.handler.component.ResponseBuilder;
 import org.apache.solr.request.SolrQueryRequest;
@@ -42,6 +51,7 @@ import org.apache.solr.search.QParser;
 import org.apache.solr.search.QueryContext;
 import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.search.SyntaxError;
+import org.apache.solr.util.DefaultSolrThreadFactory;
 import org.apache.solr.util.RTimer;
 
 public abstract class FacetProcessor<FacetRequestT extends FacetRequest>  {
@@ -54,6 +64,83 @@ public abstract class FacetProcessor<FacetRequestT extends FacetRequest>  {
   SlotAcc[] accs;
   CountSlotAcc countAcc;
 
+  /** the maximum number of threads that facets may use to count concurrently across all requests of this node */
+  static final int MAX_FACET_THREADS = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Node-wide pool used by facets that count concurrently (see the "threads" option of field and range facets).
+   * Tasks that are submitted while all of its threads are busy are run by the requesting thread.
+   */
+  static final ExecutorService facetExecutor = new ExecutorUtil.MDCAwareThreadPoolExecutor(
+      0,
+      MAX_FACET_THREADS,
+      10, TimeUnit.SECONDS, // terminate idle threads after 10 sec
+      new SynchronousQueue<Runnable>(),  // directly hand off tasks
+      new DefaultSolrThreadFactory("jsonFacetExecutor")
+  );
+
+  /**
+   * Returns the number of tasks that may run at once for the given "threads" option of a facet request:
+   * 0 (the default) means sequential, and a negative value means as many as {@link #facetExecutor} allows.
+   */
+  static int getMaxConcurrency(int threads) {
+    if (threads == 0) return 1;
+    return threads < 0 ? MAX_FACET_THREADS : Math.min(threads, MAX_FACET_THREADS);
+  }
+
+  /**
+   * Runs the given tasks and returns their results in the same order.  Tasks are run on the requesting
+   * thread if <code>threads</code> is 0, and on {@link #facetExecutor} otherwise with at most
+   * {@link #getMaxConcurrency(int)} of them in flight.
+   */
+  static <T> List<T> runConcurrently(List<Callable<T>> tasks, int threads) throws IOException {
+    final int maxPending = getMaxConcurrency(threads);
+    final List<Future<T>> futures = new ArrayList<>(tasks.size());
+    final List<T> results = new ArrayList<>(tasks.size());
+    try {
+      int completed = 0;
+      for (Callable<T> task : tasks) {
+        if (futures.size() - completed >= maxPending) {
+          futures.get(completed++).get();
+        }
+        Future<T> future = null;
+        if (threads != 0) {
+          try {
+            future = facetExecutor.submit(task);
+          } catch (RejectedExecutionException e) {
+            // the pool is saturated, fall through and run the task on this thread
+          }
+        }
+        if (future == null) {
+          FutureTask<T> localTask = new FutureTask<>(task);
+          localTask.run();
+          future = localTask;
+        }
+        futures.add(future);
+      }
+      for (Future<T> future : futures) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) throw (IOException) cause;
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      if (cause instanceof Error) throw (Error) cause;
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "Error while counting facets: " + cause, cause);
+    } finally {
+      if (results.size() < tasks.size()) {
+        for (Future<T> future : futures) {
+          // don't interrupt running tasks, interrupting a thread that reads from an NIOFSDirectory closes the channel
+          future.cancel(false);
+        }
+      }
+    }
+    return results;
+  }
+
   /** factory method for invoking json facet framework as whole.
    * Note: this is currently only used from SimpleFacets, not from JSON Facet API itself. */
   public static FacetProcessor<?> createProcessor(SolrQueryRequest req,
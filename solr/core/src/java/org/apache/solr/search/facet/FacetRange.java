@@ -23,6 +23,7 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.apache.lucene.search.Query;
 import org.apache.lucene.util.NumericUtils;
@@ -43,6 +44,7 @@ public class FacetRange extends FacetRequestSorted {
   Object end;
   Object gap;
   boolean hardend = false;
+  int threads;  // number of threads to compute the docs of ranges concurrently with, 0 means sequential, <0 means as many as the node allows
   EnumSet<FacetParams.FacetRangeInclude> include;
   EnumSet<FacetParams.FacetRangeOther> others;
 
@@ -303,12 +305,20 @@ class FacetRangeProcessor extends FacetProcessor<FacetRange> {
 
     createAccs(fcontext.base.size(), slotCount);
 
+    // range queries are independent of each other, so their docs may be computed concurrently
+    List<Callable<DocSet>> tasks = new ArrayList<>(slotCount);
     for (int idx = 0; idx<rangeList.size(); idx++) {
-      rangeStats(rangeList.get(idx), idx);
+      tasks.add(rangeDocs(rangeList.get(idx), idx));
     }
 
     for (int idx = 0; idx<otherList.size(); idx++) {
-      rangeStats(otherList.get(idx), rangeList.size() + idx);
+      tasks.add(rangeDocs(otherList.get(idx), rangeList.size() + idx));
+    }
+
+    // stats are always collected by this thread, in slot order
+    List<DocSet> rangeDocSets = FacetProcessor.runConcurrently(tasks, freq.threads);
+    for (int slot = 0; slot<slotCount; slot++) {
+      rangeStats(rangeDocSets.get(slot), slot);
     }
 
 
@@ -340,11 +350,14 @@ class FacetRangeProcessor extends FacetProcessor<FacetRange> {
 
   private Query[] filters;
   private DocSet[] intersections;
-  private void rangeStats(Range range, int slot) throws IOException {
+  private Callable<DocSet> rangeDocs(Range range, int slot) {
     Query rangeQ = sf.getType().getRangeQuery(null, sf, range.low == null ? null : calc.formatValue(range.low), range.high==null ? null : calc.formatValue(range.high), range.includeLower, range.includeUpper);
-    // TODO: specialize count only
-    DocSet intersection = fcontext.searcher.getDocSet(rangeQ, fcontext.base);
     filters[slot] = rangeQ;
+    // TODO: specialize count only
+    return () -> fcontext.searcher.getDocSet(rangeQ, fcontext.base);
+  }
+
+  private void rangeStats(DocSet intersection, int slot) throws IOException {
     intersections[slot] = intersection;  // save for later  // TODO: only save if number of slots is small enough?
     int num = collect(intersection, slot);
     countAcc.incrementCount(slot, num); // TODO: roll this into collect()
@@ -631,11 +631,13 @@ class FacetFieldParser extends FacetParser<FacetField> {
       facet.allBuckets = getBoolean(m, "allBuckets", facet.allBuckets);
       facet.method = FacetField.FacetMethod.fromString(getString(m, "method", null));
       facet.cacheDf = (int)getLong(m, "cacheDf", facet.cacheDf);
+      facet.threads = (int)getLong(m, "threads", facet.threads);
 
       // TODO: pull up to higher level?
       facet.refine = FacetField.RefineMethod.fromObj(m.get("refine"));
 
       facet.perSeg = (Boolean)m.get("perSeg");
+      facet.minDocsPerTask = (int)getLong(m, "minDocsPerTask", facet.minDocsPerTask);
 
       // facet.sort may depend on a facet stat...
       // should we be parsing / validating this here, or in the execution environment?
@@ -706,6 +708,7 @@ class FacetRangeParser extends FacetParser<FacetRange> {
     facet.end = m.get("end");
     facet.gap = m.get("gap");
     facet.hardend = getBoolean(m, "hardend", facet.hardend);
+    facet.threads = (int)getLong(m, "threads", facet.threads);
     facet.mincount = getLong(m, "mincount", 0);
 
     // TODO: refactor list-of-options code
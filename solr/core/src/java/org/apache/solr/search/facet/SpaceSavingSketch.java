@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.facet;
+
+import java.util.Arrays;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+import org.apache.lucene.util.ArrayUtil;
+
+/**
+ * Space-Saving sketch of the most frequent values of a stream of longs (typically global ords).
+ * <p>
+ * At most <code>capacity</code> values are tracked. When a value that is not tracked is added to a full
+ * sketch, it replaces the value with the smallest count and inherits that count. Counts are therefore
+ * upper bounds that overestimate the true count by at most {@link #getMinCount()}, which is itself at
+ * most <code>n / capacity</code> after <code>n</code> values have been added. Any value that occurs more
+ * than <code>n / capacity</code> times is guaranteed to be tracked.
+ * <p>
+ * Arrays grow with the number of tracked values, so that sketches of slots that only see a few distinct
+ * values stay small even if their capacity is large.
+ */
+final class SpaceSavingSketch {
+  private static final int INITIAL_SIZE = 16;
+
+  private final int capacity;
+  private long[] values;
+  private long[] counts;
+  private int[] heap;      // min-heap of indexes into values/counts, by count
+  private int[] heapPos;   // position of each index in the heap
+  private final LongIntHashMap index = new LongIntHashMap();
+  private int size;
+  private long maxCount;
+
+  SpaceSavingSketch(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be >= 1, got " + capacity);
+    }
+    this.capacity = capacity;
+    final int initialSize = Math.min(capacity, INITIAL_SIZE);
+    values = new long[initialSize];
+    counts = new long[initialSize];
+    heap = new int[initialSize];
+    heapPos = new int[initialSize];
+  }
+
+  /** Count one occurrence of <code>value</code>. */
+  void add(long value) {
+    int idx = index.getOrDefault(value, -1);
+    if (idx < 0) {
+      if (size < capacity) {
+        if (size == values.length) {
+          grow();
+        }
+        idx = size++;
+        values[idx] = value;
+        counts[idx] = 1;
+        heap[idx] = idx;
+        heapPos[idx] = idx;
+        siftUp(idx);
+        index.put(value, idx);
+        maxCount = Math.max(maxCount, 1);
+        return;
+      }
+      // evict the value with the smallest count, the new value inherits its count as error
+      idx = heap[0];
+      index.remove(values[idx]);
+      values[idx] = value;
+      index.put(value, idx);
+    }
+    maxCount = Math.max(maxCount, ++counts[idx]);
+    siftDown(heapPos[idx]);
+  }
+
+  private void grow() {
+    final int newSize = (int) Math.min(capacity, ArrayUtil.oversize(size + 1, Long.BYTES));
+    values = Arrays.copyOf(values, newSize);
+    counts = Arrays.copyOf(counts, newSize);
+    heap = Arrays.copyOf(heap, newSize);
+    heapPos = Arrays.copyOf(heapPos, newSize);
+  }
+
+  /** Return the number of tracked values. */
+  int size() {
+    return size;
+  }
+
+  /** Return the tracked value at <code>idx</code>, for 0 &lt;= idx &lt; {@link #size()}. */
+  long getValue(int idx) {
+    return values[idx];
+  }
+
+  /** Return the count of the tracked value at <code>idx</code>, for 0 &lt;= idx &lt; {@link #size()}. */
+  long getCount(int idx) {
+    return counts[idx];
+  }
+
+  /**
+   * Return the maximum number of times that a value that is not tracked may have been added, which is
+   * also the maximum overestimation of the count of a tracked value. This is 0 until the sketch is full.
+   */
+  long getMinCount() {
+    return size < capacity ? 0 : counts[heap[0]];
+  }
+
+  /** Return the largest count, or 0 if the sketch is empty. */
+  long getMaxCount() {
+    return maxCount;
+  }
+
+  /**
+   * Return the indexes of the tracked values, sorted by descending count and then by ascending value.
+   */
+  int[] getIndexesByCount() {
+    Integer[] idxs = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      idxs[i] = i;
+    }
+    Arrays.sort(idxs, (a, b) -> {
+      int cmp = Long.compare(counts[b], counts[a]);
+      return cmp != 0 ? cmp : Long.compare(values[a], values[b]);
+    });
+    int[] sorted = new int[size];
+    for (int i = 0; i < size; i++) {
+      sorted[i] = idxs[i];
+    }
+    return sorted;
+  }
+
+  private boolean less(int heapA, int heapB) {
+    return counts[heap[heapA]] < counts[heap[heapB]];
+  }
+
+  private void swap(int heapA, int heapB) {
+    int idxA = heap[heapA];
+    int idxB = heap[heapB];
+    heap[heapA] = idxB;
+    heap[heapB] = idxA;
+    heapPos[idxB] = heapA;
+    heapPos[idxA] = heapB;
+  }
+
+  private void siftUp(int pos) {
+    while (pos > 0) {
+      int parent = (pos - 1) >>> 1;
+      if (!less(pos, parent)) break;
+      swap(pos, parent);
+      pos = parent;
+    }
+  }
+
+  private void siftDown(int pos) {
+    for (;;) {
+      int child = 2 * pos + 1;
+      if (child >= size) break;
+      if (child + 1 < size && less(child + 1, child)) child++;
+      if (!less(child, pos)) break;
+      swap(pos, child);
+      pos = child;
+    }
+  }
+}
@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.facet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.MultiDocValues;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.queries.function.ValueSource;
+import org.apache.lucene.util.LongValues;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.util.SimpleOrderedMap;
+import org.apache.solr.schema.SchemaField;
+import org.apache.solr.search.FunctionQParser;
+import org.apache.solr.search.SyntaxError;
+import org.apache.solr.search.ValueSourceParser;
+
+/**
+ * Approximate top-k most frequent values of a field, e.g. <code>topk(keywords_ss,10,0.001)</code>.
+ * <p>
+ * Each shard tracks the values of the field in a {@link SpaceSavingSketch} whose capacity is derived from
+ * <code>maxError</code>, and the coordinator merges these sketches instead of refining term buckets. Returned
+ * counts are upper bounds that overestimate the true counts by at most <code>maxError</code> times the number
+ * of values that were counted on each shard.
+ */
+public class TopKAgg extends StrAggValueSource {
+  public static final int DEFAULT_K = 10;
+  public static final double DEFAULT_MAX_ERROR = 0.001;
+
+  final int k;
+  final double maxError;
+
+  public TopKAgg(String field, int k, double maxError) {
+    super("topk", field);
+    this.k = k;
+    this.maxError = maxError;
+  }
+
+  /** the number of values that each sketch tracks */
+  int getCapacity() {
+    return (int) Math.max(k, Math.ceil(1 / maxError));
+  }
+
+  @Override
+  public SlotAcc createSlotAcc(FacetContext fcontext, int numDocs, int numSlots) throws IOException {
+    SchemaField sf = fcontext.qcontext.searcher().getSchema().getField(getArg());
+    if (!sf.multiValued() && !sf.getType().multiValuedFieldCache() && sf.getType().getNumericType() != null) {
+      throw new SolrException(SolrException.ErrorCode.BAD_REQUEST, "topk() is not supported on single-valued numeric field " + sf.getName());
+    }
+    return new Acc(fcontext, sf, numSlots);
+  }
+
+  @Override
+  public FacetMerger createFacetMerger(Object prototype) {
+    return new Merger();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (!super.equals(o)) return false;
+    TopKAgg other = (TopKAgg)o;
+    return k == other.k && maxError == other.maxError;
+  }
+
+  @Override
+  public int hashCode() {
+    return (super.hashCode() * 31 + k) * 31 + Double.hashCode(maxError);
+  }
+
+  @Override
+  public String description() {
+    return name() + "(" + arg + "," + k + "," + maxError + ")";
+  }
+
+  public static class Parser extends ValueSourceParser {
+    @Override
+    public ValueSource parse(FunctionQParser fp) throws SyntaxError {
+      String field = fp.parseArg();
+      int k = DEFAULT_K;
+      double maxError = DEFAULT_MAX_ERROR;
+      if (fp.hasMoreArguments()) {
+        k = fp.parseInt();
+      }
+      if (fp.hasMoreArguments()) {
+        maxError = fp.parseDouble();
+      }
+      if (field == null || k < 1 || !(maxError > 0 && maxError < 1)) {
+        throw new SyntaxError("expected topk(field[,k[,maxError]]) with k >= 1 and 0 < maxError < 1  EXAMPLE:topk(keywords,10,0.001)");
+      }
+      return new TopKAgg(field, k, maxError);
+    }
+  }
+
+  private static SimpleOrderedMap<Object> bucket(Object val, long count) {
+    SimpleOrderedMap<Object> bucket = new SimpleOrderedMap<>();
+    bucket.add("val", val);
+    bucket.add("count", count);
+    return bucket;
+  }
+
+  class Acc extends SlotAcc {
+    final SchemaField sf;
+    final SortedSetDocValues topLevel;
+    final SortedSetDocValues[] subDvs;
+    final MultiDocValues.OrdinalMap ordMap;
+    LongValues toGlobal;
+    SortedSetDocValues subDv;
+    SpaceSavingSketch[] sketches;
+
+    public Acc(FacetContext fcontext, SchemaField sf, int numSlots) throws IOException {
+      super(fcontext);
+      this.sf = sf;
+      sketches = new SpaceSavingSketch[numSlots];
+      if (sf.multiValued() || sf.getType().multiValuedFieldCache()) {
+        topLevel = FieldUtil.getSortedSetDocValues(fcontext.qcontext, sf, null);
+        if (topLevel instanceof MultiDocValues.MultiSortedSetDocValues) {
+          ordMap = ((MultiDocValues.MultiSortedSetDocValues) topLevel).mapping;
+          subDvs = ((MultiDocValues.MultiSortedSetDocValues) topLevel).values;
+        } else {
+          ordMap = null;
+          subDvs = null;
+        }
+      } else {
+        SortedDocValues single = FieldUtil.getSortedDocValues(fcontext.qcontext, sf, null);
+        topLevel = DocValues.singleton(single);
+        if (single instanceof MultiDocValues.MultiSortedDocValues) {
+          ordMap = ((MultiDocValues.MultiSortedDocValues) single).mapping;
+          SortedDocValues[] values = ((MultiDocValues.MultiSortedDocValues) single).values;
+          subDvs = new SortedSetDocValues[values.length];
+          for (int i = 0; i < values.length; i++) {
+            subDvs[i] = DocValues.singleton(values[i]);
+          }
+        } else {
+          ordMap = null;
+          subDvs = null;
+        }
+      }
+    }
+
+    @Override
+    public void setNextReader(LeafReaderContext readerContext) throws IOException {
+      if (subDvs != null) {
+        subDv = subDvs[readerContext.ord];
+        toGlobal = ordMap.getGlobalOrds(readerContext.ord);
+      } else {
+        assert readerContext.ord==0 || topLevel.getValueCount() == 0;
+        subDv = topLevel;
+      }
+    }
+
+    @Override
+    public void collect(int doc, int slot) throws IOException {
+      if (doc > subDv.docID()) {
+        subDv.advance(doc);
+      }
+      if (doc == subDv.docID()) {
+        SpaceSavingSketch sketch = sketches[slot];
+        if (sketch == null) {
+          sketch = sketches[slot] = new SpaceSavingSketch(getCapacity());
+        }
+        for (long segOrd = subDv.nextOrd(); segOrd != SortedSetDocValues.NO_MORE_ORDS; segOrd = subDv.nextOrd()) {
+          sketch.add(toGlobal == null ? segOrd : toGlobal.get(segOrd));
+        }
+      }
+    }
+
+    @Override
+    public int compare(int slotA, int slotB) {
+      return Long.compare(getMaxCount(slotA), getMaxCount(slotB));
+    }
+
+    private long getMaxCount(int slot) {
+      SpaceSavingSketch sketch = sketches[slot];
+      return sketch == null ? 0 : sketch.getMaxCount();
+    }
+
+    @Override
+    public Object getValue(int slot) throws IOException {
+      SpaceSavingSketch sketch = sketches[slot];
+      if (fcontext.isShard()) {
+        return getShardValue(sketch);
+      }
+      List<SimpleOrderedMap<Object>> lst = new ArrayList<>();
+      if (sketch != null) {
+        int[] idxs = sketch.getIndexesByCount();
+        for (int i = 0; i < Math.min(k, idxs.length); i++) {
+          lst.add(bucket(lookupOrd(sketch.getValue(idxs[i])), sketch.getCount(idxs[i])));
+        }
+      }
+      return lst;
+    }
+
+    // the whole sketch is sent so that values that are frequent overall but not locally can still be found
+    private Object getShardValue(SpaceSavingSketch sketch) throws IOException {
+      if (sketch == null) return null;  // no values for this slot
+      int[] idxs = sketch.getIndexesByCount();
+      List<Object> vals = new ArrayList<>(idxs.length);
+      List<Long> counts = new ArrayList<>(idxs.length);
+      for (int idx : idxs) {
+        vals.add(lookupOrd(sketch.getValue(idx)));
+        counts.add(sketch.getCount(idx));
+      }
+      SimpleOrderedMap<Object> map = new SimpleOrderedMap<>();
+      map.add("vals", vals);
+      map.add("counts", counts);
+      map.add("min", sketch.getMinCount());
+      return map;
+    }
+
+    private Object lookupOrd(long ord) throws IOException {
+      return sf.getType().toObject(sf, topLevel.lookupOrd(ord));
+    }
+
+    @Override
+    public void reset() {
+      sketches = new SpaceSavingSketch[sketches.length];
+    }
+
+    @Override
+    public void resize(Resizer resizer) {
+      sketches = resizer.resize(sketches, null);
+    }
+  }
+
+  class Merger extends FacetSortableMerger {
+    final Map<Object,Long> counts = new HashMap<>();
+    long minSum;  // how many times a value may have been counted by the shards whose sketch doesn't track it
+    List<SimpleOrderedMap<Object>> result;
+
+    @Override
+    public void merge(Object facetResult, Context mcontext) {
+      if (facetResult == null) return;  // an explicit null means no values for this shard
+      result = null;
+      SimpleOrderedMap map = (SimpleOrderedMap)facetResult;
+      List<Object> vals = (List<Object>)map.get("vals");
+      List<Number> shardCounts = (List<Number>)map.get("counts");
+      long min = ((Number)map.get("min")).longValue();
+
+      Map<Object,Long> shard = new HashMap<>(vals.size() * 2);
+      for (int i = 0; i < vals.size(); i++) {
+        shard.put(vals.get(i), shardCounts.get(i).longValue());
+      }
+      if (min > 0) {
+        for (Map.Entry<Object,Long> entry : counts.entrySet()) {
+          if (!shard.containsKey(entry.getKey())) {
+            entry.setValue(entry.getValue() + min);
+          }
+        }
+      }
+      for (Map.Entry<Object,Long> entry : shard.entrySet()) {
+        counts.put(entry.getKey(), counts.getOrDefault(entry.getKey(), minSum) + entry.getValue());
+      }
+      minSum += min;
+    }
+
+    @Override
+    public Object getMergedResult() {
+      if (result == null) {
+        List<Map.Entry<Object,Long>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort((a, b) -> {
+          int cmp = Long.compare(b.getValue(), a.getValue());
+          return cmp != 0 ? cmp : ((Comparable)a.getKey()).compareTo(b.getKey());
+        });
+        result = new ArrayList<>(Math.min(k, entries.size()));
+        for (int i = 0; i < Math.min(k, entries.size()); i++) {
+          result.add(bucket(entries.get(i).getKey(), entries.get(i).getValue()));
+        }
+      }
+      return result;
+    }
+
+    @Override
+    public int compareTo(FacetSortableMerger other, FacetRequest.SortDirection direction) {
+      return Long.compare(getMaxCount(), ((Merger)other).getMaxCount());
+    }
+
+    private long getMaxCount() {
+      List<SimpleOrderedMap<Object>> lst = (List<SimpleOrderedMap<Object>>) getMergedResult();
+      return lst.isEmpty() ? 0 : (Long) lst.get(0).get("count");
+    }
+  }
+}
@@ -250,6 +250,8 @@ public final class DefaultSolrCoreState extends SolrCoreState implements Recover
         if (mergePolicy instanceof SortingMergePolicy) {
           return ((SortingMergePolicy)mergePolicy).getSort();
         }
+        // configured through <indexSort>
+        return indexWriter.getConfig().getIndexSort();
       }
     } finally {
       iwLock.readLock().unlock();
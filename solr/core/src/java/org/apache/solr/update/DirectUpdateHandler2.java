@@ -28,6 +28,7 @@ import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.index.CodecReader;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
@@ -98,6 +99,9 @@ public class DirectUpdateHandler2 extends UpdateHandler implements SolrCoreState
 
   protected boolean indexWriterCloseWaitsForMerges;
 
+  /** The field that marks previous versions of updated documents as soft-deleted, or null to hard-delete them */
+  protected final String softDeletesField;
+
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   
   public DirectUpdateHandler2(SolrCore core) {
@@ -117,7 +121,7 @@ public class DirectUpdateHandler2 extends UpdateHandler implements SolrCoreState
     
     commitWithinSoftCommit = updateHandlerInfo.commitWithinSoftCommit;
     indexWriterCloseWaitsForMerges = updateHandlerInfo.indexWriterCloseWaitsForMerges;
-
+    softDeletesField = core.getSolrConfig().indexConfig.softDeletesField;
 
   }
   
@@ -137,6 +141,7 @@ public class DirectUpdateHandler2 extends UpdateHandler implements SolrCoreState
     
     commitWithinSoftCommit = updateHandlerInfo.commitWithinSoftCommit;
     indexWriterCloseWaitsForMerges = updateHandlerInfo.indexWriterCloseWaitsForMerges;
+    softDeletesField = core.getSolrConfig().indexConfig.softDeletesField;
 
     UpdateLog existingLog = updateHandler.getUpdateLog();
     if (this.ulog != null && this.ulog == existingLog) {
@@ -274,7 +279,11 @@ public class DirectUpdateHandler2 extends UpdateHandler implements SolrCoreState
       IndexWriter writer = iw.get();
 
       if (cmd.isBlock()) {
-        writer.updateDocuments(updateTerm, cmd);
+        if (softDeletesField != null) {
+          writer.softUpdateDocuments(updateTerm, cmd, new NumericDocValuesField(softDeletesField, 1));
+        } else {
+          writer.updateDocuments(updateTerm, cmd);
+        }
       } else {
         updateDocOrDocValues(cmd, writer, updateTerm);
       }
@@ -869,7 +878,11 @@ public class DirectUpdateHandler2 extends UpdateHandler implements SolrCoreState
     } else {
       Document luceneDocument = cmd.getLuceneDocument(false);
       log.debug("updateDocument({})", cmd);
-      writer.updateDocument(updateTerm, luceneDocument);
+      if (softDeletesField != null) {
+        writer.softUpdateDocument(updateTerm, luceneDocument, new NumericDocValuesField(softDeletesField, 1));
+      } else {
+        writer.updateDocument(updateTerm, luceneDocument);
+      }
     }
   }
 
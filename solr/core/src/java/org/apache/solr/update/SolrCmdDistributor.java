@@ -23,6 +23,7 @@ import org.apache.solr.client.solrj.impl.BinaryResponseParser;
 import org.apache.solr.client.solrj.impl.HttpSolrClient;
 import org.apache.solr.client.solrj.impl.ConcurrentUpdateSolrClient; // jdoc
 import org.apache.solr.client.solrj.request.AbstractUpdateRequest;
+import org.apache.solr.client.solrj.request.JavaBinUpdateRequestCodec;
 import org.apache.solr.client.solrj.request.UpdateRequest;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrException.ErrorCode;
@@ -36,8 +37,10 @@ import org.apache.solr.update.processor.DistributedUpdateProcessor.RequestReplic
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.invoke.MethodHandles;
 import java.net.ConnectException;
 import java.util.ArrayList;
@@ -201,15 +204,16 @@ public class SolrCmdDistributor {
   }
   
   public void distribAdd(AddUpdateCommand cmd, List<Node> nodes, ModifiableSolrParams params, boolean synchronous, RequestReplicationTracker rrt) throws IOException {  
+    if (cmd.isInPlaceUpdate()) {
+      params.set(DistributedUpdateProcessor.DISTRIB_INPLACE_PREVVERSION, String.valueOf(cmd.prevVersion));
+    }
+    // the request is the same for all nodes, so it only needs to be serialized once
+    UpdateRequest uReq = nodes.size() > 1 ? new SharedUpdateRequest() : new UpdateRequest();
+    if (cmd.isLastDocInBatch)
+      uReq.lastDocInBatch();
+    uReq.setParams(params);
+    uReq.add(cmd.solrDoc, cmd.commitWithin, cmd.overwrite);
     for (Node node : nodes) {
-      UpdateRequest uReq = new UpdateRequest();
-      if (cmd.isLastDocInBatch)
-        uReq.lastDocInBatch();
-      uReq.setParams(params);
-      uReq.add(cmd.solrDoc, cmd.commitWithin, cmd.overwrite);
-      if (cmd.isInPlaceUpdate()) {
-        params.set(DistributedUpdateProcessor.DISTRIB_INPLACE_PREVVERSION, String.valueOf(cmd.prevVersion));
-      }
       submit(new Req(cmd, node, uReq, synchronous, rrt, cmd.pollQueueTime), false);
     }
     
@@ -370,6 +374,28 @@ public class SolrCmdDistributor {
   }
     
 
+  /**
+   * An {@link UpdateRequest} that is sent to several nodes. It is serialized to javabin when it is first
+   * written, and the same bytes are written for the other nodes.
+   */
+  public static class SharedUpdateRequest extends UpdateRequest {
+    private byte[] bytes;
+
+    /** Writes this request in the javabin format of {@link JavaBinUpdateRequestCodec}. */
+    public void writeTo(OutputStream os) throws IOException {
+      os.write(getBytes());
+    }
+
+    private synchronized byte[] getBytes() throws IOException {
+      if (bytes == null) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new JavaBinUpdateRequestCodec().marshal(this, baos);
+        bytes = baos.toByteArray();
+      }
+      return bytes;
+    }
+  }
+
   public static Diagnostics.Callable testing_errorHook;  // called on error when forwarding request.  Currently data=[this, Request]
 
   
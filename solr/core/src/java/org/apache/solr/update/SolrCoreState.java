@@ -127,7 +127,7 @@ public abstract class SolrCoreState {
   public abstract void rollbackIndexWriter(SolrCore core) throws IOException;
   
   /**
-   * Get the current Sort of the current IndexWriter's MergePolicy..
+   * Get the current Sort of the current IndexWriter's MergePolicy, or its index sort if the MergePolicy is not sorting.
    *
    * @throws IOException If there is a low-level I/O error.
    */
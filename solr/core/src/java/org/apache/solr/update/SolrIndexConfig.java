@@ -30,6 +30,7 @@ import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.LogMergePolicy;
 import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.index.MergeScheduler;
+import org.apache.lucene.index.SoftDeletesRetentionMergePolicy;
 import org.apache.lucene.index.TieredMergePolicy;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.util.InfoStream;
@@ -47,6 +48,7 @@ import org.apache.solr.index.MergePolicyFactory;
 import org.apache.solr.index.MergePolicyFactoryArgs;
 import org.apache.solr.index.SortingMergePolicy;
 import org.apache.solr.schema.IndexSchema;
+import org.apache.solr.search.SortSpecParsing;
 import org.apache.solr.util.SolrPluginUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -82,6 +84,15 @@ public class SolrIndexConfig implements MapSerializable {
   public final PluginInfo metricsInfo;
   
   public final PluginInfo mergedSegmentWarmerInfo;
+
+  /** The sort spec of the index sort, eg. <code>timestamp desc</code>, or null if the index is not sorted */
+  public final String indexSort;
+
+  /**
+   * The numeric doc-values field that marks the previous versions of updated documents as soft-deleted,
+   * or null if updates hard-delete previous versions
+   */
+  public final String softDeletesField;
   
   public InfoStream infoStream = InfoStream.NO_OUTPUT;
 
@@ -101,6 +112,8 @@ public class SolrIndexConfig implements MapSerializable {
     mergePolicyFactoryInfo = null;
     mergeSchedulerInfo = null;
     mergedSegmentWarmerInfo = null;
+    indexSort = null;
+    softDeletesField = null;
     // enable coarse-grained metrics by default
     metricsInfo = new PluginInfo("metrics", Collections.emptyMap(), null, null);
   }
@@ -190,6 +203,8 @@ public class SolrIndexConfig implements MapSerializable {
       }
     }
     mergedSegmentWarmerInfo = getPluginInfo(prefix + "/mergedSegmentWarmer", solrConfig, def.mergedSegmentWarmerInfo);
+    indexSort = solrConfig.get(prefix + "/indexSort", def.indexSort);
+    softDeletesField = solrConfig.get(prefix + "/softDeletesField", def.softDeletesField);
 
     assertWarnOrFail("Begining with Solr 5.0, <checkIntegrityAtMerge> option is no longer supported and should be removed from solrconfig.xml (these integrity checks are now automatic)",
         (null == solrConfig.getNode(prefix + "/checkIntegrityAtMerge", false)),
@@ -216,6 +231,8 @@ public class SolrIndexConfig implements MapSerializable {
       m.put("mergePolicyFactory", mergePolicyFactoryInfo);
     }
     if(mergedSegmentWarmerInfo != null) m.put("mergedSegmentWarmer",mergedSegmentWarmerInfo);
+    if (indexSort != null) m.put("indexSort", indexSort);
+    if (softDeletesField != null) m.put("softDeletesField", softDeletesField);
     return m;
   }
 
@@ -254,11 +271,26 @@ public class SolrIndexConfig implements MapSerializable {
     iwc.setMergeScheduler(mergeScheduler);
     iwc.setInfoStream(infoStream);
 
-    if (mergePolicy instanceof SortingMergePolicy) {
+    if (indexSort != null) {
+      Sort sort = SortSpecParsing.parseSortSpec(indexSort, schema).getSort();
+      if (sort == null) {
+        throw new IllegalArgumentException("<indexSort> must not sort by score only, got: " + indexSort);
+      }
+      if (mergePolicy instanceof SortingMergePolicy && !sort.equals(((SortingMergePolicy) mergePolicy).getSort())) {
+        throw new IllegalArgumentException("<indexSort> " + sort + " and the sort of the SortingMergePolicy "
+            + ((SortingMergePolicy) mergePolicy).getSort() + " must be the same.");
+      }
+      iwc.setIndexSort(sort);
+    } else if (mergePolicy instanceof SortingMergePolicy) {
       Sort indexSort = ((SortingMergePolicy) mergePolicy).getSort();
       iwc.setIndexSort(indexSort);
     }
 
+    if (softDeletesField != null) {
+      // soft-deleted documents are purged when their segment gets merged
+      iwc.setMergePolicy(new SoftDeletesRetentionMergePolicy(softDeletesField, () -> null, mergePolicy));
+    }
+
     // do this after buildMergePolicy since the backcompat logic 
     // there may modify the effective useCompoundFile
     iwc.setUseCompoundFile(getUseCompoundFile());
@@ -16,6 +16,8 @@
  */
 package org.apache.solr.update;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -29,6 +31,7 @@ import java.util.concurrent.ExecutorService;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.impl.BinaryRequestWriter;
 import org.apache.solr.client.solrj.impl.BinaryResponseParser;
 import org.apache.solr.client.solrj.impl.ConcurrentUpdateSolrClient;
@@ -74,7 +77,7 @@ public class StreamingSolrClients {
       // the queue is more than half full.
       client = new ErrorReportingConcurrentUpdateSolrClient(url, httpClient, 100, runnerCount, updateExecutor, true, req);
       client.setParser(new BinaryResponseParser());
-      client.setRequestWriter(new BinaryRequestWriter());
+      client.setRequestWriter(new SharedBinaryRequestWriter());
       client.setPollQueueTime(req.pollQueueTime);
       Set<String> queryParams = new HashSet<>(2);
       queryParams.add(DistributedUpdateProcessor.DISTRIB_FROM);
@@ -116,6 +119,18 @@ public class StreamingSolrClients {
     return updateExecutor;
   }
   
+  /** Writes the bytes of a {@link SolrCmdDistributor.SharedUpdateRequest} instead of serializing it again for each node */
+  static class SharedBinaryRequestWriter extends BinaryRequestWriter {
+    @Override
+    public void write(SolrRequest request, OutputStream os) throws IOException {
+      if (request instanceof SolrCmdDistributor.SharedUpdateRequest) {
+        ((SolrCmdDistributor.SharedUpdateRequest) request).writeTo(os);
+      } else {
+        super.write(request, os);
+      }
+    }
+  }
+
   class ErrorReportingConcurrentUpdateSolrClient extends ConcurrentUpdateSolrClient {
     private final SolrCmdDistributor.Req req;
     
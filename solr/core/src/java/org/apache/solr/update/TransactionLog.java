@@ -23,18 +23,32 @@ import java.io.OutputStream;
 import java.io.RandomAccessFile;
 import java.lang.invoke.MethodHandles;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import org.apache.lucene.store.MMapDirectory;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.Constants;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.util.DataInputInputStream;
@@ -69,6 +83,12 @@ public class TransactionLog implements Closeable {
 
   public final static String END_MESSAGE="SOLR_TLOG_END";
 
+  /** If true, lookups and readers read the log file through memory mapped chunks instead of positional reads */
+  static final boolean MMAP_READS = Constants.JRE_IS_64BIT && !Constants.WINDOWS
+      && Boolean.parseBoolean(System.getProperty("solr.tlog.mmapReads", "true"));
+  static final int MAP_CHUNK_SIZE_POWER = 28;  // 256MB per mapped chunk
+  static final int MIN_REMAP_SIZE = 1 << 20;   // don't remap a growing chunk until reads get 1MB past its mapping
+
   long id;
   File tlogFile;
   RandomAccessFile raf;
@@ -86,6 +106,19 @@ public class TransactionLog implements Closeable {
   long snapshot_size;
   int snapshot_numRecords;
 
+  // group commit state, all guarded by syncLock
+  private final ReentrantLock syncLock = new ReentrantLock();
+  private final Condition syncDone = syncLock.newCondition();
+  private long syncedPosition;   // everything before this position has been synced
+  private boolean syncing;       // true while a caller of groupSync() is syncing for the others
+  private int numSyncWaiters;    // callers of groupSync() that arrived since the last sync started
+
+  // mapped chunks are read under the read lock, and (re)mapped or unmapped under the write lock so that
+  // no reader may access a chunk that has been unmapped
+  private final ReentrantReadWriteLock mapLock = new ReentrantReadWriteLock();
+  private MappedByteBuffer[] mappedChunks = new MappedByteBuffer[0];  // guarded by mapLock
+  private boolean mapClosed;  // guarded by mapLock
+
   // write a BytesRef as a byte array
   static final JavaBinCodec.ObjectResolver resolver = new JavaBinCodec.ObjectResolver() {
     @Override
@@ -247,7 +280,14 @@ public class TransactionLog implements Closeable {
     synchronized (this) {
       assert snapshot_size == pos;
       fos.flush();
-      raf.setLength(pos);
+      // don't read the truncated part of the file through stale mappings, and wait for the readers of the mappings
+      mapLock.writeLock().lock();
+      try {
+        unmapChunks();
+        raf.setLength(pos);
+      } finally {
+        mapLock.writeLock().unlock();
+      }
       fos.setWritten(pos);
       assert fos.size() == pos;
       numRecords = snapshot_numRecords;
@@ -523,7 +563,8 @@ public class TransactionLog implements Closeable {
         ***/
       }
 
-      ChannelFastInputStream fis = new ChannelFastInputStream(channel, pos);
+      // a single record is read, no need for a large buffer when it is read from memory
+      ChannelFastInputStream fis = newInputStream(pos, MMAP_READS ? new byte[1024] : new byte[8192]);
       LogCodec codec = new LogCodec(resolver);
       return codec.readVal(fis);
     } catch (IOException e) {
@@ -531,6 +572,97 @@ public class TransactionLog implements Closeable {
     }
   }
 
+  private ChannelFastInputStream newInputStream(long pos, byte[] buf) {
+    return MMAP_READS ? new MappedFastInputStream(this, channel, pos, buf) : new ChannelFastInputStream(channel, pos, buf);
+  }
+
+  /**
+   * Reads from the memory mapped chunk that contains <code>position</code>, mapping it if needed.
+   *
+   * @return the number of bytes read, or 0 if the bytes at this position are not mapped (yet), in which case
+   * they should be read from the channel.
+   */
+  int readMapped(long position, byte[] target, int offset, int len) throws IOException {
+    final int chunkIdx = (int) (position >>> MAP_CHUNK_SIZE_POWER);
+    final int chunkPos = (int) (position & ((1 << MAP_CHUNK_SIZE_POWER) - 1));
+    mapLock.readLock().lock();
+    try {
+      ByteBuffer chunk = chunkIdx < mappedChunks.length ? mappedChunks[chunkIdx] : null;
+      final int mappedLimit = chunk == null ? 0 : chunk.limit();
+      if (chunkPos >= mappedLimit) {
+        // the tail of a log that is being written grows all the time: read the tail from the channel, and only
+        // remap once reads got far enough past the mapping, which guarantees that the file has grown enough
+        if (chunkPos - mappedLimit < MIN_REMAP_SIZE) {
+          return 0;
+        }
+        // remapping unmaps the previous mapping of the chunk, which requires the write lock
+        mapLock.readLock().unlock();
+        mapLock.writeLock().lock();
+        try {
+          chunk = mapChunk(chunkIdx, chunkPos);
+        } finally {
+          // downgrade, so that the chunk can't be unmapped until it has been read
+          mapLock.readLock().lock();
+          mapLock.writeLock().unlock();
+        }
+        if (chunk == null) {
+          return 0;
+        }
+      }
+      chunk = chunk.duplicate();  // don't share the position with other readers
+      int n = Math.min(len, chunk.limit() - chunkPos);
+      chunk.position(chunkPos);
+      chunk.get(target, offset, n);
+      return n;
+    } finally {
+      mapLock.readLock().unlock();
+    }
+  }
+
+  /** Returns the chunk that contains <code>chunkPos</code>, mapping it again if needed, or null if it is not mapped. */
+  private ByteBuffer mapChunk(int chunkIdx, int chunkPos) throws IOException {
+    assert mapLock.isWriteLockedByCurrentThread();
+    if (mapClosed) {
+      return null;
+    }
+    MappedByteBuffer chunk = chunkIdx < mappedChunks.length ? mappedChunks[chunkIdx] : null;
+    if (chunk != null && chunk.limit() > chunkPos) {
+      return chunk;  // mapped by another reader in the meantime
+    }
+    long chunkStart = (long) chunkIdx << MAP_CHUNK_SIZE_POWER;
+    long length = Math.min(1L << MAP_CHUNK_SIZE_POWER, channel.size() - chunkStart);
+    if (length <= chunkPos) {
+      return null;  // past the end of the file
+    }
+    MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, length);
+    if (chunkIdx >= mappedChunks.length) {
+      mappedChunks = Arrays.copyOf(mappedChunks, chunkIdx + 1);
+    }
+    mappedChunks[chunkIdx] = mapped;
+    if (chunk != null) {
+      unmap(chunk);
+    }
+    return mapped;
+  }
+
+  /** Unmaps all chunks, like MMapDirectory does, instead of waiting for the garbage collector to release them. */
+  private void unmapChunks() throws IOException {
+    assert mapLock.isWriteLockedByCurrentThread();
+    final MappedByteBuffer[] chunks = mappedChunks;
+    mappedChunks = new MappedByteBuffer[0];
+    for (MappedByteBuffer chunk : chunks) {
+      if (chunk != null) {
+        unmap(chunk);
+      }
+    }
+  }
+
+  private void unmap(MappedByteBuffer chunk) throws IOException {
+    if (MMapDirectory.UNMAP_SUPPORTED) {
+      MMapDirectory.unmap(tlogFile.toString(), chunk);
+    } // else the mapped memory is released when the buffer is garbage collected
+  }
+
   public void incref() {
     int result = refcount.incrementAndGet();
     if (result <= 1) {
@@ -579,6 +711,56 @@ public class TransactionLog implements Closeable {
     }
   }
 
+  /**
+   * Makes all records that have been written so far durable, like {@link #finish(UpdateLog.SyncLevel)} with
+   * {@link UpdateLog.SyncLevel#FSYNC}, but shares syncs between concurrent callers: while a sync is in progress,
+   * other callers queue up, and the next sync, issued by one of them, covers all of their records at once.
+   *
+   * @return the (approximate) number of callers whose records were made durable by the sync that this caller
+   * issued, or 0 if the records of this caller were made durable by the sync of another caller
+   */
+  public int groupSync() {
+    final long target = position();
+    int batchSize = 0;
+    syncLock.lock();
+    try {
+      if (syncedPosition < target) {
+        numSyncWaiters++;
+      }
+      while (syncedPosition < target) {
+        if (syncing) {
+          syncDone.awaitUninterruptibly();
+          continue;
+        }
+
+        // sync the records of everybody that is waiting
+        syncing = true;
+        int waiters = numSyncWaiters;
+        numSyncWaiters = 0;
+        long pos = 0;
+        boolean success = false;
+        // don't hold the lock while syncing so that new callers can queue up for the next sync
+        syncLock.unlock();
+        try {
+          pos = position();
+          finish(UpdateLog.SyncLevel.FSYNC);
+          success = true;
+        } finally {
+          syncLock.lock();
+          syncing = false;
+          if (success) {
+            syncedPosition = Math.max(syncedPosition, pos);
+            batchSize = waiters;
+          }
+          syncDone.signalAll();
+        }
+      }
+    } finally {
+      syncLock.unlock();
+    }
+    return batchSize;
+  }
+
   public void close() {
     try {
       if (debug) {
@@ -589,6 +771,14 @@ public class TransactionLog implements Closeable {
         fos.flush();
         fos.close();
       }
+      // waits for the readers that are still reading mapped chunks, e.g. after forceClose()
+      mapLock.writeLock().lock();
+      try {
+        mapClosed = true;
+        unmapChunks();
+      } finally {
+        mapLock.writeLock().unlock();
+      }
 
       if (deleteOnClose) {
         try {
@@ -632,6 +822,20 @@ public class TransactionLog implements Closeable {
     return new LogReader(startingPos);
   }
 
+  /**
+   * Returns a reader that reads and decodes records ahead of the caller on a thread of <code>executor</code>,
+   * for sequential reads of a log that is no longer written to. Only <code>numPrefetched</code> decoded
+   * records are held in memory at any time. If the executor rejects the task, a regular reader is returned.
+   */
+  public LogReader getPrefetchingReader(long startingPos, int numPrefetched, ExecutorService executor) {
+    LogReader reader = getReader(startingPos);
+    try {
+      return new PrefetchingLogReader(reader, numPrefetched, executor);
+    } catch (RejectedExecutionException e) {
+      return reader;
+    }
+  }
+
   /** Returns a single threaded reverse reader */
   public ReverseReader getReverseReader() throws IOException {
     return new FSReverseReader();
@@ -643,7 +847,7 @@ public class TransactionLog implements Closeable {
 
     public LogReader(long startingPos) {
       incref();
-      fis = new ChannelFastInputStream(channel, startingPos);
+      fis = newInputStream(startingPos, new byte[8192]);
     }
 
     // for classes that extend
@@ -715,6 +919,105 @@ public class TransactionLog implements Closeable {
 
   }
 
+  public class PrefetchingLogReader extends LogReader {
+    private final Object END = new Object();  // marks the end of the log in the queue
+
+    private final LogReader in;
+    private final BlockingQueue<Object> records;
+    private final Future<?> prefetcher;
+    private volatile boolean closed;
+    private boolean eof;
+
+    PrefetchingLogReader(LogReader in, int numPrefetched, ExecutorService executor) {
+      this.in = in;
+      this.records = new ArrayBlockingQueue<>(numPrefetched);
+      this.prefetcher = executor.submit(this::prefetch);
+    }
+
+    private void prefetch() {
+      try {
+        for (Object o = in.next(); o != null; o = in.next()) {
+          if (!put(o)) return;
+        }
+        put(END);
+      } catch (Throwable t) {
+        put(new PrefetchFailure(t));
+      }
+    }
+
+    private boolean put(Object o) {
+      try {
+        while (!closed) {
+          if (records.offer(o, 100, TimeUnit.MILLISECONDS)) {
+            return true;
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return false;
+    }
+
+    @Override
+    public Object next() throws IOException, InterruptedException {
+      if (eof) return null;
+      Object o = records.take();
+      if (o == END) {
+        eof = true;
+        return null;
+      }
+      if (o instanceof PrefetchFailure) {
+        eof = true;
+        Throwable t = ((PrefetchFailure) o).cause;
+        if (t instanceof IOException) throw (IOException) t;
+        if (t instanceof InterruptedException) throw (InterruptedException) t;
+        if (t instanceof RuntimeException) throw (RuntimeException) t;
+        if (t instanceof Error) throw (Error) t;
+        throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, t);
+      }
+      return o;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+      records.clear();
+      try {
+        prefetcher.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        // the failure was already passed on to next()
+      } finally {
+        in.close();
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "PrefetchingLogReader{" + in + ", prefetched=" + records.size() + "}";
+    }
+
+    // best effort, the underlying reader is ahead by the prefetched records
+    @Override
+    public long currentPos() {
+      return in.currentPos();
+    }
+
+    @Override
+    public long currentSize() throws IOException {
+      return in.currentSize();
+    }
+  }
+
+  private static class PrefetchFailure {
+    final Throwable cause;
+
+    PrefetchFailure(Throwable cause) {
+      this.cause = cause;
+    }
+  }
+
   public abstract class ReverseReader {
 
     /** Returns the next object from the log, or null if none available.
@@ -840,6 +1143,12 @@ class ChannelFastInputStream extends FastInputStream {
     super.readFromStream = chPosition;
   }
 
+  public ChannelFastInputStream(FileChannel ch, long chPosition, byte[] buf) {
+    super(null, buf, 0, 0);
+    this.ch = ch;
+    super.readFromStream = chPosition;
+  }
+
   @Override
   public int readWrappedStream(byte[] target, int offset, int len) throws IOException {
     ByteBuffer bb = ByteBuffer.wrap(target, offset, len);
@@ -880,4 +1189,21 @@ class ChannelFastInputStream extends FastInputStream {
   }
 }
 
+/**
+ * Reads the log file through its memory mapped chunks, see {@link TransactionLog#readMapped}, and falls back
+ * to positional reads for the parts of the file that are not mapped.
+ */
+class MappedFastInputStream extends ChannelFastInputStream {
+  private final TransactionLog tlog;
+
+  public MappedFastInputStream(TransactionLog tlog, FileChannel ch, long chPosition, byte[] buf) {
+    super(ch, chPosition, buf);
+    this.tlog = tlog;
+  }
 
+  @Override
+  public int readWrappedStream(byte[] target, int offset, int len) throws IOException {
+    int n = tlog.readMapped(readFromStream, target, offset, len);
+    return n > 0 ? n : super.readWrappedStream(target, offset, len);
+  }
+}
@@ -36,14 +36,21 @@ import java.util.ListIterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.lucene.util.BytesRef;
 import org.apache.solr.common.SolrDocumentBase;
@@ -192,6 +199,7 @@ public static final int VERSION_IDX = 1;
   protected int numRecordsToKeep;
   protected int maxNumLogsToKeep;
   protected int numVersionBuckets; // This should only be used to initialize VersionInfo... the actual number of buckets may be rounded up to a power of two.
+  protected int numReplayThreads = 1;  // the number of threads that apply the adds and deletes of a replayed log
   protected Long maxVersionFromIndex = null;
 
   // keep track of deletes only... this is not updated on an add
@@ -224,6 +232,7 @@ public static final int VERSION_IDX = 1;
   protected VersionInfo versionInfo;
 
   protected SyncLevel defaultSyncLevel = SyncLevel.FLUSH;
+  protected boolean groupCommit;  // if true, concurrent FSYNC requests share fsyncs
 
   volatile UpdateHandler uhandler;    // a core reload can change this reference!
   protected volatile boolean cancelApplyBufferUpdate;
@@ -237,6 +246,8 @@ public static final int VERSION_IDX = 1;
   protected Gauge<Integer> stateGauge;
   protected Meter applyingBufferedOpsMeter;
   protected Meter replayOpsMeter;
+  protected Timer groupCommitTimer;
+  protected Histogram groupCommitBatchSizes;
 
   public static class LogPtr {
     final long pointer;
@@ -304,6 +315,10 @@ public static final int VERSION_IDX = 1;
     return numVersionBuckets;
   }
 
+  public int getNumReplayThreads() {
+    return numReplayThreads;
+  }
+
   protected static int objToInt(Object obj, int def) {
     if (obj != null) {
       return Integer.parseInt(obj.toString());
@@ -315,6 +330,8 @@ public static final int VERSION_IDX = 1;
   public void init(PluginInfo info) {
     dataDir = (String)info.initArgs.get("dir");
     defaultSyncLevel = SyncLevel.getSyncLevel((String)info.initArgs.get("syncLevel"));
+    Object groupCommitArg = info.initArgs.get("groupCommit");
+    groupCommit = groupCommitArg != null && Boolean.parseBoolean(groupCommitArg.toString());
 
     numRecordsToKeep = objToInt(info.initArgs.get("numRecordsToKeep"), 100);
     maxNumLogsToKeep = objToInt(info.initArgs.get("maxNumLogsToKeep"), 10);
@@ -322,9 +339,13 @@ public static final int VERSION_IDX = 1;
     if (numVersionBuckets <= 0)
       throw new SolrException(SolrException.ErrorCode.SERVER_ERROR,
           "Number of version buckets must be greater than 0!");
+    numReplayThreads = objToInt(info.initArgs.get("numReplayThreads"), 1);
+    if (numReplayThreads <= 0)
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR,
+          "Number of replay threads must be greater than 0!");
 
-    log.info("Initializing UpdateLog: dataDir={} defaultSyncLevel={} numRecordsToKeep={} maxNumLogsToKeep={} numVersionBuckets={}",
-        dataDir, defaultSyncLevel, numRecordsToKeep, maxNumLogsToKeep, numVersionBuckets);
+    log.info("Initializing UpdateLog: dataDir={} defaultSyncLevel={} groupCommit={} numRecordsToKeep={} maxNumLogsToKeep={} numVersionBuckets={} numReplayThreads={}",
+        dataDir, defaultSyncLevel, groupCommit, numRecordsToKeep, maxNumLogsToKeep, numVersionBuckets, numReplayThreads);
   }
 
   /* Note, when this is called, uhandler is not completely constructed.
@@ -430,6 +451,8 @@ public static final int VERSION_IDX = 1;
     manager.register(registry, replayBytesGauge, true, "bytes", scope, "replay", "remaining");
     applyingBufferedOpsMeter = manager.meter(registry, "ops", scope, "applyingBuffered");
     replayOpsMeter = manager.meter(registry, "ops", scope, "replay");
+    groupCommitTimer = manager.timer(registry, "latency", scope, "groupCommit");
+    groupCommitBatchSizes = manager.histogram(registry, "batchSize", scope, "groupCommit");
     stateGauge = () -> state.getValue();
     manager.register(registry, stateGauge, true, "state", scope);
   }
@@ -1041,12 +1064,27 @@ public static final int VERSION_IDX = 1;
     }
 
     try {
-      currLog.finish(syncLevel);
+      if (syncLevel == SyncLevel.FSYNC && groupCommit) {
+        groupSync(currLog);
+      } else {
+        currLog.finish(syncLevel);
+      }
     } finally {
       currLog.decref();
     }
   }
 
+  private void groupSync(TransactionLog currLog) {
+    Timer.Context timerContext = groupCommitTimer == null ? null : groupCommitTimer.time();
+    int batchSize = currLog.groupSync();
+    if (timerContext != null) {
+      timerContext.stop();
+    }
+    if (batchSize > 0 && groupCommitBatchSizes != null) {
+      groupCommitBatchSizes.update(batchSize);
+    }
+  }
+
 
   public Future<RecoveryInfo> recoverFromLog() {
     recoveryInfo = new RecoveryInfo();
@@ -1473,11 +1511,17 @@ public static final int VERSION_IDX = 1;
 
   protected RecoveryInfo recoveryInfo;
 
+  /** the number of decoded records that are read ahead while replaying an inactive log */
+  static final int REPLAY_PREFETCH_SIZE = 1000;
+  /** the number of updates that can wait for each replay thread */
+  static final int REPLAY_QUEUE_SIZE = 1000;
+
   class LogReplayer implements Runnable {
     private Logger loglog = log;  // set to something different?
 
     Deque<TransactionLog> translogs;
     TransactionLog.LogReader tlogReader;
+    ParallelReplayer parallelReplayer;
     boolean activeLog;
     boolean finishing = false;  // state where we lock out other updates and finish those updates that snuck in before we locked
     boolean debug = loglog.isDebugEnabled();
@@ -1553,13 +1597,22 @@ public static final int VERSION_IDX = 1;
       try {
         loglog.warn("Starting log replay " + translog + " active=" + activeLog + " starting pos=" + recoveryInfo.positionOfStart);
         long lastStatusTime = System.nanoTime();
-        tlogReader = translog.getReader(recoveryInfo.positionOfStart);
+        // an inactive log doesn't grow anymore, so its records can be decoded ahead while the previous ones are applied
+        tlogReader = activeLog ? translog.getReader(recoveryInfo.positionOfStart)
+            : translog.getPrefetchingReader(recoveryInfo.positionOfStart, REPLAY_PREFETCH_SIZE, recoveryExecutor);
 
         // NOTE: we don't currently handle a core reload during recovery.  This would cause the core
         // to change underneath us.
 
         UpdateRequestProcessorChain processorChain = req.getCore().getUpdateProcessingChain(null);
         UpdateRequestProcessor proc = processorChain.createProcessor(req, rsp);
+        if (numReplayThreads > 1) {
+          try {
+            parallelReplayer = new ParallelReplayer(processorChain, numReplayThreads);
+          } catch (RejectedExecutionException e) {
+            loglog.warn("Could not start replay threads, replaying " + translog + " sequentially", e);
+          }
+        }
 
         long commitVersion = 0;
         int operationAndFlags = 0;
@@ -1588,6 +1641,18 @@ public static final int VERSION_IDX = 1;
             o = tlogReader.next();
             if (o == null && activeLog) {
               if (!finishing) {
+                if (parallelReplayer != null) {
+                  // the replay threads can't apply updates once they are blocked, so apply the rest of
+                  // the log sequentially on this thread, which can lock for updates while holding the block
+                  try {
+                    parallelReplayer.awaitIdle();
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SolrException(ErrorCode.SERVER_ERROR, e);
+                  }
+                  parallelReplayer.finish();
+                  parallelReplayer = null;
+                }
                 // block to prevent new adds, but don't immediately unlock since
                 // we could be starved from ever completing recovery.  Only unlock
                 // after we've finished this recovery.
@@ -1628,7 +1693,11 @@ public static final int VERSION_IDX = 1;
                 AddUpdateCommand cmd = convertTlogEntryToAddUpdateCommand(req, entry, oper, version);
                 cmd.setFlags(UpdateCommand.REPLAY | UpdateCommand.IGNORE_AUTOCOMMIT);
                 log.debug("{} {}", oper == ADD ? "add" : "update", cmd);
-                proc.processAdd(cmd);
+                if (parallelReplayer != null) {
+                  parallelReplayer.submit(cmd, cmd.getIndexedId());
+                } else {
+                  proc.processAdd(cmd);
+                }
                 break;
               }
               case UpdateLog.DELETE: {
@@ -1639,7 +1708,11 @@ public static final int VERSION_IDX = 1;
                 cmd.setVersion(version);
                 cmd.setFlags(UpdateCommand.REPLAY | UpdateCommand.IGNORE_AUTOCOMMIT);
                 if (debug) log.debug("delete " + cmd);
-                proc.processDelete(cmd);
+                if (parallelReplayer != null) {
+                  parallelReplayer.submit(cmd, cmd.getIndexedId());
+                } else {
+                  proc.processDelete(cmd);
+                }
                 break;
               }
 
@@ -1651,6 +1724,10 @@ public static final int VERSION_IDX = 1;
                 cmd.setVersion(version);
                 cmd.setFlags(UpdateCommand.REPLAY | UpdateCommand.IGNORE_AUTOCOMMIT);
                 if (debug) log.debug("deleteByQuery " + cmd);
+                if (parallelReplayer != null) {
+                  // the query may match any doc, so all previous updates must have been applied
+                  parallelReplayer.awaitIdle();
+                }
                 proc.processDelete(cmd);
                 break;
               }
@@ -1697,6 +1774,16 @@ public static final int VERSION_IDX = 1;
           assert TestInjection.injectUpdateLogReplayRandomPause();
         }
 
+        if (parallelReplayer != null) {
+          try {
+            parallelReplayer.awaitIdle();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SolrException(ErrorCode.SERVER_ERROR, e);
+          }
+          parallelReplayer.finish();
+        }
+
         CommitUpdateCommand cmd = new CommitUpdateCommand(req, false);
         cmd.setVersion(commitVersion);
         cmd.softCommit = false;
@@ -1727,10 +1814,160 @@ public static final int VERSION_IDX = 1;
         }
 
       } finally {
+        if (parallelReplayer != null) {
+          parallelReplayer.finish();
+          parallelReplayer = null;
+        }
         if (tlogReader != null) tlogReader.close();
         translog.decref();
       }
     }
+
+    /**
+     * Applies the adds and deletes by id of a replayed log on several threads, each with its own request and
+     * update processor. Updates are assigned to threads by id so that the updates of a document are applied in
+     * the order of the log, and the processors lock the version buckets of the docs as usual.
+     */
+    private class ParallelReplayer {
+      private final UpdateCommand STOP = new DeleteUpdateCommand(null);
+
+      private final UpdateRequestProcessorChain processorChain;
+      private final List<Worker> workers = new ArrayList<>();
+      private final CountDownLatch stopped;
+      private final AtomicInteger errors = new AtomicInteger();
+      private final Object idleLock = new Object();
+      private int pending;  // submitted updates that haven't been applied yet, guarded by idleLock
+      private volatile SolrException fatal;
+      private boolean finished;
+
+      ParallelReplayer(UpdateRequestProcessorChain processorChain, int numThreads) {
+        this.processorChain = processorChain;
+        this.stopped = new CountDownLatch(numThreads);
+        try {
+          for (int i = 0; i < numThreads; i++) {
+            Worker worker = new Worker();
+            recoveryExecutor.execute(worker);
+            workers.add(worker);
+          }
+        } catch (RejectedExecutionException e) {
+          for (int i = workers.size(); i < numThreads; i++) {
+            stopped.countDown();
+          }
+          finish();
+          throw e;
+        }
+      }
+
+      void submit(UpdateCommand cmd, BytesRef indexedId) throws InterruptedException {
+        checkFatal();
+        Worker worker = workers.get((indexedId.hashCode() & 0x7fffffff) % workers.size());
+        synchronized (idleLock) {
+          pending++;
+        }
+        worker.queue.put(cmd);
+      }
+
+      /** Waits until all submitted updates have been applied. */
+      void awaitIdle() throws InterruptedException {
+        synchronized (idleLock) {
+          while (pending > 0) {
+            idleLock.wait();
+          }
+        }
+        recoveryInfo.errors += errors.getAndSet(0);
+        checkFatal();
+      }
+
+      /** Stops the threads once they have applied the updates that were submitted. */
+      void finish() {
+        if (finished) return;
+        finished = true;
+        try {
+          for (Worker worker : workers) {
+            worker.queue.put(STOP);
+          }
+          stopped.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        recoveryInfo.errors += errors.getAndSet(0);
+      }
+
+      private void checkFatal() {
+        if (fatal != null) {
+          throw fatal;
+        }
+      }
+
+      private class Worker implements Runnable {
+        final BlockingQueue<UpdateCommand> queue = new ArrayBlockingQueue<>(REPLAY_QUEUE_SIZE);
+        final SolrQueryRequest req = new LocalSolrQueryRequest(uhandler.core, LogReplayer.this.req.getParams());
+        final SolrQueryResponse rsp = new SolrQueryResponse();
+        UpdateRequestProcessor proc;
+
+        @Override
+        public void run() {
+          SolrRequestInfo.setRequestInfo(new SolrRequestInfo(req, rsp));
+          try {
+            try {
+              proc = processorChain.createProcessor(req, rsp);
+            } catch (Exception e) {
+              errors.incrementAndGet();
+              loglog.error("REPLAY_ERR: Exception creating update processor", e);
+            }
+            for (;;) {
+              UpdateCommand cmd = queue.take();
+              if (cmd == STOP) break;
+              // after an error that stops the replay, only drain the queue
+              if (proc != null && fatal == null) {
+                apply(cmd);
+              }
+              synchronized (idleLock) {
+                if (--pending == 0) {
+                  idleLock.notifyAll();
+                }
+              }
+            }
+            if (proc != null) {
+              proc.finish();
+            }
+          } catch (Exception e) {
+            errors.incrementAndGet();
+            loglog.error("Replay exception: finish()", e);
+          } finally {
+            req.close();
+            SolrRequestInfo.clearRequestInfo();
+            stopped.countDown();
+          }
+        }
+
+        private void apply(UpdateCommand cmd) {
+          try {
+            cmd.setReq(req);
+            if (cmd instanceof AddUpdateCommand) {
+              proc.processAdd((AddUpdateCommand) cmd);
+            } else {
+              proc.processDelete((DeleteUpdateCommand) cmd);
+            }
+            if (rsp.getException() != null) {
+              loglog.error("REPLAY_ERR: Exception replaying log", rsp.getException());
+              throw rsp.getException();
+            }
+          } catch (SolrException ex) {
+            if (ex.code() == ErrorCode.SERVICE_UNAVAILABLE.code) {
+              fatal = ex;
+              return;
+            }
+            errors.incrementAndGet();
+            loglog.warn("REPLAY_ERR: Exception replaying log", ex);
+          } catch (Exception ex) {
+            errors.incrementAndGet();
+            loglog.warn("REPLAY_ERR: Exception replaying log", ex);
+            // something wrong with the request?
+          }
+        }
+      }
+    }
   }
 
   /**
@@ -0,0 +1,603 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.solr.common.util.Cache;
+import org.apache.solr.search.LRUCache;
+
+/**
+ * A cache implementation based upon ConcurrentHashMap that uses a frequency-aware
+ * admission policy (W-TinyLFU) in order to decide which entries to keep.
+ * <p>
+ * New entries are first added to a small admission window that holds about 1% of
+ * the entries of the cache. Once the cache is full, the oldest entry of the window
+ * competes with a victim from the main region of the cache, which is the least
+ * frequently used entry out of {@value #SAMPLE_SIZE} randomly sampled entries:
+ * the entry that has the lowest estimated access frequency is evicted. Access
+ * frequencies are estimated with a count-min sketch that is periodically aged, so
+ * that entries that are accessed only once, like those of scans, do not evict
+ * popular entries.
+ * <p>
+ * Lookups do not take any lock: accesses are recorded into lossy buffers that are
+ * replayed into the frequency sketch on the next write operation. Write operations
+ * are serialized.
+ * <p>
+ * The cache may be bounded by its number of entries, by its memory usage, or both.
+ * Memory usage is computed through {@link Accountable} for keys and values that
+ * implement it, and assumes {@link LRUCache#DEFAULT_RAM_BYTES_USED} bytes otherwise.
+ *
+ * @since solr 7.0
+ */
+public class ConcurrentTinyLFUCache<K,V> implements Cache<K,V>, Accountable {
+
+  static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(ConcurrentTinyLFUCache.class);
+
+  /** Number of entries of the main region that are sampled in order to find a victim. */
+  public static final int SAMPLE_SIZE = 8;
+
+  // number of accesses that each access buffer may hold, must be a power of two
+  private static final int ACCESS_BUFFER_SIZE = 16;
+
+  private final ConcurrentHashMap<K, CacheEntry<K,V>> map;
+  private final int maxSize;
+  private final long maxRamBytes;
+  private final Stats stats = new Stats();
+  private volatile boolean islive = true;
+
+  // everything below is guarded by the eviction lock, except the access buffers
+  // which may be written concurrently
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final AccessBuffer[] accessBuffers;
+  private FrequencySketch sketch;
+  // entries are removed lazily from the window, see windowSize for the actual
+  // number of entries in the window
+  private final ArrayDeque<CacheEntry<K,V>> window = new ArrayDeque<>();
+  private int windowSize;
+  // entries of the main region, in no particular order
+  private final List<CacheEntry<K,V>> main = new ArrayList<>();
+  private final Random random = new Random();
+  private long insertions;
+  private volatile long ramBytes;
+
+  /**
+   * Create a new cache.
+   * @param maxSize the maximum number of entries, or {@link Integer#MAX_VALUE} if unbounded
+   * @param maxRamBytes the maximum memory usage in bytes, or {@link Long#MAX_VALUE} if unbounded
+   * @param initialSize the initial capacity of the cache, which is also the initial size of
+   *                    the frequency sketch if the number of entries is unbounded: the sketch
+   *                    then grows with the number of entries
+   */
+  public ConcurrentTinyLFUCache(int maxSize, long maxRamBytes, int initialSize) {
+    if (maxSize < 1) throw new IllegalArgumentException("maxSize must be > 0");
+    if (maxRamBytes < 1) throw new IllegalArgumentException("maxRamBytes must be > 0");
+    if (initialSize < 0) throw new IllegalArgumentException("initialSize must be >= 0");
+    this.maxSize = maxSize;
+    this.maxRamBytes = maxRamBytes;
+    this.map = new ConcurrentHashMap<>(initialSize);
+    this.sketch = new FrequencySketch(maxSize == Integer.MAX_VALUE ? Math.max(initialSize, 1) : maxSize);
+    final int numBuffers = Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2));
+    this.accessBuffers = new AccessBuffer[numBuffers];
+    for (int i = 0; i < numBuffers; ++i) {
+      accessBuffers[i] = new AccessBuffer();
+    }
+  }
+
+  public void setAlive(boolean live) {
+    islive = live;
+  }
+
+  @Override
+  public V get(K key) {
+    final CacheEntry<K,V> e = map.get(key);
+    recordAccess(spread(key.hashCode()));
+    if (e == null) {
+      if (islive) stats.missCounter.increment();
+      return null;
+    }
+    if (islive) stats.hitCounter.increment();
+    return e.value;
+  }
+
+  @Override
+  public V put(K key, V val) {
+    if (val == null) return null;
+    evictionLock.lock();
+    try {
+      drainAccessBuffers();
+      if (islive) {
+        stats.putCounter.increment();
+      } else {
+        stats.nonLivePutCounter.increment();
+      }
+      CacheEntry<K,V> e = map.get(key);
+      V oldValue = null;
+      if (e == null) {
+        e = new CacheEntry<>(key, val, insertions++);
+        map.put(key, e);
+        window.addLast(e);
+        windowSize++;
+        if (stats.size.incrementAndGet() > sketch.maxSize && maxSize == Integer.MAX_VALUE) {
+          growSketch();
+        }
+      } else {
+        oldValue = e.value;
+        ramBytes -= e.ramBytes;
+        e.value = val;
+      }
+      e.ramBytes = e.ramBytesUsed();
+      ramBytes += e.ramBytes;
+      evictIfNecessary();
+      return oldValue;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public V remove(K key) {
+    evictionLock.lock();
+    try {
+      final CacheEntry<K,V> e = map.get(key);
+      if (e == null) {
+        return null;
+      }
+      unlink(e);
+      return e.value;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    evictionLock.lock();
+    try {
+      map.clear();
+      window.clear();
+      windowSize = 0;
+      main.clear();
+      ramBytes = 0;
+      stats.size.set(0);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  public int size() {
+    return stats.size.get();
+  }
+
+  private void evictIfNecessary() {
+    assert evictionLock.isHeldByCurrentThread();
+    while (stats.size.get() > maxSize || ramBytes > maxRamBytes) {
+      final CacheEntry<K,V> candidate = oldestWindowEntry();
+      final CacheEntry<K,V> victim = sampleVictim();
+      if (candidate == null && victim == null) {
+        break;
+      } else if (victim == null) {
+        unlink(candidate);
+      } else if (candidate == null) {
+        unlink(victim);
+      } else if (sketch.frequency(spread(candidate.key.hashCode())) > sketch.frequency(spread(victim.key.hashCode()))) {
+        // the candidate is more popular than the victim, admit it
+        unlink(victim);
+      } else {
+        unlink(candidate);
+      }
+      stats.evictionCounter.incrementAndGet();
+    }
+
+    // move entries that overflow the window to the main region
+    final int windowCapacity = Math.max(1, Math.min(maxSize, stats.size.get()) / 100);
+    while (windowSize > windowCapacity) {
+      final CacheEntry<K,V> e = oldestWindowEntry();
+      window.pollFirst();
+      windowSize--;
+      e.mainIndex = main.size();
+      main.add(e);
+    }
+  }
+
+  /**
+   * Grow the frequency sketch when the number of entries is only bounded by
+   * memory, so that it can still tell popular entries apart. Estimated
+   * frequencies of cached entries are carried over to the new sketch.
+   */
+  private void growSketch() {
+    assert evictionLock.isHeldByCurrentThread();
+    final FrequencySketch newSketch = new FrequencySketch((int) Math.min(Integer.MAX_VALUE, 2L * sketch.maxSize));
+    for (K key : map.keySet()) {
+      final int hash = spread(key.hashCode());
+      for (int i = sketch.frequency(hash); i > 0; --i) {
+        newSketch.increment(hash);
+      }
+    }
+    sketch = newSketch;
+  }
+
+  /** Return the oldest entry of the window, or null if the window is empty. */
+  private CacheEntry<K,V> oldestWindowEntry() {
+    CacheEntry<K,V> e;
+    while ((e = window.peekFirst()) != null && e.removed) {
+      window.pollFirst();
+    }
+    return e;
+  }
+
+  /** Return the least frequently used entry out of a sample of the main region. */
+  private CacheEntry<K,V> sampleVictim() {
+    if (main.isEmpty()) {
+      return null;
+    }
+    CacheEntry<K,V> victim = null;
+    int victimFrequency = Integer.MAX_VALUE;
+    for (int i = 0; i < SAMPLE_SIZE; ++i) {
+      final CacheEntry<K,V> e = main.get(random.nextInt(main.size()));
+      final int frequency = sketch.frequency(spread(e.key.hashCode()));
+      // break ties by evicting the entry that was inserted first
+      if (frequency < victimFrequency || (frequency == victimFrequency && e.insertionOrder < victim.insertionOrder)) {
+        victim = e;
+        victimFrequency = frequency;
+      }
+    }
+    return victim;
+  }
+
+  private void unlink(CacheEntry<K,V> e) {
+    assert evictionLock.isHeldByCurrentThread();
+    map.remove(e.key, e);
+    e.removed = true;
+    if (e.mainIndex == -1) {
+      // lazily removed from the window deque
+      windowSize--;
+    } else {
+      final CacheEntry<K,V> last = main.remove(main.size() - 1);
+      if (last != e) {
+        last.mainIndex = e.mainIndex;
+        main.set(e.mainIndex, last);
+      }
+      e.mainIndex = -1;
+    }
+    stats.size.decrementAndGet();
+    ramBytes -= e.ramBytes;
+  }
+
+  private void recordAccess(int hash) {
+    final int bufferIndex = (int) Thread.currentThread().getId() & (accessBuffers.length - 1);
+    if (accessBuffers[bufferIndex].add(hash) && evictionLock.tryLock()) {
+      // the buffer is full, replay accesses unless another thread is already
+      // modifying the cache
+      try {
+        drainAccessBuffers();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  private void drainAccessBuffers() {
+    assert evictionLock.isHeldByCurrentThread();
+    for (AccessBuffer buffer : accessBuffers) {
+      buffer.drainTo(sketch);
+    }
+  }
+
+  /** Return the estimated number of times that the given key has been accessed. */
+  public int frequency(K key) {
+    evictionLock.lock();
+    try {
+      drainAccessBuffers();
+      return sketch.frequency(spread(key.hashCode()));
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Copy access frequencies from another cache, so that popular entries of the
+   * other cache are not evicted by entries that have been accessed only once.
+   * This is a no-op if both caches have frequency sketches of different sizes,
+   * unless this cache has an unbounded number of entries and a smaller sketch,
+   * which is then grown to the size of the other sketch.
+   */
+  public void copyFrequencies(ConcurrentTinyLFUCache<K,V> other) {
+    evictionLock.lock();
+    try {
+      other.evictionLock.lock();
+      try {
+        other.drainAccessBuffers();
+        if (maxSize == Integer.MAX_VALUE && sketch.maxSize < other.sketch.maxSize) {
+          sketch = new FrequencySketch(other.sketch.maxSize);
+        }
+        sketch.copyFrom(other.sketch);
+      } finally {
+        other.evictionLock.unlock();
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Returns up to 'n' entries of this cache, most frequently accessed first.
+   * @param n the number of entries needed
+   * @return a LinkedHashMap containing 'n' or less than 'n' entries
+   */
+  public Map<K,V> getMostFrequentlyAccessedItems(int n) {
+    Map<K,V> result = new LinkedHashMap<>();
+    if (n <= 0)
+      return result;
+    final List<CacheEntry<K,V>> entries;
+    evictionLock.lock();
+    try {
+      drainAccessBuffers();
+      entries = new ArrayList<>(map.values());
+      for (CacheEntry<K,V> e : entries) {
+        e.frequencyCopy = sketch.frequency(spread(e.key.hashCode()));
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+    // most frequent first, then most recently inserted first
+    entries.sort((a, b) -> a.frequencyCopy != b.frequencyCopy
+        ? Integer.compare(b.frequencyCopy, a.frequencyCopy)
+        : Long.compare(b.insertionOrder, a.insertionOrder));
+    for (CacheEntry<K,V> e : entries.subList(0, Math.min(n, entries.size()))) {
+      result.put(e.key, e.value);
+    }
+    return result;
+  }
+
+  public Stats getStats() {
+    return stats;
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED + ramBytes;
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    return Collections.emptyList();
+  }
+
+  // spreads bits of hash codes since the sketch uses the lower bits to pick counters
+  private static int spread(int hash) {
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    return (hash >>> 16) ^ hash;
+  }
+
+  private static class CacheEntry<K,V> implements Accountable {
+    static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(CacheEntry.class);
+
+    final K key;
+    volatile V value;
+    final long insertionOrder;
+    // position in the main region, or -1 if the entry is in the window
+    int mainIndex = -1;
+    boolean removed;
+    // memory usage when the entry was last updated
+    long ramBytes;
+    int frequencyCopy;
+
+    CacheEntry(K key, V value, long insertionOrder) {
+      this.key = key;
+      this.value = value;
+      this.insertionOrder = insertionOrder;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      long ramBytes = BASE_RAM_BYTES_USED + LRUCache.HASHTABLE_RAM_BYTES_PER_ENTRY;
+      if (key instanceof Accountable) {
+        ramBytes += ((Accountable) key).ramBytesUsed();
+      } else {
+        ramBytes += LRUCache.DEFAULT_RAM_BYTES_USED;
+      }
+      final V value = this.value;
+      if (value instanceof Accountable) {
+        ramBytes += ((Accountable) value).ramBytesUsed();
+      } else {
+        ramBytes += LRUCache.DEFAULT_RAM_BYTES_USED;
+      }
+      return ramBytes;
+    }
+
+    @Override
+    public Collection<Accountable> getChildResources() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public String toString() {
+      return "key: " + key + " value: " + value;
+    }
+  }
+
+  /**
+   * A lossy buffer of hashes of accessed keys. Accesses may be overwritten by
+   * more recent ones if the buffer is not drained in time, which only makes
+   * frequency estimations less accurate.
+   */
+  private static class AccessBuffer {
+
+    private final AtomicLongArray hashes = new AtomicLongArray(ACCESS_BUFFER_SIZE);
+    private final AtomicInteger writeCount = new AtomicInteger();
+
+    /** Record an access, returns {@code true} if the buffer should be drained. */
+    boolean add(int hash) {
+      final int count = writeCount.getAndIncrement();
+      // set a high bit to distinguish recorded hashes from empty slots
+      hashes.lazySet(count & (ACCESS_BUFFER_SIZE - 1), (1L << 32) | (hash & 0xFFFFFFFFL));
+      return ((count + 1) & (ACCESS_BUFFER_SIZE - 1)) == 0;
+    }
+
+    void drainTo(FrequencySketch sketch) {
+      for (int i = 0; i < ACCESS_BUFFER_SIZE; ++i) {
+        final long hash = hashes.getAndSet(i, 0L);
+        if (hash != 0L) {
+          sketch.increment((int) hash);
+        }
+      }
+    }
+  }
+
+  /**
+   * A count-min sketch with 4 rows of 4-bit counters that estimates how many
+   * times keys have been accessed. All counters are halved after a number of
+   * increments that is proportional to the size of the cache so that the
+   * sketch favors recent popularity. This class is not thread-safe.
+   */
+  static final class FrequencySketch {
+
+    private static final long[] SEEDS = new long[] {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    final int maxSize;
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int maxSize) {
+      this.maxSize = maxSize;
+      // each long stores 16 counters, 4 per row
+      final int tableSize = maxSize <= 1 ? 1 : Math.min(1 << 30, Integer.highestOneBit(maxSize - 1) << 1);
+      table = new long[tableSize];
+      tableMask = tableSize - 1;
+      sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * maxSize);
+    }
+
+    int frequency(int hash) {
+      final int start = (hash & 3) << 2;
+      int frequency = Integer.MAX_VALUE;
+      for (int i = 0; i < 4; ++i) {
+        final int index = indexOf(hash, i);
+        final int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+        frequency = Math.min(frequency, count);
+      }
+      return frequency;
+    }
+
+    void increment(int hash) {
+      final int start = (hash & 3) << 2;
+      boolean added = false;
+      for (int i = 0; i < 4; ++i) {
+        added |= incrementAt(indexOf(hash, i), start + i);
+      }
+      if (added && ++additions >= sampleSize) {
+        reset();
+      }
+    }
+
+    void copyFrom(FrequencySketch other) {
+      if (other.table.length == table.length) {
+        System.arraycopy(other.table, 0, table, 0, table.length);
+        additions = other.additions;
+      }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+      final int offset = counter << 2;
+      final long mask = 0xfL << offset;
+      if ((table[index] & mask) != mask) {
+        table[index] += 1L << offset;
+        return true;
+      }
+      return false;
+    }
+
+    private int indexOf(int hash, int i) {
+      long h = (hash + SEEDS[i]) * SEEDS[i];
+      h += h >>> 32;
+      return ((int) h) & tableMask;
+    }
+
+    private void reset() {
+      for (int i = 0; i < table.length; ++i) {
+        table[i] = (table[i] >>> 1) & RESET_MASK;
+      }
+      additions >>>= 1;
+    }
+  }
+
+  public static class Stats {
+    private final LongAdder hitCounter = new LongAdder();
+    private final LongAdder missCounter = new LongAdder();
+    private final LongAdder putCounter = new LongAdder();
+    private final LongAdder nonLivePutCounter = new LongAdder();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong evictionCounter = new AtomicLong();
+
+    public long getCumulativeLookups() {
+      return hitCounter.longValue() + missCounter.longValue();
+    }
+
+    public long getCumulativeHits() {
+      return hitCounter.longValue();
+    }
+
+    public long getCumulativePuts() {
+      return putCounter.longValue();
+    }
+
+    public long getCumulativeEvictions() {
+      return evictionCounter.get();
+    }
+
+    public int getCurrentSize() {
+      return size.get();
+    }
+
+    public long getCumulativeNonLivePuts() {
+      return nonLivePutCounter.longValue();
+    }
+
+    public long getCumulativeMisses() {
+      return missCounter.longValue();
+    }
+
+    public void add(Stats other) {
+      hitCounter.add(other.hitCounter.longValue());
+      missCounter.add(other.missCounter.longValue());
+      putCounter.add(other.putCounter.longValue());
+      nonLivePutCounter.add(other.nonLivePutCounter.longValue());
+      evictionCounter.addAndGet(other.evictionCounter.get());
+      size.set(Math.max(size.get(), other.size.get()));
+    }
+  }
+}
@@ -191,6 +191,12 @@ public class TestDistributedSearch extends BaseDistributedSearchTestCase {
     query("q","*:*", "sort",i1+" desc", "fl","*,score");
     query("q","*:*", "sort","n_tl1 asc", "fl","*,score"); 
     query("q","*:*", "sort","n_tl1 desc");
+
+    // shards return batches of top ids that are merged until the page is complete
+    query("q","*:*", "sort",i1+" desc, id asc", "start","5", "rows","20", ShardParams.SHARDS_BATCH_SIZE,"3");
+    query("q","*:*", "sort",i1+" asc, id asc", "start","100", "rows","10", ShardParams.SHARDS_BATCH_SIZE,"7");
+    query("q","*:*", "sort","id desc", "start","0", "rows","50", ShardParams.SHARDS_BATCH_SIZE,"1");
+    query("q","*:*", "sort","id desc", "start","1000", "rows","10", ShardParams.SHARDS_BATCH_SIZE,"100");
     handle.put("maxScore", SKIPVAL);
     query("q","{!func}"+i1);// does not expect maxScore. So if it comes ,ignore it. JavaBinCodec.writeSolrDocumentList()
     //is agnostic of request params.
@@ -32,6 +32,7 @@ import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.params.GroupParams;
+import org.apache.solr.common.params.ShardParams;
 import org.apache.solr.common.params.SolrParams;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.search.CursorMark;
@@ -468,6 +469,17 @@ public class DistribCursorPagingTest extends AbstractFullDistribZkTestBase {
     assertFalse("matched on id:9 unexpectedly", ids.exists(9));
     assertFalse("matched on id:7 unexpectedly", ids.exists(7));
     assertFalse("matched on id:2 unexpectedly", ids.exists(2));
+    // a cursor requires start=0 on the shards, so shards.batchSize must not kick in
+    ids = assertFullWalkNoDups(10, params("q", "*:*",
+                                          "rows", "4",
+                                          ShardParams.SHARDS_BATCH_SIZE, "1",
+                                          "sort", "id desc"));
+    assertEquals(10, ids.size());
+
+    // without a cursor, the next batches of a shard come from the replica that returned its first batch
+    assertBatchedPagesMatch(10, params("q", "*:*",
+                                       "rows", "3",
+                                       "sort", "float desc, id asc"));
 
     // strategically delete/add some docs in the middle of walking the cursor
     cursorMark = CURSOR_MARK_START;
@@ -751,6 +763,28 @@ public class DistribCursorPagingTest extends AbstractFullDistribZkTestBase {
     return ids;
   }
 
+  /**
+   * Pages through <code>numDocs</code> results by offset, with a small {@link ShardParams#SHARDS_BATCH_SIZE}
+   * that needs several batches per shard, and asserts that every page matches the page of the same query
+   * without batches.
+   */
+  private void assertBatchedPagesMatch(int numDocs, SolrParams params) throws Exception {
+    int rows = params.getInt(CommonParams.ROWS);
+    for (int start = 0; start < numDocs; start += rows) {
+      SolrParams page = p(params, CommonParams.START, Integer.toString(start));
+      SolrDocumentList expected = extractDocList(cloudClient.query(page));
+      // repeat, so that the batches are merged from different replicas
+      for (int i = 0; i < 5; i++) {
+        SolrDocumentList docs = extractDocList(cloudClient.query(p(page, ShardParams.SHARDS_BATCH_SIZE, "1")));
+        assertEquals(expected.getNumFound(), docs.getNumFound());
+        assertEquals(expected.size(), docs.size());
+        for (int j = 0; j < docs.size(); j++) {
+          assertEquals(page.toString(), expected.get(j).get("id"), docs.get(j).get("id"));
+        }
+      }
+    }
+  }
+
   private SolrParams p(SolrParams params, String... other) {
     SolrParams extras = params(other);
     return SolrParams.wrapDefaults(params, extras);
@@ -91,18 +91,25 @@ class SegmentTerminateEarlyTestState {
     }
   }
 
-  void queryTimestampDescending(CloudSolrClient cloudSolrClient) throws Exception {
+  void queryTimestampDescending(CloudSolrClient cloudSolrClient, boolean explicitIndexSort) throws Exception {
     TestMiniSolrCloudCluster.assertFalse(maxTimestampDocKeys.isEmpty());
     TestMiniSolrCloudCluster.assertTrue("numDocs="+numDocs+" is not even", (numDocs%2)==0);
     final Long oddFieldValue = new Long(maxTimestampDocKeys.iterator().next().intValue()%2);
     final SolrQuery query = new SolrQuery(oddField+":"+oddFieldValue);
     query.setSort(timestampField, SolrQuery.ORDER.desc);
     query.setFields(keyField, oddField, timestampField);
-    query.setRows(1);
+    final int rowsWanted = 1;
+    query.setRows(rowsWanted);
     // CommonParams.SEGMENT_TERMINATE_EARLY parameter intentionally absent
     final QueryResponse rsp = cloudSolrClient.query(query);
     // check correctness of the results count
-    TestMiniSolrCloudCluster.assertEquals("numFound", numDocs/2, rsp.getResults().getNumFound());
+    if (explicitIndexSort) {
+      // the sort is a prefix of the <indexSort>, so segments terminate early by default
+      TestMiniSolrCloudCluster.assertTrue("numFound", rowsWanted <= rsp.getResults().getNumFound());
+      TestMiniSolrCloudCluster.assertTrue("numFound", rsp.getResults().getNumFound() <= numDocs/2);
+    } else {
+      TestMiniSolrCloudCluster.assertEquals("numFound", numDocs/2, rsp.getResults().getNumFound());
+    }
     // check correctness of the first result
     if (rsp.getResults().getNumFound() > 0) {
       final SolrDocument solrDocument0 = rsp.getResults().get(0);
@@ -111,10 +118,57 @@ class SegmentTerminateEarlyTestState {
       TestMiniSolrCloudCluster.assertEquals(oddField, oddFieldValue, solrDocument0.getFieldValue(oddField));
     }
     // check segmentTerminatedEarly flag
+    if (explicitIndexSort) {
+      TestMiniSolrCloudCluster.assertTrue("responseHeader.segmentTerminatedEarly missing/false in "+rsp.getResponseHeader(),
+          Boolean.TRUE.equals(rsp.getResponseHeader().get(SolrQueryResponse.RESPONSE_HEADER_SEGMENT_TERMINATED_EARLY_KEY)));
+    } else {
+      TestMiniSolrCloudCluster.assertNull("responseHeader.segmentTerminatedEarly present in "+rsp.getResponseHeader(),
+          rsp.getResponseHeader().get(SolrQueryResponse.RESPONSE_HEADER_SEGMENT_TERMINATED_EARLY_KEY));
+    }
+  }
+
+  void queryTimestampAscending(CloudSolrClient cloudSolrClient) throws Exception {
+    TestMiniSolrCloudCluster.assertFalse(minTimestampDocKeys.isEmpty());
+    TestMiniSolrCloudCluster.assertTrue("numDocs="+numDocs+" is not even", (numDocs%2)==0);
+    final Long oddFieldValue = new Long(minTimestampDocKeys.iterator().next().intValue()%2);
+    final SolrQuery query = new SolrQuery(oddField+":"+oddFieldValue);
+    query.setSort(timestampField, SolrQuery.ORDER.asc); // a sort order that is _not_ compatible with the index sort order
+    query.setFields(keyField, oddField, timestampField);
+    query.setRows(1);
+    // CommonParams.SEGMENT_TERMINATE_EARLY parameter intentionally absent
+    final QueryResponse rsp = cloudSolrClient.query(query);
+    // check correctness of the results count
+    TestMiniSolrCloudCluster.assertEquals("numFound", numDocs/2, rsp.getResults().getNumFound());
+    // check correctness of the first result
+    if (rsp.getResults().getNumFound() > 0) {
+      final SolrDocument solrDocument0 = rsp.getResults().get(0);
+      TestMiniSolrCloudCluster.assertTrue(keyField+" of ("+solrDocument0+") is not in minTimestampDocKeys("+minTimestampDocKeys+")",
+          minTimestampDocKeys.contains(solrDocument0.getFieldValue(keyField)));
+      TestMiniSolrCloudCluster.assertEquals(oddField, oddFieldValue, solrDocument0.getFieldValue(oddField));
+    }
+    // check segmentTerminatedEarly flag
     TestMiniSolrCloudCluster.assertNull("responseHeader.segmentTerminatedEarly present in "+rsp.getResponseHeader(),
         rsp.getResponseHeader().get(SolrQueryResponse.RESPONSE_HEADER_SEGMENT_TERMINATED_EARLY_KEY));
   }
 
+  void queryTimestampDescendingCollapsed(CloudSolrClient cloudSolrClient) throws Exception {
+    TestMiniSolrCloudCluster.assertFalse(maxTimestampDocKeys.isEmpty());
+    final SolrQuery query = new SolrQuery("*:*");
+    // post filters may replay hits on finish(), so segments must not terminate early
+    query.addFilterQuery("{!collapse field="+quadField+"}");
+    query.setSort(timestampField, SolrQuery.ORDER.desc);
+    query.setFields(keyField, quadField, timestampField);
+    query.setRows(1);
+    if (rand.nextBoolean()) {
+      query.set(CommonParams.SEGMENT_TERMINATE_EARLY, true);
+    }
+    final QueryResponse rsp = cloudSolrClient.query(query);
+    TestMiniSolrCloudCluster.assertTrue("numFound", 0 < rsp.getResults().getNumFound());
+    // check segmentTerminatedEarly flag
+    TestMiniSolrCloudCluster.assertFalse("responseHeader.segmentTerminatedEarly true in "+rsp.getResponseHeader(),
+        Boolean.TRUE.equals(rsp.getResponseHeader().get(SolrQueryResponse.RESPONSE_HEADER_SEGMENT_TERMINATED_EARLY_KEY)));
+  }
+
   void queryTimestampDescendingSegmentTerminateEarlyYes(CloudSolrClient cloudSolrClient) throws Exception {
     TestMiniSolrCloudCluster.assertFalse(maxTimestampDocKeys.isEmpty());
     TestMiniSolrCloudCluster.assertTrue("numDocs="+numDocs+" is not even", (numDocs%2)==0);
@@ -64,6 +64,9 @@ public class TestSegmentSorting extends SolrCloudTestCase {
     cluster.getSolrClient().setDefaultCollection(null);
   }
 
+  // whether the collection sorts its index through <indexSort> rather than a sorting merge policy
+  private boolean explicitIndexSort;
+
   @Before
   public void createCollection() throws Exception {
 
@@ -71,7 +74,9 @@ public class TestSegmentSorting extends SolrCloudTestCase {
     final CloudSolrClient cloudSolrClient = cluster.getSolrClient();
     
     final Map<String, String> collectionProperties = new HashMap<>();
-    collectionProperties.put(CoreDescriptor.CORE_CONFIG, "solrconfig-sortingmergepolicyfactory.xml");
+    explicitIndexSort = random().nextBoolean();
+    collectionProperties.put(CoreDescriptor.CORE_CONFIG,
+        explicitIndexSort ? "solrconfig-indexsort.xml" : "solrconfig-sortingmergepolicyfactory.xml");
     
     CollectionAdminRequest.Create cmd = 
       CollectionAdminRequest.createCollection(collectionName, configName,
@@ -100,7 +105,9 @@ public class TestSegmentSorting extends SolrCloudTestCase {
     tstes.addDocuments(cloudSolrClient, 10, 10, true);
     
     // CommonParams.SEGMENT_TERMINATE_EARLY parameter intentionally absent
-    tstes.queryTimestampDescending(cloudSolrClient);
+    tstes.queryTimestampDescending(cloudSolrClient, explicitIndexSort);
+    tstes.queryTimestampAscending(cloudSolrClient);
+    tstes.queryTimestampDescendingCollapsed(cloudSolrClient);
     
     // add a few more documents, but don't optimize to have some not-merge-sorted segments
     tstes.addDocuments(cloudSolrClient, 2, 10, false);
@@ -18,6 +18,7 @@ package org.apache.solr.core;
 
 import java.io.IOException;
 
+import org.apache.lucene.store.ByteBuffersDirectory;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.LockFactory;
 import org.apache.lucene.store.RAMDirectory;
@@ -58,6 +59,7 @@ public class RAMDirectoryFactoryTest extends LuceneTestCase {
     Directory dir = factory.get("/fake/path", DirContext.DEFAULT, DirectoryFactory.LOCK_TYPE_SINGLE);
     assertNotNull("RAMDirectoryFactory should create RefCntRamDirectory even if the path doen't lead " +
         "to index directory on the file system", dir);
+    assertTrue(dir instanceof ByteBuffersDirectory);
     factory.release(dir);
     factory.close();
   }
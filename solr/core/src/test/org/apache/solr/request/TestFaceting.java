@@ -267,6 +267,54 @@ public class TestFaceting extends SolrTestCaseJ4 {
     );
   }
 
+  @Test
+  public void testPerSegmentCountsWithThreads() throws Exception {
+    // several segments with overlapping and distinct terms, and docs without values
+    for (int i = 0; i < 30; i++) {
+      if (i % 5 == 4) {
+        assertU(adoc("id", Integer.toString(i)));
+      } else {
+        assertU(adoc("id", Integer.toString(i), "many_ws", t(i % 3) + " " + t(100 + i / 10)));
+      }
+      if (i % 10 == 9) {
+        assertU(commit());
+      }
+    }
+
+    for (String threads : new String[] {"", "{!threads=0}", "{!threads=1}", "{!threads=2}", "{!threads=-1}"}) {
+      assertQ("per-segment counts, threads=" + threads,
+          req("q", "*:*", "indent", "true"
+              , "facet", "true", "facet.method", "fc"
+              , "facet.field", threads + "many_ws"
+              , "facet.limit", "-1"
+              , "facet.mincount", "1"
+              , "facet.missing", "true"
+              )
+          , "*[count(//lst[@name='many_ws']/int)=7]"
+          , "//lst[@name='many_ws']/int[@name='" + t(0) + "'][.='8']"
+          , "//lst[@name='many_ws']/int[@name='" + t(1) + "'][.='8']"
+          , "//lst[@name='many_ws']/int[@name='" + t(2) + "'][.='8']"
+          , "//lst[@name='many_ws']/int[@name='" + t(100) + "'][.='8']"
+          , "//lst[@name='many_ws']/int[@name='" + t(101) + "'][.='8']"
+          , "//lst[@name='many_ws']/int[@name='" + t(102) + "'][.='8']"
+          , "//lst[@name='many_ws']/int[not(@name)][.='6']"
+          );
+
+      assertQ("per-segment counts with a prefix, threads=" + threads,
+          req("q", "id:(0 1 2 3 5 6 7 8 10 11 12 13)", "indent", "true"
+              , "facet", "true", "facet.method", "fc"
+              , "facet.field", threads + "many_ws"
+              , "facet.prefix", "0000010"
+              , "facet.sort", "index"
+              )
+          , "*[count(//lst[@name='many_ws']/int)=3]"
+          , "//lst[@name='many_ws']/int[1][@name='" + t(100) + "'][.='8']"
+          , "//lst[@name='many_ws']/int[2][@name='" + t(101) + "'][.='4']"
+          , "//lst[@name='many_ws']/int[3][@name='" + t(102) + "'][.='0']"
+          );
+    }
+  }
+
   @Test
   public void testTrieFields() {
     // make sure that terms are correctly filtered even for trie fields that index several
@@ -487,6 +487,33 @@ public class TestFiltering extends SolrTestCaseJ4 {
     }
   }
 
+  public void testFrangeOnDocValuesField() throws Exception {
+    clearIndex();
+    for (int i = 0; i < 10; i++) {
+      assertU(adoc("id", Integer.toString(i), "val_id", Integer.toString(i)));
+    }
+    assertU(adoc("id", "10")); // no value
+    assertU(commit());
+
+    SolrQueryRequest req = req();
+    try {
+      // a range over a single-valued docValues field can use the docValues skip index
+      assertFalse(QParser.getParser("{!frange l=2 u=5}val_id", req).getQuery() instanceof FunctionRangeQuery);
+      assertTrue(QParser.getParser("{!frange l=2 u=5}sum(val_id,1)", req).getQuery() instanceof FunctionRangeQuery);
+      // but it may not be used as a post filter
+      assertTrue(QParser.getParser("{!frange l=2 u=5 cache=false}val_id", req).getQuery() instanceof FunctionRangeQuery);
+    } finally {
+      req.close();
+    }
+
+    assertJQ(req("q","*:*", "fq","{!frange l=2 u=5}val_id"), "/response/numFound==4");
+    assertJQ(req("q","*:*", "fq","{!frange l=2 u=5 cache=false}val_id"), "/response/numFound==4");
+    assertJQ(req("q","*:*", "fq","{!frange l=2 u=5 incl=false incu=false}val_id"), "/response/numFound==2");
+    assertJQ(req("q","*:*", "fq","{!frange l=7}val_id"), "/response/numFound==3");
+    // documents that have no value don't match
+    assertJQ(req("q","*:*", "fq","{!frange u=0}val_id"), "/response/numFound==1");
+  }
+
   public void testHossssSanity() throws Exception {
     clearIndex();
 
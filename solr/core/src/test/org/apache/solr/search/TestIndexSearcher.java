@@ -30,7 +30,9 @@ import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexReaderContext;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.LogDocMergePolicy;
+import org.apache.lucene.index.MultiDocValues;
 import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.queries.function.FunctionValues;
 import org.apache.lucene.queries.function.ValueSource;
 import org.apache.solr.SolrTestCaseJ4;
@@ -175,6 +177,56 @@ public class TestIndexSearcher extends SolrTestCaseJ4 {
   }
 
 
+  public void testOrdinalMapCache() throws Exception {
+    assertU(adoc("id","1", "v_s1","string1"));
+    assertU(adoc("id","2", "v_s1","string2"));
+    assertU(commit());
+    assertU(adoc("id","3", "v_s1","string3"));
+    assertU(adoc("id","4", "v_s1","string1"));
+    assertU(commit());
+
+    final CacheRegenerator regenerator = h.getCore().getSolrConfig().ordinalMapCacheConfig.getRegenerator();
+
+    SolrQueryRequest sr1 = req("q","foo");
+    SolrIndexSearcher s1 = sr1.getSearcher();
+    assertEquals(2, s1.getTopReaderContext().leaves().size());
+    SortedDocValues values = s1.getSlowAtomicReader().getSortedDocValues("v_s1");
+    assertTrue(values instanceof MultiDocValues.MultiSortedDocValues);
+    CachedOrdinalMap cached = s1.getOrdinalMapCache().get("v_s1");
+    assertNotNull(cached);
+    assertSame(cached.getOrdinalMap(), ((MultiDocValues.MultiSortedDocValues) values).mapping);
+    assertEquals(3, cached.getOrdinalMap().getValueCount());
+
+    // only deletes: the ordinal map is reused by the next searcher
+    assertU(delI("2"));
+    assertU(commit());
+    SolrQueryRequest sr2 = req("q","foo");
+    SolrIndexSearcher s2 = sr2.getSearcher();
+    assertNotSame(s1, s2);
+    assertTrue(cached.isValidFor(s2.getIndexReader()));
+    regenerator.regenerateItem(s2, s2.getOrdinalMapCache(), s1.getOrdinalMapCache(), "v_s1", cached);
+    assertSame(cached, s2.getOrdinalMapCache().get("v_s1"));
+    values = s2.getSlowAtomicReader().getSortedDocValues("v_s1");
+    assertSame(cached.getOrdinalMap(), ((MultiDocValues.MultiSortedDocValues) values).mapping);
+
+    // a new segment: the ordinal map is rebuilt
+    assertU(adoc("id","5", "v_s1","string5"));
+    assertU(commit());
+    SolrQueryRequest sr3 = req("q","foo");
+    SolrIndexSearcher s3 = sr3.getSearcher();
+    assertFalse(cached.isValidFor(s3.getIndexReader()));
+    regenerator.regenerateItem(s3, s3.getOrdinalMapCache(), s2.getOrdinalMapCache(), "v_s1", cached);
+    CachedOrdinalMap rebuilt = s3.getOrdinalMapCache().get("v_s1");
+    assertNotNull(rebuilt);
+    assertNotSame(cached, rebuilt);
+    assertTrue(rebuilt.isValidFor(s3.getIndexReader()));
+    assertEquals(4, rebuilt.getOrdinalMap().getValueCount());
+
+    sr1.close();
+    sr2.close();
+    sr3.close();
+  }
+
   // make sure we don't leak searchers (SOLR-3391)
   public void testCloses() {
     assertU(adoc("id","1"));
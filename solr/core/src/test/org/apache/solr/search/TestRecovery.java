@@ -43,6 +43,7 @@ import org.junit.Test;
 import java.io.File;
 import java.io.RandomAccessFile;
 import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayDeque;
@@ -73,6 +74,8 @@ public class TestRecovery extends SolrTestCaseJ4 {
   public static void beforeClass() throws Exception {
     savedFactory = System.getProperty("solr.DirectoryFactory");
     System.setProperty("solr.directoryFactory", "org.apache.solr.core.MockFSDirectoryFactory");
+    // replay logs sequentially or in parallel
+    System.setProperty("solr.ulog.numReplayThreads", Integer.toString(TestUtil.nextInt(random(), 1, 4)));
     initCore("solrconfig-tlog.xml","schema15.xml");
     
     // validate that the schema was not changed to an unexpected state
@@ -84,6 +87,7 @@ public class TestRecovery extends SolrTestCaseJ4 {
   
   @AfterClass
   public static void afterClass() {
+    System.clearProperty("solr.ulog.numReplayThreads");
     if (savedFactory == null) {
       System.clearProperty("solr.directoryFactory");
     } else {
@@ -509,6 +513,87 @@ public class TestRecovery extends SolrTestCaseJ4 {
   }
 
 
+  @Test
+  public void testParallelReplayOfBufferedUpdates() throws Exception {
+
+    DirectUpdateHandler2.commitOnClose = false;
+    final Semaphore logReplay = new Semaphore(0);
+
+    UpdateLog.testing_logReplayHook = () -> {
+      try {
+        assertTrue(logReplay.tryAcquire(timeout, TimeUnit.SECONDS));
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    };
+
+    SolrQueryRequest req = req();
+    UpdateHandler uhandler = req.getCore().getUpdateHandler();
+    UpdateLog ulog = uhandler.getUpdateLog();
+    // replay on several threads, whatever the class picked
+    Field numReplayThreadsField = UpdateLog.class.getDeclaredField("numReplayThreads");
+    numReplayThreadsField.setAccessible(true);
+    int savedNumReplayThreads = numReplayThreadsField.getInt(ulog);
+    numReplayThreadsField.setInt(ulog, 3);
+
+    Thread indexer = null;
+    try {
+      clearIndex();
+      assertU(commit());
+
+      ulog.bufferUpdates();
+      assertEquals(UpdateLog.State.BUFFERING, ulog.getState());
+
+      final int numBuffered = 100;
+      for (int i = 0; i < numBuffered; i++) {
+        updateJ(jsonAdd(sdoc("id", "P" + i, "_version_", Integer.toString(1000 + i))), params(DISTRIB_UPDATE_PARAM, FROM_LEADER));
+      }
+
+      Future<UpdateLog.RecoveryInfo> rinfoFuture = ulog.applyBufferedUpdates();
+      assertTrue(rinfoFuture != null);
+      assertEquals(UpdateLog.State.APPLYING_BUFFERED, ulog.getState());
+
+      // keep buffering updates from the leader while the log is replayed, until the replay blocks them
+      final int numConcurrent = 100;
+      indexer = new Thread(() -> {
+        try {
+          for (int i = 0; i < numConcurrent; i++) {
+            updateJ(jsonAdd(sdoc("id", "Q" + i, "_version_", Integer.toString(2000 + i))), params(DISTRIB_UPDATE_PARAM, FROM_LEADER));
+          }
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }, "TestRecovery-indexer");
+      indexer.start();
+
+      logReplay.release(numBuffered / 2);
+      Thread.sleep(random().nextInt(50));
+      logReplay.release(1000000);
+
+      // the replay used to hang once the end of the log was reached with updates still being applied
+      UpdateLog.RecoveryInfo recInfo = rinfoFuture.get(timeout, TimeUnit.SECONDS);
+      indexer.join(TimeUnit.SECONDS.toMillis(timeout));
+      assertFalse(indexer.isAlive());
+      assertEquals(0, recInfo.errors);
+      assertEquals(UpdateLog.State.ACTIVE, ulog.getState());
+
+      assertU(commit());
+      assertJQ(req("q", "*:*")
+          , "/response/numFound==" + (numBuffered + numConcurrent)
+      );
+    } finally {
+      if (indexer != null) {
+        indexer.join(TimeUnit.SECONDS.toMillis(timeout));
+      }
+      numReplayThreadsField.setInt(ulog, savedNumReplayThreads);
+      DirectUpdateHandler2.commitOnClose = true;
+      UpdateLog.testing_logReplayHook = null;
+
+      req.close();
+    }
+
+  }
+
   @Test
   public void testDropBuffered() throws Exception {
 
@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.util.ConcurrentTinyLFUCache;
+
+/**
+ * Test for TinyLFUCache
+ *
+ * @see org.apache.solr.search.TinyLFUCache
+ */
+public class TestTinyLFUCache extends LuceneTestCase {
+
+  public void testSimple() {
+    TinyLFUCache<Object, Object> cache = new TinyLFUCache<>();
+    Map<String, String> params = new HashMap<>();
+    params.put("size", "100");
+    params.put("initialSize", "10");
+    params.put("autowarmCount", "10");
+    CacheRegenerator cr = new NoOpRegenerator();
+    Object o = cache.init(params, null, cr);
+    cache.setState(SolrCache.State.LIVE);
+    for (int i = 0; i < 101; i++) {
+      cache.put(i + 1, "" + (i + 1));
+    }
+    assertEquals(100, cache.size());
+    for (int i = 0; i < 3; ++i) {
+      for (int j = 1; j <= 10; ++j) {
+        assertEquals("" + j, cache.get(j));
+      }
+    }
+    assertEquals(null, cache.get(110));
+    NamedList<Serializable> nl = cache.getStatistics();
+    assertEquals(31L, nl.get("lookups"));
+    assertEquals(30L, nl.get("hits"));
+    assertEquals(101L, nl.get("inserts"));
+    assertEquals(1L, nl.get("evictions"));
+
+    TinyLFUCache<Object, Object> cacheNew = new TinyLFUCache<>();
+    cacheNew.init(params, o, cr);
+    cacheNew.warm(null, cache);
+    cacheNew.setState(SolrCache.State.LIVE);
+    cache.close();
+    // the most frequently accessed entries have been regenerated
+    assertEquals(10, cacheNew.size());
+    for (int j = 1; j <= 10; ++j) {
+      assertEquals("" + j, cacheNew.get(j));
+    }
+    assertEquals(null, cacheNew.get(50));
+    cacheNew.put(103, "103");
+    nl = cacheNew.getStatistics();
+    assertEquals(11L, nl.get("lookups"));
+    assertEquals(10L, nl.get("hits"));
+    assertEquals(1L, nl.get("inserts"));
+    assertEquals(0L, nl.get("evictions"));
+    assertEquals(42L, nl.get("cumulative_lookups"));
+    assertEquals(40L, nl.get("cumulative_hits"));
+    assertEquals(102L, nl.get("cumulative_inserts"));
+    cacheNew.close();
+  }
+
+  public void testConcurrentWarming() {
+    TinyLFUCache<Object, Object> cache = new TinyLFUCache<>();
+    Map<String, String> params = new HashMap<>();
+    params.put("size", "100");
+    params.put("autowarmCount", "100%");
+    params.put("warmThreads", "4");
+    CacheRegenerator cr = new NoOpRegenerator();
+    Object o = cache.init(params, null, cr);
+    cache.setState(SolrCache.State.LIVE);
+    for (int i = 0; i < 50; i++) {
+      cache.put(i, "" + i);
+    }
+
+    TinyLFUCache<Object, Object> cacheNew = new TinyLFUCache<>();
+    cacheNew.init(params, o, cr);
+    cacheNew.warm(null, cache);
+    cacheNew.setState(SolrCache.State.LIVE);
+    cache.close();
+    assertEquals(50, cacheNew.size());
+    for (int i = 0; i < 50; i++) {
+      assertEquals("" + i, cacheNew.get(i));
+    }
+    cacheNew.close();
+  }
+
+  public void testScanResistance() {
+    ConcurrentTinyLFUCache<Integer, String> cache = new ConcurrentTinyLFUCache<>(100, Long.MAX_VALUE, 10);
+    final int numHotKeys = 50;
+    // popular entries
+    for (int i = 0; i < 10; ++i) {
+      for (int key = 0; key < numHotKeys; ++key) {
+        if (cache.get(key) == null) {
+          cache.put(key, "" + key);
+        }
+      }
+    }
+    // a scan over many entries that are accessed only once, interleaved with
+    // accesses to popular entries: LRU would evict popular entries
+    int hotMisses = 0;
+    for (int key = 1000; key < 11000; ++key) {
+      if (cache.get(key) == null) {
+        cache.put(key, "" + key);
+      }
+      if (key % 100 == 0) {
+        for (int hotKey = 0; hotKey < numHotKeys; ++hotKey) {
+          if (cache.get(hotKey) == null) {
+            hotMisses++;
+            cache.put(hotKey, "" + hotKey);
+          }
+        }
+      }
+    }
+    assertTrue(cache.size() <= 100);
+    assertEquals(0, hotMisses);
+  }
+
+  public void testScanResistanceWithMaxRamSize() {
+    // only bounded by memory, the frequency sketch must grow with the number of entries
+    ConcurrentTinyLFUCache<Integer, String> sizing = new ConcurrentTinyLFUCache<>(Integer.MAX_VALUE, Long.MAX_VALUE, 1);
+    final long baseRamBytes = sizing.ramBytesUsed();
+    sizing.put(0, "0");
+    final long entryRamBytes = sizing.ramBytesUsed() - baseRamBytes;
+    ConcurrentTinyLFUCache<Integer, String> cache = new ConcurrentTinyLFUCache<>(Integer.MAX_VALUE, baseRamBytes + 100 * entryRamBytes, 1);
+    final int numHotKeys = 50;
+    for (int i = 0; i < 10; ++i) {
+      for (int key = 0; key < numHotKeys; ++key) {
+        if (cache.get(key) == null) {
+          cache.put(key, "" + key);
+        }
+      }
+    }
+    int hotMisses = 0;
+    for (int key = 1000; key < 11000; ++key) {
+      if (cache.get(key) == null) {
+        cache.put(key, "" + key);
+      }
+      if (key % 100 == 0) {
+        for (int hotKey = 0; hotKey < numHotKeys; ++hotKey) {
+          if (cache.get(hotKey) == null) {
+            hotMisses++;
+            cache.put(hotKey, "" + hotKey);
+          }
+        }
+      }
+    }
+    assertTrue(cache.size() <= 100);
+    assertEquals(0, hotMisses);
+  }
+
+  public void testMaxRamSize() {
+    TinyLFUCache<Object, Object> cache = new TinyLFUCache<>();
+    Map<String, String> params = new HashMap<>();
+    params.put("maxRamMB", "0.01");
+    cache.init(params, null, new NoOpRegenerator());
+    cache.setState(SolrCache.State.LIVE);
+    for (int i = 0; i < 1000; i++) {
+      cache.put(i, "" + i);
+    }
+    assertTrue(cache.size() > 0);
+    assertTrue(cache.size() < 1000);
+    NamedList<Serializable> nl = cache.getStatistics();
+    assertEquals(1000L - cache.size(), nl.get("evictions"));
+    cache.clear();
+    assertEquals(0, cache.size());
+    cache.close();
+  }
+
+  public void testRemove() {
+    ConcurrentTinyLFUCache<Integer, String> cache = new ConcurrentTinyLFUCache<>(10, Long.MAX_VALUE, 10);
+    for (int i = 0; i < 10; i++) {
+      cache.put(i, "" + i);
+    }
+    assertEquals("3", cache.remove(3));
+    assertNull(cache.remove(3));
+    assertNull(cache.get(3));
+    assertEquals(9, cache.size());
+    assertEquals("4", cache.put(4, "four"));
+    assertEquals("four", cache.get(4));
+    assertEquals(9, cache.size());
+  }
+
+  public void testMostFrequentlyAccessedItems() {
+    ConcurrentTinyLFUCache<Integer, String> cache = new ConcurrentTinyLFUCache<>(100, Long.MAX_VALUE, 10);
+    for (int i = 0; i < 50; i++) {
+      cache.put(i, "" + i);
+    }
+    for (int i = 0; i < 3; ++i) {
+      cache.get(7);
+      cache.get(42);
+    }
+    cache.get(7);
+    Map<Integer, String> m = cache.getMostFrequentlyAccessedItems(2);
+    assertArrayEquals(new Integer[] { 7, 42 }, m.keySet().toArray());
+    assertTrue(cache.getMostFrequentlyAccessedItems(0).isEmpty());
+    assertEquals(50, cache.getMostFrequentlyAccessedItems(100).size());
+  }
+
+  // exercise concurrent lookups, insertions and removals
+  public void testRandom() throws Exception {
+    final int sz = random().nextInt(100) + 5;
+    final int keyrange = random().nextInt(sz * 3) + 1;
+    final ConcurrentTinyLFUCache<Integer, String> cache = new ConcurrentTinyLFUCache<>(sz, Long.MAX_VALUE, 10);
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+    Thread[] threads = new Thread[TEST_NIGHTLY ? 8 : 3];
+    for (int i = 0; i < threads.length; ++i) {
+      final long seed = random().nextLong();
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            Random r = new Random(seed);
+            for (int j = 0; j < 10000; j++) {
+              final int key = r.nextInt(keyrange);
+              final String value = cache.get(key);
+              if (value == null) {
+                cache.put(key, "" + key);
+              } else {
+                assertEquals("" + key, value);
+              }
+              if (r.nextInt(100) == 0) {
+                cache.remove(r.nextInt(keyrange));
+              }
+            }
+          } catch (Throwable t) {
+            error.compareAndSet(null, t);
+          }
+        }
+      };
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    if (error.get() != null) {
+      throw new AssertionError(error.get());
+    }
+    assertTrue(cache.size() <= sz);
+    assertEquals(threads.length * 10000L, cache.getStats().getCumulativeLookups());
+  }
+}
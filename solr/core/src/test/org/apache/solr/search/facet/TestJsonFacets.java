@@ -1302,6 +1302,107 @@ public class TestJsonFacets extends SolrTestCaseHS {
   }
 
 
+  @Test
+  public void testConcurrentCounting() throws Exception {
+    Client client = Client.localClient;
+    client.deleteByQuery("*:*", null);
+
+    int ndocs = atLeast(50);
+    int[] catCounts = new int[5];
+    int[] multiCounts = new int[3];
+    int[] rangeCounts = new int[4];
+    for (int i=0; i<ndocs; i++) {
+      int cat = random().nextInt(catCounts.length);
+      int multi = random().nextInt(multiCounts.length);
+      int num = random().nextInt(40);
+      client.add(sdoc("id", i, "cat_sd", "c" + cat, "cat_sds", "c" + cat, "cat_sds", "m" + multi, "num_i", num), null);
+      catCounts[cat]++;
+      multiCounts[multi]++;
+      rangeCounts[num / 10]++;
+      if (i % 10 == 9) {
+        client.commit();  // many segments
+      }
+    }
+    client.commit();
+
+    StringBuilder catBuckets = new StringBuilder();
+    for (int cat=0; cat<catCounts.length; cat++) {
+      if (catCounts[cat] == 0) continue;
+      catBuckets.append(catBuckets.length() == 0 ? "" : ",").append("{val:c").append(cat).append(",count:").append(catCounts[cat]).append("}");
+    }
+    StringBuilder multiBuckets = new StringBuilder(catBuckets);
+    for (int multi=0; multi<multiCounts.length; multi++) {
+      if (multiCounts[multi] == 0) continue;
+      multiBuckets.append(",{val:m").append(multi).append(",count:").append(multiCounts[multi]).append("}");
+    }
+    StringBuilder rangeBuckets = new StringBuilder();
+    for (int range=0; range<rangeCounts.length; range++) {
+      rangeBuckets.append(range == 0 ? "" : ",").append("{val:").append(range * 10).append(",count:").append(rangeCounts[range]).append("}");
+    }
+
+    // minDocsPerTask:1 counts each segment in its own task
+    for (String threads : new String[] {"0", "1", "2", "-1"}) {
+      for (String perSeg : new String[] {"true", "false"}) {
+        client.testJQ(params("q", "*:*", "rows", "0", "threads", threads, "perSeg", perSeg
+                , "json.facet", "{" +
+                    "cat:{type:terms, field:cat_sd, method:dv, limit:-1, sort:'index asc', threads:${threads}, perSeg:${perSeg}, minDocsPerTask:1}" +
+                    ",multi:{type:terms, field:cat_sds, method:dv, limit:-1, sort:'index asc', threads:${threads}, perSeg:${perSeg}, minDocsPerTask:1}" +
+                    ",range:{type:range, field:num_i, start:0, end:40, gap:10, threads:${threads}}" +
+                    "}"
+            )
+            , "facets=={ count:" + ndocs +
+                ", cat:{buckets:[" + catBuckets + "]}" +
+                ", multi:{buckets:[" + multiBuckets + "]}" +
+                ", range:{buckets:[" + rangeBuckets + "]}" +
+                "}"
+        );
+      }
+    }
+  }
+
+  @Test
+  public void testTopK() throws Exception {
+    doTopK(Client.localClient);
+
+    initServers();
+    Client client = servers.getClient(random().nextInt());
+    client.queryDefaults().set( "shards", servers.getShards() );
+    doTopK(client);
+  }
+
+  public void doTopK(Client client) throws Exception {
+    client.deleteByQuery("*:*", null);
+
+    client.add(sdoc("id", "1", "cat_s", "A", "where_ss", "x", "where_ss", "y"), null);
+    client.add(sdoc("id", "2", "cat_s", "A", "where_ss", "x"), null);
+    client.add(sdoc("id", "3", "cat_s", "A", "where_ss", "y", "where_ss", "z"), null);
+    client.commit();
+    client.add(sdoc("id", "4", "cat_s", "A", "where_ss", "y"), null);
+    client.add(sdoc("id", "5", "cat_s", "B", "where_ss", "x"), null);
+    client.add(sdoc("id", "6", "cat_s", "B", "where_ss", "x"), null);
+    client.add(sdoc("id", "7", "cat_s", "B", "where_ss", "z"), null);
+    client.commit();
+    client.add(sdoc("id", "8", "cat_s", "C", "where_ss", "z"), null);
+    client.add(sdoc("id", "9", "cat_s", "C", "where_ss", "x"), null);
+    client.add(sdoc("id", "10", "cat_s", "D"), null);
+    client.commit();
+
+    // the sketches are large enough to hold all values, so counts are exact
+    client.testJQ(params("q", "*:*", "rows", "0"
+            , "json.facet", "{" +
+                "top:'topk(cat_s,2)'" +
+                ",where:'topk(where_ss)'" +
+                ",cats:{type:terms, field:cat_s, limit:1, facet:{where:'topk(where_ss,1,0.01)'}}" +
+                "}"
+        )
+        , "facets=={ count:10" +
+            ", top:[{val:A,count:4},{val:B,count:3}]" +
+            ", where:[{val:x,count:5},{val:y,count:3},{val:z,count:3}]" +
+            ", cats:{buckets:[{val:A, count:4, where:[{val:y,count:3}]}]}" +
+            "}"
+    );
+  }
+
   @Test
   public void testBigger() throws Exception {
     ModifiableSolrParams p = params("rows", "0", "cat_s", "cat_ss", "where_s", "where_ss");
@@ -17,6 +17,7 @@
 package org.apache.solr.update;
 
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
@@ -31,6 +32,7 @@ import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.embedded.JettySolrRunner;
+import org.apache.solr.client.solrj.impl.BinaryRequestWriter;
 import org.apache.solr.client.solrj.impl.HttpSolrClient;
 import org.apache.solr.client.solrj.request.LukeRequest;
 import org.apache.solr.client.solrj.request.UpdateRequest;
@@ -329,6 +331,34 @@ public class SolrCmdDistributorTest extends BaseDistributedSearchTestCase {
     testRetryNodeWontRetrySocketError();
     
     testDistribOpenSearcher();
+    testSharedUpdateRequest();
+  }
+
+  private void testSharedUpdateRequest() throws IOException {
+    ModifiableSolrParams params = new ModifiableSolrParams();
+    params.set(DistributedUpdateProcessor.COMMIT_END_POINT, true);
+    UpdateRequest uReq = new UpdateRequest();
+    SolrCmdDistributor.SharedUpdateRequest sharedReq = new SolrCmdDistributor.SharedUpdateRequest();
+    for (UpdateRequest req : new UpdateRequest[] {uReq, sharedReq}) {
+      req.setParams(params);
+      req.add(sdoc("id", "1", "text", "some text"), 100, true);
+    }
+
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    new BinaryRequestWriter().write(uReq, expected);
+
+    // the bytes are serialized once and written for every node
+    StreamingSolrClients.SharedBinaryRequestWriter writer = new StreamingSolrClients.SharedBinaryRequestWriter();
+    for (int i = 0; i < 3; i++) {
+      ByteArrayOutputStream actual = new ByteArrayOutputStream();
+      writer.write(sharedReq, actual);
+      assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+    // other requests are serialized as usual
+    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    writer.write(uReq, actual);
+    assertArrayEquals(expected.toByteArray(), actual.toByteArray());
   }
 
   private void testMaxRetries() throws IOException {
@@ -24,6 +24,7 @@ import org.apache.lucene.index.ConcurrentMergeScheduler;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.index.SimpleMergedSegmentWarmer;
+import org.apache.lucene.index.SoftDeletesRetentionMergePolicy;
 import org.apache.lucene.index.TieredMergePolicy;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
@@ -51,6 +52,8 @@ public class SolrIndexConfigTest extends SolrTestCaseJ4 {
   private static final String solrConfigFileNameTieredMergePolicy = "solrconfig-tieredmergepolicy.xml";
   private static final String solrConfigFileNameTieredMergePolicyFactory = "solrconfig-tieredmergepolicyfactory.xml";
   private static final String solrConfigFileNameSortingMergePolicyFactory = "solrconfig-sortingmergepolicyfactory.xml";
+  private static final String solrConfigFileNameIndexSort = "solrconfig-indexsort.xml";
+  private static final String solrConfigFileNameSoftDeletes = "solrconfig-softdeletes.xml";
   private static final String schemaFileName = "schema.xml";
 
   @BeforeClass
@@ -120,6 +123,39 @@ public class SolrIndexConfigTest extends SolrTestCaseJ4 {
     assertEquals("SortingMergePolicy.getSort", expected, actual);
   }
 
+  public void testIndexSortSolrIndexConfigCreation() throws Exception {
+    SolrConfig solrConfig = new SolrConfig(instanceDir, solrConfigFileNameIndexSort, null);
+    SolrIndexConfig solrIndexConfig = new SolrIndexConfig(solrConfig, null, null);
+    assertEquals("timestamp_i_dvo desc", solrIndexConfig.indexSort);
+    assertEquals("timestamp_i_dvo desc", solrIndexConfig.toMap(new LinkedHashMap<>()).get("indexSort"));
+    IndexSchema indexSchema = IndexSchemaFactory.buildIndexSchema(schemaFileName, solrConfig);
+
+    h.getCore().setLatestSchema(indexSchema);
+    IndexWriterConfig iwc = solrIndexConfig.toIndexWriterConfig(h.getCore());
+
+    assertFalse("mergePolicy should not be a SortingMergePolicy", iwc.getMergePolicy() instanceof SortingMergePolicy);
+    final Sort expected = new Sort(new SortField("timestamp_i_dvo", SortField.Type.INT, true));
+    assertEquals("IndexWriterConfig.getIndexSort", expected, iwc.getIndexSort());
+  }
+
+  public void testSoftDeletesSolrIndexConfigCreation() throws Exception {
+    SolrConfig solrConfig = new SolrConfig(instanceDir, solrConfigFileNameSoftDeletes, null);
+    SolrIndexConfig solrIndexConfig = new SolrIndexConfig(solrConfig, null, null);
+    assertEquals("_soft_deleted_", solrIndexConfig.softDeletesField);
+    assertEquals("_soft_deleted_", solrIndexConfig.toMap(new LinkedHashMap<>()).get("softDeletesField"));
+    IndexSchema indexSchema = IndexSchemaFactory.buildIndexSchema(schemaFileName, solrConfig);
+
+    h.getCore().setLatestSchema(indexSchema);
+    IndexWriterConfig iwc = solrIndexConfig.toIndexWriterConfig(h.getCore());
+    assertTrue("mergePolicy should be a SoftDeletesRetentionMergePolicy",
+        iwc.getMergePolicy() instanceof SoftDeletesRetentionMergePolicy);
+
+    // not configured by default
+    solrIndexConfig = new SolrIndexConfig(new SolrConfig(instanceDir, solrConfigFileName, null), null, null);
+    assertNull(solrIndexConfig.softDeletesField);
+    assertFalse(solrIndexConfig.toMap(new LinkedHashMap<>()).containsKey("softDeletesField"));
+  }
+
   public void testMergedSegmentWarmerIndexConfigCreation() throws Exception {
     SolrConfig solrConfig = new SolrConfig(instanceDir, random().nextBoolean() ? solrConfigFileNameWarmerRandomMergePolicy : solrConfigFileNameWarmerRandomMergePolicyFactory, null);
     SolrIndexConfig solrIndexConfig = new SolrIndexConfig(solrConfig, null, null);
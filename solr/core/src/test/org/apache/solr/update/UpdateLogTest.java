@@ -16,17 +16,24 @@
  */
 package org.apache.solr.update;
 
+import java.io.File;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.TestUtil;
 import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.ExecutorUtil;
 import org.apache.solr.handler.component.RealTimeGetComponent;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.update.processor.DistributedUpdateProcessor;
+import org.apache.solr.util.DefaultSolrThreadFactory;
 import org.junit.After;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -229,6 +236,101 @@ public class UpdateLogTest extends SolrTestCaseJ4 {
     }
   }
 
+  @Test
+  public void testGroupSync() throws Exception {
+    File tlogFile = new File(createTempDir().toFile(),
+        String.format(Locale.ROOT, UpdateLog.LOG_FILENAME_PATTERN, UpdateLog.TLOG_NAME, 1));
+    TransactionLog tlog = new TransactionLog(tlogFile, null);
+    try {
+      final int numThreads = 4;
+      final int numWrites = atLeast(50);
+      final AtomicInteger synced = new AtomicInteger();
+      Thread[] threads = new Thread[numThreads];
+      for (int t = 0; t < numThreads; t++) {
+        final int threadId = t;
+        threads[t] = new Thread(() -> {
+          for (int i = 0; i < numWrites; i++) {
+            DeleteUpdateCommand cmd = new DeleteUpdateCommand(null);
+            cmd.setIndexedId(new BytesRef(threadId + "_" + i));
+            cmd.setVersion(i + 1);
+            long pos = tlog.writeDelete(cmd, 0);
+            synced.addAndGet(tlog.groupSync());
+            assertTrue(tlogFile.length() > pos);
+          }
+        });
+      }
+      for (Thread thread : threads) {
+        thread.start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      assertTrue(synced.get() > 0);
+      assertTrue(synced.get() <= numThreads * numWrites);
+      // nothing new to sync
+      assertEquals(0, tlog.groupSync());
+
+      int numRecords = 0;
+      TransactionLog.LogReader reader = tlog.getReader(0);
+      try {
+        while (reader.next() != null) {
+          numRecords++;
+        }
+      } finally {
+        reader.close();
+      }
+      assertEquals(numThreads * numWrites, numRecords);
+    } finally {
+      tlog.decref();
+    }
+  }
+
+  @Test
+  public void testLookupsAndPrefetchingReader() throws Exception {
+    File tlogFile = new File(createTempDir().toFile(),
+        String.format(Locale.ROOT, UpdateLog.LOG_FILENAME_PATTERN, UpdateLog.TLOG_NAME, 2));
+    TransactionLog tlog = new TransactionLog(tlogFile, null);
+    ExecutorService executor = ExecutorUtil.newMDCAwareCachedThreadPool(new DefaultSolrThreadFactory("testPrefetch"));
+    try {
+      // large enough for the log to be memory mapped
+      final int numDocs = atLeast(20000);
+      final String idPrefix = TestUtil.randomSimpleString(random(), 100, 100);
+      long[] positions = new long[numDocs];
+      for (int i = 0; i < numDocs; i++) {
+        DeleteUpdateCommand cmd = new DeleteUpdateCommand(null);
+        cmd.setIndexedId(new BytesRef(idPrefix + i));
+        cmd.setVersion(i + 1);
+        positions[i] = tlog.writeDelete(cmd, 0);
+      }
+
+      for (int iter = 0; iter < 1000; iter++) {
+        int i = random().nextInt(numDocs);
+        List entry = (List) tlog.lookup(positions[i]);
+        assertEquals((long) (i + 1), entry.get(UpdateLog.VERSION_IDX));
+        assertEquals(new BytesRef(idPrefix + i), new BytesRef((byte[]) entry.get(2)));
+      }
+
+      TransactionLog.LogReader reader = tlog.getPrefetchingReader(0, 10, executor);
+      try {
+        for (int i = 0; i < numDocs; i++) {
+          List entry = (List) reader.next();
+          assertEquals((long) (i + 1), entry.get(UpdateLog.VERSION_IDX));
+        }
+        assertNull(reader.next());
+      } finally {
+        reader.close();
+      }
+
+      // closing before the end stops prefetching
+      reader = tlog.getPrefetchingReader(0, 10, executor);
+      assertNotNull(reader.next());
+      reader.close();
+    } finally {
+      ExecutorUtil.shutdownAndAwaitTermination(executor);
+      tlog.decref();
+    }
+  }
+
   /**
    * Simulate an add on a given updateLog.
    * <p>
@@ -156,6 +156,8 @@ public interface CommonParams {
   
   /**
    * Whether or not the search may be terminated early within a segment.
+   * If not set, searches terminate early whenever their sort is a prefix of the index sort
+   * and only the top hits are needed, in which case the number of hits is approximate.
    */
   String SEGMENT_TERMINATE_EARLY = "segmentTerminateEarly";
   boolean SEGMENT_TERMINATE_EARLY_DEFAULT = false;
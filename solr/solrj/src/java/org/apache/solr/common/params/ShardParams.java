@@ -30,6 +30,8 @@ public interface ShardParams {
   /** per-shard start and rows */
   public static final String SHARDS_ROWS = "shards.rows";
   public static final String SHARDS_START = "shards.start";
+  /** merge the top docs of shards in batches of this many docs per shard, only requesting more batches as needed */
+  public static final String SHARDS_BATCH_SIZE = "shards.batchSize";
   
   /** IDs of the shard documents */
   public static final String IDS = "ids";
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.common.util;
+
+/**
+ * A {@link CharSequence} view over a slice of a byte array that holds UTF-8 bytes.
+ * <p>
+ * {@link JavaBinCodec} writes these bytes as they are, so a value that is already encoded in UTF-8 (e.g. a term
+ * read from doc values) can be written without building a {@link String}. The chars are only decoded, once, when
+ * a caller needs them. Instances are meant to be reused with {@link #reset(byte[], int, int)}: the bytes are not
+ * copied, so the sequence is only valid as long as the caller doesn't modify or reuse the underlying array.
+ */
+public class ByteArrayUtf8CharSequence implements CharSequence {
+  private byte[] bytes;
+  private int offset;
+  private int length;
+  private String str;  // the decoded chars, lazily computed
+
+  public ByteArrayUtf8CharSequence() {
+  }
+
+  public ByteArrayUtf8CharSequence(byte[] bytes, int offset, int length) {
+    reset(bytes, offset, length);
+  }
+
+  /** Make this sequence point to <code>length</code> UTF-8 bytes of <code>bytes</code>, starting at <code>offset</code>. */
+  public ByteArrayUtf8CharSequence reset(byte[] bytes, int offset, int length) {
+    this.bytes = bytes;
+    this.offset = offset;
+    this.length = length;
+    this.str = null;
+    return this;
+  }
+
+  public byte[] getBytes() {
+    return bytes;
+  }
+
+  public int getOffset() {
+    return offset;
+  }
+
+  /** Return the number of UTF-8 bytes, which is not the number of chars returned by {@link #length()}. */
+  public int getUtf8Length() {
+    return length;
+  }
+
+  @Override
+  public int length() {
+    return toString().length();
+  }
+
+  @Override
+  public char charAt(int index) {
+    return toString().charAt(index);
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    return toString().subSequence(start, end);
+  }
+
+  @Override
+  public String toString() {
+    if (str == null) {
+      str = ByteUtils.UTF8toUTF16(bytes, offset, length);
+    }
+    return str;
+  }
+}
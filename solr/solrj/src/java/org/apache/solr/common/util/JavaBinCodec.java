@@ -797,6 +797,11 @@ public class JavaBinCodec implements PushWriter {
       writeTag(NULL);
       return;
     }
+    if (s instanceof ByteArrayUtf8CharSequence) {
+      ByteArrayUtf8CharSequence utf8 = (ByteArrayUtf8CharSequence) s;
+      writeUTF8Str(utf8.getBytes(), utf8.getOffset(), utf8.getUtf8Length());
+      return;
+    }
     int end = s.length();
     int maxSize = end * ByteUtils.MAX_UTF8_BYTES_PER_CHAR;
 
@@ -814,6 +819,16 @@ public class JavaBinCodec implements PushWriter {
     }
   }
 
+  /**
+   * write a string that is already encoded in UTF-8, without decoding it. This is the same as
+   * {@link #writeStr(CharSequence)} on the decoded string, and can be used by an {@link ObjectResolver}
+   * that holds values as UTF-8 bytes.
+   */
+  public void writeUTF8Str(byte[] utf8, int offset, int len) throws IOException {
+    writeTag(STR, len);
+    daos.write(utf8, offset, len);
+  }
+
   byte[] bytes;
   CharArr arr = new CharArr();
   private StringBytes bytesRef = new StringBytes(bytes,0,0);
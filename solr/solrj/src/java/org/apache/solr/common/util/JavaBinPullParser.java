@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.common.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * A pull parser for the javabin format, which returns the content of a stream one token at a time instead of
+ * building the whole object tree like {@link JavaBinCodec#unmarshal(InputStream)} does.
+ * <p>
+ * Maps, named lists and documents are returned as {@link Token#START_MAP}, then a {@link Token#KEY} followed by a
+ * value for every entry, then {@link Token#END}. Arrays, iterators and document lists are returned the same way,
+ * with {@link Token#START_ARRAY} and without keys. The raw javabin tag of a token is available from
+ * {@link #getTag()}, e.g. to tell a {@link JavaBinCodec#SOLRDOC} from a {@link JavaBinCodec#MAP}. Child documents
+ * are returned as a {@link Token#START_MAP} in place of a key of their parent.
+ * <p>
+ * Numbers and booleans are available as primitives and strings as a {@link CharSequence} over a reused buffer, so
+ * that walking a response doesn't allocate an object per value. These values are only valid until the next call to
+ * {@link #next()}. Values that have no token of their own are read as a whole and returned as {@link Token#OTHER}.
+ */
+public class JavaBinPullParser extends JavaBinCodec {
+
+  public enum Token {
+    START_MAP, START_ARRAY, END, KEY, NULL, STRING, BOOLEAN, INT, LONG, FLOAT, DOUBLE, DATE, OTHER
+  }
+
+  private final FastInputStream fis;
+  private final ByteArrayUtf8CharSequence utf8 = new ByteArrayUtf8CharSequence();
+
+  // the containers that are being read, from the outermost to the innermost
+  private int depth;
+  private int[] remaining = new int[8];      // the number of entries left, or -1 if the container ends with END
+  private boolean[] keyed = new boolean[8];  // true if the entries of the container are key/value pairs
+  private boolean[] docs = new boolean[8];   // true if the container is a document, which may hold child documents
+  private boolean[] expectKey = new boolean[8];
+  private boolean started;
+
+  private Token token;
+  private byte tag;
+  private boolean boolValue;
+  private long longValue;
+  private double doubleValue;
+  private String strValue;
+  private Object objValue;
+
+  public JavaBinPullParser(InputStream is) throws IOException {
+    fis = initRead(is);
+  }
+
+  /**
+   * Read the next token, or return null once the top level value has been read completely.
+   */
+  public Token next() throws IOException {
+    if (depth == 0) {
+      if (started) return token = null;
+      started = true;
+      return token = readToken();
+    }
+    int d = depth - 1;
+    if (keyed[d] && !expectKey[d]) {
+      // the value of the current entry
+      expectKey[d] = true;
+      return token = readToken();
+    }
+    if (remaining[d] == 0) {
+      depth--;
+      tag = END;
+      return token = Token.END;
+    }
+    tagByte = fis.readByte();
+    if (remaining[d] < 0 && tagByte == END) {
+      depth--;
+      tag = END;
+      return token = Token.END;
+    }
+    if (remaining[d] > 0) remaining[d]--;
+    if (!keyed[d]) {
+      return token = readValue();
+    }
+    if (docs[d] && tagByte == SOLRDOC) {
+      // a child document, which takes the place of a field
+      tag = SOLRDOC;
+      return token = startDocument();
+    }
+    tag = tagByte;
+    strValue = null;
+    objValue = readObject(fis);
+    if (objValue instanceof String) strValue = (String) objValue;
+    expectKey[d] = false;
+    return token = Token.KEY;
+  }
+
+  /**
+   * Skip the content of the container that was started by the current token, up to and including its
+   * {@link Token#END}. Does nothing if the current token doesn't start a container.
+   */
+  public void skipChildren() throws IOException {
+    if (token != Token.START_MAP && token != Token.START_ARRAY) return;
+    int target = depth - 1;
+    while (depth > target) {
+      next();
+    }
+  }
+
+  /** Return the current token, as returned by the last call to {@link #next()}. */
+  public Token getToken() {
+    return token;
+  }
+
+  /** Return the javabin tag of the current token, see the constants of {@link JavaBinCodec}. */
+  public byte getTag() {
+    return tag;
+  }
+
+  /** Return the number of containers that were started and not ended yet. */
+  public int getDepth() {
+    return depth;
+  }
+
+  public boolean getBoolean() {
+    return boolValue;
+  }
+
+  public int getInt() {
+    return (int) longValue;
+  }
+
+  /** Return the value of an {@link Token#INT}, {@link Token#LONG} or {@link Token#DATE} (in milliseconds since the epoch). */
+  public long getLong() {
+    return longValue;
+  }
+
+  public float getFloat() {
+    return (float) doubleValue;
+  }
+
+  public double getDouble() {
+    return doubleValue;
+  }
+
+  /**
+   * Return the current {@link Token#STRING} or {@link Token#KEY} without building a {@link String} when possible.
+   * The returned value is only valid until the next call to {@link #next()}.
+   */
+  public CharSequence getCharSequence() {
+    if (token == Token.STRING && strValue == null) return utf8;
+    return strValue;
+  }
+
+  /** Return the current {@link Token#STRING} or {@link Token#KEY} as a {@link String}. */
+  public String getString() {
+    if (token == Token.STRING && strValue == null) {
+      strValue = utf8.toString();
+    }
+    return strValue;
+  }
+
+  /** Return the current value as an object, like {@link JavaBinCodec#readVal} would. Containers are returned as null. */
+  public Object getValue() {
+    if (token == null) return null;
+    switch (token) {
+      case STRING:
+        return getString();
+      case BOOLEAN:
+        return boolValue;
+      case INT:
+        return getInt();
+      case LONG:
+        return longValue;
+      case FLOAT:
+        return getFloat();
+      case DOUBLE:
+        return doubleValue;
+      case DATE:
+        return new Date(longValue);
+      case KEY:
+      case OTHER:
+        return objValue;
+      default:
+        return null;
+    }
+  }
+
+  private Token readToken() throws IOException {
+    tagByte = fis.readByte();
+    return readValue();
+  }
+
+  private Token readValue() throws IOException {
+    tag = tagByte;
+    strValue = null;
+    objValue = null;
+    switch (tagByte >>> 5) {
+      case STR >>> 5: {
+        int sz = readSize(fis);
+        if (bytes == null || bytes.length < sz) bytes = new byte[sz];
+        fis.readFully(bytes, 0, sz);
+        utf8.reset(bytes, 0, sz);
+        return Token.STRING;
+      }
+      case SINT >>> 5:
+        longValue = readSmallInt(fis);
+        return Token.INT;
+      case SLONG >>> 5:
+        longValue = readSmallLong(fis);
+        return Token.LONG;
+      case ARR >>> 5:
+        push(readSize(fis), false, false);
+        return Token.START_ARRAY;
+      case ORDERED_MAP >>> 5:
+      case NAMED_LST >>> 5:
+        push(readSize(fis), true, false);
+        return Token.START_MAP;
+      case EXTERN_STRING >>> 5:
+        strValue = readExternString(fis);
+        return strValue == null ? Token.NULL : Token.STRING;
+    }
+
+    switch (tagByte) {
+      case NULL:
+        return Token.NULL;
+      case BOOL_TRUE:
+      case BOOL_FALSE:
+        boolValue = tagByte == BOOL_TRUE;
+        return Token.BOOLEAN;
+      case BYTE:
+        longValue = fis.readByte();
+        return Token.INT;
+      case SHORT:
+        longValue = fis.readShort();
+        return Token.INT;
+      case INT:
+        longValue = fis.readInt();
+        return Token.INT;
+      case LONG:
+        longValue = fis.readLong();
+        return Token.LONG;
+      case DATE:
+        longValue = fis.readLong();
+        return Token.DATE;
+      case FLOAT:
+        doubleValue = fis.readFloat();
+        return Token.FLOAT;
+      case DOUBLE:
+        doubleValue = fis.readDouble();
+        return Token.DOUBLE;
+      case MAP:
+        push(readVInt(fis), true, false);
+        return Token.START_MAP;
+      case MAP_ENTRY_ITER:
+        push(-1, true, false);
+        return Token.START_MAP;
+      case MAP_ENTRY:
+        push(1, true, false);
+        return Token.START_MAP;
+      case ITERATOR:
+        push(-1, false, false);
+        return Token.START_ARRAY;
+      case SOLRDOCLST:
+        // the list of numFound, start and maxScore, followed by the array of documents
+        push(2, false, false);
+        return Token.START_ARRAY;
+      case SOLRDOC:
+        return startDocument();
+      case END:
+        throw new RuntimeException("Unexpected END tag");
+      default:
+        // byte arrays, input documents and enum values
+        objValue = readObject(fis);
+        return Token.OTHER;
+    }
+  }
+
+  private Token startDocument() throws IOException {
+    tagByte = fis.readByte();  // the ORDERED_MAP tag of the fields
+    push(readSize(fis), true, true);
+    return Token.START_MAP;
+  }
+
+  private void push(int size, boolean isKeyed, boolean isDoc) {
+    if (depth == remaining.length) {
+      int newLength = depth * 2;
+      remaining = Arrays.copyOf(remaining, newLength);
+      keyed = Arrays.copyOf(keyed, newLength);
+      docs = Arrays.copyOf(docs, newLength);
+      expectKey = Arrays.copyOf(expectKey, newLength);
+    }
+    remaining[depth] = size;
+    keyed[depth] = isKeyed;
+    docs[depth] = isDoc;
+    expectKey[depth] = true;
+    depth++;
+  }
+}
@@ -28,6 +28,7 @@ public class ShardParamsTest extends LuceneTestCase
 
   public void testShardsRows() { assertEquals(ShardParams.SHARDS_ROWS, "shards.rows"); }
   public void testShardsStart() { assertEquals(ShardParams.SHARDS_START, "shards.start"); }
+  public void testShardsBatchSize() { assertEquals(ShardParams.SHARDS_BATCH_SIZE, "shards.batchSize"); }
 
   public void testIds() { assertEquals(ShardParams.IDS, "ids"); }
   
@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
@@ -355,6 +356,104 @@ public class TestJavaBinCodec extends SolrTestCaseJ4 {
 
   }
 
+  public void testUtf8Passthrough() throws Exception {
+    for (int i = 0; i < 1000 * RANDOM_MULTIPLIER; i++) {
+      String s = TestUtil.randomUnicodeString(random());
+      byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+      byte[] buf = new byte[utf8.length + 4];
+      System.arraycopy(utf8, 0, buf, 2, utf8.length);
+      ByteArrayUtf8CharSequence seq = new ByteArrayUtf8CharSequence(buf, 2, utf8.length);
+
+      // the bytes are written as they are, which is the same as writing the string
+      assertArrayEquals(getBytes(s), getBytes(seq));
+      assertEquals(s, seq.toString());
+      assertEquals(s.length(), seq.length());
+    }
+  }
+
+  @Test
+  public void testPullParser() throws IOException {
+    NamedList<Object> nl = new NamedList<>();
+    nl.add("str", "h\u00e9llo");
+    nl.add("int", 42);
+    nl.add("long", 1L << 40);
+    nl.add("float", 1.5f);
+    nl.add("bool", true);
+    nl.add("null", null);
+    nl.add("arr", Arrays.asList(1, "two", 3.0d));
+    nl.add("date", new Date(1000L));
+    nl.add("bytes", new byte[] {1, 2, 3});
+    nl.add("doc", generateSolrDocumentWithChildDocs());
+
+    JavaBinPullParser parser = new JavaBinPullParser(new ByteArrayInputStream(getBytes(nl)));
+    assertEquals(JavaBinPullParser.Token.START_MAP, parser.next());
+    assertKey(parser, "str");
+    assertEquals(JavaBinPullParser.Token.STRING, parser.next());
+    assertEquals("h\u00e9llo", parser.getCharSequence().toString());
+    assertKey(parser, "int");
+    assertEquals(JavaBinPullParser.Token.INT, parser.next());
+    assertEquals(42, parser.getInt());
+    assertKey(parser, "long");
+    assertEquals(JavaBinPullParser.Token.LONG, parser.next());
+    assertEquals(1L << 40, parser.getLong());
+    assertKey(parser, "float");
+    assertEquals(JavaBinPullParser.Token.FLOAT, parser.next());
+    assertEquals(1.5f, parser.getFloat(), 0f);
+    assertKey(parser, "bool");
+    assertEquals(JavaBinPullParser.Token.BOOLEAN, parser.next());
+    assertTrue(parser.getBoolean());
+    assertKey(parser, "null");
+    assertEquals(JavaBinPullParser.Token.NULL, parser.next());
+    assertKey(parser, "arr");
+    assertEquals(JavaBinPullParser.Token.START_ARRAY, parser.next());
+    assertEquals(JavaBinPullParser.Token.INT, parser.next());
+    assertEquals(1, parser.getValue());
+    assertEquals(JavaBinPullParser.Token.STRING, parser.next());
+    assertEquals("two", parser.getString());
+    assertEquals(JavaBinPullParser.Token.DOUBLE, parser.next());
+    assertEquals(3.0d, parser.getDouble(), 0d);
+    assertEquals(JavaBinPullParser.Token.END, parser.next());
+    assertKey(parser, "date");
+    assertEquals(JavaBinPullParser.Token.DATE, parser.next());
+    assertEquals(1000L, parser.getLong());
+    assertKey(parser, "bytes");
+    assertEquals(JavaBinPullParser.Token.OTHER, parser.next());
+    assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) parser.getValue());
+
+    // parent document: 2 fields and 2 child documents
+    assertKey(parser, "doc");
+    assertEquals(JavaBinPullParser.Token.START_MAP, parser.next());
+    assertEquals(JavaBinCodec.SOLRDOC, parser.getTag());
+    assertKey(parser, "id");
+    assertEquals(JavaBinPullParser.Token.STRING, parser.next());
+    assertEquals("1", parser.getString());
+    assertKey(parser, "subject");
+    parser.next();
+    assertEquals(JavaBinPullParser.Token.START_MAP, parser.next());
+    assertEquals(JavaBinCodec.SOLRDOC, parser.getTag());
+    assertEquals(2, parser.getDepth());
+    parser.skipChildren();  // the first child and its own child
+    assertEquals(1, parser.getDepth());
+    assertEquals(JavaBinPullParser.Token.START_MAP, parser.next());
+    assertKey(parser, "id");
+    parser.next();
+    assertEquals("22", parser.getString());
+    assertKey(parser, "cat");
+    parser.next();
+    assertEquals("bar", parser.getString());
+    assertEquals(JavaBinPullParser.Token.END, parser.next());
+    assertEquals(JavaBinPullParser.Token.END, parser.next());
+
+    assertEquals(JavaBinPullParser.Token.END, parser.next());
+    assertEquals(0, parser.getDepth());
+    assertNull(parser.next());
+  }
+
+  private static void assertKey(JavaBinPullParser parser, String key) throws IOException {
+    assertEquals(JavaBinPullParser.Token.KEY, parser.next());
+    assertEquals(key, parser.getString());
+  }
+
   public void genBinaryFiles() throws IOException {
 
     Object data = generateAllDataTypes();